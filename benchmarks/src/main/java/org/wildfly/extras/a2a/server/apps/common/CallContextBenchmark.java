@@ -0,0 +1,116 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.core.SecurityContext;
+
+import io.a2a.common.A2AHeaders;
+import io.a2a.server.ServerCallContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.extras.a2a.server.apps.jsonrpc.A2AServerResource;
+import org.wildfly.extras.a2a.server.apps.rest.A2ARestServerResource;
+
+/**
+ * Builds the call context of a request, as the JSON-RPC and REST resources do for each call when the
+ * application has no {@code CallContextFactory}: copying the headers, resolving the tenant and reading the
+ * requested extensions.
+ *
+ * The request has {@code headerCount} headers, browsers and proxies commonly send around 30. The resources
+ * are not deployed, their private method is called with the factory left unsatisfied.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CallContextBenchmark {
+
+    @Param({"8", "32"})
+    int headerCount;
+
+    private HttpServletRequest request;
+    private SecurityContext securityContext;
+    private MethodHandle jsonRpc;
+    private MethodHandle rest;
+
+    @Setup
+    public void setup() throws Exception {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Content-Type", "application/json");
+        headers.put(A2AHeaders.A2A_EXTENSIONS, "https://example.com/ext/v1");
+        for (int i = headers.size(); i < headerCount; i++) {
+            headers.put("X-Benchmark-Header-" + i, "value of the header number " + i);
+        }
+        request = proxy(HttpServletRequest.class, (method, args) -> switch (method) {
+            case "getHeaderNames" -> Collections.enumeration(headers.keySet());
+            case "getHeader" -> headers.get((String) args[0]);
+            case "getHeaders" -> Collections.enumeration(headers.containsKey((String) args[0])
+                    ? List.of(headers.get((String) args[0])) : List.of());
+            case "getRequestURI" -> "/tenant1/message:send";
+            case "getAttribute" -> null;
+            default -> throw new UnsupportedOperationException(method);
+        });
+        securityContext = proxy(SecurityContext.class, (method, args) -> switch (method) {
+            case "getUserPrincipal" -> null;
+            default -> throw new UnsupportedOperationException(method);
+        });
+        jsonRpc = createCallContext(A2AServerResource.class);
+        rest = createCallContext(A2ARestServerResource.class);
+    }
+
+    @Benchmark
+    public ServerCallContext jsonRpc() throws Throwable {
+        return (ServerCallContext) jsonRpc.invoke(request, securityContext);
+    }
+
+    @Benchmark
+    public ServerCallContext rest() throws Throwable {
+        return (ServerCallContext) rest.invoke(request, securityContext);
+    }
+
+    /**
+     * Returns {@code createCallContext} bound to a resource without a {@code CallContextFactory}.
+     */
+    private static MethodHandle createCallContext(Class<?> resourceClass) throws Exception {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(resourceClass, MethodHandles.lookup());
+        Object resource = resourceClass.getDeclaredConstructor().newInstance();
+        Instance<?> unsatisfied = proxy(Instance.class, (method, args) -> switch (method) {
+            case "isUnsatisfied" -> true;
+            default -> throw new UnsupportedOperationException(method);
+        });
+        lookup.findSetter(resourceClass, "callContextFactory", Instance.class).invoke(resource, unsatisfied);
+        return lookup.findVirtual(resourceClass, "createCallContext",
+                        MethodType.methodType(ServerCallContext.class, HttpServletRequest.class, SecurityContext.class))
+                .bindTo(resource);
+    }
+
+    private interface Stub {
+        Object call(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Stub stub) {
+        return type.cast(Proxy.newProxyInstance(CallContextBenchmark.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> stub.call(method.getName(), args)));
+    }
+}
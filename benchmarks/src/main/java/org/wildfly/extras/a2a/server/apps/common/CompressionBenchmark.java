@@ -0,0 +1,146 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+
+import io.a2a.jsonrpc.common.json.JsonUtil;
+import io.a2a.spec.Artifact;
+import io.a2a.spec.Message;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskState;
+import io.a2a.spec.TaskStatus;
+import io.a2a.spec.TextPart;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CPU cost of compressing typical task payloads against the bytes it saves.
+ *
+ * The time per operation is the CPU cost, the {@code inputBytes} and {@code outputBytes} counters reported
+ * next to it give the ratio. {@code none} is the cost of just copying the payload, for reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"none", "gzip", "deflate"})
+    String encoding;
+
+    @Param({"1", "6"})
+    int level;
+
+    @Param({"2", "20", "200"})
+    int artifacts;
+
+    private byte[] task;
+    private byte[][] events;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long inputBytes;
+        public long outputBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            inputBytes = 0;
+            outputBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        List<Artifact> artifactList = new ArrayList<>(artifacts);
+        List<Message> history = new ArrayList<>(artifacts);
+        events = new byte[artifacts][];
+        for (int i = 0; i < artifacts; i++) {
+            Artifact artifact = Artifact.builder()
+                    .artifactId("artifact-" + i)
+                    .name("Section " + i)
+                    .parts(List.of(new TextPart("Generated section " + i + " of the report. ".repeat(40))))
+                    .build();
+            artifactList.add(artifact);
+            history.add(Message.builder()
+                    .messageId("message-" + i)
+                    .role(i % 2 == 0 ? Message.Role.USER : Message.Role.AGENT)
+                    .parts(List.of(new TextPart("Please continue with section " + i)))
+                    .build());
+            events[i] = ("event: message\ndata: " + JsonUtil.toJson(artifact) + "\nid: " + i + "\n\n")
+                    .getBytes(StandardCharsets.UTF_8);
+        }
+        Task value = Task.builder()
+                .id("benchmark-task")
+                .contextId("benchmark-context")
+                .status(new TaskStatus(TaskState.COMPLETED))
+                .history(history)
+                .artifacts(artifactList)
+                .build();
+        task = JsonUtil.toJson(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A whole JSON response, as compressed by {@link CompressionInterceptor}.
+     */
+    @Benchmark
+    public int response(Bytes bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(task.length);
+        ContentEncoding contentEncoding = contentEncoding();
+        if (contentEncoding == null) {
+            out.write(task);
+        } else {
+            try (DeflaterOutputStream compressor = contentEncoding.compress(out, level)) {
+                compressor.write(task);
+            }
+        }
+        bytes.inputBytes += task.length;
+        bytes.outputBytes += out.size();
+        return out.size();
+    }
+
+    /**
+     * An event stream with one artifact per event, each event sync-flushed as by {@link AsyncSseWriter}.
+     */
+    @Benchmark
+    public int stream(Bytes bytes) {
+        ContentEncoding contentEncoding = contentEncoding();
+        SseCompressor compressor = contentEncoding == null ? null : new SseCompressor(contentEncoding, level);
+        int written = 0;
+        for (byte[] event : events) {
+            written += compressor == null ? event.clone().length : compressor.compress(event).length;
+            bytes.inputBytes += event.length;
+        }
+        if (compressor != null) {
+            written += compressor.finish().length;
+        }
+        bytes.outputBytes += written;
+        return written;
+    }
+
+    private ContentEncoding contentEncoding() {
+        return switch (encoding) {
+            case "gzip" -> ContentEncoding.GZIP;
+            case "deflate" -> ContentEncoding.DEFLATE;
+            default -> null;
+        };
+    }
+}
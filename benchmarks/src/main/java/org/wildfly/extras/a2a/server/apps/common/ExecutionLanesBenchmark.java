@@ -0,0 +1,101 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load test of the isolation given by {@link ExecutionLanes}: while a backlog of agent runs keeps the agent
+ * executor busy, measures the latency of task lookups run either on the same executor ({@code shared}) or on
+ * a control lane of their own ({@code separate}).
+ *
+ * With a shared executor a lookup waits for the backlog ahead of it, so its latency is about
+ * {@code backlog * agentMillis / agentThreads}, while on its own lane it stays in the microseconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ExecutionLanesBenchmark {
+
+    @Param({"shared", "separate"})
+    String lanes;
+
+    @Param({"16"})
+    int agentThreads;
+
+    @Param({"200"})
+    int backlog;
+
+    @Param({"50"})
+    long agentMillis;
+
+    @Param({"2"})
+    int controlThreads;
+
+    private ExecutorService agentExecutor;
+    private ExecutorService controlExecutor;
+    private Thread agentLoad;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        agentExecutor = Executors.newFixedThreadPool(agentThreads);
+        controlExecutor = "separate".equals(lanes)
+                ? ExecutionLanes.newLane(controlThreads, 10_000, Executors.defaultThreadFactory())
+                : agentExecutor;
+
+        // Keeps the backlog of agent runs, each blocking as if waiting on its model
+        Semaphore inFlight = new Semaphore(backlog);
+        agentLoad = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    inFlight.acquire();
+                    agentExecutor.execute(() -> {
+                        try {
+                            Thread.sleep(agentMillis);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+            } catch (InterruptedException e) {
+                // Done
+            }
+        }, "agent-load");
+        agentLoad.setDaemon(true);
+        agentLoad.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        agentLoad.interrupt();
+        agentLoad.join();
+        agentExecutor.shutdownNow();
+        controlExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public String taskLookup() {
+        return CompletableFuture.supplyAsync(() -> "task", controlExecutor).join();
+    }
+}
@@ -0,0 +1,81 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs 10k tasks that each block for a while, as an agent waiting on an LLM does, on a pool of platform
+ * threads and on virtual threads, and measures the time until all of them are done.
+ *
+ * The platform pool is bounded as the executor of an application server would be, so it runs the tasks in
+ * waves, while every virtual thread can wait at the same time. The {@code virtual} case needs Java 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InternalExecutorBenchmark {
+
+    @Param({"platform", "virtual"})
+    String threads;
+
+    @Param({"10000"})
+    int tasks;
+
+    @Param({"200"})
+    int platformPoolSize;
+
+    @Param({"20"})
+    long blockMillis;
+
+    private ExecutorService executor;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        if (InternalExecutorConfig.THREADS_VIRTUAL.equals(threads)) {
+            executor = VirtualThreads.newExecutor("benchmark");
+        } else {
+            executor = Executors.newFixedThreadPool(platformPoolSize);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    public void blockingTasks() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(blockMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,177 @@
+package org.wildfly.extras.a2a.server.apps.grpc;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import io.a2a.jsonrpc.common.wrappers.ListTasksResult;
+import io.a2a.server.ServerCallContext;
+import io.a2a.server.auth.UnauthenticatedUser;
+import io.a2a.server.requesthandlers.RequestHandler;
+import io.a2a.spec.CancelTaskParams;
+import io.a2a.spec.DeleteTaskPushNotificationConfigParams;
+import io.a2a.spec.EventKind;
+import io.a2a.spec.GetTaskPushNotificationConfigParams;
+import io.a2a.spec.ListTaskPushNotificationConfigsParams;
+import io.a2a.spec.ListTaskPushNotificationConfigsResult;
+import io.a2a.spec.ListTasksParams;
+import io.a2a.spec.MessageSendParams;
+import io.a2a.spec.StreamingEventKind;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskIdParams;
+import io.a2a.spec.TaskPushNotificationConfig;
+import io.a2a.spec.TaskQueryParams;
+import io.a2a.spec.TaskState;
+import io.a2a.spec.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.extras.a2a.server.apps.common.A2ATracing;
+
+/**
+ * The overhead the gRPC handler adds to each call into the request handler, which it makes with the deployment
+ * as context class loader, against calling the request handler directly.
+ *
+ * With {@code classLoader} set to {@code same} the thread already has the deployment class loader, as on the
+ * threads of the deployment, otherwise it has another one, as on the threads of the gRPC server. Tracing is
+ * disabled, the request handler returns the same task to each call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassLoaderSwitchBenchmark {
+
+    private static final String SWITCHING_HANDLER = WildFlyGrpcHandler.class.getName() + "$ClassLoaderSwitchingRequestHandler";
+
+    @Param({"same", "other"})
+    String classLoader;
+
+    private RequestHandler handler;
+    private RequestHandler switching;
+    private TaskQueryParams params;
+    private ServerCallContext context;
+    private URLClassLoader otherClassLoader;
+    private ClassLoader previousClassLoader;
+
+    @Setup
+    public void setup() throws Throwable {
+        ClassLoader deploymentClassLoader = ClassLoaderSwitchBenchmark.class.getClassLoader();
+        handler = new TaskRequestHandler(Task.builder()
+                .id("benchmark-task")
+                .contextId("benchmark-context")
+                .status(new TaskStatus(TaskState.WORKING))
+                .build());
+        Class<?> switchingClass = Class.forName(SWITCHING_HANDLER);
+        switching = (RequestHandler) MethodHandles.privateLookupIn(switchingClass, MethodHandles.lookup())
+                .findConstructor(switchingClass,
+                        MethodType.methodType(void.class, RequestHandler.class, ClassLoader.class, A2ATracing.class))
+                .invoke(handler, deploymentClassLoader, new A2ATracing());
+        params = new TaskQueryParams("benchmark-task");
+        context = new ServerCallContext(UnauthenticatedUser.INSTANCE, new HashMap<>(), Set.of());
+
+        previousClassLoader = Thread.currentThread().getContextClassLoader();
+        if ("same".equals(classLoader)) {
+            Thread.currentThread().setContextClassLoader(deploymentClassLoader);
+        } else {
+            otherClassLoader = new URLClassLoader(new URL[0], null);
+            Thread.currentThread().setContextClassLoader(otherClassLoader);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Thread.currentThread().setContextClassLoader(previousClassLoader);
+        if (otherClassLoader != null) {
+            otherClassLoader.close();
+        }
+    }
+
+    @Benchmark
+    public Task direct() {
+        return handler.onGetTask(params, context);
+    }
+
+    @Benchmark
+    public Task switching() {
+        return switching.onGetTask(params, context);
+    }
+
+    private static final class TaskRequestHandler implements RequestHandler {
+        private final Task task;
+
+        TaskRequestHandler(Task task) {
+            this.task = task;
+        }
+
+        @Override
+        public Task onGetTask(TaskQueryParams params, ServerCallContext context) {
+            return task;
+        }
+
+        @Override
+        public ListTasksResult onListTasks(ListTasksParams params, ServerCallContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Task onCancelTask(CancelTaskParams params, ServerCallContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EventKind onMessageSend(MessageSendParams params, ServerCallContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flow.Publisher<StreamingEventKind> onMessageSendStream(MessageSendParams params, ServerCallContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public TaskPushNotificationConfig onCreateTaskPushNotificationConfig(TaskPushNotificationConfig config,
+                ServerCallContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public TaskPushNotificationConfig onGetTaskPushNotificationConfig(GetTaskPushNotificationConfigParams params,
+                ServerCallContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Flow.Publisher<StreamingEventKind> onSubscribeToTask(TaskIdParams params, ServerCallContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ListTaskPushNotificationConfigsResult onListTaskPushNotificationConfigs(
+                ListTaskPushNotificationConfigsParams params, ServerCallContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onDeleteTaskPushNotificationConfig(DeleteTaskPushNotificationConfigParams params,
+                ServerCallContext context) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
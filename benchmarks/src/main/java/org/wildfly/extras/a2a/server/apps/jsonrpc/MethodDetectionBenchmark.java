@@ -0,0 +1,61 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How {@link A2ARequestFilter} finds the JSON-RPC method of a request, to route it as streaming or not,
+ * against parsing the whole request into a tree to read it.
+ *
+ * {@code methodPosition} puts the {@code method} member before or after the {@code params}, which hold a
+ * message of {@code messageSize} characters. Clients usually send it first, but nothing requires them to.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodDetectionBenchmark {
+
+    @Param({"first", "last"})
+    String methodPosition;
+
+    @Param({"128", "65536"})
+    int messageSize;
+
+    private String body;
+
+    @Setup
+    public void setup() {
+        String method = "\"method\": \"SendStreamingMessage\"";
+        String params = """
+                "params": {"message": {"messageId": "message-1", "role": "ROLE_USER", "parts": [{"text": "%s"}]}}\
+                """.formatted("x".repeat(messageSize));
+        String first = "first".equals(methodPosition) ? method : params;
+        String last = "first".equals(methodPosition) ? params : method;
+        body = "{\"jsonrpc\": \"2.0\", \"id\": \"1\", " + first + ", " + last + "}";
+    }
+
+    @Benchmark
+    public String readMethod() {
+        return A2ARequestFilter.readMethod(body);
+    }
+
+    @Benchmark
+    public String parseTree() {
+        return JsonParser.parseString(body).getAsJsonObject().get("method").getAsString();
+    }
+}
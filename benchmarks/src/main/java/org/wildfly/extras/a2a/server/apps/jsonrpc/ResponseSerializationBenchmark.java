@@ -0,0 +1,110 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.a2a.grpc.utils.JSONRPCUtils;
+import io.a2a.grpc.utils.ProtoUtils;
+import io.a2a.jsonrpc.common.wrappers.GetTaskResponse;
+import io.a2a.spec.Artifact;
+import io.a2a.spec.Message;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskState;
+import io.a2a.spec.TaskStatus;
+import io.a2a.spec.TextPart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares writing a {@code GetTask} response through {@link A2AResponseBodyWriter} with the previous
+ * path, which printed the response to a {@code String} that JAX-RS then encoded and copied.
+ * {@code convertToProto} is the conversion to protobuf both paths start with, on its own.
+ *
+ * Run with {@code -prof gc} to see the allocation difference, which is the point of the writer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"1", "50", "500"})
+    int historySize;
+
+    private GetTaskResponse response;
+    private OutputStream sink;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        List<Message> history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            history.add(Message.builder()
+                    .messageId("message-" + i)
+                    .role(i % 2 == 0 ? Message.Role.USER : Message.Role.AGENT)
+                    .parts(List.of(new TextPart("Message number " + i + " of the conversation about the task")))
+                    .build());
+        }
+        Task task = Task.builder()
+                .id("benchmark-task")
+                .contextId("benchmark-context")
+                .status(new TaskStatus(TaskState.COMPLETED))
+                .history(history)
+                .artifacts(List.of(Artifact.builder()
+                        .artifactId("artifact")
+                        .parts(List.of(new TextPart("The result ".repeat(historySize + 1))))
+                        .build()))
+                .build();
+        response = new GetTaskResponse("1", task);
+        sink = new BlackholeOutputStream(blackhole);
+    }
+
+    @Benchmark
+    public void stringThenCopy() throws IOException {
+        String json = JSONRPCUtils.toJsonRPCResultResponse(response.getId(), ProtoUtils.ToProto.task(response.getResult()));
+        sink.write(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void streamingWriter() throws IOException {
+        A2AResponseBodyWriter.write(response, sink);
+    }
+
+    @Benchmark
+    public Object convertToProto() {
+        return A2AResponseBodyWriter.convertToProto(response);
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.a2a.jsonrpc.common.json.JsonUtil;
+import io.a2a.jsonrpc.common.wrappers.SendStreamingMessageResponse;
+import io.a2a.server.util.sse.SseFormatter;
+import io.a2a.spec.Artifact;
+import io.a2a.spec.TaskArtifactUpdateEvent;
+import io.a2a.spec.TextPart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.extras.a2a.server.apps.common.SseFrames;
+
+/**
+ * Formats one event of a stream as the bytes of an SSE frame, as each subscriber does for each event.
+ *
+ * {@code formatJsonAsSSE} and {@code formatResponseAsSSE} are the formatting of the SDK, for the JSON of the
+ * REST transport and the JSON-RPC responses, encoded to UTF-8 as the writer needs. {@code sseFramesEncode}
+ * and {@code bodyWriterFrame} are what the subscribers of this project use instead. The event is an artifact
+ * update with a text part of {@code artifactSize} characters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseFormattingBenchmark {
+
+    @Param({"256", "16384"})
+    int artifactSize;
+
+    private String json;
+    private SendStreamingMessageResponse response;
+    private long eventId;
+
+    @Setup
+    public void setup() throws Exception {
+        TaskArtifactUpdateEvent event = TaskArtifactUpdateEvent.builder()
+                .taskId("benchmark-task")
+                .contextId("benchmark-context")
+                .artifact(Artifact.builder()
+                        .artifactId("artifact")
+                        .parts(List.of(new TextPart("x".repeat(artifactSize))))
+                        .build())
+                .build();
+        json = JsonUtil.toJson(event);
+        response = new SendStreamingMessageResponse("request-1", event);
+    }
+
+    @Benchmark
+    public byte[] formatJsonAsSSE() {
+        return SseFormatter.formatJsonAsSSE(json, eventId++).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] sseFramesEncode() {
+        return SseFrames.encode(json, eventId++);
+    }
+
+    @Benchmark
+    public byte[] formatResponseAsSSE() {
+        return SseFormatter.formatResponseAsSSE(response, eventId++).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] bodyWriterFrame() {
+        return A2AResponseBodyWriter.sseFrame(response.getId(), A2AResponseBodyWriter.encodeResult(response), eventId++);
+    }
+}
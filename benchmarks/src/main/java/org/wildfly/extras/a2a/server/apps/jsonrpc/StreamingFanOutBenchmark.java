@@ -0,0 +1,82 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.a2a.jsonrpc.common.wrappers.SendStreamingMessageResponse;
+import io.a2a.server.util.sse.SseFormatter;
+import io.a2a.spec.Artifact;
+import io.a2a.spec.TaskArtifactUpdateEvent;
+import io.a2a.spec.TextPart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the cost of delivering one streaming event to every subscriber of a task when each subscriber
+ * formats the event itself, as before, with encoding the result once and only building the per-subscriber
+ * envelope, as the subscribers sharing a task journal now do.
+ *
+ * The time of {@code perSubscriber} grows with the serialization cost times the number of subscribers,
+ * that of {@code shared} with the envelope copy only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingFanOutBenchmark {
+
+    @Param({"1", "10", "50"})
+    int subscribers;
+
+    @Param({"256", "16384"})
+    int artifactSize;
+
+    private TaskArtifactUpdateEvent event;
+    private String[] requestIds;
+    private long eventId;
+
+    @Setup
+    public void setup() {
+        event = TaskArtifactUpdateEvent.builder()
+                .taskId("benchmark-task")
+                .contextId("benchmark-context")
+                .artifact(Artifact.builder()
+                        .artifactId("artifact")
+                        .parts(List.of(new TextPart("x".repeat(artifactSize))))
+                        .build())
+                .build();
+        requestIds = new String[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            requestIds[i] = "request-" + i;
+        }
+    }
+
+    @Benchmark
+    public void perSubscriber(Blackhole blackhole) {
+        long id = eventId++;
+        for (String requestId : requestIds) {
+            blackhole.consume(SseFormatter.formatResponseAsSSE(new SendStreamingMessageResponse(requestId, event), id));
+        }
+    }
+
+    @Benchmark
+    public void shared(Blackhole blackhole) {
+        long id = eventId++;
+        byte[] result = A2AResponseBodyWriter.encodeResult(new SendStreamingMessageResponse(requestIds[0], event));
+        for (String requestId : requestIds) {
+            blackhole.consume(A2AResponseBodyWriter.sseFrame(requestId, result, id));
+        }
+    }
+}
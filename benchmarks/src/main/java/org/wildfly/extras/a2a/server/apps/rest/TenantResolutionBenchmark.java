@@ -0,0 +1,44 @@
+package org.wildfly.extras.a2a.server.apps.rest;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.extras.a2a.server.apps.common.TenantRouter;
+
+/**
+ * Resolves the tenant of a request path, as each call does when its call context is built, with the router
+ * of the REST transport and the one of JSON-RPC.
+ *
+ * The paths cover requests with and without a tenant. Only {@code firstSegment} allocates, and only for the
+ * paths that have a tenant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantResolutionBenchmark {
+
+    @Param({"/", "/tenant1/", "/message:send", "/tenant1/message:send", "/tenant1/tasks/abc:subscribe"})
+    String path;
+
+    @Benchmark
+    public String firstSegment() {
+        return A2ARestServerResource.TENANT_ROUTER.resolve(path);
+    }
+
+    @Benchmark
+    public String wholePath() {
+        return TenantRouter.WHOLE_PATH.resolve(path);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The Java Flight Recorder events of the life of an A2A call, from parsing the request to writing the response
+ * or the events of its stream.
+ *
+ * The events are only committed while a recording has them enabled, which is the case of any recording, such as
+ * one started with {@code -XX:StartFlightRecording}, as they are enabled by default. Without stack traces they
+ * cost little enough to be left on in production. The writes and flushes of event streams are frequent, so only
+ * those above their threshold are recorded unless the recording lowers it.
+ * A recording can also be taken through {@link FlightRecorderResource}.
+ */
+public final class A2AEvents {
+
+    static final String NAME_PREFIX = "org.wildfly.a2a.";
+    static final String CATEGORY = "A2A";
+
+    /**
+     * The event types, as enabled by {@link FlightRecorderResource}.
+     */
+    public static final List<Class<? extends Event>> TYPES = List.of(
+            RequestParse.class,
+            HandlerDispatch.class,
+            ResponseWrite.class,
+            SseWrite.class,
+            SseFlush.class,
+            ClientDisconnect.class,
+            GrpcCall.class,
+            ClassLoaderSwitch.class);
+
+    private A2AEvents() {
+    }
+
+    @Name(NAME_PREFIX + "RequestParse")
+    @Label("Request Parse")
+    @Description("Reading and parsing the body of a request")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class RequestParse extends Event {
+        @Label("Transport")
+        public String transport;
+
+        @Label("Method")
+        public String method;
+
+        @Label("Body Size")
+        @DataAmount
+        public long bodySize;
+    }
+
+    @Name(NAME_PREFIX + "HandlerDispatch")
+    @Label("Handler Dispatch")
+    @Description("A call into the A2A request handler, for a stream only until its events are published")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class HandlerDispatch extends Event {
+        @Label("Transport")
+        public String transport;
+
+        @Label("Method")
+        public String method;
+    }
+
+    @Name(NAME_PREFIX + "ResponseWrite")
+    @Label("Response Write")
+    @Description("Serializing and writing the response of an HTTP call, after compression")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ResponseWrite extends Event {
+        @Label("Transport")
+        public String transport;
+
+        @Label("Method")
+        public String method;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name(NAME_PREFIX + "SseWrite")
+    @Label("SSE Write")
+    @Description("Handing frames of an event stream to the container")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    @Threshold("1 ms")
+    public static final class SseWrite extends Event {
+        @Label("Frames")
+        public int frames;
+
+        @Label("Bytes")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name(NAME_PREFIX + "SseFlush")
+    @Label("SSE Flush")
+    @Description("Flushing the frames written to an event stream")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    @Threshold("1 ms")
+    public static final class SseFlush extends Event {
+        @Label("Bytes Since Last Flush")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name(NAME_PREFIX + "ClientDisconnect")
+    @Label("Client Disconnect")
+    @Description("A client went away before its event stream was done")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ClientDisconnect extends Event {
+        @Label("Transport")
+        public String transport;
+
+        @Label("Events Written")
+        public long events;
+
+        @Label("Bytes Written")
+        @DataAmount
+        public long bytes;
+    }
+
+    @Name(NAME_PREFIX + "GrpcCall")
+    @Label("gRPC Call")
+    @Description("A gRPC call, from the handler receiving it to its close")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class GrpcCall extends Event {
+        @Label("Method")
+        public String method;
+
+        @Label("Tenant")
+        public String tenant;
+
+        @Label("Status")
+        public String status;
+
+        @Label("Request Bytes")
+        @DataAmount
+        public long requestBytes;
+
+        @Label("Response Bytes")
+        @DataAmount
+        public long responseBytes;
+
+        @Label("Messages")
+        public long messages;
+    }
+
+    @Name(NAME_PREFIX + "ClassLoaderSwitch")
+    @Label("Class Loader Switch")
+    @Description("A call into the request handler with the deployment as context class loader")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ClassLoaderSwitch extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Switched")
+        @Description("Whether the context class loader was another one")
+        public boolean switched;
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the metrics of the A2A calls of all transports, and of the executors, lanes, limits and streams
+ * serving them, in the Micrometer {@code MeterRegistry} of the application, which WildFly's
+ * {@code micrometer} subsystem provides and exports.
+ *
+ * Each call is timed by method, transport, tenant and outcome, and counts its request and response bytes.
+ * Event streams are also counted as they are opened and closed, together with the events written on each,
+ * and the latency of their events is recorded by {@link LatencyStage}.
+ * The meters of a method are registered the first time it is called and kept, so recording a call does not
+ * look anything up in the registry. Past {@code max-tenants} tenants, the calls of further tenants are
+ * recorded as those of {@link TenantBulkheads#OTHER_TENANTS}.
+ *
+ * Without Micrometer, or with {@code enabled} set to {@code false}, nothing is recorded and the calls get a
+ * {@link Call} that does nothing. The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class A2AMetrics {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(A2AMetrics.class);
+
+    static final String ENABLED = "a2a.jakarta.metrics.enabled";
+    static final String MAX_TENANTS = "a2a.jakarta.metrics.max-tenants";
+
+    private static final String METER_REGISTRY = "io.micrometer.core.instrument.MeterRegistry";
+
+    /**
+     * Request property holding the {@link Call} of an HTTP request.
+     */
+    public static final String CALL_PROPERTY = A2AMetrics.class.getName() + ".call";
+
+    /**
+     * The method the public agent card requests are recorded as, as they are not an A2A method.
+     */
+    public static final String AGENT_CARD_METHOD = "GetAgentCard";
+
+    /**
+     * The method the requests naming an unknown method are recorded as.
+     */
+    public static final String UNKNOWN_METHOD = "Unknown";
+
+    /**
+     * How a call ended.
+     */
+    public enum Outcome {
+        SUCCESS,
+        /**
+         * The call failed, including calls answered with an A2A error.
+         */
+        ERROR,
+        /**
+         * The call was turned down because the server is busy.
+         */
+        REJECTED,
+        /**
+         * The client went away before the call was done.
+         */
+        DISCONNECTED
+    }
+
+    /**
+     * How an event stream was closed.
+     */
+    public enum StreamEnd {
+        /**
+         * All events were sent.
+         */
+        COMPLETED,
+        /**
+         * The client went away.
+         */
+        DISCONNECTED,
+        /**
+         * The stream failed, or the server closed it because the client did not keep up.
+         */
+        ERRORED
+    }
+
+    /**
+     * The stages of an event of a stream on its way to the client.
+     */
+    public enum LatencyStage {
+        /**
+         * From the agent emitting the event to the stream getting it from the event queue. Only known for the
+         * status updates, from the timestamp the agent gives their status.
+         */
+        QUEUE,
+        /**
+         * Encoding the event as a frame of the stream. Not recorded for gRPC, where it is part of {@link #WRITE}.
+         */
+        FORMAT,
+        /**
+         * From the frame being encoded to it being flushed to the client. For gRPC, serializing the message and
+         * handing it to the transport, which flushes it asynchronously.
+         */
+        WRITE
+    }
+
+    /**
+     * The metrics of a call in progress.
+     */
+    public interface Call {
+        /**
+         * Sets the outcome recorded once the call ends, {@link Outcome#SUCCESS} unless set.
+         */
+        void outcome(Outcome outcome);
+
+        /**
+         * Records the call, only the first call has an effect.
+         */
+        void end(long responseBytes);
+
+        /**
+         * Turns the call into an event stream, which records the call once it is closed.
+         */
+        Stream stream();
+
+        boolean isStreaming();
+    }
+
+    /**
+     * The metrics of an open event stream.
+     */
+    public interface Stream {
+        /**
+         * Records the stream and its call, only the first call has an effect.
+         */
+        void end(StreamEnd end, long events, long bytes);
+
+        /**
+         * Records how long an event of the stream spent in the stage, nothing if {@code nanos} is negative as it
+         * is not known.
+         */
+        default void latency(LatencyStage stage, long nanos) {
+        }
+
+        /**
+         * Whether {@link #latency} records anything, so the stages need not be timed otherwise.
+         */
+        default boolean recordsLatency() {
+            return false;
+        }
+    }
+
+    /**
+     * Where the metrics are recorded.
+     */
+    interface Recorder {
+        Call start(String transport, String method, String tenant, long requestBytes);
+
+        void close();
+    }
+
+    static final Stream NO_STREAM = (end, events, bytes) -> {
+    };
+
+    static final Call NO_CALL = new Call() {
+        @Override
+        public void outcome(Outcome outcome) {
+        }
+
+        @Override
+        public void end(long responseBytes) {
+        }
+
+        @Override
+        public Stream stream() {
+            return NO_STREAM;
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    };
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    // The components whose state is reported with the calls
+    @Inject
+    InternalExecutorConfig executorConfig;
+
+    @Inject
+    ExecutionLanes lanes;
+
+    @Inject
+    ConcurrencyLimiter concurrencyLimiter;
+
+    @Inject
+    StreamAdmission streamAdmission;
+
+    @Inject
+    TenantBulkheads bulkheads;
+
+    @Inject
+    SseBackpressure backpressure;
+
+    @Inject
+    SseHeartbeat heartbeat;
+
+    @Inject
+    TaskEventJournal eventJournal;
+
+    private Recorder recorder;
+
+    @PostConstruct
+    void init() {
+        if (!Boolean.parseBoolean(configProvider.getValue(ENABLED))) {
+            return;
+        }
+        if (!isMicrometerAvailable()) {
+            LOGGER.info("Micrometer is not available to the deployment, A2A metrics are not recorded");
+            return;
+        }
+        recorder = MicrometerMetrics.create(this, Integer.parseInt(configProvider.getValue(MAX_TENANTS)));
+    }
+
+    @PreDestroy
+    void close() {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return recorder != null;
+    }
+
+    /**
+     * Starts the metrics of a call.
+     *
+     * @param method the A2A method, as named in the JSON-RPC requests and the gRPC service
+     * @param requestBytes the size of the request, negative if it is not known
+     */
+    public Call start(String transport, String method, String tenant, long requestBytes) {
+        Recorder current = recorder;
+        return current == null ? NO_CALL : current.start(transport, method, tenant, requestBytes);
+    }
+
+    /**
+     * Returns the call of the HTTP request, or one that does nothing if it is not measured.
+     */
+    public static Call call(HttpServletRequest request) {
+        return request.getAttribute(CALL_PROPERTY) instanceof Call call ? call : NO_CALL;
+    }
+
+    /**
+     * Returns the time since the agent emitted an event, or {@code -1} if it is not known.
+     */
+    public static long sinceEmitted(Instant emitted) {
+        if (emitted == null) {
+            return -1;
+        }
+        long nanos = Duration.between(emitted, Instant.now()).toNanos();
+        // The agent may run on another host, whose clock is behind
+        return nanos < 0 ? -1 : nanos;
+    }
+
+    private static boolean isMicrometerAvailable() {
+        try {
+            Class.forName(METER_REGISTRY, false, A2AMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+
+import io.a2a.server.ServerCallContext;
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Traces the A2A calls of all transports with the OpenTelemetry {@code OpenTelemetry} of the application, which
+ * WildFly's {@code opentelemetry} subsystem provides and exports.
+ *
+ * Each call gets a span named after its A2A method. It is a child of the span the container started for the
+ * request if there is one, otherwise of the W3C {@code traceparent} of the HTTP headers or gRPC metadata.
+ * The {@code traceparent} of the span is put in the {@link ServerCallContext} state under
+ * {@link #TRACEPARENT_KEY}, so agents can continue the trace. The span goes along with the call across the
+ * executors: the resources run the calls they hand over with {@link Span#wrap}, and the {@code @Internal}
+ * executor runs its tasks in the trace context they were submitted from. Each event of a stream is recorded
+ * as a {@link #STREAM_EVENT} of the span, which ends with the stream.
+ *
+ * Without OpenTelemetry, or with {@code enabled} set to {@code false}, nothing is traced and the calls get a
+ * {@link Span} that does nothing. The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class A2ATracing {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(A2ATracing.class);
+
+    static final String ENABLED = "a2a.jakarta.tracing.enabled";
+
+    private static final String OPEN_TELEMETRY = "io.opentelemetry.api.OpenTelemetry";
+
+    /**
+     * Request property holding the {@link Span} of an HTTP request.
+     */
+    public static final String SPAN_PROPERTY = A2ATracing.class.getName() + ".span";
+
+    /**
+     * The {@link ServerCallContext} state key of the W3C {@code traceparent} of the span of the call.
+     */
+    public static final String TRACEPARENT_KEY = "traceparent";
+
+    /**
+     * The name of the span events recorded for the events of a stream.
+     */
+    public static final String STREAM_EVENT = "a2a.stream.event";
+
+    /**
+     * The span of a call in progress.
+     */
+    public interface Span {
+        /**
+         * Makes the span the current one of the thread until the scope is closed.
+         */
+        Scope makeCurrent();
+
+        /**
+         * Returns the call, running with the span as the current one wherever it runs.
+         */
+        <T> Supplier<T> wrap(Supplier<T> call);
+
+        /**
+         * The W3C {@code traceparent} of the span, {@code null} if it is not traced.
+         */
+        String traceparent();
+
+        /**
+         * Records an event of the stream.
+         */
+        void event(long id, long bytes);
+
+        /**
+         * Sets the outcome recorded once the call ends, {@link A2AMetrics.Outcome#SUCCESS} unless set.
+         */
+        void outcome(A2AMetrics.Outcome outcome);
+
+        /**
+         * Ends the span, only the first call has an effect.
+         */
+        void end();
+
+        /**
+         * Turns the call into an event stream, whose subscriber ends the span once it is closed.
+         */
+        Span stream();
+
+        boolean isStreaming();
+    }
+
+    /**
+     * Restores the span that was current before {@link Span#makeCurrent}.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Where the spans are recorded.
+     */
+    interface Tracer {
+        Span start(String transport, String method, String tenant, Function<String, String> headers);
+
+        String currentTraceparent();
+
+        Runnable wrap(Runnable task);
+
+        ExecutorService wrap(ExecutorService executor);
+    }
+
+    static final Scope NO_SCOPE = () -> {
+    };
+
+    static final Span NO_SPAN = new Span() {
+        @Override
+        public Scope makeCurrent() {
+            return NO_SCOPE;
+        }
+
+        @Override
+        public <T> Supplier<T> wrap(Supplier<T> call) {
+            return call;
+        }
+
+        @Override
+        public String traceparent() {
+            return null;
+        }
+
+        @Override
+        public void event(long id, long bytes) {
+        }
+
+        @Override
+        public void outcome(A2AMetrics.Outcome outcome) {
+        }
+
+        @Override
+        public void end() {
+        }
+
+        @Override
+        public Span stream() {
+            return this;
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    };
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private Tracer tracer;
+
+    @PostConstruct
+    void init() {
+        if (!Boolean.parseBoolean(configProvider.getValue(ENABLED))) {
+            return;
+        }
+        if (!isOpenTelemetryAvailable()) {
+            LOGGER.info("OpenTelemetry is not available to the deployment, A2A calls are not traced");
+            return;
+        }
+        tracer = OpenTelemetryTracing.create();
+    }
+
+    public boolean isEnabled() {
+        return tracer != null;
+    }
+
+    /**
+     * Starts the span of a call.
+     *
+     * @param method the A2A method, as named in the JSON-RPC requests and the gRPC service
+     * @param headers returns the value of a header of the request, to find the {@code traceparent} in
+     */
+    public Span start(String transport, String method, String tenant, Function<String, String> headers) {
+        Tracer current = tracer;
+        return current == null ? NO_SPAN : current.start(transport, method, tenant, headers);
+    }
+
+    /**
+     * The W3C {@code traceparent} of the current span of the thread, {@code null} if there is none.
+     */
+    public String currentTraceparent() {
+        Tracer current = tracer;
+        return current == null ? null : current.currentTraceparent();
+    }
+
+    /**
+     * Returns the task, running in the trace context of the thread calling this.
+     */
+    public Runnable wrap(Runnable task) {
+        Tracer current = tracer;
+        return current == null ? task : current.wrap(task);
+    }
+
+    /**
+     * Returns the executor, running each task in the trace context it was submitted from.
+     */
+    public ExecutorService wrap(ExecutorService executor) {
+        Tracer current = tracer;
+        return current == null ? executor : current.wrap(executor);
+    }
+
+    /**
+     * Returns the span of the HTTP request, or one that does nothing if it is not traced.
+     */
+    public static Span span(HttpServletRequest request) {
+        return request.getAttribute(SPAN_PROPERTY) instanceof Span span ? span : NO_SPAN;
+    }
+
+    /**
+     * Puts the {@code traceparent} in the state of the call context, unless it is {@code null} or the state
+     * already has one.
+     *
+     * @return the call context
+     */
+    public static ServerCallContext attach(ServerCallContext context, String traceparent) {
+        if (traceparent != null) {
+            try {
+                context.getState().putIfAbsent(TRACEPARENT_KEY, traceparent);
+            } catch (UnsupportedOperationException e) {
+                // The state of a context built by an application CallContextFactory may be read-only
+                LOGGER.debug("Unable to add the traceparent to the call context: {}", e.toString());
+            }
+        }
+        return context;
+    }
+
+    private static boolean isOpenTelemetryAvailable() {
+        try {
+            Class.forName(OPEN_TELEMETRY, false, A2ATracing.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
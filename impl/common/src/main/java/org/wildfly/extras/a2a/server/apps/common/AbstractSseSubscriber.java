@@ -0,0 +1,524 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import io.a2a.server.ServerCallContext;
+import io.a2a.spec.TransportProtocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscribes to the events of a streaming A2A call and writes them as Server-Sent Events
+ * through an {@link AsyncSseWriter}.
+ *
+ * Events are requested {@code prefetch} at a time and queued in the writer up to a bounded depth, so a slow
+ * client applies backpressure to the event queue without blocking a thread. What happens once the buffer of
+ * a stream is full is set by the {@link SseBackpressure.Policy}. Without {@link #withBackpressure} the next
+ * event is only requested once the previous one has been handed to the container.
+ *
+ * Event ids count up per connection, unless {@link #withJournal} is used, in which case they count up per
+ * task and the events missed by a reconnecting client are replayed first. A stream that only learns its task
+ * from its first event, such as a message stream, uses {@link #withJournalOf} to count up per task from then on.
+ *
+ * With {@link #withMetrics}, the latency of the events received from the queue is recorded by
+ * {@link A2AMetrics.LatencyStage}: from {@link #emittedAt} to {@link #onNext}, encoding the frame, and from then
+ * until the writer flushes it.
+ *
+ * @param <T> the type of the items published by the request handler
+ */
+public abstract class AbstractSseSubscriber<T> implements Flow.Subscriber<T>, AsyncSseWriter.Listener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractSseSubscriber.class);
+
+    private final AsyncSseWriter writer;
+    private final ServerCallContext context;
+    private final AtomicLong eventId = new AtomicLong(0);
+    // Set once the stream completes or is disconnected, whichever comes first ends it
+    private final AtomicBoolean ended = new AtomicBoolean();
+    private final AtomicLong eventsWritten = new AtomicLong();
+    // Held while the status kept back and a later event are written, which happen on the producer thread
+    // and on the writer thread once the client catches up, so the events are written in the order they came
+    private final Object writeLock = new Object();
+
+    private volatile Flow.Subscription subscription;
+    private TaskEventJournal.TaskJournal journal;
+    // Looks up the journal from the first event, then cleared
+    private Function<T, TaskEventJournal.TaskJournal> journalOf;
+    // The journal this stream has open, closed once with the stream
+    private final AtomicReference<TaskEventJournal.TaskJournal> openJournal = new AtomicReference<>();
+    // The id of the last event sent, only used with a journal
+    private long lastEventId;
+    private boolean replay;
+    private SseBackpressure backpressure;
+    private StreamAdmission.Permit permit;
+    private A2AMetrics.Stream metrics = A2AMetrics.NO_STREAM;
+    private A2ATracing.Span span = A2ATracing.NO_SPAN;
+    private boolean lagComments;
+    private volatile A2AMetrics.StreamEnd end;
+    private int prefetch = 1;
+    private int bufferSize = 1;
+    private SseBackpressure.Policy policy = SseBackpressure.Policy.BLOCK;
+    // Guarded by this
+    private int outstanding;
+    private Numbered<T> held;
+
+    protected AbstractSseSubscriber(AsyncSseWriter writer, ServerCallContext context) {
+        this.writer = writer;
+        this.context = context;
+    }
+
+    /**
+     * Formats an item as a complete SSE frame.
+     */
+    protected abstract String formatEvent(T item, long id);
+
+    /**
+     * Called once the subscription is in place.
+     */
+    protected void onSubscribed() {
+    }
+
+    /**
+     * What identifies the item across the subscribers of a task, or {@code null} if it is only for this
+     * subscriber. Defaults to the item itself.
+     */
+    protected Object eventKey(T item) {
+        return item;
+    }
+
+    /**
+     * Turns a recorded item, possibly recorded by another subscriber, into one for this subscriber.
+     * Defaults to the item itself.
+     */
+    @SuppressWarnings("unchecked")
+    protected T replayItem(Object recorded) {
+        return (T) recorded;
+    }
+
+    /**
+     * Encodes the part of the frame that is the same for every subscriber of the task. It is encoded by the
+     * first subscriber to get the event and shared with the others. Defaults to the whole frame.
+     */
+    protected byte[] encodeShared(T item, long id) {
+        return formatEvent(item, id).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Builds this subscriber's frame from the shared encoding. Defaults to the shared encoding itself.
+     */
+    protected byte[] frame(byte[] shared, long id) {
+        return shared;
+    }
+
+    /**
+     * Whether the item is a status update that a later one makes obsolete, so it may be skipped for a client
+     * that does not keep up. Defaults to {@code false}.
+     */
+    protected boolean isIntermediateStatus(T item) {
+        return false;
+    }
+
+    /**
+     * When the agent emitted the item, or {@code null} if it is not known. Defaults to {@code null}.
+     */
+    protected Instant emittedAt(T item) {
+        return null;
+    }
+
+    /**
+     * Formats the event sent before a slow client is disconnected.
+     */
+    protected String formatSlowConsumerError(String message, long id) {
+        return "event: error\ndata: " + message + "\n\n";
+    }
+
+    /**
+     * Uses the prefetch, buffer size and slow-consumer policy of the given settings, and reports the buffer
+     * depth to it while the stream is open. Must be called before subscribing.
+     */
+    public AbstractSseSubscriber<T> withBackpressure(SseBackpressure backpressure) {
+        this.backpressure = backpressure;
+        this.prefetch = backpressure.getPrefetch();
+        this.bufferSize = backpressure.getBufferSize();
+        this.policy = backpressure.getPolicy();
+        return this;
+    }
+
+    /**
+     * The number of frames queued in the writer, waiting for the client to read them.
+     */
+    public int getBufferDepth() {
+        return writer.getPendingFrames();
+    }
+
+    /**
+     * Releases the place of the stream in the {@link StreamAdmission} once it is closed.
+     */
+    public AbstractSseSubscriber<T> withPermit(StreamAdmission.Permit permit) {
+        this.permit = permit;
+        return this;
+    }
+
+    /**
+     * Records the end of the stream, with the events and bytes written, once the response is complete.
+     */
+    public AbstractSseSubscriber<T> withMetrics(A2AMetrics.Stream metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Records each event written as an event of the span, and ends it with the stream.
+     */
+    public AbstractSseSubscriber<T> withTracing(A2ATracing.Span span) {
+        this.span = span;
+        return this;
+    }
+
+    /**
+     * Precedes each event received from the queue with a comment giving its latency so far, see
+     * {@link SseDebugConfig}.
+     */
+    public AbstractSseSubscriber<T> withLagComments(boolean lagComments) {
+        this.lagComments = lagComments;
+        return this;
+    }
+
+    /**
+     * Numbers the events with the sequence of the task's journal and, if {@code lastEventId} is not negative,
+     * first replays the recorded events that came after it. Must be called before subscribing.
+     */
+    public AbstractSseSubscriber<T> withJournal(TaskEventJournal.TaskJournal journal, long lastEventId) {
+        this.journal = journal;
+        this.replay = lastEventId >= 0;
+        this.lastEventId = lastEventId;
+        return this;
+    }
+
+    /**
+     * Numbers the events with the sequence of the journal returned for the first event, if any, for streams
+     * whose task is not known until then. There is nothing to replay, the stream has only just started the task.
+     * Must be called before subscribing.
+     */
+    public AbstractSseSubscriber<T> withJournalOf(Function<T, TaskEventJournal.TaskJournal> journalOf) {
+        this.journalOf = journalOf;
+        return this;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        LOGGER.debug("Custom SSE subscriber onSubscribe called");
+        this.subscription = subscription;
+        writer.open(this);
+        if (journal != null) {
+            journal = openJournal(journal);
+            if (!replay) {
+                // Without a Last-Event-ID only events recorded from now on can be ones this client gets
+                lastEventId = journal.lastId();
+            }
+        }
+        if (replay) {
+            for (TaskEventJournal.Event event : journal.since(lastEventId)) {
+                writeEvent(frame(event.encoded(recorded -> encodeShared(replayItem(recorded), event.id())), event.id()),
+                        event.id(), false);
+                lastEventId = event.id();
+            }
+            LOGGER.debug("Replayed events up to {}", lastEventId);
+        }
+        if (backpressure != null) {
+            backpressure.opened(this);
+        }
+        synchronized (this) {
+            outstanding = prefetch;
+        }
+        subscription.request(prefetch);
+        onSubscribed();
+    }
+
+    @Override
+    public void onNext(T item) {
+        LOGGER.debug("Custom SSE subscriber onNext called with item: {}", item);
+        boolean timed = lagComments || metrics.recordsLatency();
+        long received = timed ? System.nanoTime() : 0;
+        try {
+            synchronized (this) {
+                outstanding--;
+            }
+            Numbered<T> event = number(item);
+            boolean full = writer.getPendingFrames() >= bufferSize;
+            if (full && policy == SseBackpressure.Policy.DISCONNECT) {
+                disconnectSlowConsumer(event.id());
+                return;
+            }
+            if (full && policy == SseBackpressure.Policy.LATEST && isIntermediateStatus(item)) {
+                // Keep only the latest status until the client catches up, and keep reading the queue
+                synchronized (this) {
+                    if (held != null && backpressure != null) {
+                        backpressure.dropped();
+                    }
+                    held = event;
+                }
+                replenish(true);
+                return;
+            }
+            long queued = timed ? A2AMetrics.sinceEmitted(emittedAt(item)) : -1;
+            byte[] frame = encode(event);
+            if (timed) {
+                long formatted = System.nanoTime() - received;
+                metrics.latency(A2AMetrics.LatencyStage.QUEUE, queued);
+                metrics.latency(A2AMetrics.LatencyStage.FORMAT, formatted);
+                if (lagComments) {
+                    frame = withLagComment(frame, queued, formatted);
+                }
+            }
+            synchronized (writeLock) {
+                writeHeld();
+                writeEvent(frame, event.id(), timed);
+            }
+            LOGGER.debug("Custom SSE event queued with id: {}", event.id());
+            replenish(false);
+        } catch (Exception e) {
+            LOGGER.error("Error writing SSE event: {}", e.getMessage(), e);
+            onError(e);
+        }
+    }
+
+    /**
+     * Gives the item its event id, from the journal if there is one.
+     */
+    private Numbered<T> number(T item) {
+        if (journalOf != null) {
+            TaskEventJournal.TaskJournal found = journalOf.apply(item);
+            journalOf = null;
+            if (found != null) {
+                journal = openJournal(found);
+                lastEventId = journal.lastId();
+            }
+        }
+        Object key = eventKey(item);
+        if (key == null) {
+            // Nothing to share, such as an error, so it is not numbered by the journal either
+            return new Numbered<>(item, null, journal == null ? eventId.getAndIncrement() : lastEventId);
+        } else if (journal != null) {
+            TaskEventJournal.Event event = journal.record(key, item, lastEventId);
+            lastEventId = event.id();
+            return new Numbered<>(item, event, event.id());
+        }
+        return new Numbered<>(item, null, eventId.getAndIncrement());
+    }
+
+    /**
+     * Opens the journal for the stream, which closes it when it ends, and returns the journal to use.
+     */
+    private TaskEventJournal.TaskJournal openJournal(TaskEventJournal.TaskJournal journal) {
+        TaskEventJournal.TaskJournal opened = journal.open();
+        openJournal.set(opened);
+        if (end != null) {
+            // The stream ended meanwhile, the journal may have been missed by closed()
+            closeJournal();
+        }
+        return opened;
+    }
+
+    private void closeJournal() {
+        TaskEventJournal.TaskJournal opened = openJournal.getAndSet(null);
+        if (opened != null) {
+            opened.close();
+        }
+    }
+
+    private byte[] encode(Numbered<T> numbered) {
+        T item = numbered.item();
+        long id = numbered.id();
+        if (numbered.event() != null) {
+            return frame(numbered.event().encoded(recorded -> encodeShared(item, id)), id);
+        } else if (eventKey(item) == null) {
+            return formatEvent(item, id).getBytes(StandardCharsets.UTF_8);
+        }
+        return frame(encodeShared(item, id), id);
+    }
+
+    /**
+     * Writes the status update kept back while the buffer was full, it goes before any later event.
+     * Guarded by writeLock.
+     */
+    private void writeHeld() {
+        Numbered<T> latest;
+        synchronized (this) {
+            latest = held;
+            held = null;
+        }
+        if (latest != null) {
+            writeEvent(encode(latest), latest.id(), false);
+        }
+    }
+
+    private static byte[] withLagComment(byte[] frame, long queued, long formatted) {
+        StringBuilder comment = new StringBuilder(80).append(": lag");
+        if (queued >= 0) {
+            comment.append(" queue-ms=").append(millis(queued));
+        }
+        comment.append(" format-ms=").append(millis(formatted))
+                .append(" sent=").append(System.currentTimeMillis())
+                .append('\n');
+        byte[] prefix = comment.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] commented = new byte[prefix.length + frame.length];
+        System.arraycopy(prefix, 0, commented, 0, prefix.length);
+        System.arraycopy(frame, 0, commented, prefix.length, frame.length);
+        return commented;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private void writeEvent(byte[] frame, long id, boolean timed) {
+        writer.write(frame, timed);
+        eventsWritten.incrementAndGet();
+        span.event(id, frame.length);
+    }
+
+    /**
+     * Requests as many events as the prefetch and the room left in the buffer allow.
+     *
+     * @param overflow whether to request one more even though the buffer is full, to see if it replaces
+     *                 the status update kept back
+     */
+    private void replenish(boolean overflow) {
+        Flow.Subscription current = subscription;
+        if (current == null || ended.get()) {
+            return;
+        }
+        int want;
+        synchronized (this) {
+            int room = policy == SseBackpressure.Policy.DISCONNECT || overflow
+                    ? prefetch
+                    : bufferSize - writer.getPendingFrames() - outstanding;
+            want = Math.min(prefetch - outstanding, room);
+            if (want <= 0) {
+                return;
+            }
+            outstanding += want;
+        }
+        current.request(want);
+    }
+
+    private void disconnectSlowConsumer(long id) {
+        LOGGER.debug("Disconnecting SSE client that has {} events waiting", writer.getPendingFrames());
+        if (backpressure != null) {
+            backpressure.disconnected();
+        }
+        writer.write(formatSlowConsumerError("Client is not reading events fast enough", id));
+        disconnect(A2AMetrics.StreamEnd.ERRORED);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        LOGGER.debug("Custom SSE subscriber onError called: {}", throwable.getMessage(), throwable);
+        disconnect(A2AMetrics.StreamEnd.ERRORED);
+    }
+
+    @Override
+    public void onComplete() {
+        LOGGER.debug("Custom SSE subscriber onComplete called");
+        // The stream is done with, a write failing while its last frames are flushed does not end it again
+        if (!ended.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (writeLock) {
+            writeHeld();
+        }
+        closed(A2AMetrics.StreamEnd.COMPLETED);
+        writer.close();
+    }
+
+    @Override
+    public void onDrained() {
+        // The client caught up, send the latest status kept back and request more
+        synchronized (writeLock) {
+            writeHeld();
+        }
+        replenish(false);
+    }
+
+    @Override
+    public void onFlushed(long nanos) {
+        metrics.latency(A2AMetrics.LatencyStage.WRITE, nanos);
+    }
+
+    @Override
+    public void onFailure(Throwable t) {
+        LOGGER.info("SSE write failed (likely client disconnect): {}", String.valueOf(t));
+        handleClientDisconnect();
+    }
+
+    protected void handleClientDisconnect() {
+        disconnect(A2AMetrics.StreamEnd.DISCONNECTED);
+    }
+
+    private void disconnect(A2AMetrics.StreamEnd end) {
+        if (!ended.compareAndSet(false, true)) {
+            return;
+        }
+        LOGGER.debug("SSE connection closed, calling EventConsumer.cancel() to stop polling loop");
+        // Cancel subscription to stop receiving events
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        // Call EventConsumer cancel callback to clean up ChildQueue
+        context.invokeEventConsumerCancelCallback();
+        closed(end);
+        writer.close();
+        if (end == A2AMetrics.StreamEnd.DISCONNECTED) {
+            A2AEvents.ClientDisconnect event = new A2AEvents.ClientDisconnect();
+            if (event.shouldCommit()) {
+                event.transport = context.getState().get(ServerCallContext.TRANSPORT_KEY) instanceof TransportProtocol transport
+                        ? transport.asString() : null;
+                event.events = eventsWritten.get();
+                event.bytes = writer.getBytesWritten();
+                event.commit();
+            }
+        }
+    }
+
+    private void closed(A2AMetrics.StreamEnd end) {
+        // Set before the journal is closed, for a journal opened meanwhile to see it
+        this.end = end;
+        if (backpressure != null) {
+            backpressure.closed(this);
+        }
+        if (permit != null) {
+            permit.release();
+        }
+        closeJournal();
+    }
+
+    @Override
+    public void onClosed() {
+        // Recorded once the last frames are written, a stream closed by the container lost its client
+        A2AMetrics.StreamEnd current = end;
+        A2AMetrics.StreamEnd streamEnd = current == null ? A2AMetrics.StreamEnd.DISCONNECTED : current;
+        metrics.end(streamEnd, eventsWritten.get(), writer.getBytesWritten());
+        span.outcome(switch (streamEnd) {
+            case COMPLETED -> A2AMetrics.Outcome.SUCCESS;
+            case DISCONNECTED -> A2AMetrics.Outcome.DISCONNECTED;
+            case ERRORED -> A2AMetrics.Outcome.ERROR;
+        });
+        span.end();
+    }
+
+    private record Numbered<T>(T item, TaskEventJournal.Event event, long id) {
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the agent cards serialized so they are not rebuilt on every request.
+ *
+ * The public card is the same for everyone and is cached once, normally at deployment time by the transport.
+ * The extended card may depend on the caller, so it is cached per tenant and principal, for as long as the
+ * caller itself may cache it ({@code a2a.jakarta.extended-agent-card.max-age}).
+ *
+ * The cards are CDI beans produced once for the deployment, so nothing in the server changes them and
+ * nothing here calls the {@code invalidate} methods. They are for an application whose cards do change at
+ * runtime, which calls them when that happens; otherwise a changed extended card is served for at most
+ * its max-age.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class AgentCardCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AgentCardCache.class);
+
+    static final String MAX_AGE = "a2a.jakarta.agent-card.max-age";
+    static final String EXTENDED_MAX_AGE = "a2a.jakarta.extended-agent-card.max-age";
+    static final String EXTENDED_CACHE_SIZE = "a2a.jakarta.extended-agent-card.cache-size";
+
+    private static final String NONE = "";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private final Map<Key, Entry> extendedCards = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private volatile CachedRepresentation publicCard;
+    private CacheControl publicCacheControl;
+    private CacheControl extendedCacheControl;
+    private int extendedCacheSize;
+    private long extendedTtlNanos;
+
+    @PostConstruct
+    void init() {
+        publicCacheControl = new CacheControl();
+        publicCacheControl.setNoTransform(false);
+        publicCacheControl.setMaxAge(Integer.parseInt(configProvider.getValue(MAX_AGE)));
+
+        // The extended card may differ per caller, so only the caller may cache it
+        extendedCacheControl = new CacheControl();
+        extendedCacheControl.setNoTransform(false);
+        extendedCacheControl.setPrivate(true);
+        extendedCacheControl.setMaxAge(Integer.parseInt(configProvider.getValue(EXTENDED_MAX_AGE)));
+        extendedTtlNanos = TimeUnit.SECONDS.toNanos(extendedCacheControl.getMaxAge());
+
+        extendedCacheSize = Integer.parseInt(configProvider.getValue(EXTENDED_CACHE_SIZE));
+    }
+
+    /**
+     * Returns the public card, serializing it with the given function the first time.
+     */
+    public CachedRepresentation getPublicCard(Supplier<CachedRepresentation> serializer) {
+        CachedRepresentation card = publicCard;
+        if (card == null) {
+            synchronized (lock) {
+                card = publicCard;
+                if (card == null) {
+                    card = serializer.get();
+                    publicCard = card;
+                }
+            }
+        }
+        return card;
+    }
+
+    /**
+     * Answers a GET of the public card.
+     */
+    public Response publicCardResponse(Supplier<CachedRepresentation> serializer, Request request, HttpHeaders headers) {
+        return getPublicCard(serializer).toResponse(request, headers, publicCacheControl);
+    }
+
+    /**
+     * Returns the extended card cached for the principal of the tenant, or {@code null}.
+     */
+    public CachedRepresentation getExtendedCard(String tenant, String principal) {
+        Key key = new Key(tenant, principal);
+        Entry entry = extendedCards.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.cachedAt() >= extendedTtlNanos) {
+            extendedCards.remove(key, entry);
+            return null;
+        }
+        return entry.card();
+    }
+
+    /**
+     * Caches the extended card returned to the principal of the tenant. Only cards that were actually
+     * returned to the caller should be cached, not errors.
+     *
+     * @return the card
+     */
+    public CachedRepresentation putExtendedCard(String tenant, String principal, CachedRepresentation card) {
+        if (extendedCards.size() >= extendedCacheSize) {
+            // Crude but bounded, the cards are cheap to rebuild
+            LOGGER.debug("Extended agent card cache is full, clearing it");
+            extendedCards.clear();
+        }
+        extendedCards.put(new Key(tenant, principal), new Entry(card, System.nanoTime()));
+        return card;
+    }
+
+    /**
+     * Answers a GET of an extended card.
+     */
+    public Response extendedCardResponse(CachedRepresentation card, Request request, HttpHeaders headers) {
+        return card.toResponse(request, headers, extendedCacheControl);
+    }
+
+    /**
+     * Drops the cached extended card of every principal of every tenant.
+     */
+    public void invalidateExtendedCards() {
+        extendedCards.clear();
+    }
+
+    /**
+     * Drops the cached extended card of one principal of a tenant.
+     */
+    public void invalidateExtendedCard(String tenant, String principal) {
+        extendedCards.remove(new Key(tenant, principal));
+    }
+
+    /**
+     * Drops the cached public card, the next request serializes it again.
+     */
+    public void invalidatePublicCard() {
+        publicCard = null;
+    }
+
+    /**
+     * The anonymous caller and the default tenant are both {@code null}, kept as empty strings.
+     */
+    private record Key(String tenant, String principal) {
+        Key {
+            tenant = tenant == null ? NONE : tenant;
+            principal = principal == null ? NONE : principal;
+        }
+    }
+
+    private record Entry(CachedRepresentation card, long cachedAt) {
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a blocking {@code message:send} off the HTTP worker thread.
+ *
+ * The request is suspended and the agent call runs on the given executor, normally the {@code @Internal} one,
+ * so a long agent run does not hold a servlet thread. If the timeout is set and the agent has not finished by
+ * then, the client gets the current snapshot of the task instead of waiting on, while the agent keeps running.
+ * If the bulkhead of the tenant or the executor turns the call down, the client gets a
+ * {@code 503 Service Unavailable} to retry later.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class AsyncMessageSend {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncMessageSend.class);
+
+    static final String TIMEOUT = "a2a.jakarta.message-send.timeout-ms";
+
+    /**
+     * The message of the error returned when the internal executor is saturated.
+     */
+    public static final String BUSY_MESSAGE = "The server is busy, retry later";
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    @Inject
+    TenantBulkheads bulkheads;
+
+    private long timeoutMillis;
+
+    @PostConstruct
+    void init() {
+        timeoutMillis = Long.parseLong(configProvider.getValue(TIMEOUT));
+    }
+
+    /**
+     * The time after which the task snapshot is returned, {@code 0} to always wait for the agent.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Runs the call on the executor, within the bulkhead of the tenant, and resumes the response with its result.
+     *
+     * @param send the blocking call, returning the complete response
+     * @param snapshot returns the response with the current state of the task, or {@code null} if the task is
+     *                 not known yet, in which case the request keeps waiting for another timeout period
+     * @param busy returns the error response for a call that was turned down, by the bulkhead or the executor
+     */
+    public void execute(AsyncResponse asyncResponse, String tenant, Executor executor, Supplier<Response> send,
+            Supplier<Response> snapshot, Supplier<Response> busy) {
+        if (timeoutMillis > 0) {
+            asyncResponse.setTimeoutHandler(response -> onTimeout(response, snapshot));
+            asyncResponse.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        Runnable call = () -> {
+            try {
+                asyncResponse.resume(send.get());
+            } catch (Throwable t) {
+                asyncResponse.resume(t);
+            }
+        };
+        bulkheads.execute(tenant, executor, call, () -> asyncResponse.resume(busy.get()));
+    }
+
+    /**
+     * Completes with the result of the call, or with the snapshot of the task once the timeout has passed, for
+     * calls that are not resumed through an {@link AsyncResponse}, like the entries of a JSON-RPC batch.
+     *
+     * @param send the running call
+     * @param snapshot returns the current state of the task, or {@code null} if the task is not known yet, in
+     *                 which case the call is waited on for another timeout period
+     * @param executor runs the snapshot
+     */
+    public <T> CompletableFuture<T> withSnapshot(CompletableFuture<T> send, Supplier<T> snapshot, Executor executor) {
+        if (timeoutMillis <= 0) {
+            return send;
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        send.whenComplete((value, t) -> {
+            if (t == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(t);
+            }
+        });
+        scheduleSnapshot(result, snapshot, executor);
+        return result;
+    }
+
+    /**
+     * Starts the response telling the client that the server is busy, to which the transport adds its error.
+     */
+    public static Response.ResponseBuilder busy() {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+    }
+
+    private <T> void scheduleSnapshot(CompletableFuture<T> result, Supplier<T> snapshot, Executor executor) {
+        CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS, executor).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            T value = null;
+            try {
+                value = snapshot.get();
+            } catch (RuntimeException e) {
+                LOGGER.debug("Unable to get the task snapshot: {}", e.getMessage());
+            }
+            if (value != null) {
+                LOGGER.debug("Message send timed out, returning the task snapshot");
+                result.complete(value);
+            } else {
+                scheduleSnapshot(result, snapshot, executor);
+            }
+        });
+    }
+
+    private void onTimeout(AsyncResponse asyncResponse, Supplier<Response> snapshot) {
+        Response response = null;
+        try {
+            response = snapshot.get();
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to get the task snapshot: {}", e.getMessage());
+        }
+        if (response != null) {
+            LOGGER.debug("Message send timed out, returning the task snapshot");
+            asyncResponse.resume(response);
+        } else {
+            // The agent has not created the task yet, nothing to return but the final result
+            asyncResponse.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+}
@@ -0,0 +1,532 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes Server-Sent Events using Servlet non-blocking I/O.
+ *
+ * Frames are queued by the producer and handed to the {@link ServletOutputStream} only while
+ * {@link ServletOutputStream#isReady()} allows it. The remainder is written from
+ * {@link WriteListener#onWritePossible()}, so an open stream does not hold on to a container thread.
+ *
+ * Frames are queued already encoded, see {@link SseFrames}. When several are waiting they are copied into a
+ * reusable buffer and handed to the container in one write. The stream is flushed once the queue is empty,
+ * or at most once per window as configured by {@link SseFlushConfig}. The frames written with
+ * {@link #write(byte[], boolean)} are timed until they are flushed, for {@link Listener#onFlushed}.
+ *
+ * If the client accepts it, and {@link CompressionConfig} allows it, the stream is compressed and each frame
+ * is sync-flushed through the compressor so it reaches the client as soon as it is written.
+ */
+public class AsyncSseWriter implements WriteListener, AsyncListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncSseWriter.class);
+
+    private static final int BATCH_SIZE = 8192;
+    private static final long UNTIMED = Long.MIN_VALUE;
+
+    /**
+     * Callbacks from the writer to whoever is producing the frames.
+     */
+    public interface Listener {
+        /**
+         * Called when every queued frame has been handed to the container.
+         */
+        void onDrained();
+
+        /**
+         * Called once if a write fails, which usually means the client went away.
+         */
+        void onFailure(Throwable t);
+
+        /**
+         * Called once the response is complete, whether all frames were written or the stream failed.
+         */
+        default void onClosed() {
+        }
+
+        /**
+         * Called for each timed frame once it is flushed, with the time since it was queued. Called while the
+         * writer holds its lock, so it must not write.
+         */
+        default void onFlushed(long nanos) {
+        }
+    }
+
+    private static final Listener NO_OP_LISTENER = new Listener() {
+        @Override
+        public void onDrained() {
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+        }
+    };
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream output;
+    private final Queue<Frame> pending = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() walks the queue
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private final Object lock = new Object();
+    private final SseCompressor compressor;
+    private final AtomicBoolean finishQueued = new AtomicBoolean();
+    private final SseFlushConfig flushConfig;
+    private final long flushWindowNanos;
+
+    private volatile Listener listener;
+    private volatile boolean closing;
+    private volatile long lastWriteNanos = System.nanoTime();
+    private volatile long framesWritten;
+    private volatile long bytesWritten;
+    // Guarded by lock
+    private boolean flushNeeded;
+    private boolean flushScheduled;
+    private long lastFlushNanos;
+    private long unflushedBytes;
+    // When the timed frames written since the last flush were queued
+    private long[] unflushedTimes = new long[8];
+    private int unflushedTimed;
+    private byte[] batch;
+    private boolean done;
+
+    private AsyncSseWriter(AsyncContext asyncContext, ServletOutputStream output, SseCompressor compressor,
+            SseFlushConfig flushConfig) {
+        this.asyncContext = asyncContext;
+        this.output = output;
+        this.compressor = compressor;
+        this.flushConfig = flushConfig;
+        this.flushWindowNanos = flushConfig == null ? 0 : flushConfig.getWindowNanos();
+        this.lastFlushNanos = System.nanoTime() - flushWindowNanos;
+    }
+
+    /**
+     * Puts the request in asynchronous mode, unless JAX-RS already did so, and prepares the
+     * response for an event stream.
+     */
+    public static AsyncSseWriter start(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        return start(request, response, null);
+    }
+
+    /**
+     * Like {@link #start(HttpServletRequest, HttpServletResponse)}, compressing the stream if the
+     * configuration and the client's {@code Accept-Encoding} allow it.
+     *
+     * @param compression the compression settings, or {@code null} to never compress
+     */
+    public static AsyncSseWriter start(HttpServletRequest request, HttpServletResponse response,
+            CompressionConfig compression) throws IOException {
+        return start(request, response, compression, null);
+    }
+
+    /**
+     * Like {@link #start(HttpServletRequest, HttpServletResponse, CompressionConfig)}, flushing as configured.
+     *
+     * @param flush the flush settings, or {@code null} to flush as soon as the queued frames are written
+     */
+    public static AsyncSseWriter start(HttpServletRequest request, HttpServletResponse response,
+            CompressionConfig compression, SseFlushConfig flush) throws IOException {
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+
+        SseCompressor compressor = null;
+        ContentEncoding encoding = compression == null ? null : compression.negotiateSse(request.getHeader("Accept-Encoding"));
+        if (encoding != null) {
+            response.setHeader("Content-Encoding", encoding.token());
+            response.setHeader("Vary", "Accept-Encoding");
+            compressor = new SseCompressor(encoding, compression.getLevel());
+        }
+
+        AsyncContext asyncContext = request.isAsyncStarted() ? request.getAsyncContext() : request.startAsync(request, response);
+        // Streams stay open for as long as the agent produces events
+        asyncContext.setTimeout(0);
+        AsyncSseWriter writer = new AsyncSseWriter(asyncContext, response.getOutputStream(), compressor, flush);
+        asyncContext.addListener(writer);
+        return writer;
+    }
+
+    /**
+     * Registers the listener and starts writing. Frames written before this call are kept until then.
+     */
+    public void open(Listener listener) {
+        this.listener = listener;
+        output.setWriteListener(this);
+    }
+
+    /**
+     * Queues a frame and writes as much as the container currently accepts.
+     */
+    public void write(String frame) {
+        write(frame.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Queues an encoded frame and writes as much as the container currently accepts. The array is
+     * not copied, so it may be shared with other writers but must not be modified afterwards.
+     */
+    public void write(byte[] frame) {
+        write(frame, false);
+    }
+
+    /**
+     * Like {@link #write(byte[])}, timing the frame until it is flushed if {@code timed}.
+     */
+    public void write(byte[] frame, boolean timed) {
+        if (closing || failed.get()) {
+            return;
+        }
+        long now = System.nanoTime();
+        lastWriteNanos = now;
+        enqueue(frame, timed ? now : UNTIMED);
+        if (listener != null) {
+            drain();
+        }
+    }
+
+    /**
+     * Sends a single frame and completes the response, for errors reported before any stream exists.
+     */
+    public void writeAndClose(String frame) {
+        enqueue(frame.getBytes(StandardCharsets.UTF_8), UNTIMED);
+        closing = true;
+        enqueueFinish();
+        open(NO_OP_LISTENER);
+    }
+
+    /**
+     * Completes the response once the queued frames have been written.
+     */
+    public void close() {
+        closing = true;
+        enqueueFinish();
+        if (listener != null) {
+            drain();
+        }
+    }
+
+    public boolean isOpen() {
+        return !closing && !failed.get();
+    }
+
+    /**
+     * Fails the stream as if a write had failed, for clients found to be gone by other means.
+     */
+    public void abort(Throwable cause) {
+        fail(cause);
+    }
+
+    /**
+     * When the last frame was queued, in {@link System#nanoTime()} terms.
+     */
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    /**
+     * The number of frames handed to the container so far. It does not move while the client is not reading.
+     */
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    /**
+     * The number of bytes handed to the container so far, after compression.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Whether frames are waiting for the client to read.
+     */
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * The number of frames waiting for the client to read.
+     */
+    public int getPendingFrames() {
+        return pendingFrames.get();
+    }
+
+    @Override
+    public void onWritePossible() {
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        fail(t);
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        Listener current = listener;
+        if (current != null) {
+            current.onClosed();
+        }
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        fail(new TimeoutException("SSE stream timed out"));
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        fail(event.getThrowable());
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    private void enqueue(byte[] bytes, long queuedNanos) {
+        if (compressor == null) {
+            pendingFrames.incrementAndGet();
+            pending.add(new Frame(bytes, queuedNanos));
+        } else {
+            // Compress and queue together, the compressed chunks must be sent in order
+            synchronized (compressor) {
+                if (failed.get()) {
+                    // fail() has ended the compressor and cleared the queue
+                    return;
+                }
+                pendingFrames.incrementAndGet();
+                pending.add(new Frame(compressor.compress(bytes), queuedNanos));
+            }
+        }
+    }
+
+    private void enqueueFinish() {
+        if (compressor != null && !failed.get() && finishQueued.compareAndSet(false, true)) {
+            synchronized (compressor) {
+                pendingFrames.incrementAndGet();
+                pending.add(new Frame(compressor.finish(), UNTIMED));
+            }
+        }
+    }
+
+    private void drain() {
+        boolean drained = false;
+        boolean complete = false;
+        IOException failure = null;
+        synchronized (lock) {
+            if (done) {
+                return;
+            }
+            try {
+                // Each write may flip isReady() to false, in which case the container calls
+                // onWritePossible() again once the socket accepts more data
+                while (output.isReady()) {
+                    Frame frame = pending.poll();
+                    if (frame != null) {
+                        writeFrames(frame);
+                        flushNeeded = true;
+                    } else if (flushNeeded && !flushDue()) {
+                        // Flushed later by the timer, the frames are written so the producer can go on
+                        drained = true;
+                        break;
+                    } else if (flushNeeded) {
+                        flushNeeded = false;
+                        lastFlushNanos = System.nanoTime();
+                        flush();
+                    } else {
+                        if (closing) {
+                            done = true;
+                            complete = true;
+                        } else {
+                            drained = true;
+                        }
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                done = true;
+                failure = e;
+            }
+        }
+        // Call out without holding the lock, the listener may write again
+        if (failure != null) {
+            fail(failure);
+        } else if (complete) {
+            completeQuietly();
+        } else if (drained) {
+            listener.onDrained();
+        }
+    }
+
+    /**
+     * Writes the frame, together with the frames queued after it if they fit in the batch buffer.
+     * Guarded by lock.
+     */
+    private void writeFrames(Frame frame) throws IOException {
+        Frame next = pending.peek();
+        if (next == null || frame.bytes().length + next.bytes().length > BATCH_SIZE) {
+            pendingFrames.decrementAndGet();
+            write(frame.bytes(), frame.bytes().length, 1);
+            written(frame);
+            return;
+        }
+        if (batch == null) {
+            batch = new byte[BATCH_SIZE];
+        }
+        System.arraycopy(frame.bytes(), 0, batch, 0, frame.bytes().length);
+        written(frame);
+        int length = frame.bytes().length;
+        int frames = 1;
+        // Only this thread takes from the queue, so the frame polled is the one peeked
+        while ((next = pending.peek()) != null && length + next.bytes().length <= BATCH_SIZE) {
+            pending.poll();
+            System.arraycopy(next.bytes(), 0, batch, length, next.bytes().length);
+            written(next);
+            length += next.bytes().length;
+            frames++;
+        }
+        pendingFrames.addAndGet(-frames);
+        write(batch, length, frames);
+    }
+
+    /**
+     * Keeps when the frame was queued until it is flushed, if it is timed. Guarded by lock.
+     */
+    private void written(Frame frame) {
+        if (frame.queuedNanos() == UNTIMED) {
+            return;
+        }
+        if (unflushedTimed == unflushedTimes.length) {
+            unflushedTimes = Arrays.copyOf(unflushedTimes, unflushedTimed * 2);
+        }
+        unflushedTimes[unflushedTimed++] = frame.queuedNanos();
+    }
+
+    /**
+     * Guarded by lock.
+     */
+    private void write(byte[] bytes, int length, int frames) throws IOException {
+        A2AEvents.SseWrite event = new A2AEvents.SseWrite();
+        event.begin();
+        output.write(bytes, 0, length);
+        framesWritten += frames;
+        bytesWritten += length;
+        unflushedBytes += length;
+        if (event.shouldCommit()) {
+            event.frames = frames;
+            event.bytes = length;
+            event.commit();
+        }
+    }
+
+    /**
+     * Guarded by lock.
+     */
+    private void flush() throws IOException {
+        A2AEvents.SseFlush event = new A2AEvents.SseFlush();
+        event.begin();
+        output.flush();
+        if (event.shouldCommit()) {
+            event.bytes = unflushedBytes;
+            event.commit();
+        }
+        unflushedBytes = 0;
+        if (unflushedTimed > 0) {
+            long now = System.nanoTime();
+            for (int i = 0; i < unflushedTimed; i++) {
+                listener.onFlushed(now - unflushedTimes[i]);
+            }
+            unflushedTimed = 0;
+        }
+    }
+
+    /**
+     * Whether the stream may be flushed now, otherwise schedules the flush for the end of the window.
+     * Guarded by lock.
+     */
+    private boolean flushDue() {
+        if (closing) {
+            return true;
+        }
+        long wait = flushWindowNanos - (System.nanoTime() - lastFlushNanos);
+        if (wait <= 0) {
+            return true;
+        }
+        if (!flushScheduled) {
+            if (!flushConfig.scheduleFlush(this::onFlushDue, wait)) {
+                return true;
+            }
+            flushScheduled = true;
+        }
+        return false;
+    }
+
+    private void onFlushDue() {
+        synchronized (lock) {
+            flushScheduled = false;
+        }
+        drain();
+    }
+
+    private void fail(Throwable t) {
+        if (failed.compareAndSet(false, true)) {
+            LOGGER.debug("SSE write failed: {}", t == null ? null : t.getMessage());
+            synchronized (lock) {
+                done = true;
+            }
+            if (compressor == null) {
+                pending.clear();
+                pendingFrames.set(0);
+            } else {
+                // Under the lock of enqueue(), so no frame is compressed or queued while the compressor ends
+                synchronized (compressor) {
+                    pending.clear();
+                    pendingFrames.set(0);
+                    compressor.end();
+                }
+            }
+            Listener current = listener;
+            if (current != null) {
+                current.onFailure(t);
+            }
+            completeQuietly();
+        }
+    }
+
+    private void completeQuietly() {
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException e) {
+            // Already completed by the container after a client disconnect
+            LOGGER.debug("Error completing SSE response: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * A queued frame, with when it was queued if it is timed.
+     */
+    private record Frame(byte[] bytes, long queuedNanos) {
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * A JSON document serialized once and kept as bytes, together with a gzip compressed copy and a strong
+ * ETag for each of them.
+ */
+public final class CachedRepresentation {
+
+    private final String contentType;
+    private final byte[] body;
+    private final byte[] gzipBody;
+    private final EntityTag etag;
+    private final EntityTag gzipEtag;
+
+    private CachedRepresentation(String contentType, byte[] body) {
+        this.contentType = contentType;
+        this.body = body;
+        this.gzipBody = gzip(body);
+        String hash = hash(body);
+        this.etag = new EntityTag(hash);
+        // Strong ETags identify the exact bytes, so the compressed copy needs its own
+        this.gzipEtag = new EntityTag(hash + "-" + ContentEncoding.GZIP.token());
+    }
+
+    public static CachedRepresentation of(String json, String contentType) {
+        return new CachedRepresentation(contentType, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public EntityTag getEtag() {
+        return etag;
+    }
+
+    /**
+     * Builds the response for a conditional GET: {@code 304 Not Modified} if the client already has the
+     * selected variant, otherwise the cached bytes, compressed if the client accepts gzip.
+     */
+    public Response toResponse(Request request, HttpHeaders headers, CacheControl cacheControl) {
+        boolean gzip = ContentEncoding.GZIP.isAccepted(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        EntityTag selected = gzip ? gzipEtag : etag;
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(selected);
+        if (notModified != null) {
+            return notModified
+                    .cacheControl(cacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        Response.ResponseBuilder builder = Response.ok(gzip ? gzipBody : body)
+                .header(HttpHeaders.CONTENT_TYPE, contentType)
+                .tag(selected)
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, ContentEncoding.GZIP.token());
+        }
+        return builder.build();
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
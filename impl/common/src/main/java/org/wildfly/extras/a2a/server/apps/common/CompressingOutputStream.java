@@ -0,0 +1,115 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * Holds back the first bytes of a response until it is known to be large enough to be worth compressing.
+ * Responses that end below the threshold are written as they are, larger ones are compressed and get the
+ * {@code Content-Encoding} header, which is still possible since nothing has been committed yet.
+ */
+class CompressingOutputStream extends OutputStream {
+
+    private final OutputStream delegate;
+    private final MultivaluedMap<String, Object> headers;
+    private final ContentEncoding encoding;
+    private final int level;
+    private final byte[] buffer;
+    private int count;
+    private DeflaterOutputStream compressor;
+    private boolean finished;
+
+    CompressingOutputStream(OutputStream delegate, MultivaluedMap<String, Object> headers, ContentEncoding encoding,
+            int threshold, int level) {
+        this.delegate = delegate;
+        this.headers = headers;
+        this.encoding = encoding;
+        this.level = level;
+        this.buffer = new byte[threshold];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (compressor != null) {
+            compressor.write(b, off, len);
+        } else if (count + len <= buffer.length) {
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        } else {
+            startCompressing();
+            compressor.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // Below the threshold there is nothing to flush yet, the decision is taken on the next write or on close
+        if (compressor != null) {
+            compressor.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (compressor != null) {
+            // Writes the trailer and releases the Deflater, the delegate is left open
+            compressor.close();
+        } else if (count > 0) {
+            delegate.write(buffer, 0, count);
+        }
+        delegate.flush();
+    }
+
+    private void startCompressing() throws IOException {
+        headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding.token());
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        compressor = encoding.compress(new NonClosingOutputStream(delegate), level);
+        compressor.write(buffer, 0, count);
+        count = 0;
+    }
+
+    private static final class NonClosingOutputStream extends OutputStream {
+        private final OutputStream delegate;
+
+        NonClosingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.flush();
+        }
+    }
+}
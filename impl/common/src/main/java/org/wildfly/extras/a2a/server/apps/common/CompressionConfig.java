@@ -0,0 +1,66 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+
+/**
+ * Settings of the response compression.
+ * The defaults are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class CompressionConfig {
+
+    static final String ENABLED = "a2a.jakarta.compression.enabled";
+    static final String MIN_SIZE = "a2a.jakarta.compression.min-size";
+    static final String LEVEL = "a2a.jakarta.compression.level";
+    static final String SSE_ENABLED = "a2a.jakarta.compression.sse.enabled";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private boolean enabled;
+    private int minSize;
+    private int level;
+    private boolean sseEnabled;
+
+    @PostConstruct
+    void init() {
+        enabled = Boolean.parseBoolean(configProvider.getValue(ENABLED));
+        minSize = Integer.parseInt(configProvider.getValue(MIN_SIZE));
+        level = Integer.parseInt(configProvider.getValue(LEVEL));
+        sseEnabled = Boolean.parseBoolean(configProvider.getValue(SSE_ENABLED));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Responses smaller than this are not worth the CPU and are sent uncompressed.
+     */
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isSseEnabled() {
+        return enabled && sseEnabled;
+    }
+
+    /**
+     * Picks the coding for an event stream, or {@code null} to leave it uncompressed.
+     */
+    public ContentEncoding negotiateSse(String acceptEncoding) {
+        return isSseEnabled() ? ContentEncoding.negotiate(acceptEncoding) : null;
+    }
+}
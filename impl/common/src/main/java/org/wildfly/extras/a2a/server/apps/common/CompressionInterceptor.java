@@ -0,0 +1,64 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.IOException;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Compresses JSON responses with gzip or deflate, as negotiated through {@code Accept-Encoding}.
+ * Responses below {@link CompressionConfig#getMinSize()} are left as they are. Event streams are written
+ * straight to the servlet response and are compressed by {@link AsyncSseWriter} instead.
+ */
+@Provider
+@ApplicationScoped
+public class CompressionInterceptor implements WriterInterceptor {
+
+    @Inject
+    CompressionConfig config;
+
+    @Inject
+    HttpServletRequest request;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        if (!config.isEnabled() || !isJson(context.getMediaType())
+                || context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)
+                || context.getHeaders().containsKey(HttpHeaders.ETAG)) {
+            // Cached representations, like the agent card, come with their own encoding and ETag
+            context.proceed();
+            return;
+        }
+        context.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            context.proceed();
+            return;
+        }
+        CompressingOutputStream output = new CompressingOutputStream(context.getOutputStream(), context.getHeaders(),
+                encoding, config.getMinSize(), config.getLevel());
+        context.setOutputStream(output);
+        context.proceed();
+        output.close();
+    }
+
+    private static boolean isJson(MediaType mediaType) {
+        if (mediaType == null) {
+            return false;
+        }
+        String subtype = mediaType.getSubtype();
+        return "application".equals(mediaType.getType())
+                && ("json".equals(subtype) || subtype.endsWith("+json"));
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+
+/**
+ * Limits the number of non-streaming calls in flight, adapting the limit to their latency.
+ *
+ * Each {@link Operation} has its own limit, so reads do not wait behind message sends. The limit follows the
+ * gradient between the long term and the recent latency of the operation: it shrinks when calls get slower
+ * than usual, as they do once the agent or its model backend is saturated, and grows while they keep their
+ * pace. As the long term latency follows the recent one, an agent whose latency moves from hundreds of
+ * milliseconds to a minute with the backend gets a limit for its new pace rather than one tuned for the old.
+ * Calls beyond the limit are turned down and the client is told to retry later.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class ConcurrencyLimiter {
+
+    static final String ENABLED = "a2a.jakarta.limit.enabled";
+    static final String INITIAL = "a2a.jakarta.limit.%s.initial";
+    static final String MAX = "a2a.jakarta.limit.%s.max";
+    static final String MIN = "a2a.jakarta.limit.min";
+    static final String TOLERANCE = "a2a.jakarta.limit.tolerance";
+
+    // Number of samples the long term latency is averaged over
+    private static final int LONG_WINDOW = 600;
+    // Share of the new limit in the next one
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * The classes of calls that are limited separately.
+     */
+    public enum Operation {
+        /**
+         * {@code message:send}, which runs the agent.
+         */
+        SEND,
+        /**
+         * Getting and listing tasks.
+         */
+        READ,
+        /**
+         * Canceling a task.
+         */
+        CANCEL
+    }
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    // The time the latencies are measured with, replaced by the tests
+    LongSupplier clock = System::nanoTime;
+
+    private final Map<Operation, Limit> limits = new EnumMap<>(Operation.class);
+    private boolean enabled;
+
+    @PostConstruct
+    void init() {
+        enabled = Boolean.parseBoolean(configProvider.getValue(ENABLED));
+        int min = Math.max(1, Integer.parseInt(configProvider.getValue(MIN)));
+        double tolerance = Math.max(1, Double.parseDouble(configProvider.getValue(TOLERANCE)));
+        for (Operation operation : Operation.values()) {
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            int max = Math.max(min, Integer.parseInt(configProvider.getValue(String.format(MAX, name))));
+            int initial = Math.min(max, Math.max(min, Integer.parseInt(configProvider.getValue(String.format(INITIAL, name)))));
+            limits.put(operation, new Limit(initial, min, max, tolerance, clock));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a place for a call.
+     *
+     * @return the permit to release once the call is done, or {@code null} if the call is turned down
+     */
+    public Permit tryAcquire(Operation operation) {
+        if (!enabled) {
+            return Permit.UNLIMITED;
+        }
+        Limit limit = limits.get(operation);
+        int inFlight = limit.inFlight.incrementAndGet();
+        if (inFlight > limit.limit) {
+            limit.inFlight.decrementAndGet();
+            limit.rejected.increment();
+            return null;
+        }
+        return new Permit(limit, inFlight);
+    }
+
+    /**
+     * The current number of calls of the operation that may be in flight.
+     */
+    public int getLimit(Operation operation) {
+        return limits.get(operation).limit;
+    }
+
+    /**
+     * The number of calls of the operation in flight.
+     */
+    public int getInFlight(Operation operation) {
+        return limits.get(operation).inFlight.get();
+    }
+
+    /**
+     * The number of calls of the operation that were turned down.
+     */
+    public long getRejected(Operation operation) {
+        return limits.get(operation).rejected.sum();
+    }
+
+    /**
+     * The place of a call in flight.
+     */
+    public static final class Permit {
+        static final Permit UNLIMITED = new Permit(null, 0);
+
+        private final Limit limit;
+        private final int inFlight;
+        private final long start;
+
+        private Permit(Limit limit, int inFlight) {
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.start = limit == null ? 0 : limit.clock.getAsLong();
+        }
+
+        /**
+         * Gives the place back and lets the latency of the call adjust the limit. Must be called once.
+         */
+        public void release() {
+            if (limit != null) {
+                limit.inFlight.decrementAndGet();
+                limit.sample(limit.clock.getAsLong() - start, inFlight);
+            }
+        }
+    }
+
+    private static final class Limit {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder rejected = new LongAdder();
+        private final int min;
+        private final int max;
+        private final double tolerance;
+        private final LongSupplier clock;
+        private volatile int limit;
+        // Guarded by this
+        private double estimate;
+        private double longLatency;
+        private long samples;
+
+        Limit(int initial, int min, int max, double tolerance, LongSupplier clock) {
+            this.limit = initial;
+            this.estimate = initial;
+            this.min = min;
+            this.max = max;
+            this.tolerance = tolerance;
+            this.clock = clock;
+        }
+
+        synchronized void sample(long latency, int inFlight) {
+            samples++;
+            longLatency += (latency - longLatency) / Math.min(samples, LONG_WINDOW);
+            if (longLatency > 2.0 * latency) {
+                // Calls got much faster, let the long term latency catch up rather than growing for a long time
+                longLatency *= 0.95;
+            }
+            if (inFlight < estimate / 2) {
+                // The limit was not what held the calls back, this says nothing about it
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / Math.max(1, latency)));
+            double next = estimate * gradient + Math.sqrt(estimate);
+            estimate = Math.max(min, Math.min(max, estimate * (1 - SMOOTHING) + next * SMOOTHING));
+            limit = (int) estimate;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content codings the transports can compress responses with.
+ */
+public enum ContentEncoding {
+
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * The value of the {@code Content-Encoding} header.
+     */
+    public String token() {
+        return token;
+    }
+
+    /**
+     * Wraps the stream in a compressor for this coding. {@code deflate} is the zlib format, as required by
+     * RFC 9110, not raw deflate.
+     */
+    public DeflaterOutputStream compress(OutputStream out, int level) throws IOException {
+        if (this == GZIP) {
+            return new GZIPOutputStream(out, 8192, true) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+        return new DeflaterOutputStream(out, new Deflater(level), 8192, true) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                // Deflater passed in by us, so the stream does not end it
+                def.end();
+            }
+        };
+    }
+
+    /**
+     * Picks the coding to use for an {@code Accept-Encoding} header, preferring gzip when the client
+     * rates both the same.
+     *
+     * @return the coding, or {@code null} if the response should not be compressed
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        float gzip = GZIP.quality(acceptEncoding);
+        float deflate = DEFLATE.quality(acceptEncoding);
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+        if (deflate > 0) {
+            return DEFLATE;
+        }
+        return null;
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows this coding.
+     */
+    public boolean isAccepted(String acceptEncoding) {
+        return quality(acceptEncoding) > 0;
+    }
+
+    private float quality(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return -1;
+        }
+        float wildcard = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(token)) {
+                // An explicit entry wins over the wildcard
+                return qualityOf(parts);
+            } else if (name.equals("*")) {
+                wildcard = qualityOf(parts);
+            }
+        }
+        return wildcard;
+    }
+
+    private static float qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Float.parseFloat(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.naming.NamingException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.core.Response;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the A2A calls on separate lanes by their class, so task lookups do not wait behind agent runs.
+ *
+ * The calls that run agents, i.e. sending messages and subscribing to tasks, use the {@link Lane#AGENT} lane,
+ * which is the {@code @Internal} executor. All others, getting, listing and canceling tasks and managing push
+ * notification configurations, are cheap and use the {@link Lane#CONTROL} lane, whose threads are reserved for
+ * them. The control threads are created by the Jakarta Concurrency {@code ManagedThreadFactory} bound to the
+ * configured JNDI name, so they get the context of the deployment from the container. If the name is bound to
+ * a {@code ManagedExecutorService} instead, the control calls run on it, sharing its threads, and at most
+ * {@code queue-size} of them may wait for one. With {@code 0} control threads, or if nothing usable is bound to
+ * the name, the control calls run on the request thread as before.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class ExecutionLanes {
+
+    static final String CONTROL_THREADS = "a2a.jakarta.lanes.control.threads";
+    static final String CONTROL_QUEUE_SIZE = "a2a.jakarta.lanes.control.queue-size";
+    static final String CONTROL_JNDI_NAME = "a2a.jakarta.lanes.control.jndi-name";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutionLanes.class);
+
+    // The A2A methods that run the agent, all others are control calls
+    private static final Set<String> AGENT_METHODS = Set.of("SendMessage", "SendStreamingMessage", "SubscribeToTask");
+
+    /**
+     * The classes of calls that run on separate threads.
+     */
+    public enum Lane {
+        /**
+         * Calls that run the agent.
+         */
+        AGENT,
+        /**
+         * Calls that only read or update the stored tasks.
+         */
+        CONTROL
+    }
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    // Finds what the control lane runs on, replaced by the tests
+    JndiLookup jndi = JndiLookup.INITIAL_CONTEXT;
+
+    private ExecutorService control;
+
+    @PostConstruct
+    void init() {
+        int threads = Integer.parseInt(configProvider.getValue(CONTROL_THREADS));
+        if (threads > 0) {
+            control = newControlLane(configProvider.getValue(CONTROL_JNDI_NAME).trim(), threads,
+                    Math.max(0, Integer.parseInt(configProvider.getValue(CONTROL_QUEUE_SIZE))));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (control instanceof ThreadPoolExecutor pool) {
+            pool.shutdownNow();
+        } else if (control != null) {
+            // The threads belong to the container, only stop taking calls
+            control.shutdown();
+        }
+    }
+
+    /**
+     * Returns the lane of the A2A method, as named in the JSON-RPC requests and the gRPC service.
+     */
+    public static Lane classify(String method) {
+        return AGENT_METHODS.contains(method) ? Lane.AGENT : Lane.CONTROL;
+    }
+
+    /**
+     * Returns the executor of the lane.
+     *
+     * @param agentExecutor the {@code @Internal} executor
+     * @return the executor, or {@code null} if the calls of the lane run on the request thread
+     */
+    public Executor executor(Lane lane, Executor agentExecutor) {
+        return lane == Lane.AGENT ? agentExecutor : control;
+    }
+
+    /**
+     * Runs the call on the executor of the lane and resumes the response with its result.
+     *
+     * @param busy returns the error response for a call the lane turned down
+     */
+    public void execute(Lane lane, Executor agentExecutor, AsyncResponse asyncResponse, Supplier<Response> call,
+            Supplier<Response> busy) {
+        Runnable task = () -> {
+            try {
+                asyncResponse.resume(call.get());
+            } catch (Throwable t) {
+                asyncResponse.resume(t);
+            }
+        };
+        Executor executor = executor(lane, agentExecutor);
+        if (executor == null) {
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            asyncResponse.resume(busy.get());
+        }
+    }
+
+    /**
+     * The number of control calls running.
+     */
+    public int getControlActiveCount() {
+        if (control instanceof ThreadPoolExecutor pool) {
+            return pool.getActiveCount();
+        }
+        return control instanceof ManagedInternalExecutor managed ? managed.getActiveCount() : 0;
+    }
+
+    /**
+     * The number of control calls waiting for a thread.
+     */
+    public int getControlQueueDepth() {
+        if (control instanceof ThreadPoolExecutor pool) {
+            return pool.getQueue().size();
+        }
+        return control instanceof ManagedInternalExecutor managed ? managed.getQueueDepth() : 0;
+    }
+
+    /**
+     * Looks up what the control lane runs on.
+     *
+     * @return {@code null} if nothing usable is bound to the name
+     */
+    private ExecutorService newControlLane(String jndiName, int threads, int queueSize) {
+        Object found;
+        try {
+            found = jndi.lookup(jndiName);
+        } catch (NamingException e) {
+            LOGGER.error("Unable to look up {}, running the control calls on the request thread: {}",
+                    jndiName, e.toString());
+            return null;
+        }
+        if (found instanceof ExecutorService executor) {
+            LOGGER.info("The control lane uses the managed executor {} with a queue of {} calls", jndiName, queueSize);
+            return new ManagedInternalExecutor(executor, queueSize);
+        }
+        if (found instanceof ThreadFactory threadFactory) {
+            LOGGER.info("The control lane uses {} threads of the managed thread factory {}", threads, jndiName);
+            return newLane(threads, queueSize, threadFactory);
+        }
+        LOGGER.error("{} is neither a managed executor nor a managed thread factory, running the control calls "
+                + "on the request thread", jndiName);
+        return null;
+    }
+
+    /**
+     * Creates the threads of a lane, which reject the calls once {@code queueSize} of them are waiting.
+     */
+    static ThreadPoolExecutor newLane(int threads, int queueSize, ThreadFactory threadFactory) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
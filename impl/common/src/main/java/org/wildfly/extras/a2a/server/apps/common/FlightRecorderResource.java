@@ -0,0 +1,156 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.time.Duration;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes a flight recording of the server on demand: {@code POST} starts it, {@code GET} returns what it holds so
+ * far as a {@code .jfr} file and {@code DELETE} stops it.
+ *
+ * The recording has the JDK {@code default} settings and the {@link A2AEvents}, and only keeps the last
+ * {@code max-age-seconds} or {@code max-size-mb} of them, so it can be left running. Only one runs at a time.
+ *
+ * The endpoint is off unless {@code a2a.jakarta.jfr.admin.enabled} is set, and should then be protected by a
+ * security constraint of the deployment. The defaults of the settings are in
+ * {@code META-INF/a2a-defaults.properties}.
+ */
+@Path("/admin/jfr")
+@ApplicationScoped
+public class FlightRecorderResource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlightRecorderResource.class);
+
+    static final String ENABLED = "a2a.jakarta.jfr.admin.enabled";
+    static final String MAX_AGE = "a2a.jakarta.jfr.admin.max-age-seconds";
+    static final String MAX_SIZE = "a2a.jakarta.jfr.admin.max-size-mb";
+
+    private static final String RECORDING_NAME = "a2a";
+    private static final String SETTINGS = "default";
+    private static final String JFR_MEDIA_TYPE = "application/octet-stream";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private boolean enabled;
+    private Duration maxAge;
+    private long maxSize;
+    // Guarded by this
+    private Recording recording;
+
+    @PostConstruct
+    void init() {
+        enabled = Boolean.parseBoolean(configProvider.getValue(ENABLED));
+        maxAge = Duration.ofSeconds(Long.parseLong(configProvider.getValue(MAX_AGE)));
+        maxSize = Long.parseLong(configProvider.getValue(MAX_SIZE)) * 1024 * 1024;
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    @POST
+    public synchronized Response start() throws IOException, ParseException {
+        if (!enabled) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return Response.status(Response.Status.CONFLICT)
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .entity("A recording is already running")
+                    .build();
+        }
+        close();
+        Recording started = new Recording(Configuration.getConfiguration(SETTINGS));
+        started.setName(RECORDING_NAME);
+        started.setToDisk(true);
+        started.setMaxAge(maxAge);
+        started.setMaxSize(maxSize);
+        for (Class<? extends Event> type : A2AEvents.TYPES) {
+            started.enable(type);
+        }
+        started.start();
+        recording = started;
+        LOGGER.info("Started flight recording {}, keeping the last {} or {} bytes", started.getId(), maxAge, maxSize);
+        return Response.status(Response.Status.CREATED)
+                .type(MediaType.TEXT_PLAIN_TYPE)
+                .entity(String.valueOf(started.getId()))
+                .build();
+    }
+
+    @GET
+    public Response dump() throws IOException {
+        java.nio.file.Path file;
+        synchronized (this) {
+            if (!enabled || recording == null) {
+                return Response.status(Response.Status.NOT_FOUND).build();
+            }
+            file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+            try {
+                recording.dump(file);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+        }
+        StreamingOutput output = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                deleteQuietly(file);
+            }
+        };
+        return Response.ok(output, JFR_MEDIA_TYPE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .build();
+    }
+
+    @DELETE
+    public synchronized Response stop() {
+        if (!enabled || recording == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        close();
+        return Response.noContent().build();
+    }
+
+    private static void deleteQuietly(java.nio.file.Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import static io.a2a.spec.A2AMethods.CANCEL_TASK_METHOD;
+import static io.a2a.spec.A2AMethods.DELETE_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.GET_TASK_METHOD;
+import static io.a2a.spec.A2AMethods.GET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.LIST_TASK_METHOD;
+import static io.a2a.spec.A2AMethods.LIST_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.SEND_MESSAGE_METHOD;
+import static io.a2a.spec.A2AMethods.SEND_STREAMING_MESSAGE_METHOD;
+import static io.a2a.spec.A2AMethods.SET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.SUBSCRIBE_TO_TASK_METHOD;
+
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+
+import io.a2a.jsonrpc.common.wrappers.ListTasksResult;
+import io.a2a.server.ServerCallContext;
+import io.a2a.server.requesthandlers.RequestHandler;
+import io.a2a.spec.A2AError;
+import io.a2a.spec.CancelTaskParams;
+import io.a2a.spec.DeleteTaskPushNotificationConfigParams;
+import io.a2a.spec.EventKind;
+import io.a2a.spec.GetTaskPushNotificationConfigParams;
+import io.a2a.spec.ListTaskPushNotificationConfigsParams;
+import io.a2a.spec.ListTaskPushNotificationConfigsResult;
+import io.a2a.spec.ListTasksParams;
+import io.a2a.spec.MessageSendParams;
+import io.a2a.spec.StreamingEventKind;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskIdParams;
+import io.a2a.spec.TaskPushNotificationConfig;
+import io.a2a.spec.TaskQueryParams;
+import io.a2a.spec.TransportProtocol;
+
+/**
+ * Records a {@link A2AEvents.HandlerDispatch} for each call into the {@link RequestHandler}, whichever transport
+ * it comes from. The transports all go through the same request handler bean, so it is decorated once here rather
+ * than at each of their call sites.
+ */
+@Decorator
+@Priority(Interceptor.Priority.LIBRARY_BEFORE)
+public abstract class HandlerDispatchEvents implements RequestHandler {
+
+    @Inject
+    @Delegate
+    RequestHandler delegate;
+
+    @Override
+    public EventKind onMessageSend(MessageSendParams params, ServerCallContext context) {
+        return dispatch(SEND_MESSAGE_METHOD, context, () -> delegate.onMessageSend(params, context));
+    }
+
+    @Override
+    public Flow.Publisher<StreamingEventKind> onMessageSendStream(MessageSendParams params, ServerCallContext context) {
+        return dispatch(SEND_STREAMING_MESSAGE_METHOD, context, () -> delegate.onMessageSendStream(params, context));
+    }
+
+    @Override
+    public Task onGetTask(TaskQueryParams params, ServerCallContext context) {
+        return dispatch(GET_TASK_METHOD, context, () -> delegate.onGetTask(params, context));
+    }
+
+    @Override
+    public ListTasksResult onListTasks(ListTasksParams params, ServerCallContext context) {
+        return dispatch(LIST_TASK_METHOD, context, () -> delegate.onListTasks(params, context));
+    }
+
+    @Override
+    public Task onCancelTask(CancelTaskParams params, ServerCallContext context) {
+        return dispatch(CANCEL_TASK_METHOD, context, () -> delegate.onCancelTask(params, context));
+    }
+
+    @Override
+    public Flow.Publisher<StreamingEventKind> onSubscribeToTask(TaskIdParams params, ServerCallContext context) {
+        return dispatch(SUBSCRIBE_TO_TASK_METHOD, context, () -> delegate.onSubscribeToTask(params, context));
+    }
+
+    @Override
+    public TaskPushNotificationConfig onCreateTaskPushNotificationConfig(TaskPushNotificationConfig config,
+            ServerCallContext context) {
+        return dispatch(SET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD, context,
+                () -> delegate.onCreateTaskPushNotificationConfig(config, context));
+    }
+
+    @Override
+    public TaskPushNotificationConfig onGetTaskPushNotificationConfig(GetTaskPushNotificationConfigParams params,
+            ServerCallContext context) {
+        return dispatch(GET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD, context,
+                () -> delegate.onGetTaskPushNotificationConfig(params, context));
+    }
+
+    @Override
+    public ListTaskPushNotificationConfigsResult onListTaskPushNotificationConfigs(
+            ListTaskPushNotificationConfigsParams params, ServerCallContext context) throws A2AError {
+        return dispatch(LIST_TASK_PUSH_NOTIFICATION_CONFIG_METHOD, context,
+                () -> delegate.onListTaskPushNotificationConfigs(params, context));
+    }
+
+    @Override
+    public void onDeleteTaskPushNotificationConfig(DeleteTaskPushNotificationConfigParams params,
+            ServerCallContext context) {
+        dispatch(DELETE_TASK_PUSH_NOTIFICATION_CONFIG_METHOD, context, () -> {
+            delegate.onDeleteTaskPushNotificationConfig(params, context);
+            return null;
+        });
+    }
+
+    private static <T> T dispatch(String method, ServerCallContext context, Supplier<T> call) {
+        A2AEvents.HandlerDispatch event = new A2AEvents.HandlerDispatch();
+        event.begin();
+        try {
+            return call.get();
+        } finally {
+            if (event.shouldCommit()) {
+                event.method = method;
+                event.transport = context != null
+                        && context.getState().get(ServerCallContext.TRANSPORT_KEY) instanceof TransportProtocol transport
+                        ? transport.asString() : null;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.naming.NamingException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Which threads the {@code @Internal} executor, which runs the agents and the asynchronous requests, uses.
+ *
+ * With {@code platform}, the default, the executor of the SDK is used. With {@code virtual}, on Java 21 and
+ * later, each task gets a virtual thread, which suits agents that spend most of their time waiting on LLM and
+ * tool calls. Virtual threads that stay pinned to their carrier for longer than the threshold are reported.
+ * With {@code managed}, the tasks run on the Jakarta Concurrency {@code ManagedExecutorService} bound to the
+ * configured JNDI name, so the pool is sized in the server configuration, and at most {@code queue-size} tasks
+ * may wait for one of its threads. The tasks get whatever context the managed executor propagates, which
+ * never includes the CDI request context, so a managed executor whose context service only propagates the
+ * class loader keeps the cost per task low.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ *
+ * @see InternalExecutorExtension
+ */
+@ApplicationScoped
+public class InternalExecutorConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InternalExecutorConfig.class);
+
+    static final String THREADS = "a2a.jakarta.executor.threads";
+    static final String PINNING_THRESHOLD = "a2a.jakarta.executor.pinning-threshold-ms";
+    static final String MANAGED_EXECUTOR = "a2a.jakarta.executor.managed.jndi-name";
+    static final String QUEUE_SIZE = "a2a.jakarta.executor.managed.queue-size";
+
+    static final String THREADS_PLATFORM = "platform";
+    static final String THREADS_VIRTUAL = "virtual";
+    static final String THREADS_MANAGED = "managed";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    // Finds the managed executor, replaced by the tests
+    JndiLookup jndi = JndiLookup.INITIAL_CONTEXT;
+
+    private final LongAdder pinnedEvents = new LongAdder();
+    private boolean virtual;
+    private boolean managed;
+    private Duration pinningThreshold;
+    private String managedExecutorName;
+    private int queueSize;
+    private ExecutorService virtualExecutor;
+    private volatile ManagedInternalExecutor managedExecutor;
+    private AutoCloseable pinningMonitor;
+
+    @PostConstruct
+    void init() {
+        String threads = configProvider.getValue(THREADS).trim().toLowerCase(Locale.ROOT);
+        if (THREADS_VIRTUAL.equals(threads)) {
+            virtual = VirtualThreads.isSupported();
+            if (!virtual) {
+                LOGGER.warn("{} is set to '{}' but virtual threads need Java 21, using platform threads", THREADS, threads);
+            }
+        } else if (THREADS_MANAGED.equals(threads)) {
+            managed = true;
+        } else if (!THREADS_PLATFORM.equals(threads)) {
+            LOGGER.warn("Unknown value '{}' for {}, using platform threads", threads, THREADS);
+        }
+        pinningThreshold = Duration.ofMillis(Long.parseLong(configProvider.getValue(PINNING_THRESHOLD)));
+        managedExecutorName = configProvider.getValue(MANAGED_EXECUTOR).trim();
+        queueSize = Math.max(0, Integer.parseInt(configProvider.getValue(QUEUE_SIZE)));
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        if (pinningMonitor != null) {
+            try {
+                pinningMonitor.close();
+            } catch (Exception e) {
+                LOGGER.debug("Error closing the pinning monitor: {}", e.getMessage());
+            }
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public boolean isManaged() {
+        return managed;
+    }
+
+    /**
+     * The number of times a virtual thread was reported as pinned.
+     */
+    public long getPinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    /**
+     * The number of tasks running on the managed executor, {@code 0} if it is not used.
+     */
+    public int getActiveCount() {
+        ManagedInternalExecutor executor = managedExecutor;
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    /**
+     * The number of tasks waiting for a thread of the managed executor.
+     */
+    public int getQueueDepth() {
+        ManagedInternalExecutor executor = managedExecutor;
+        return executor == null ? 0 : executor.getQueueDepth();
+    }
+
+    /**
+     * The number of tasks the managed executor turned down because its queue was full.
+     */
+    public long getRejectedCount() {
+        ManagedInternalExecutor executor = managedExecutor;
+        return executor == null ? 0 : executor.getRejectedCount();
+    }
+
+    /**
+     * The average time, in milliseconds, the tasks waited for a thread of the managed executor.
+     */
+    public double getAverageTaskWaitMillis() {
+        ManagedInternalExecutor executor = managedExecutor;
+        long count = executor == null ? 0 : executor.getStartedCount();
+        return count == 0 ? 0 : (double) executor.getTotalWaitNanos() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * The longest time, in milliseconds, a task waited for a thread of the managed executor.
+     */
+    public long getMaxTaskWaitMillis() {
+        ManagedInternalExecutor executor = managedExecutor;
+        return executor == null ? 0 : TimeUnit.NANOSECONDS.toMillis(executor.getMaxWaitNanos());
+    }
+
+    /**
+     * Whether the failure comes from a task the internal executor turned down, in which case the client is told
+     * that the server is busy rather than that it failed.
+     */
+    public static boolean isRejected(Throwable t) {
+        return ManagedInternalExecutor.isRejected(t);
+    }
+
+    /**
+     * Creates the virtual thread executor and starts reporting pinned threads.
+     */
+    synchronized ExecutorService newVirtualExecutor() {
+        virtualExecutor = VirtualThreads.newExecutor("a2a-internal");
+        if (pinningMonitor == null && !pinningThreshold.isZero()) {
+            try {
+                pinningMonitor = VirtualThreads.monitorPinning(pinningThreshold, this::onPinned);
+            } catch (LinkageError | RuntimeException e) {
+                // JFR may not be visible to the deployment
+                LOGGER.info("Unable to monitor virtual thread pinning: {}", e.toString());
+            }
+        }
+        LOGGER.info("The internal executor uses virtual threads");
+        return virtualExecutor;
+    }
+
+    /**
+     * Looks the managed executor up and bounds the number of tasks waiting for it.
+     *
+     * @return {@code null} if there is no managed executor with the configured name
+     */
+    synchronized ExecutorService newManagedExecutor() {
+        Object found;
+        try {
+            found = jndi.lookup(managedExecutorName);
+        } catch (NamingException e) {
+            LOGGER.error("Unable to look up the managed executor {}, using the executor of the SDK: {}",
+                    managedExecutorName, e.toString());
+            return null;
+        }
+        if (!(found instanceof ExecutorService executor)) {
+            LOGGER.error("{} is not a managed executor, using the executor of the SDK", managedExecutorName);
+            return null;
+        }
+        managedExecutor = new ManagedInternalExecutor(executor, queueSize);
+        LOGGER.info("The internal executor uses the managed executor {} with a queue of {} tasks",
+                managedExecutorName, queueSize);
+        return managedExecutor;
+    }
+
+    /**
+     * Shuts the executor down if it is the virtual thread or the managed executor.
+     *
+     * @return whether it was
+     */
+    synchronized boolean disposeExecutor(Object executor) {
+        if (executor == null) {
+            return false;
+        }
+        if (executor == virtualExecutor) {
+            virtualExecutor.shutdown();
+            virtualExecutor = null;
+            return true;
+        }
+        if (executor == managedExecutor) {
+            // The threads belong to the container, only stop taking tasks
+            managedExecutor.shutdown();
+            return true;
+        }
+        return false;
+    }
+
+    private void onPinned(String description) {
+        pinnedEvents.increment();
+        LOGGER.warn(description);
+    }
+}
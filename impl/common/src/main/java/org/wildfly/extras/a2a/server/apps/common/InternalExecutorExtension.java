@@ -0,0 +1,113 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.inject.spi.Extension;
+import jakarta.enterprise.inject.spi.InjectionPoint;
+import jakarta.enterprise.inject.spi.ProcessProducer;
+import jakarta.enterprise.inject.spi.Producer;
+
+import io.a2a.server.util.async.Internal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lets {@link InternalExecutorConfig} replace the {@code @Internal} executor of the SDK with a virtual thread
+ * or a managed executor, and runs its tasks in the trace context of {@link A2ATracing} they were submitted from.
+ *
+ * The SDK producer is wrapped rather than replaced by an alternative, so the choice can be made from the
+ * configuration when the executor is first needed, and the SDK executor is used unchanged otherwise.
+ */
+public class InternalExecutorExtension implements Extension {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InternalExecutorExtension.class);
+
+    <T, X> void wrapInternalExecutor(@Observes ProcessProducer<T, X> event, BeanManager beanManager) {
+        if (!event.getAnnotatedMember().isAnnotationPresent(Internal.class)) {
+            return;
+        }
+        Type type = event.getAnnotatedMember().getBaseType();
+        Class<?> rawType = type instanceof ParameterizedType parameterized
+                ? (Class<?>) parameterized.getRawType()
+                : type instanceof Class<?> c ? c : null;
+        if (rawType == null || !rawType.isAssignableFrom(ExecutorService.class)) {
+            LOGGER.debug("Not wrapping @Internal producer of {}", type);
+            return;
+        }
+        event.setProducer(new InternalExecutorProducer<>(event.getProducer(), beanManager));
+    }
+
+    private static final class InternalExecutorProducer<X> implements Producer<X> {
+        private final Producer<X> delegate;
+        private final BeanManager beanManager;
+        // The executors handed out, by the ones that trace their tasks, to dispose of the right one
+        private final Map<Object, Object> traced = new ConcurrentHashMap<>();
+
+        InternalExecutorProducer(Producer<X> delegate, BeanManager beanManager) {
+            this.delegate = delegate;
+            this.beanManager = beanManager;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public X produce(CreationalContext<X> ctx) {
+            return (X) traced(produceExecutor(ctx));
+        }
+
+        @SuppressWarnings("unchecked")
+        private X produceExecutor(CreationalContext<X> ctx) {
+            InternalExecutorConfig config = config();
+            if (config.isVirtual()) {
+                return (X) config.newVirtualExecutor();
+            }
+            if (config.isManaged()) {
+                ExecutorService managed = config.newManagedExecutor();
+                if (managed != null) {
+                    return (X) managed;
+                }
+            }
+            return delegate.produce(ctx);
+        }
+
+        private Object traced(X executor) {
+            A2ATracing tracing = beanManager.createInstance().select(A2ATracing.class).get();
+            if (!tracing.isEnabled() || !(executor instanceof ExecutorService executorService)) {
+                return executor;
+            }
+            ExecutorService wrapped = tracing.wrap(executorService);
+            traced.put(wrapped, executor);
+            return wrapped;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void dispose(X instance) {
+            Object produced = traced.remove(instance);
+            X executor = produced == null ? instance : (X) produced;
+            if (!config().disposeExecutor(executor)) {
+                delegate.dispose(executor);
+            }
+        }
+
+        @Override
+        public Set<InjectionPoint> getInjectionPoints() {
+            return delegate.getInjectionPoints();
+        }
+
+        private InternalExecutorConfig config() {
+            return beanManager.createInstance().select(InternalExecutorConfig.class).get();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+
+/**
+ * Looks up what is bound to a JNDI name, as the managed executors and thread factories are found.
+ */
+@FunctionalInterface
+interface JndiLookup {
+
+    /**
+     * Looks the name up in a new {@link InitialContext}.
+     */
+    JndiLookup INITIAL_CONTEXT = name -> new InitialContext().lookup(name);
+
+    Object lookup(String name) throws NamingException;
+}
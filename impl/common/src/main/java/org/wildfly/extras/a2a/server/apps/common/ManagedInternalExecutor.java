@@ -0,0 +1,144 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code @Internal} executor, or the control lane of {@link ExecutionLanes}, backed by a container managed
+ * executor.
+ *
+ * At most {@code queueSize} tasks may wait for a thread of the managed executor, more are rejected with a
+ * {@link RejectedExecutionException}, which the transports report to the client as the server being busy.
+ * The managed executor belongs to the container, so shutting this one down only stops accepting tasks.
+ */
+final class ManagedInternalExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final int queueSize;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile boolean shutdown;
+
+    ManagedInternalExecutor(ExecutorService delegate, int queueSize) {
+        this.delegate = delegate;
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Whether the failure, or one of its causes, is a task rejected by an executor.
+     */
+    static boolean isRejected(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RejectedExecutionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            rejected.increment();
+            throw new RejectedExecutionException("The managed executor is shut down");
+        }
+        if (queued.incrementAndGet() > queueSize) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("More than " + queueSize + " tasks are waiting for the managed executor");
+        }
+        long submitted = System.nanoTime();
+        try {
+            delegate.execute(() -> run(command, submitted));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private void run(Runnable command, long submitted) {
+        long wait = System.nanoTime() - submitted;
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        started.increment();
+        totalWaitNanos.add(wait);
+        maxWaitNanos.accumulateAndGet(wait, Math::max);
+        try {
+            command.run();
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    int getActiveCount() {
+        return active.get();
+    }
+
+    int getQueueDepth() {
+        return queued.get();
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    long getStartedCount() {
+        return started.sum();
+    }
+
+    long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        return List.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && queued.get() == 0 && active.get() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isTerminated()) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+}
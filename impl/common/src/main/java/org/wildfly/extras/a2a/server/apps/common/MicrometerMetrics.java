@@ -0,0 +1,454 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.ToDoubleFunction;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.CDI;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the metrics of {@link A2AMetrics} in a Micrometer {@link MeterRegistry}. Only loaded once Micrometer
+ * is known to be available, so the deployment does not need it otherwise.
+ */
+final class MicrometerMetrics implements A2AMetrics.Recorder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MicrometerMetrics.class);
+
+    static final String REQUESTS = "a2a.server.requests";
+    static final String REQUESTS_ACTIVE = "a2a.server.requests.active";
+    static final String REQUEST_BYTES = "a2a.server.request.bytes";
+    static final String RESPONSE_BYTES = "a2a.server.response.bytes";
+    static final String STREAMS = "a2a.server.streams";
+    static final String STREAMS_OPEN = "a2a.server.streams.open";
+    static final String STREAM_EVENTS = "a2a.server.stream.events";
+    static final String STREAM_EVENT_LATENCY = "a2a.server.stream.event.latency";
+
+    static final String TRANSPORT = "transport";
+    static final String METHOD = "method";
+    static final String TENANT = "tenant";
+    static final String OUTCOME = "outcome";
+    static final String STATE = "state";
+    static final String STAGE = "stage";
+
+    private static final A2AMetrics.Outcome[] OUTCOMES = A2AMetrics.Outcome.values();
+    private static final Duration MIN_EXPECTED = Duration.ofMillis(1);
+    // Agents may take minutes, streams stay open for as long as the agent produces events
+    private static final Duration MAX_EXPECTED = Duration.ofMinutes(30);
+    private static final A2AMetrics.LatencyStage[] STAGES = A2AMetrics.LatencyStage.values();
+    private static final Duration MIN_EXPECTED_LATENCY = Duration.ofNanos(10_000);
+    private static final Duration MAX_EXPECTED_LATENCY = Duration.ofMinutes(1);
+
+    private final MeterRegistry registry;
+    private final A2AMetrics components;
+    private final int maxTenants;
+    private final Map<String, Map<String, Endpoint>> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> openStreams = new ConcurrentHashMap<>();
+    // Per transport, the event latency timers by stage
+    private final Map<String, AtomicReferenceArray<Timer>> latencies = new ConcurrentHashMap<>();
+    private final Set<String> tenants = ConcurrentHashMap.newKeySet();
+    // Removed from the registry when the application stops, as the registry may outlive it
+    private final Queue<Meter> meters = new ConcurrentLinkedQueue<>();
+
+    private MicrometerMetrics(MeterRegistry registry, A2AMetrics components, int maxTenants) {
+        this.registry = registry;
+        this.components = components;
+        this.maxTenants = maxTenants;
+    }
+
+    /**
+     * Returns the recorder using the {@link MeterRegistry} bean, or {@code null} if there is none.
+     */
+    static A2AMetrics.Recorder create(A2AMetrics components, int maxTenants) {
+        Instance<MeterRegistry> registries = CDI.current().select(MeterRegistry.class);
+        if (!registries.isResolvable()) {
+            LOGGER.info("No MeterRegistry is available, A2A metrics are not recorded. Enable the micrometer subsystem to get them.");
+            return null;
+        }
+        MicrometerMetrics metrics = new MicrometerMetrics(registries.get(), components, maxTenants);
+        metrics.bindComponents();
+        return metrics;
+    }
+
+    @Override
+    public A2AMetrics.Call start(String transport, String method, String tenant, long requestBytes) {
+        Endpoint endpoint = endpoint(transport, method);
+        if (requestBytes > 0) {
+            endpoint.requestBytes.increment(requestBytes);
+        }
+        return new MeteredCall(endpoint, tenant(tenant));
+    }
+
+    @Override
+    public void close() {
+        for (Meter meter = meters.poll(); meter != null; meter = meters.poll()) {
+            registry.remove(meter);
+        }
+    }
+
+    private Endpoint endpoint(String transport, String method) {
+        Map<String, Endpoint> methods = endpoints.get(transport);
+        if (methods == null) {
+            methods = endpoints.computeIfAbsent(transport, t -> new ConcurrentHashMap<>());
+        }
+        Endpoint endpoint = methods.get(method);
+        if (endpoint == null) {
+            endpoint = methods.computeIfAbsent(method, m -> new Endpoint(transport, m));
+        }
+        return endpoint;
+    }
+
+    /**
+     * Returns the tenant tag of the calls of the tenant.
+     */
+    private String tenant(String tenant) {
+        String key = tenant == null ? "" : tenant;
+        if (tenants.contains(key)) {
+            return key;
+        }
+        if (tenants.size() >= maxTenants) {
+            return TenantBulkheads.OTHER_TENANTS;
+        }
+        if (tenants.add(key)) {
+            bindTenant(key);
+        }
+        return key;
+    }
+
+    private AtomicInteger openStreams(String transport) {
+        AtomicInteger open = openStreams.get(transport);
+        if (open == null) {
+            open = openStreams.computeIfAbsent(transport, t -> {
+                AtomicInteger count = new AtomicInteger();
+                register(Gauge.builder(STREAMS_OPEN, count, AtomicInteger::get)
+                        .description("The open event streams")
+                        .tag(TRANSPORT, t)
+                        .register(registry));
+                return count;
+            });
+        }
+        return open;
+    }
+
+    private Timer latencyTimer(String transport, A2AMetrics.LatencyStage stage) {
+        AtomicReferenceArray<Timer> byStage = latencies.get(transport);
+        if (byStage == null) {
+            byStage = latencies.computeIfAbsent(transport, t -> new AtomicReferenceArray<>(STAGES.length));
+        }
+        Timer timer = byStage.get(stage.ordinal());
+        if (timer == null) {
+            timer = register(Timer.builder(STREAM_EVENT_LATENCY)
+                    .description("The time the events of the streams spent in each stage on their way to the client")
+                    .tag(TRANSPORT, transport)
+                    .tag(STAGE, stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(MIN_EXPECTED_LATENCY)
+                    .maximumExpectedValue(MAX_EXPECTED_LATENCY)
+                    .register(registry));
+            byStage.set(stage.ordinal(), timer);
+        }
+        return timer;
+    }
+
+    private <T extends Meter> T register(T meter) {
+        meters.add(meter);
+        return meter;
+    }
+
+    /**
+     * Reports the state of the executors, lanes, limits and streams.
+     */
+    private void bindComponents() {
+        InternalExecutorConfig executor = components.executorConfig;
+        gauge("a2a.executor.active", "The tasks running on the managed internal executor", executor,
+                InternalExecutorConfig::getActiveCount);
+        gauge("a2a.executor.queued", "The tasks waiting for a thread of the managed internal executor", executor,
+                InternalExecutorConfig::getQueueDepth);
+        counter("a2a.executor.rejected", "The tasks the managed internal executor turned down", executor,
+                InternalExecutorConfig::getRejectedCount);
+        register(Gauge.builder("a2a.executor.wait.average", executor, InternalExecutorConfig::getAverageTaskWaitMillis)
+                .description("The average time the tasks waited for a thread of the managed internal executor")
+                .baseUnit("milliseconds")
+                .register(registry));
+        register(Gauge.builder("a2a.executor.wait.max", executor, InternalExecutorConfig::getMaxTaskWaitMillis)
+                .description("The longest time a task waited for a thread of the managed internal executor")
+                .baseUnit("milliseconds")
+                .register(registry));
+        counter("a2a.executor.pinned", "The times a virtual thread was reported as pinned", executor,
+                InternalExecutorConfig::getPinnedEvents);
+
+        ExecutionLanes lanes = components.lanes;
+        gauge("a2a.lanes.control.active", "The control calls running", lanes, ExecutionLanes::getControlActiveCount);
+        gauge("a2a.lanes.control.queued", "The control calls waiting for a thread", lanes,
+                ExecutionLanes::getControlQueueDepth);
+
+        ConcurrencyLimiter limiter = components.concurrencyLimiter;
+        for (ConcurrencyLimiter.Operation operation : ConcurrencyLimiter.Operation.values()) {
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            register(Gauge.builder("a2a.limit", limiter, l -> l.getLimit(operation))
+                    .description("The calls of the operation that may be in flight")
+                    .tag("operation", name)
+                    .register(registry));
+            register(Gauge.builder("a2a.limit.in.flight", limiter, l -> l.getInFlight(operation))
+                    .description("The calls of the operation in flight")
+                    .tag("operation", name)
+                    .register(registry));
+            register(FunctionCounter.builder("a2a.limit.rejected", limiter, l -> l.getRejected(operation))
+                    .description("The calls of the operation turned down")
+                    .tag("operation", name)
+                    .register(registry));
+        }
+
+        StreamAdmission admission = components.streamAdmission;
+        gauge("a2a.stream.admission.open", "The event streams holding a place", admission,
+                StreamAdmission::getOpenStreams);
+        counter("a2a.stream.admission.rejected", "The event streams turned down", admission,
+                StreamAdmission::getRejectedStreams);
+        gauge("a2a.stream.admission.heap.short", "Whether new event streams are turned down as the heap is short",
+                admission, a -> a.isHeapShort() ? 1 : 0);
+
+        SseBackpressure backpressure = components.backpressure;
+        gauge("a2a.sse.buffer.max", "The frames waiting for the client on the fullest open stream", backpressure,
+                SseBackpressure::getMaxBufferDepth);
+        gauge("a2a.sse.buffer.total", "The frames waiting for their client over all open streams", backpressure,
+                SseBackpressure::getTotalBufferDepth);
+        counter("a2a.sse.events.dropped", "The status updates skipped for clients that did not keep up", backpressure,
+                SseBackpressure::getEventsDropped);
+        counter("a2a.sse.slow.disconnected", "The streams closed because their buffer was full", backpressure,
+                SseBackpressure::getStreamsDisconnected);
+
+        SseHeartbeat heartbeat = components.heartbeat;
+        counter("a2a.sse.heartbeats", "The heartbeats sent", heartbeat, SseHeartbeat::getHeartbeatsSent);
+        counter("a2a.sse.reaped", "The streams closed because their client stopped reading", heartbeat,
+                SseHeartbeat::getStreamsReaped);
+        gauge("a2a.sse.heartbeat.streams", "The streams covered by the heartbeat", heartbeat,
+                SseHeartbeat::getActiveStreams);
+
+        register(Gauge.builder("a2a.journal.size", components.eventJournal, TaskEventJournal::getTotalBytes)
+                .description("The approximate size of the events kept for replay")
+                .baseUnit("bytes")
+                .register(registry));
+    }
+
+    /**
+     * Reports the bulkhead of a tenant, once its calls are first recorded.
+     */
+    private void bindTenant(String tenant) {
+        TenantBulkheads bulkheads = components.bulkheads;
+        register(Gauge.builder("a2a.tenant.active", bulkheads, b -> b.getActiveCount(tenant))
+                .description("The message sends of the tenant running")
+                .tag(TENANT, tenant)
+                .register(registry));
+        register(Gauge.builder("a2a.tenant.queued", bulkheads, b -> b.getQueueDepth(tenant))
+                .description("The message sends of the tenant waiting for their turn")
+                .tag(TENANT, tenant)
+                .register(registry));
+        register(FunctionCounter.builder("a2a.tenant.rejected", bulkheads, b -> b.getRejectedCount(tenant))
+                .description("The message sends of the tenant rejected because its queue was full")
+                .tag(TENANT, tenant)
+                .register(registry));
+    }
+
+    private <T> void gauge(String name, String description, T component, ToDoubleFunction<T> value) {
+        register(Gauge.builder(name, component, value).description(description).register(registry));
+    }
+
+    private <T> void counter(String name, String description, T component, ToDoubleFunction<T> value) {
+        register(FunctionCounter.builder(name, component, value).description(description).register(registry));
+    }
+
+    /**
+     * The meters of one method of one transport.
+     */
+    private final class Endpoint {
+        private final String transport;
+        private final Tags tags;
+        private final AtomicInteger active = new AtomicInteger();
+        private final Counter requestBytes;
+        private final Counter responseBytes;
+        // Per tenant, the timers by outcome
+        private final Map<String, AtomicReferenceArray<Timer>> timers = new ConcurrentHashMap<>();
+        private final AtomicReferenceArray<Counter> streams = new AtomicReferenceArray<>(A2AMetrics.StreamEnd.values().length + 1);
+        private volatile DistributionSummary streamEvents;
+
+        Endpoint(String transport, String method) {
+            this.transport = transport;
+            this.tags = Tags.of(TRANSPORT, transport, METHOD, method);
+            register(Gauge.builder(REQUESTS_ACTIVE, active, AtomicInteger::get)
+                    .description("The calls in progress")
+                    .tags(tags)
+                    .register(registry));
+            requestBytes = register(Counter.builder(REQUEST_BYTES)
+                    .description("The bytes received in requests")
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .register(registry));
+            responseBytes = register(Counter.builder(RESPONSE_BYTES)
+                    .description("The bytes sent in responses, including event streams")
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .register(registry));
+        }
+
+        Timer timer(String tenant, A2AMetrics.Outcome outcome) {
+            AtomicReferenceArray<Timer> byOutcome = timers.get(tenant);
+            if (byOutcome == null) {
+                byOutcome = timers.computeIfAbsent(tenant, t -> new AtomicReferenceArray<>(OUTCOMES.length));
+            }
+            Timer timer = byOutcome.get(outcome.ordinal());
+            if (timer == null) {
+                // The registry returns the same timer to concurrent registrations
+                timer = register(Timer.builder(REQUESTS)
+                        .description("The duration of the calls, until the end of the stream for streaming calls")
+                        .tags(tags)
+                        .tag(TENANT, tenant)
+                        .tag(OUTCOME, outcome.name().toLowerCase(Locale.ROOT))
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(MIN_EXPECTED)
+                        .maximumExpectedValue(MAX_EXPECTED)
+                        .register(registry));
+                byOutcome.set(outcome.ordinal(), timer);
+            }
+            return timer;
+        }
+
+        /**
+         * The stream counter of the end, or of the opened streams for {@code null}.
+         */
+        Counter streams(A2AMetrics.StreamEnd end) {
+            int index = end == null ? 0 : end.ordinal() + 1;
+            Counter counter = streams.get(index);
+            if (counter == null) {
+                counter = register(Counter.builder(STREAMS)
+                        .description("The event streams, by the state they reached")
+                        .tags(tags)
+                        .tag(STATE, end == null ? "opened" : end.name().toLowerCase(Locale.ROOT))
+                        .register(registry));
+                streams.set(index, counter);
+            }
+            return counter;
+        }
+
+        DistributionSummary streamEvents() {
+            DistributionSummary summary = streamEvents;
+            if (summary == null) {
+                summary = register(DistributionSummary.builder(STREAM_EVENTS)
+                        .description("The events written per event stream")
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .register(registry));
+                streamEvents = summary;
+            }
+            return summary;
+        }
+    }
+
+    private final class MeteredCall implements A2AMetrics.Call {
+        private final Endpoint endpoint;
+        private final String tenant;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private volatile A2AMetrics.Outcome outcome = A2AMetrics.Outcome.SUCCESS;
+        private volatile boolean streaming;
+
+        MeteredCall(Endpoint endpoint, String tenant) {
+            this.endpoint = endpoint;
+            this.tenant = tenant;
+            endpoint.active.incrementAndGet();
+        }
+
+        @Override
+        public void outcome(A2AMetrics.Outcome outcome) {
+            this.outcome = outcome;
+        }
+
+        @Override
+        public void end(long responseBytes) {
+            if (!ended.compareAndSet(false, true)) {
+                return;
+            }
+            endpoint.active.decrementAndGet();
+            if (responseBytes > 0) {
+                endpoint.responseBytes.increment(responseBytes);
+            }
+            endpoint.timer(tenant, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public A2AMetrics.Stream stream() {
+            streaming = true;
+            endpoint.streams(null).increment();
+            AtomicInteger open = openStreams(endpoint.transport);
+            open.incrementAndGet();
+            return new MeteredStream(this, open);
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return streaming;
+        }
+    }
+
+    private final class MeteredStream implements A2AMetrics.Stream {
+        private final MeteredCall call;
+        private final AtomicInteger open;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        MeteredStream(MeteredCall call, AtomicInteger open) {
+            this.call = call;
+            this.open = open;
+        }
+
+        @Override
+        public void end(A2AMetrics.StreamEnd end, long events, long bytes) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            open.decrementAndGet();
+            call.endpoint.streams(end).increment();
+            call.endpoint.streamEvents().record(events);
+            call.outcome(switch (end) {
+                case COMPLETED -> A2AMetrics.Outcome.SUCCESS;
+                case DISCONNECTED -> A2AMetrics.Outcome.DISCONNECTED;
+                case ERRORED -> A2AMetrics.Outcome.ERROR;
+            });
+            call.end(bytes);
+        }
+
+        @Override
+        public void latency(A2AMetrics.LatencyStage stage, long nanos) {
+            if (nanos >= 0) {
+                latencyTimer(call.endpoint.transport, stage).record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public boolean recordsLatency() {
+            return true;
+        }
+    }
+}
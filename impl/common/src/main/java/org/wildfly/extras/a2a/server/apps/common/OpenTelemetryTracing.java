@@ -0,0 +1,198 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.CDI;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the spans of {@link A2ATracing} with an OpenTelemetry {@link Tracer}. Only loaded once OpenTelemetry
+ * is known to be available, so the deployment does not need it otherwise.
+ */
+final class OpenTelemetryTracing implements A2ATracing.Tracer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenTelemetryTracing.class);
+
+    static final String INSTRUMENTATION_SCOPE = "org.wildfly.extras.a2a";
+    static final String RPC_SYSTEM = "a2a";
+
+    static final AttributeKey<String> RPC_SYSTEM_KEY = AttributeKey.stringKey("rpc.system");
+    static final AttributeKey<String> RPC_METHOD_KEY = AttributeKey.stringKey("rpc.method");
+    static final AttributeKey<String> TRANSPORT_KEY = AttributeKey.stringKey("a2a.transport");
+    static final AttributeKey<String> TENANT_KEY = AttributeKey.stringKey("a2a.tenant");
+    static final AttributeKey<String> OUTCOME_KEY = AttributeKey.stringKey("a2a.outcome");
+    static final AttributeKey<Long> EVENT_ID_KEY = AttributeKey.longKey("a2a.event.id");
+    static final AttributeKey<Long> EVENT_BYTES_KEY = AttributeKey.longKey("a2a.event.bytes");
+
+    private static final W3CTraceContextPropagator PROPAGATOR = W3CTraceContextPropagator.getInstance();
+
+    private static final TextMapGetter<Function<String, String>> HEADERS = new TextMapGetter<>() {
+        @Override
+        public Iterable<String> keys(Function<String, String> carrier) {
+            // Only looked up by name by the W3C propagator
+            return List.of();
+        }
+
+        @Override
+        public String get(Function<String, String> carrier, String key) {
+            return carrier == null ? null : carrier.apply(key);
+        }
+    };
+
+    private final Tracer tracer;
+
+    private OpenTelemetryTracing(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Returns the tracer using the {@link OpenTelemetry} bean, or {@code null} if there is none.
+     */
+    static A2ATracing.Tracer create() {
+        Instance<OpenTelemetry> openTelemetry = CDI.current().select(OpenTelemetry.class);
+        if (!openTelemetry.isResolvable()) {
+            LOGGER.info("No OpenTelemetry is available, A2A calls are not traced. Enable the opentelemetry subsystem to get them.");
+            return null;
+        }
+        return new OpenTelemetryTracing(openTelemetry.get().getTracer(INSTRUMENTATION_SCOPE));
+    }
+
+    @Override
+    public A2ATracing.Span start(String transport, String method, String tenant, Function<String, String> headers) {
+        Context current = Context.current();
+        // The container may already trace the request, otherwise the trace is continued from the client
+        boolean nested = Span.fromContext(current).getSpanContext().isValid();
+        Context parent = nested ? current : PROPAGATOR.extract(current, headers, HEADERS);
+        Span span = tracer.spanBuilder(method)
+                .setParent(parent)
+                .setSpanKind(nested ? SpanKind.INTERNAL : SpanKind.SERVER)
+                .setAttribute(RPC_SYSTEM_KEY, RPC_SYSTEM)
+                .setAttribute(RPC_METHOD_KEY, method)
+                .setAttribute(TRANSPORT_KEY, transport)
+                .setAttribute(TENANT_KEY, tenant == null ? "" : tenant)
+                .startSpan();
+        return new TracedCall(span, parent.with(span));
+    }
+
+    @Override
+    public String currentTraceparent() {
+        return traceparent(Context.current());
+    }
+
+    @Override
+    public Runnable wrap(Runnable task) {
+        return Context.current().wrap(task);
+    }
+
+    @Override
+    public ExecutorService wrap(ExecutorService executor) {
+        return Context.taskWrapping(executor);
+    }
+
+    private static String traceparent(Context context) {
+        if (!Span.fromContext(context).getSpanContext().isValid()) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>(2);
+        PROPAGATOR.inject(context, carrier, Map::put);
+        return carrier.get(A2ATracing.TRACEPARENT_KEY);
+    }
+
+    private static final class TracedCall implements A2ATracing.Span {
+        private final Span span;
+        private final Context context;
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private volatile A2AMetrics.Outcome outcome = A2AMetrics.Outcome.SUCCESS;
+        private volatile boolean streaming;
+        private String traceparent;
+
+        TracedCall(Span span, Context context) {
+            this.span = span;
+            this.context = context;
+        }
+
+        @Override
+        public A2ATracing.Scope makeCurrent() {
+            Scope scope = context.makeCurrent();
+            return scope::close;
+        }
+
+        @Override
+        public <T> Supplier<T> wrap(Supplier<T> call) {
+            return () -> {
+                try (Scope scope = context.makeCurrent()) {
+                    return call.get();
+                }
+            };
+        }
+
+        @Override
+        public String traceparent() {
+            String current = traceparent;
+            if (current == null) {
+                current = OpenTelemetryTracing.traceparent(context);
+                traceparent = current;
+            }
+            return current;
+        }
+
+        @Override
+        public void event(long id, long bytes) {
+            span.addEvent(A2ATracing.STREAM_EVENT, Attributes.of(EVENT_ID_KEY, id, EVENT_BYTES_KEY, bytes));
+        }
+
+        @Override
+        public void outcome(A2AMetrics.Outcome outcome) {
+            this.outcome = outcome;
+        }
+
+        @Override
+        public void end() {
+            if (!ended.compareAndSet(false, true)) {
+                return;
+            }
+            A2AMetrics.Outcome current = outcome;
+            span.setAttribute(OUTCOME_KEY, current.name().toLowerCase(Locale.ROOT));
+            if (current != A2AMetrics.Outcome.SUCCESS) {
+                span.setStatus(StatusCode.ERROR, current.name());
+            }
+            span.end();
+        }
+
+        @Override
+        public A2ATracing.Span stream() {
+            streaming = true;
+            return this;
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return streaming;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import jdk.jfr.EventType;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * Measures the A2A calls of an HTTP transport with {@link A2AMetrics}, and traces them with {@link A2ATracing}.
+ *
+ * The call starts once the request is matched to its resource method and ends once its response is written,
+ * counting the bytes after compression. The request bytes are taken from {@code Content-Length}, requests
+ * without one are not counted. Event streams are not written through JAX-RS, the resources hand the call to
+ * their {@link AbstractSseSubscriber}, which ends it with the stream. The span of the call starts and ends
+ * along with it.
+ *
+ * The writing of the response is also recorded as an {@link A2AEvents.ResponseWrite} while a flight recording
+ * has it enabled, whether the metrics are or not.
+ */
+public abstract class RequestMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String PROBLEM_JSON_SUBTYPE = "problem+json";
+    private static final String METHOD_PROPERTY = RequestMetricsFilter.class.getName() + ".method";
+    private static final EventType RESPONSE_WRITE = EventType.getEventType(A2AEvents.ResponseWrite.class);
+
+    @Inject
+    A2AMetrics metrics;
+
+    @Inject
+    A2ATracing tracing;
+
+    /**
+     * The transport, as in {@code TransportProtocol}.
+     */
+    protected abstract String transport();
+
+    /**
+     * Returns the A2A method of the request, or {@code null} if it is not an A2A call.
+     */
+    protected abstract String method(ContainerRequestContext requestContext);
+
+    protected abstract String tenant(ContainerRequestContext requestContext);
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!metrics.isEnabled() && !tracing.isEnabled() && !RESPONSE_WRITE.isEnabled()) {
+            return;
+        }
+        String method = method(requestContext);
+        if (method != null) {
+            String tenant = tenant(requestContext);
+            requestContext.setProperty(METHOD_PROPERTY, method);
+            requestContext.setProperty(A2AMetrics.CALL_PROPERTY,
+                    metrics.start(transport(), method, tenant, requestContext.getLength()));
+            if (tracing.isEnabled()) {
+                requestContext.setProperty(A2ATracing.SPAN_PROPERTY,
+                        tracing.start(transport(), method, tenant, requestContext::getHeaderString));
+            }
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        A2ATracing.Span span = span(requestContext.getProperty(A2ATracing.SPAN_PROPERTY));
+        if (!span.isStreaming()) {
+            span.outcome(outcome(responseContext));
+            if (!responseContext.hasEntity()) {
+                span.end();
+            }
+        }
+        if (!(requestContext.getProperty(A2AMetrics.CALL_PROPERTY) instanceof A2AMetrics.Call call) || call.isStreaming()) {
+            return;
+        }
+        call.outcome(outcome(responseContext));
+        if (!responseContext.hasEntity()) {
+            call.end(0);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        A2ATracing.Span span = span(context.getProperty(A2ATracing.SPAN_PROPERTY));
+        if (!(context.getProperty(A2AMetrics.CALL_PROPERTY) instanceof A2AMetrics.Call call) || call.isStreaming()
+                || span.isStreaming()) {
+            context.proceed();
+            return;
+        }
+        A2AEvents.ResponseWrite event = new A2AEvents.ResponseWrite();
+        event.begin();
+        CountingOutputStream output = new CountingOutputStream(context.getOutputStream());
+        context.setOutputStream(output);
+        try {
+            context.proceed();
+        } catch (IOException e) {
+            call.outcome(A2AMetrics.Outcome.DISCONNECTED);
+            span.outcome(A2AMetrics.Outcome.DISCONNECTED);
+            throw e;
+        } finally {
+            call.end(output.count);
+            span.end();
+            if (event.shouldCommit()) {
+                event.transport = transport();
+                event.method = (String) context.getProperty(METHOD_PROPERTY);
+                event.bytes = output.count;
+                event.commit();
+            }
+        }
+    }
+
+    private static A2ATracing.Span span(Object property) {
+        return property instanceof A2ATracing.Span span ? span : A2ATracing.NO_SPAN;
+    }
+
+    private static A2AMetrics.Outcome outcome(ContainerResponseContext responseContext) {
+        int status = responseContext.getStatus();
+        if (status == 503 || status == 429) {
+            return A2AMetrics.Outcome.REJECTED;
+        }
+        if (status >= 400) {
+            return A2AMetrics.Outcome.ERROR;
+        }
+        // JSON-RPC errors are sent with 200
+        MediaType mediaType = responseContext.getMediaType();
+        if (mediaType != null && PROBLEM_JSON_SUBTYPE.equals(mediaType.getSubtype())) {
+            return A2AMetrics.Outcome.ERROR;
+        }
+        return A2AMetrics.Outcome.SUCCESS;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
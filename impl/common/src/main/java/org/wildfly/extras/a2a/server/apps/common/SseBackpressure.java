@@ -0,0 +1,132 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+
+/**
+ * Settings and metrics of the event buffer of each stream.
+ *
+ * A stream requests {@code prefetch} events at a time from the event queue and lets up to {@code buffer-size}
+ * frames wait for the client. The {@link Policy} decides what happens when a client does not keep up.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class SseBackpressure {
+
+    static final String PREFETCH = "a2a.jakarta.sse.prefetch";
+    static final String BUFFER_SIZE = "a2a.jakarta.sse.buffer-size";
+    static final String POLICY = "a2a.jakarta.sse.slow-consumer-policy";
+
+    /**
+     * What to do with the events of a stream whose buffer is full.
+     */
+    public enum Policy {
+        /**
+         * Stop requesting events until the client catches up, which holds back the producer.
+         */
+        BLOCK,
+        /**
+         * Keep only the latest of the intermediate status updates, other events are held back as with
+         * {@link #BLOCK}.
+         */
+        LATEST,
+        /**
+         * Send an error event and close the stream.
+         */
+        DISCONNECT
+    }
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private final Set<AbstractSseSubscriber<?>> streams = ConcurrentHashMap.newKeySet();
+    private final LongAdder eventsDropped = new LongAdder();
+    private final LongAdder streamsDisconnected = new LongAdder();
+    private int prefetch;
+    private int bufferSize;
+    private Policy policy;
+
+    @PostConstruct
+    void init() {
+        prefetch = Math.max(1, Integer.parseInt(configProvider.getValue(PREFETCH)));
+        // The buffer must at least hold what was requested
+        bufferSize = Math.max(prefetch, Integer.parseInt(configProvider.getValue(BUFFER_SIZE)));
+        policy = Policy.valueOf(configProvider.getValue(POLICY).trim().toUpperCase(Locale.ROOT));
+    }
+
+    public int getPrefetch() {
+        return prefetch;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * The number of frames waiting for the client on the fullest open stream.
+     */
+    public int getMaxBufferDepth() {
+        int max = 0;
+        for (AbstractSseSubscriber<?> stream : streams) {
+            max = Math.max(max, stream.getBufferDepth());
+        }
+        return max;
+    }
+
+    /**
+     * The number of frames waiting for their client over all open streams.
+     */
+    public long getTotalBufferDepth() {
+        long total = 0;
+        for (AbstractSseSubscriber<?> stream : streams) {
+            total += stream.getBufferDepth();
+        }
+        return total;
+    }
+
+    /**
+     * The number of status updates skipped for clients that did not keep up.
+     */
+    public long getEventsDropped() {
+        return eventsDropped.sum();
+    }
+
+    /**
+     * The number of streams closed because their buffer was full.
+     */
+    public long getStreamsDisconnected() {
+        return streamsDisconnected.sum();
+    }
+
+    void opened(AbstractSseSubscriber<?> stream) {
+        streams.add(stream);
+    }
+
+    void closed(AbstractSseSubscriber<?> stream) {
+        streams.remove(stream);
+    }
+
+    void dropped() {
+        eventsDropped.increment();
+    }
+
+    void disconnected() {
+        streamsDisconnected.increment();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Compresses an event stream one frame at a time. Every frame ends with a sync flush, so the client can
+ * decompress and dispatch it right away instead of waiting for the compressor to fill a block.
+ */
+final class SseCompressor {
+
+    private final ByteArrayOutputStream sink = new ByteArrayOutputStream(1024);
+    private final DeflaterOutputStream compressor;
+    private boolean finished;
+
+    SseCompressor(ContentEncoding encoding, int level) {
+        try {
+            // The gzip header goes to the sink now and is sent with the first frame
+            compressor = encoding.compress(sink, level);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Compresses a frame, returning the bytes to send for it.
+     */
+    synchronized byte[] compress(byte[] frame) {
+        if (finished) {
+            return new byte[0];
+        }
+        try {
+            compressor.write(frame);
+            // Sync flush, the stream was created with syncFlush enabled
+            compressor.flush();
+        } catch (IOException e) {
+            // Only the in-memory sink is written to
+            throw new UncheckedIOException(e);
+        }
+        return drainSink();
+    }
+
+    /**
+     * Ends the stream, returning the remaining bytes, e.g. the gzip trailer. Releases the native resources.
+     */
+    synchronized byte[] finish() {
+        if (finished) {
+            return new byte[0];
+        }
+        finished = true;
+        try {
+            compressor.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return drainSink();
+    }
+
+    /**
+     * Releases the native resources without producing a valid end of stream, for failed streams.
+     */
+    synchronized void end() {
+        if (!finished) {
+            finish();
+        }
+    }
+
+    private byte[] drainSink() {
+        byte[] bytes = sink.toByteArray();
+        sink.reset();
+        return bytes;
+    }
+}
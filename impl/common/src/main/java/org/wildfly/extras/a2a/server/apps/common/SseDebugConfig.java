@@ -0,0 +1,39 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+
+/**
+ * Settings to debug event streams from the client side.
+ *
+ * With {@code lag-comments}, each event is preceded by an SSE comment giving how long it took to get to the
+ * stream and to be encoded, and when it was sent, such as {@code : lag queue-ms=1.250 format-ms=0.031
+ * sent=1760000000123}. Clients ignore comments, so it does not change the events they get.
+ * The defaults are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class SseDebugConfig {
+
+    static final String LAG_COMMENTS = "a2a.jakarta.sse.debug.lag-comments";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private boolean lagComments;
+
+    @PostConstruct
+    void init() {
+        lagComments = Boolean.parseBoolean(configProvider.getValue(LAG_COMMENTS));
+    }
+
+    public boolean isLagComments() {
+        return lagComments;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * When event streams are flushed to the client.
+ *
+ * With {@code event}, the default, a stream is flushed as soon as the queued events have been written.
+ * With {@code coalesce}, a stream is flushed at most once per window, so an agent that produces many small
+ * artifact updates in a burst costs one flush, and one packet, per window instead of one per event.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class SseFlushConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SseFlushConfig.class);
+
+    static final String MODE = "a2a.jakarta.sse.flush";
+    static final String WINDOW = "a2a.jakarta.sse.flush.window-ms";
+
+    static final String MODE_EVENT = "event";
+    static final String MODE_COALESCE = "coalesce";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private long windowNanos;
+    private ScheduledExecutorService timer;
+
+    @PostConstruct
+    void init() {
+        String mode = configProvider.getValue(MODE).trim();
+        if (MODE_COALESCE.equalsIgnoreCase(mode)) {
+            windowNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(configProvider.getValue(WINDOW)));
+        } else if (!MODE_EVENT.equalsIgnoreCase(mode)) {
+            LOGGER.warn("Unknown value '{}' for {}, flushing every event", mode, MODE);
+        }
+        if (windowNanos > 0) {
+            timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "a2a-sse-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * The minimum time between two flushes of a stream, {@code 0} to flush every event.
+     */
+    public long getWindowNanos() {
+        return windowNanos;
+    }
+
+    /**
+     * Runs the flush of a stream once its window is over.
+     *
+     * @return {@code false} if it could not be scheduled, in which case the stream should be flushed right away
+     */
+    boolean scheduleFlush(Runnable flush, long delayNanos) {
+        if (timer == null) {
+            return false;
+        }
+        try {
+            timer.schedule(flush, delayNanos, TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            return false;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes Server-Sent Events frames straight to UTF-8 bytes.
+ *
+ * The frame is sized up front and filled in one pass, so there is no intermediate {@code String} for the frame
+ * and no encoder buffer, just the array that is queued for the client.
+ */
+public final class SseFrames {
+
+    private static final byte[] DATA = "data: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ID = "id: ".getBytes(StandardCharsets.US_ASCII);
+
+    private SseFrames() {
+    }
+
+    /**
+     * Encodes a {@code data:} frame with the given event id. Line breaks in the data start a new
+     * {@code data:} line, as the SSE format requires.
+     */
+    public static byte[] encode(CharSequence data, long id) {
+        String idDigits = Long.toString(id);
+        byte[] frame = new byte[DATA.length + encodedLength(data) + 1 + ID.length + idDigits.length() + 2];
+        int pos = put(DATA, frame, 0);
+        pos = encodeData(data, frame, pos);
+        frame[pos++] = '\n';
+        pos = put(ID, frame, pos);
+        for (int i = 0; i < idDigits.length(); i++) {
+            frame[pos++] = (byte) idDigits.charAt(i);
+        }
+        frame[pos++] = '\n';
+        frame[pos] = '\n';
+        return frame;
+    }
+
+    private static int encodedLength(CharSequence data) {
+        int length = 0;
+        int size = data.length();
+        for (int i = 0; i < size; i++) {
+            char c = data.charAt(i);
+            if (c < 0x80) {
+                if (c == '\r' || c == '\n') {
+                    if (c == '\r' && i + 1 < size && data.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                    length += 1 + DATA.length;
+                } else {
+                    length++;
+                }
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(data.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are replaced, as String.getBytes() does
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int encodeData(CharSequence data, byte[] frame, int pos) {
+        int size = data.length();
+        for (int i = 0; i < size; i++) {
+            char c = data.charAt(i);
+            if (c < 0x80) {
+                if (c == '\r' || c == '\n') {
+                    if (c == '\r' && i + 1 < size && data.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                    frame[pos++] = '\n';
+                    pos = put(DATA, frame, pos);
+                } else {
+                    frame[pos++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                frame[pos++] = (byte) (0xC0 | (c >> 6));
+                frame[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(data.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, data.charAt(++i));
+                frame[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                frame[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                frame[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                frame[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                frame[pos++] = '?';
+            } else {
+                frame[pos++] = (byte) (0xE0 | (c >> 12));
+                frame[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                frame[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return pos;
+    }
+
+    private static int put(byte[] bytes, byte[] frame, int pos) {
+        System.arraycopy(bytes, 0, frame, pos, bytes.length);
+        return pos + bytes.length;
+    }
+}
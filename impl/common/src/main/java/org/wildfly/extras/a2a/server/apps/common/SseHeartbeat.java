@@ -0,0 +1,176 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends {@code : ping} comments on idle event streams, which keeps proxies from cutting them and finds
+ * clients that went away while the agent had nothing to send.
+ *
+ * All streams share one timer thread. They are spread over the slots of a timing wheel that turns once per
+ * interval, one slot per tick, so each stream is looked at once per interval without a timer of its own.
+ * A stream whose client stops reading is failed after {@code max-missed} heartbeats, which runs the usual
+ * disconnect handling of the subscriber, including {@code invokeEventConsumerCancelCallback()}.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class SseHeartbeat {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SseHeartbeat.class);
+
+    static final String INTERVAL = "a2a.jakarta.sse.heartbeat.interval-ms";
+    static final String MAX_MISSED = "a2a.jakarta.sse.heartbeat.max-missed";
+
+    static final String PING = ": ping\n\n";
+    private static final int WHEEL_SIZE = 16;
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private final List<Set<Stream>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final AtomicLong tick = new AtomicLong();
+    private final LongAdder heartbeatsSent = new LongAdder();
+    private final LongAdder streamsReaped = new LongAdder();
+    private long intervalNanos;
+    private int maxMissed;
+    private ScheduledExecutorService timer;
+
+    @PostConstruct
+    void init() {
+        long intervalMillis = Long.parseLong(configProvider.getValue(INTERVAL));
+        maxMissed = Math.max(1, Integer.parseInt(configProvider.getValue(MAX_MISSED)));
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        if (intervalMillis <= 0) {
+            LOGGER.debug("SSE heartbeats are disabled");
+            return;
+        }
+        intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "a2a-sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickNanos = Math.max(1, intervalNanos / WHEEL_SIZE);
+        timer.scheduleAtFixedRate(this::onTick, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Sends heartbeats on the stream until it is closed.
+     */
+    public void register(AsyncSseWriter writer) {
+        if (timer == null) {
+            return;
+        }
+        // The slot handled last comes round again in one full interval
+        int slot = (int) ((tick.get() + WHEEL_SIZE - 1) % WHEEL_SIZE);
+        wheel.get(slot).add(new Stream(writer));
+    }
+
+    /**
+     * The number of heartbeats sent since the application started.
+     */
+    public long getHeartbeatsSent() {
+        return heartbeatsSent.sum();
+    }
+
+    /**
+     * The number of streams closed because their client stopped reading.
+     */
+    public long getStreamsReaped() {
+        return streamsReaped.sum();
+    }
+
+    /**
+     * The number of streams currently covered by the heartbeat.
+     */
+    public int getActiveStreams() {
+        int count = 0;
+        for (Set<Stream> slot : wheel) {
+            count += slot.size();
+        }
+        return count;
+    }
+
+    private void onTick() {
+        try {
+            Set<Stream> slot = wheel.get((int) (tick.getAndIncrement() % WHEEL_SIZE));
+            long now = System.nanoTime();
+            slot.removeIf(stream -> !stream.beat(now));
+        } catch (RuntimeException e) {
+            // Keep the timer alive, an exception would cancel the schedule
+            LOGGER.warn("Error sending SSE heartbeats: {}", e.getMessage(), e);
+        }
+    }
+
+    private final class Stream {
+        private final AsyncSseWriter writer;
+        private long framesWritten = -1;
+        private int missed;
+
+        Stream(AsyncSseWriter writer) {
+            this.writer = writer;
+        }
+
+        /**
+         * @return whether the stream is still open
+         */
+        boolean beat(long now) {
+            if (!writer.isOpen()) {
+                return false;
+            }
+            long written = writer.getFramesWritten();
+            if (writer.hasPending() && written == framesWritten) {
+                // Nothing was read since the last heartbeat
+                if (++missed >= maxMissed) {
+                    LOGGER.debug("Closing SSE stream whose client stopped reading");
+                    streamsReaped.increment();
+                    writer.abort(new IOException("Client did not read the last " + missed + " heartbeats"));
+                    return false;
+                }
+            } else {
+                missed = 0;
+            }
+            framesWritten = written;
+            if (now - writer.getLastWriteNanos() >= intervalNanos - intervalNanos / WHEEL_SIZE) {
+                writer.write(PING);
+                heartbeatsSent.increment();
+                if (!writer.isOpen()) {
+                    // Writing to a client that is gone fails right away
+                    streamsReaped.increment();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides whether a new event stream may be opened.
+ *
+ * A stream is turned down when {@code max-open} streams are open already, when its tenant has
+ * {@code max-open-per-tenant} of them, or while the heap is short. The heap is short once the old generation is
+ * still filled above {@code heap-threshold} of its maximum after a collection, as reported by the
+ * {@link MemoryPoolMXBean} threshold notifications, and until a later collection brings it back below.
+ * Streams are checked before the request handler creates their event queue, so a burst is turned down
+ * instead of filling the heap. The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class StreamAdmission {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamAdmission.class);
+
+    static final String MAX_OPEN = "a2a.jakarta.stream.max-open";
+    static final String MAX_OPEN_PER_TENANT = "a2a.jakarta.stream.max-open-per-tenant";
+    static final String HEAP_THRESHOLD = "a2a.jakarta.stream.heap-threshold";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private final AtomicInteger open = new AtomicInteger();
+    private final Map<String, Integer> openPerTenant = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final List<MemoryPoolMXBean> watchedPools = new ArrayList<>();
+    private final NotificationListener heapListener = this::onHeapNotification;
+    private volatile boolean heapShort;
+    private int maxOpen;
+    private int maxOpenPerTenant;
+
+    @PostConstruct
+    void init() {
+        maxOpen = Integer.parseInt(configProvider.getValue(MAX_OPEN));
+        maxOpenPerTenant = Integer.parseInt(configProvider.getValue(MAX_OPEN_PER_TENANT));
+        double heapThreshold = Double.parseDouble(configProvider.getValue(HEAP_THRESHOLD));
+        if (heapThreshold > 0 && heapThreshold < 1) {
+            watchHeap(heapThreshold);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        if (watchedPools.isEmpty()) {
+            return;
+        }
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(heapListener);
+        } catch (ListenerNotFoundException e) {
+            // Not registered
+        }
+        for (MemoryPoolMXBean pool : watchedPools) {
+            pool.setCollectionUsageThreshold(0);
+        }
+    }
+
+    /**
+     * Takes a place for a new stream of the tenant.
+     *
+     * @return the permit to release once the stream is closed, or {@code null} if the stream is turned down,
+     *         in which case the client should be told to retry later
+     */
+    public Permit tryAcquire(String tenant) {
+        String key = tenant == null ? "" : tenant;
+        if (isHeapShort()) {
+            return reject("the heap is short");
+        }
+        if (open.incrementAndGet() > maxOpen && maxOpen > 0) {
+            open.decrementAndGet();
+            return reject("the maximum of open streams is reached");
+        }
+        if (openPerTenant.merge(key, 1, Integer::sum) > maxOpenPerTenant && maxOpenPerTenant > 0) {
+            release(key);
+            return reject("the maximum of open streams of the tenant is reached");
+        }
+        return new Permit(key);
+    }
+
+    /**
+     * The number of open streams.
+     */
+    public int getOpenStreams() {
+        return open.get();
+    }
+
+    /**
+     * The number of open streams of the tenant.
+     */
+    public int getOpenStreams(String tenant) {
+        return openPerTenant.getOrDefault(tenant == null ? "" : tenant, 0);
+    }
+
+    /**
+     * The number of streams turned down.
+     */
+    public long getRejectedStreams() {
+        return rejected.sum();
+    }
+
+    /**
+     * Whether new streams are turned down because the heap is short.
+     */
+    public boolean isHeapShort() {
+        if (!heapShort) {
+            return false;
+        }
+        for (MemoryPoolMXBean pool : watchedPools) {
+            if (pool.isCollectionUsageThresholdExceeded()) {
+                return true;
+            }
+        }
+        LOGGER.info("Heap usage is back below the threshold, accepting new streams again");
+        heapShort = false;
+        return false;
+    }
+
+    private Permit reject(String reason) {
+        rejected.increment();
+        LOGGER.debug("Turning down new stream as {}", reason);
+        return null;
+    }
+
+    private void release(String tenant) {
+        open.decrementAndGet();
+        // Drop the counter of tenants without streams, so the map only holds the active ones
+        openPerTenant.computeIfPresent(tenant, (t, count) -> count <= 1 ? null : count - 1);
+    }
+
+    private void watchHeap(double threshold) {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            // Only the old generation supports both thresholds, its usage after a collection is what is live
+            if (pool.getType() != MemoryType.HEAP || !pool.isUsageThresholdSupported()
+                    || !pool.isCollectionUsageThresholdSupported()) {
+                continue;
+            }
+            long max = pool.getUsage().getMax();
+            if (max <= 0) {
+                continue;
+            }
+            pool.setCollectionUsageThreshold((long) (max * threshold));
+            watchedPools.add(pool);
+        }
+        if (watchedPools.isEmpty()) {
+            LOGGER.info("No heap memory pool supports usage thresholds, streams are not limited by heap usage");
+            return;
+        }
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(heapListener,
+                n -> MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(n.getType()), null);
+    }
+
+    private void onHeapNotification(Notification notification, Object handback) {
+        if (!heapShort) {
+            LOGGER.warn("Heap usage after collection is above the threshold, turning down new streams");
+            heapShort = true;
+        }
+    }
+
+    /**
+     * The place of an open stream.
+     */
+    public final class Permit {
+        private final String tenant;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(String tenant) {
+            this.tenant = tenant;
+        }
+
+        /**
+         * Gives the place back, only the first call has an effect.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                StreamAdmission.this.release(tenant);
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+import io.a2a.spec.Message;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskArtifactUpdateEvent;
+import io.a2a.spec.TaskStatusUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Numbers the events of each task and keeps the most recent ones, so a client that reconnects with
+ * {@code Last-Event-ID} only gets the events it missed.
+ *
+ * Every subscriber of a task sees the same events in the same order, so the first one to see an event
+ * records it and the others find it by equality, among the events they have not had yet, and reuse its number
+ * and its encoded form, so an event is serialized once however many clients watch the task.
+ * The events kept are bounded per task, by count and by size, and for all tasks together, in which case
+ * the least recently used tasks go first.
+ * A journal no subscriber has open is dropped once it has been idle for {@code idle-timeout-ms}, and its last id
+ * is kept for a while longer, so that the journal recreated for the task goes on from it and the ids of a task
+ * only ever count up.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class TaskEventJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskEventJournal.class);
+
+    static final String MAX_EVENTS = "a2a.jakarta.sse.replay.max-events";
+    static final String MAX_BYTES_PER_TASK = "a2a.jakarta.sse.replay.max-bytes-per-task";
+    static final String MAX_BYTES = "a2a.jakarta.sse.replay.max-bytes";
+    static final String IDLE_TIMEOUT = "a2a.jakarta.sse.replay.idle-timeout-ms";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private final Map<String, TaskJournal> journals = new ConcurrentHashMap<>();
+    // The last ids of the journals dropped, until they are folded into the floor
+    private final Map<String, Mark> marks = new ConcurrentHashMap<>();
+    // Where the journals of tasks that have no mark start, above any id of a mark that was folded in
+    private final AtomicLong floor = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private int maxEvents;
+    private long maxBytesPerTask;
+    private long maxBytes;
+    private long idleTimeoutNanos;
+
+    @PostConstruct
+    void init() {
+        maxEvents = Math.max(1, Integer.parseInt(configProvider.getValue(MAX_EVENTS)));
+        maxBytesPerTask = Long.parseLong(configProvider.getValue(MAX_BYTES_PER_TASK));
+        maxBytes = Long.parseLong(configProvider.getValue(MAX_BYTES));
+        idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(configProvider.getValue(IDLE_TIMEOUT)));
+    }
+
+    /**
+     * Returns the journal of a task, to be {@link TaskJournal#open() opened} by the subscriber using it. The
+     * transport is part of the key since each transport records the events in its own form.
+     */
+    public TaskJournal journal(String transport, String taskId) {
+        sweepIdle();
+        TaskJournal journal = journals.computeIfAbsent(transport + '/' + taskId, this::newJournal);
+        journal.lastUsedNanos = System.nanoTime();
+        return journal;
+    }
+
+    /**
+     * The approximate size of the events kept for all tasks.
+     */
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * Parses a {@code Last-Event-ID} header.
+     *
+     * @return the event id, or {@code -1} if there is none or it is not one of ours
+     */
+    public static long parseLastEventId(String header) {
+        if (header == null || header.isBlank()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the id of the task an event of a stream belongs to.
+     *
+     * @return the task id, or {@code null} if the event is not part of a task, such as a message on its own
+     */
+    public static String taskId(Object event) {
+        if (event instanceof Task task) {
+            return task.id();
+        } else if (event instanceof Message message) {
+            return message.taskId();
+        } else if (event instanceof TaskStatusUpdateEvent statusUpdate) {
+            return statusUpdate.taskId();
+        } else if (event instanceof TaskArtifactUpdateEvent artifactUpdate) {
+            return artifactUpdate.taskId();
+        }
+        return null;
+    }
+
+    private TaskJournal newJournal(String key) {
+        Mark mark = marks.remove(key);
+        return new TaskJournal(key, mark == null ? floor.get() : mark.lastId());
+    }
+
+    private void sweepIdle() {
+        long now = System.nanoTime();
+        long last = lastSweep.get();
+        if (now - last < idleTimeoutNanos / 4 || !lastSweep.compareAndSet(last, now)) {
+            return;
+        }
+        journals.values().removeIf(journal -> journal.removeIfIdle(now));
+        marks.values().removeIf(mark -> {
+            if (now - mark.removedNanos() > idleTimeoutNanos) {
+                // Raised before the mark goes, so a journal created meanwhile starts above it either way
+                floor.accumulateAndGet(mark.lastId(), Math::max);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void enforceTotalLimit() {
+        // Whoever finds the limit exceeded first evicts, the others carry on
+        if (totalBytes.get() <= maxBytes || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // One scan however many journals have to go, the times are taken once so the sort sees them still
+            List<Candidate> candidates = new ArrayList<>();
+            for (TaskJournal journal : journals.values()) {
+                if (journal.bytes > 0) {
+                    candidates.add(new Candidate(journal, journal.lastUsedNanos));
+                }
+            }
+            candidates.sort(Comparator.comparingLong(Candidate::lastUsedNanos));
+            for (Candidate candidate : candidates) {
+                if (totalBytes.get() <= maxBytes) {
+                    return;
+                }
+                // The journal itself stays so the ids of the task keep counting up
+                LOGGER.debug("Replay buffers are full, dropping the events of {}", candidate.journal().key);
+                candidate.journal().clear();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Candidate(TaskJournal journal, long lastUsedNanos) {
+    }
+
+    private record Mark(long lastId, long removedNanos) {
+    }
+
+    /**
+     * A recorded event, with its encoded form once the first subscriber has encoded it.
+     * The encoded bytes are shared by every subscriber and must not be modified.
+     */
+    public final class Event {
+        private final TaskJournal journal;
+        private final long id;
+        private final Object key;
+        private final int hash;
+        private final Object item;
+        private volatile byte[] encoded;
+        // Guarded by the journal
+        private boolean retained = true;
+
+        private Event(TaskJournal journal, long id, Object key, int hash, Object item) {
+            this.journal = journal;
+            this.id = id;
+            this.key = key;
+            this.hash = hash;
+            this.item = item;
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public Object item() {
+            return item;
+        }
+
+        /**
+         * Returns the encoded event, encoding the recorded item with the given function if no subscriber has yet.
+         */
+        public byte[] encoded(Function<Object, byte[]> encoder) {
+            byte[] bytes = encoded;
+            if (bytes == null) {
+                synchronized (this) {
+                    bytes = encoded;
+                    if (bytes == null) {
+                        bytes = encoder.apply(item);
+                        encoded = bytes;
+                        journal.account(this, bytes.length);
+                    }
+                }
+            }
+            return bytes;
+        }
+
+        private int size() {
+            byte[] bytes = encoded;
+            return bytes == null ? 0 : bytes.length;
+        }
+    }
+
+    /**
+     * The numbered events of one task.
+     */
+    public final class TaskJournal {
+        private final String key;
+        private final ArrayDeque<Event> ring = new ArrayDeque<>();
+        private long sequence;
+        private volatile long bytes;
+        private volatile long lastUsedNanos = System.nanoTime();
+        // The subscribers that have the journal open, it is not dropped while there are any
+        private int subscribers;
+        // Dropped after being idle, replaced by a new journal for the task
+        private boolean removed;
+
+        private TaskJournal(String key, long sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Counts a subscriber in, so the journal is not dropped while the subscriber numbers its events with it,
+         * and returns the journal to use: this one, or the one replacing it if it was dropped since it was looked
+         * up. Each call must be matched by one to {@link #close()} on the journal returned.
+         */
+        public TaskJournal open() {
+            synchronized (this) {
+                if (!removed) {
+                    subscribers++;
+                    lastUsedNanos = System.nanoTime();
+                    return this;
+                }
+            }
+            journals.remove(key, this);
+            return journals.computeIfAbsent(key, TaskEventJournal.this::newJournal).open();
+        }
+
+        /**
+         * Counts a subscriber out, the journal can be dropped once it has been idle long enough after the last.
+         */
+        public synchronized void close() {
+            subscribers--;
+            lastUsedNanos = System.nanoTime();
+        }
+
+        /**
+         * Returns the event, recording it if no other subscriber has yet.
+         *
+         * @param key what identifies the event across subscribers, compared with {@code equals}
+         * @param item what to encode and replay later
+         * @param afterId the id of the last event the subscriber got, only later events can match
+         */
+        public synchronized Event record(Object key, Object item, long afterId) {
+            lastUsedNanos = System.nanoTime();
+            int hash = key.hashCode();
+            // A subscriber is rarely more than a few events behind the newest, so look from that end
+            Event match = null;
+            for (Iterator<Event> it = ring.descendingIterator(); it.hasNext(); ) {
+                Event event = it.next();
+                if (event.id <= afterId) {
+                    break;
+                }
+                if (event.hash == hash && event.key.equals(key)) {
+                    // Keep looking, the oldest match is the one this subscriber gets next
+                    match = event;
+                }
+            }
+            if (match != null) {
+                return match;
+            }
+            Event event = new Event(this, ++sequence, key, hash, item);
+            if (removed) {
+                event.retained = false;
+            } else {
+                ring.addLast(event);
+                trim();
+            }
+            return event;
+        }
+
+        /**
+         * The id of the last event recorded.
+         */
+        public synchronized long lastId() {
+            return sequence;
+        }
+
+        /**
+         * Returns the events recorded after the given id, oldest first. Events that were already dropped
+         * are silently missing.
+         */
+        public synchronized List<Event> since(long lastEventId) {
+            lastUsedNanos = System.nanoTime();
+            List<Event> events = new ArrayList<>();
+            for (Event event : ring) {
+                if (event.id > lastEventId) {
+                    events.add(event);
+                }
+            }
+            return events;
+        }
+
+        private void account(Event event, int size) {
+            synchronized (this) {
+                if (!event.retained) {
+                    return;
+                }
+                bytes += size;
+                totalBytes.addAndGet(size);
+                trim();
+            }
+            enforceTotalLimit();
+        }
+
+        private void trim() {
+            // Keep the newest event even if it alone is over the size limit
+            while (ring.size() > maxEvents || (bytes > maxBytesPerTask && ring.size() > 1)) {
+                drop(ring.removeFirst());
+            }
+        }
+
+        private void drop(Event event) {
+            event.retained = false;
+            int size = event.size();
+            bytes -= size;
+            totalBytes.addAndGet(-size);
+        }
+
+        private synchronized boolean removeIfIdle(long now) {
+            if (subscribers > 0 || now - lastUsedNanos <= idleTimeoutNanos) {
+                return false;
+            }
+            removed = true;
+            clear();
+            marks.put(key, new Mark(sequence, now));
+            return true;
+        }
+
+        private synchronized void clear() {
+            ring.forEach(this::drop);
+            ring.clear();
+        }
+    }
+}
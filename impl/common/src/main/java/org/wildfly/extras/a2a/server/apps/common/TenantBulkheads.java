@@ -0,0 +1,247 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the tenants from starving each other on the internal executor.
+ *
+ * Each tenant runs at most {@code max-concurrency} message sends at a time and lets up to {@code queue-size}
+ * more wait for their turn, further sends are rejected and the client is told that the server is busy.
+ * The limits of single tenants can be overridden with entries {@code tenant:max-concurrency:queue-size}.
+ * The bulkheads are kept for at most {@code max-tenants} tenants, the tenants beyond share one.
+ * The defaults of the settings are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class TenantBulkheads {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TenantBulkheads.class);
+
+    static final String MAX_CONCURRENCY = "a2a.jakarta.tenant.max-concurrency";
+    static final String QUEUE_SIZE = "a2a.jakarta.tenant.queue-size";
+    static final String OVERRIDES = "a2a.jakarta.tenant.overrides";
+    static final String MAX_TENANTS = "a2a.jakarta.tenant.max-tenants";
+
+    /**
+     * The name under which the tenants beyond {@code max-tenants} are reported.
+     */
+    public static final String OTHER_TENANTS = "*";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    private final Map<String, int[]> overrides = new HashMap<>();
+    private int maxConcurrency;
+    private int queueSize;
+    private int maxTenants;
+    private Bulkhead otherTenants;
+
+    @PostConstruct
+    void init() {
+        maxConcurrency = Integer.parseInt(configProvider.getValue(MAX_CONCURRENCY));
+        queueSize = Math.max(0, Integer.parseInt(configProvider.getValue(QUEUE_SIZE)));
+        maxTenants = Integer.parseInt(configProvider.getValue(MAX_TENANTS));
+        for (String entry : configProvider.getValue(OVERRIDES).split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3) {
+                LOGGER.warn("Ignoring invalid entry '{}' of {}, expected tenant:max-concurrency:queue-size", entry, OVERRIDES);
+                continue;
+            }
+            overrides.put(parts[0], new int[] {Integer.parseInt(parts[1]), Math.max(0, Integer.parseInt(parts[2]))});
+        }
+        otherTenants = new Bulkhead(maxConcurrency, queueSize);
+    }
+
+    /**
+     * Runs the task of the tenant on the executor within its limits, or hands it straight to the executor if the
+     * tenant has no limit. A task that is turned down, because the queue of the tenant is full or because the
+     * executor rejects it, now or once its turn came, does not run anywhere: the callback runs instead, to fail
+     * the call, and the slot goes to the next waiting task.
+     *
+     * @param onRejected fails the call of the task, run on the thread that found the task turned down
+     */
+    public void execute(String tenant, Executor executor, Runnable task, Runnable onRejected) {
+        Bulkhead bulkhead = bulkhead(tenant == null ? "" : tenant);
+        if (bulkhead != null) {
+            bulkhead.execute(new Queued(task, onRejected), executor);
+            return;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected(onRejected, e);
+        }
+    }
+
+    /**
+     * The tenants that have a bulkhead.
+     */
+    public Set<String> getTenants() {
+        return bulkheads.keySet();
+    }
+
+    /**
+     * The number of message sends of the tenant that are running.
+     */
+    public int getActiveCount(String tenant) {
+        Bulkhead bulkhead = bulkheads.get(tenant);
+        return bulkhead == null ? 0 : bulkhead.active();
+    }
+
+    /**
+     * The number of message sends of the tenant waiting for their turn.
+     */
+    public int getQueueDepth(String tenant) {
+        Bulkhead bulkhead = bulkheads.get(tenant);
+        return bulkhead == null ? 0 : bulkhead.queued();
+    }
+
+    /**
+     * The number of message sends of the tenant that were rejected because its queue was full.
+     */
+    public long getRejectedCount(String tenant) {
+        Bulkhead bulkhead = bulkheads.get(tenant);
+        return bulkhead == null ? 0 : bulkhead.rejected.sum();
+    }
+
+    private Bulkhead bulkhead(String tenant) {
+        Bulkhead bulkhead = bulkheads.get(tenant);
+        if (bulkhead != null) {
+            return bulkhead;
+        }
+        int[] limits = overrides.get(tenant);
+        int concurrency = limits == null ? maxConcurrency : limits[0];
+        if (concurrency <= 0) {
+            return null;
+        }
+        if (limits == null && bulkheads.size() >= maxTenants) {
+            bulkheads.putIfAbsent(OTHER_TENANTS, otherTenants);
+            return otherTenants;
+        }
+        return bulkheads.computeIfAbsent(tenant, t -> new Bulkhead(concurrency, limits == null ? queueSize : limits[1]));
+    }
+
+    private static void rejected(Runnable onRejected, RejectedExecutionException e) {
+        LOGGER.debug("Executor rejected message send: {}", e.getMessage());
+        try {
+            onRejected.run();
+        } catch (RuntimeException re) {
+            LOGGER.warn("Error failing rejected task: {}", re.getMessage(), re);
+        }
+    }
+
+    /**
+     * A task with the callback failing its call if it is turned down.
+     */
+    private record Queued(Runnable task, Runnable onRejected) {
+    }
+
+    private static final class Bulkhead {
+        private final int maxConcurrency;
+        private final int queueSize;
+        private final ArrayDeque<Queued> queue = new ArrayDeque<>();
+        private final LongAdder rejected = new LongAdder();
+        private int active;
+
+        Bulkhead(int maxConcurrency, int queueSize) {
+            this.maxConcurrency = maxConcurrency;
+            this.queueSize = queueSize;
+        }
+
+        void execute(Queued task, Executor executor) {
+            if (admit(task)) {
+                submit(task, executor);
+            }
+        }
+
+        /**
+         * Gives the task a slot, or queues it, or rejects it if the queue is full.
+         *
+         * @return whether the task got a slot and is to be submitted now
+         */
+        private boolean admit(Queued task) {
+            synchronized (this) {
+                if (active < maxConcurrency) {
+                    active++;
+                    return true;
+                }
+                if (queue.size() < queueSize) {
+                    queue.add(task);
+                    return false;
+                }
+                rejected.increment();
+            }
+            rejected(task.onRejected(), new RejectedExecutionException("Too many requests waiting for the tenant"));
+            return false;
+        }
+
+        /**
+         * Hands the task to the executor in the slot it was given. If the executor turns it down, the task is
+         * failed and the slot goes to the next waiting task, which is failed the same way if the executor turns
+         * it down too, until one is accepted or none is left and the slot is freed. No task ever runs on the
+         * calling thread, which may be the request thread of another call or the thread of a finished task.
+         */
+        private void submit(Queued task, Executor executor) {
+            while (task != null) {
+                try {
+                    executor.execute(wrap(task.task(), executor));
+                    return;
+                } catch (RejectedExecutionException e) {
+                    rejected(task.onRejected(), e);
+                }
+                task = next();
+            }
+        }
+
+        private Runnable wrap(Runnable task, Executor executor) {
+            return () -> {
+                try {
+                    task.run();
+                } finally {
+                    submit(next(), executor);
+                }
+            };
+        }
+
+        /**
+         * Takes the next waiting task for a slot that is done with its task, or frees the slot if none is waiting.
+         */
+        private synchronized Queued next() {
+            Queued task = queue.poll();
+            if (task == null) {
+                active--;
+            }
+            return task;
+        }
+
+        synchronized int active() {
+            return active;
+        }
+
+        synchronized int queued() {
+            return queue.size();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+/**
+ * Resolves the tenant from the path of a request.
+ *
+ * The router is built once per transport with the endpoints it serves, and resolves a path in a single pass
+ * over it, only allocating the tenant when there is one. The resources resolve the tenant once per request
+ * and keep it in the call context.
+ */
+public final class TenantRouter {
+
+    /**
+     * Used when the tenant is the whole path, as for JSON-RPC, whose requests all go to the same endpoint.
+     */
+    public static final TenantRouter WHOLE_PATH = new TenantRouter(null);
+
+    private final String[] endpoints;
+
+    private TenantRouter(String[] endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * A router for paths of the form {@code /[tenant/]endpoint}, where the tenant is the optional segment before
+     * one of the given endpoints. The first segment ends at the first {@code /} or {@code :}, so
+     * {@code /message:send} has no tenant while {@code /tenant1/message:send} has {@code tenant1}.
+     *
+     * @param endpoints the first segments of the paths of the endpoints
+     */
+    public static TenantRouter firstSegment(String... endpoints) {
+        return new TenantRouter(endpoints.clone());
+    }
+
+    /**
+     * Returns the tenant of the path, the empty string if there is none.
+     */
+    public String resolve(String path) {
+        if (path == null || path.isBlank()) {
+            return "";
+        }
+        int start = path.charAt(0) == '/' ? 1 : 0;
+        if (endpoints == null) {
+            int end = path.length();
+            if (end > start && path.charAt(end - 1) == '/') {
+                end--;
+            }
+            return path.substring(start, end);
+        }
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != ':') {
+            end++;
+        }
+        int length = end - start;
+        for (String endpoint : endpoints) {
+            if (endpoint.length() == length && path.regionMatches(start, endpoint, 0, length)) {
+                return "";
+            }
+        }
+        return path.substring(start, end);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Access to virtual threads, which need Java 21.
+ *
+ * This is the Java 17 version, where they are not supported. The jar is a multi-release jar and the Java 21
+ * version in {@code META-INF/versions/21} replaces this class on runtimes that have them.
+ */
+final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Returns an executor that starts a new virtual thread for each task.
+     */
+    static ExecutorService newExecutor(String name) {
+        throw new UnsupportedOperationException("Virtual threads need Java 21 or later");
+    }
+
+    /**
+     * Reports virtual threads that block while pinned to their carrier thread for longer than the threshold.
+     *
+     * @return closes the monitoring
+     */
+    static AutoCloseable monitorPinning(Duration threshold, Consumer<String> reporter) {
+        return () -> {
+        };
+    }
+}
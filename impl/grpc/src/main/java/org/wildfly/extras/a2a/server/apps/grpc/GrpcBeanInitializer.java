@@ -15,6 +15,11 @@ import io.a2a.server.requesthandlers.RequestHandler;
 import io.a2a.server.util.async.Internal;
 import io.a2a.spec.AgentCard;
 import io.a2a.transport.grpc.handler.CallContextFactory;
+import org.wildfly.extras.a2a.server.apps.common.A2AMetrics;
+import org.wildfly.extras.a2a.server.apps.common.A2ATracing;
+import org.wildfly.extras.a2a.server.apps.common.ConcurrencyLimiter;
+import org.wildfly.extras.a2a.server.apps.common.ExecutionLanes;
+import org.wildfly.extras.a2a.server.apps.common.StreamAdmission;
 
 /**
  * Bean initializer that observes application startup events.
@@ -44,6 +49,21 @@ public class GrpcBeanInitializer {
     @Internal
     Executor executor;
 
+    @Inject
+    StreamAdmission streamAdmission;
+
+    @Inject
+    ConcurrencyLimiter concurrencyLimiter;
+
+    @Inject
+    ExecutionLanes lanes;
+
+    @Inject
+    A2AMetrics metrics;
+
+    @Inject
+    A2ATracing tracing;
+
     /**
      * Observes the application startup event to eagerly initialize the gRPC cache.
      */
@@ -67,7 +87,8 @@ public class GrpcBeanInitializer {
                 // ClientBuilder not in deployment, ignore
             }
 
-            WildFlyGrpcHandler.setStaticBeans(agentCard, extCard, requestHandler, ccf, executor, deploymentClassLoader);
+            WildFlyGrpcHandler.setStaticBeans(agentCard, extCard, requestHandler, ccf, executor, streamAdmission, concurrencyLimiter,
+                    lanes, metrics, tracing, deploymentClassLoader);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -75,6 +96,6 @@ public class GrpcBeanInitializer {
 
     @PreDestroy
     public void cleanup() {
-        WildFlyGrpcHandler.setStaticBeans(null, null, null, null, null, null);
+        WildFlyGrpcHandler.setStaticBeans(null, null, null, null, null, null, null, null, null, null, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,253 @@
+package org.wildfly.extras.a2a.server.apps.grpc;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jdk.jfr.EventType;
+
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Timestamp;
+import io.a2a.grpc.StreamResponse;
+import io.a2a.spec.TransportProtocol;
+import io.a2a.transport.grpc.context.GrpcContextKeys;
+import io.grpc.Context;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.wildfly.extras.a2a.server.apps.common.A2AEvents;
+import org.wildfly.extras.a2a.server.apps.common.A2AMetrics;
+import org.wildfly.extras.a2a.server.apps.common.A2ATracing;
+
+/**
+ * Records the metrics of a gRPC call from the responses handed to its observer, its
+ * {@link A2AEvents.GrpcCall} while a flight recording has it enabled, and its span. The span continues the
+ * trace of the {@code traceparent} of the metadata of the call, and records each message of a stream.
+ *
+ * A call ends with {@link #onCompleted} or {@link #onError}, or as disconnected if it is closed without either,
+ * as when the client cancels it. A streaming call is recorded as a stream once it is {@link #opened}.
+ * The response bytes are the serialized size of the messages, before compression and framing. The latency of
+ * the messages of a stream is recorded from the timestamp of the status updates, and while they are handed to
+ * the transport.
+ * The handler still sees the observer of the gRPC server, as it may use it for flow control and cancellation.
+ */
+class MeteredStreamObserver<T> extends ServerCallStreamObserver<T> {
+
+    private static final EventType GRPC_CALL = EventType.getEventType(A2AEvents.GrpcCall.class);
+
+    private final ServerCallStreamObserver<T> delegate;
+    private final A2AMetrics.Call call;
+    private final A2AEvents.GrpcCall event;
+    private final A2ATracing.Span span;
+    private final AtomicBoolean ended = new AtomicBoolean();
+    private volatile A2AMetrics.Stream stream;
+    // Only updated by the thread writing the responses, read when the client cancels the call
+    private volatile long bytes;
+    private volatile long events;
+
+    private MeteredStreamObserver(ServerCallStreamObserver<T> delegate, A2AMetrics.Call call, A2AEvents.GrpcCall event,
+            A2ATracing.Span span) {
+        this.delegate = delegate;
+        this.call = call;
+        this.event = event;
+        this.span = span;
+    }
+
+    /**
+     * Wraps the observer of the call, or returns it as is if it is neither measured, recorded nor traced.
+     */
+    static <T> StreamObserver<T> wrap(StreamObserver<T> observer, A2AMetrics metrics, A2ATracing tracing, String method,
+            String tenant, MessageLite request) {
+        if (metrics == null || tracing == null || !(metrics.isEnabled() || tracing.isEnabled() || GRPC_CALL.isEnabled())
+                || !(observer instanceof ServerCallStreamObserver<T> serverObserver)) {
+            return observer;
+        }
+        int requestBytes = request.getSerializedSize();
+        A2AEvents.GrpcCall event = new A2AEvents.GrpcCall();
+        event.method = method;
+        event.tenant = tenant;
+        event.requestBytes = requestBytes;
+        event.begin();
+        Metadata metadata = GrpcContextKeys.METADATA_KEY.get();
+        A2ATracing.Span span = tracing.start(TransportProtocol.GRPC.asString(), method, tenant,
+                name -> metadata == null ? null : metadata.get(Metadata.Key.of(name, Metadata.ASCII_STRING_MARSHALLER)));
+        MeteredStreamObserver<T> metered = new MeteredStreamObserver<>(serverObserver,
+                metrics.start(TransportProtocol.GRPC.asString(), method, tenant, requestBytes), event, span);
+        // The context is cancelled once the call is closed, which is after it is recorded if it got a response
+        Context.current().addListener(context -> metered.closed(), Runnable::run);
+        return metered;
+    }
+
+    /**
+     * Records the call as a stream from now on, once it is admitted.
+     */
+    static void opened(StreamObserver<?> observer) {
+        if (observer instanceof MeteredStreamObserver<?> metered) {
+            metered.stream = metered.call.stream();
+            metered.span.stream();
+        }
+    }
+
+    /**
+     * Returns the span of the call, or one that does nothing if it is not traced.
+     */
+    static A2ATracing.Span span(StreamObserver<?> observer) {
+        return observer instanceof MeteredStreamObserver<?> metered ? metered.span : A2ATracing.NO_SPAN;
+    }
+
+    @Override
+    public void onNext(T value) {
+        A2AMetrics.Stream current = stream;
+        boolean timed = current != null && current.recordsLatency();
+        long start = 0;
+        if (timed) {
+            current.latency(A2AMetrics.LatencyStage.QUEUE, A2AMetrics.sinceEmitted(emittedAt(value)));
+            start = System.nanoTime();
+        }
+        delegate.onNext(value);
+        if (timed) {
+            // Serialized, framed and flushed to the transport, which writes it out asynchronously
+            current.latency(A2AMetrics.LatencyStage.WRITE, System.nanoTime() - start);
+        }
+        int size = value instanceof MessageLite message ? message.getSerializedSize() : 0;
+        bytes += size;
+        if (stream != null) {
+            span.event(events, size);
+        }
+        events++;
+    }
+
+    /**
+     * When the agent emitted the status update, or {@code null} if it is not one or not known.
+     */
+    private static Instant emittedAt(Object value) {
+        if (!(value instanceof StreamResponse response) || !response.hasStatusUpdate()
+                || !response.getStatusUpdate().getStatus().hasTimestamp()) {
+            return null;
+        }
+        Timestamp timestamp = response.getStatusUpdate().getStatus().getTimestamp();
+        return Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos());
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        // Recorded first, as the call is closed by the delegate
+        Status.Code code = Status.fromThrowable(t).getCode();
+        if (end(code)) {
+            if (stream != null) {
+                endStream(code == Status.Code.CANCELLED ? A2AMetrics.StreamEnd.DISCONNECTED : A2AMetrics.StreamEnd.ERRORED);
+            } else {
+                call.outcome(switch (code) {
+                    case RESOURCE_EXHAUSTED -> A2AMetrics.Outcome.REJECTED;
+                    case CANCELLED -> A2AMetrics.Outcome.DISCONNECTED;
+                    default -> A2AMetrics.Outcome.ERROR;
+                });
+                call.end(bytes);
+            }
+        }
+        delegate.onError(t);
+    }
+
+    @Override
+    public void onCompleted() {
+        if (end(Status.Code.OK)) {
+            if (stream != null) {
+                endStream(A2AMetrics.StreamEnd.COMPLETED);
+            } else {
+                call.end(bytes);
+            }
+        }
+        delegate.onCompleted();
+    }
+
+    private void closed() {
+        if (!end(Status.Code.CANCELLED)) {
+            return;
+        }
+        if (stream != null) {
+            endStream(A2AMetrics.StreamEnd.DISCONNECTED);
+        } else {
+            call.outcome(A2AMetrics.Outcome.DISCONNECTED);
+            call.end(bytes);
+        }
+        A2AEvents.ClientDisconnect disconnect = new A2AEvents.ClientDisconnect();
+        if (disconnect.shouldCommit()) {
+            disconnect.transport = TransportProtocol.GRPC.asString();
+            disconnect.events = events;
+            disconnect.bytes = bytes;
+            disconnect.commit();
+        }
+    }
+
+    /**
+     * Commits the event and ends the span of the call, returns whether the call was still going.
+     */
+    private boolean end(Status.Code code) {
+        if (!ended.compareAndSet(false, true)) {
+            return false;
+        }
+        span.outcome(switch (code) {
+            case OK -> A2AMetrics.Outcome.SUCCESS;
+            case RESOURCE_EXHAUSTED -> A2AMetrics.Outcome.REJECTED;
+            case CANCELLED -> A2AMetrics.Outcome.DISCONNECTED;
+            default -> A2AMetrics.Outcome.ERROR;
+        });
+        span.end();
+        if (event.shouldCommit()) {
+            event.status = code.name();
+            event.responseBytes = bytes;
+            event.messages = events;
+            event.commit();
+        }
+        return true;
+    }
+
+    private void endStream(A2AMetrics.StreamEnd end) {
+        stream.end(end, events, bytes);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    @Override
+    public void setOnCancelHandler(Runnable onCancelHandler) {
+        delegate.setOnCancelHandler(onCancelHandler);
+    }
+
+    @Override
+    public void setCompression(String compression) {
+        delegate.setCompression(compression);
+    }
+
+    @Override
+    public boolean isReady() {
+        return delegate.isReady();
+    }
+
+    @Override
+    public void setOnReadyHandler(Runnable onReadyHandler) {
+        delegate.setOnReadyHandler(onReadyHandler);
+    }
+
+    @Override
+    public void disableAutoInboundFlowControl() {
+        delegate.disableAutoInboundFlowControl();
+    }
+
+    @Override
+    public void request(int count) {
+        delegate.request(count);
+    }
+
+    @Override
+    public void setMessageCompression(boolean enable) {
+        delegate.setMessageCompression(enable);
+    }
+
+    @Override
+    public void setOnCloseHandler(Runnable onCloseHandler) {
+        delegate.setOnCloseHandler(onCloseHandler);
+    }
+}
@@ -1,8 +1,37 @@
 package org.wildfly.extras.a2a.server.apps.grpc;
 
+import static io.a2a.spec.A2AMethods.CANCEL_TASK_METHOD;
+import static io.a2a.spec.A2AMethods.DELETE_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.GET_EXTENDED_AGENT_CARD_METHOD;
+import static io.a2a.spec.A2AMethods.GET_TASK_METHOD;
+import static io.a2a.spec.A2AMethods.GET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.LIST_TASK_METHOD;
+import static io.a2a.spec.A2AMethods.LIST_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.SEND_MESSAGE_METHOD;
+import static io.a2a.spec.A2AMethods.SEND_STREAMING_MESSAGE_METHOD;
+import static io.a2a.spec.A2AMethods.SET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.SUBSCRIBE_TO_TASK_METHOD;
+
 import java.util.concurrent.Executor;
 import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
 
+import com.google.protobuf.Empty;
+import com.google.protobuf.MessageLite;
+import io.a2a.grpc.CancelTaskRequest;
+import io.a2a.grpc.CreateTaskPushNotificationConfigRequest;
+import io.a2a.grpc.DeleteTaskPushNotificationConfigRequest;
+import io.a2a.grpc.GetExtendedAgentCardRequest;
+import io.a2a.grpc.GetTaskPushNotificationConfigRequest;
+import io.a2a.grpc.GetTaskRequest;
+import io.a2a.grpc.ListTaskPushNotificationConfigsRequest;
+import io.a2a.grpc.ListTaskPushNotificationConfigsResponse;
+import io.a2a.grpc.ListTasksRequest;
+import io.a2a.grpc.ListTasksResponse;
+import io.a2a.grpc.SendMessageResponse;
+import io.a2a.grpc.StreamResponse;
+import io.a2a.grpc.SubscribeToTaskRequest;
+import io.a2a.grpc.utils.ProtoUtils;
 import io.a2a.jsonrpc.common.wrappers.ListTasksResult;
 import io.a2a.server.ServerCallContext;
 import io.a2a.server.requesthandlers.RequestHandler;
@@ -23,6 +52,15 @@ import io.a2a.spec.TaskPushNotificationConfig;
 import io.a2a.spec.TaskQueryParams;
 import io.a2a.transport.grpc.handler.CallContextFactory;
 import io.a2a.transport.grpc.handler.GrpcHandler;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import org.wildfly.extras.a2a.server.apps.common.A2AEvents;
+import org.wildfly.extras.a2a.server.apps.common.A2AMetrics;
+import org.wildfly.extras.a2a.server.apps.common.A2ATracing;
+import org.wildfly.extras.a2a.server.apps.common.ConcurrencyLimiter;
+import org.wildfly.extras.a2a.server.apps.common.ExecutionLanes;
+import org.wildfly.extras.a2a.server.apps.common.StreamAdmission;
 
 /**
  * WildFly gRPC Handler that uses static cache for CDI beans.
@@ -38,9 +76,17 @@ public class WildFlyGrpcHandler extends GrpcHandler {
     // Static cache populated during application startup by GrpcBeanInitializer
     private static volatile AgentCard staticAgentCard;
     private static volatile AgentCard staticExtendedAgentCard;
+    // Converted once, the extended card is returned as is to every caller. There is nothing to prebuild for
+    // the public card, the gRPC service has no call returning it, clients read it from the well-known URL.
+    private static volatile io.a2a.grpc.AgentCard staticExtendedAgentCardProto;
     private static volatile RequestHandler staticRequestHandler;
     private static volatile CallContextFactory staticCallContextFactory;
     private static volatile Executor staticExecutor;
+    private static volatile StreamAdmission staticStreamAdmission;
+    private static volatile ConcurrencyLimiter staticConcurrencyLimiter;
+    private static volatile ExecutionLanes staticLanes;
+    private static volatile A2AMetrics staticMetrics;
+    private static volatile A2ATracing staticTracing;
     private static volatile ClassLoader deploymentClassLoader;
 
     public WildFlyGrpcHandler() {
@@ -51,12 +97,18 @@ public class WildFlyGrpcHandler extends GrpcHandler {
      * Called by GrpcBeanInitializer during CDI initialization to cache beans
      * for use by gRPC threads where CDI is not available.
      */
-    static void setStaticBeans(AgentCard agentCard, AgentCard extendedAgentCard, RequestHandler requestHandler, CallContextFactory callContextFactory, Executor executor, ClassLoader classLoader) {
+    static void setStaticBeans(AgentCard agentCard, AgentCard extendedAgentCard, RequestHandler requestHandler, CallContextFactory callContextFactory, Executor executor, StreamAdmission streamAdmission, ConcurrencyLimiter concurrencyLimiter, ExecutionLanes lanes, A2AMetrics metrics, A2ATracing tracing, ClassLoader classLoader) {
         staticAgentCard = agentCard;
         staticExtendedAgentCard = extendedAgentCard;
+        staticExtendedAgentCardProto = extendedAgentCard == null ? null : ProtoUtils.ToProto.agentCard(extendedAgentCard);
         staticRequestHandler = requestHandler;
         staticCallContextFactory = callContextFactory;
         staticExecutor = executor;
+        staticStreamAdmission = streamAdmission;
+        staticConcurrencyLimiter = concurrencyLimiter;
+        staticLanes = lanes;
+        staticMetrics = metrics;
+        staticTracing = tracing;
         deploymentClassLoader = classLoader;
     }
 
@@ -68,7 +120,7 @@ public class WildFlyGrpcHandler extends GrpcHandler {
         // Wrap the RequestHandler to set the deployment classloader as TCCL
         // This is necessary because gRPC threads have the grpc extension module classloader as TCCL,
         // which cannot see the deployment's WEB-INF/lib jars needed by ServiceLoader
-        return new ClassLoaderSwitchingRequestHandler(staticRequestHandler, deploymentClassLoader);
+        return new ClassLoaderSwitchingRequestHandler(staticRequestHandler, deploymentClassLoader, staticTracing);
     }
 
     @Override
@@ -84,6 +136,196 @@ public class WildFlyGrpcHandler extends GrpcHandler {
         return staticExtendedAgentCard; // Can be null if not configured
     }
 
+    @Override
+    public void getExtendedAgentCard(GetExtendedAgentCardRequest request, StreamObserver<io.a2a.grpc.AgentCard> observer) {
+        StreamObserver<io.a2a.grpc.AgentCard> responseObserver = metered(GET_EXTENDED_AGENT_CARD_METHOD, request.getTenant(), request, observer);
+        io.a2a.grpc.AgentCard prebuilt = staticExtendedAgentCardProto;
+        AgentCard agentCard = staticAgentCard;
+        if (prebuilt == null || agentCard == null || !Boolean.TRUE.equals(agentCard.capabilities().extendedAgentCard())) {
+            // Let the base class report the error
+            traced(responseObserver, () -> super.getExtendedAgentCard(request, responseObserver));
+            return;
+        }
+        responseObserver.onNext(prebuilt);
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void sendMessage(io.a2a.grpc.SendMessageRequest request, StreamObserver<SendMessageResponse> observer) {
+        StreamObserver<SendMessageResponse> responseObserver = metered(SEND_MESSAGE_METHOD, request.getTenant(), request, observer);
+        traced(responseObserver,
+                () -> limited(ConcurrencyLimiter.Operation.SEND, responseObserver, () -> super.sendMessage(request, responseObserver)));
+    }
+
+    @Override
+    public void getTask(GetTaskRequest request, StreamObserver<io.a2a.grpc.Task> observer) {
+        StreamObserver<io.a2a.grpc.Task> responseObserver = metered(GET_TASK_METHOD, request.getTenant(), request, observer);
+        traced(responseObserver, () -> onControlLane(responseObserver,
+                () -> limited(ConcurrencyLimiter.Operation.READ, responseObserver, () -> super.getTask(request, responseObserver))));
+    }
+
+    @Override
+    public void listTasks(ListTasksRequest request, StreamObserver<ListTasksResponse> observer) {
+        StreamObserver<ListTasksResponse> responseObserver = metered(LIST_TASK_METHOD, request.getTenant(), request, observer);
+        traced(responseObserver, () -> onControlLane(responseObserver,
+                () -> limited(ConcurrencyLimiter.Operation.READ, responseObserver, () -> super.listTasks(request, responseObserver))));
+    }
+
+    @Override
+    public void cancelTask(CancelTaskRequest request, StreamObserver<io.a2a.grpc.Task> observer) {
+        StreamObserver<io.a2a.grpc.Task> responseObserver = metered(CANCEL_TASK_METHOD, request.getTenant(), request, observer);
+        traced(responseObserver, () -> onControlLane(responseObserver,
+                () -> limited(ConcurrencyLimiter.Operation.CANCEL, responseObserver, () -> super.cancelTask(request, responseObserver))));
+    }
+
+    @Override
+    public void createTaskPushNotificationConfig(CreateTaskPushNotificationConfigRequest request,
+            StreamObserver<io.a2a.grpc.TaskPushNotificationConfig> observer) {
+        StreamObserver<io.a2a.grpc.TaskPushNotificationConfig> responseObserver = metered(SET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD, request.getTenant(), request, observer);
+        traced(responseObserver, () -> onControlLane(responseObserver,
+                () -> super.createTaskPushNotificationConfig(request, responseObserver)));
+    }
+
+    @Override
+    public void getTaskPushNotificationConfig(GetTaskPushNotificationConfigRequest request,
+            StreamObserver<io.a2a.grpc.TaskPushNotificationConfig> observer) {
+        StreamObserver<io.a2a.grpc.TaskPushNotificationConfig> responseObserver = metered(GET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD, request.getTenant(), request, observer);
+        traced(responseObserver, () -> onControlLane(responseObserver,
+                () -> super.getTaskPushNotificationConfig(request, responseObserver)));
+    }
+
+    @Override
+    public void listTaskPushNotificationConfigs(ListTaskPushNotificationConfigsRequest request,
+            StreamObserver<ListTaskPushNotificationConfigsResponse> observer) {
+        StreamObserver<ListTaskPushNotificationConfigsResponse> responseObserver = metered(LIST_TASK_PUSH_NOTIFICATION_CONFIG_METHOD, request.getTenant(), request, observer);
+        traced(responseObserver, () -> onControlLane(responseObserver,
+                () -> super.listTaskPushNotificationConfigs(request, responseObserver)));
+    }
+
+    @Override
+    public void deleteTaskPushNotificationConfig(DeleteTaskPushNotificationConfigRequest request,
+            StreamObserver<Empty> observer) {
+        StreamObserver<Empty> responseObserver = metered(DELETE_TASK_PUSH_NOTIFICATION_CONFIG_METHOD, request.getTenant(), request, observer);
+        traced(responseObserver, () -> onControlLane(responseObserver,
+                () -> super.deleteTaskPushNotificationConfig(request, responseObserver)));
+    }
+
+    /**
+     * Records the metrics and the span of the call, named as in JSON-RPC so that the transports can be compared.
+     */
+    private static <T> StreamObserver<T> metered(String method, String tenant, MessageLite request, StreamObserver<T> observer) {
+        return MeteredStreamObserver.wrap(observer, staticMetrics, staticTracing, method, tenant, request);
+    }
+
+    /**
+     * Runs the call with the span of its observer as the current one, so it goes along to the executors.
+     */
+    private static void traced(StreamObserver<?> responseObserver, Runnable call) {
+        try (A2ATracing.Scope scope = MeteredStreamObserver.span(responseObserver).makeCurrent()) {
+            call.run();
+        }
+    }
+
+    /**
+     * Runs the call on the control lane of {@link ExecutionLanes}, so it does not wait behind the agents run by
+     * other calls on the threads of the gRPC server, or fails it with {@code RESOURCE_EXHAUSTED} if the lane
+     * turns it down. The gRPC context, which carries the metadata of the call, and the trace context go along.
+     */
+    private static void onControlLane(StreamObserver<?> responseObserver, Runnable call) {
+        ExecutionLanes lanes = staticLanes;
+        if (lanes == null) {
+            throw new RuntimeException("ExecutionLanes not available. ApplicationStartup may not have run yet.");
+        }
+        Executor control = lanes.executor(ExecutionLanes.Lane.CONTROL, null);
+        if (control == null) {
+            call.run();
+            return;
+        }
+        try {
+            A2ATracing tracing = staticTracing;
+            Runnable task = Context.current().wrap(call);
+            control.execute(tracing == null ? task : tracing.wrap(task));
+        } catch (RejectedExecutionException e) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many calls waiting, retry later")
+                    .asRuntimeException());
+        }
+    }
+
+    /**
+     * Runs the unary call within the limit of its operation, or fails it with {@code RESOURCE_EXHAUSTED} if it is
+     * turned down.
+     */
+    private static void limited(ConcurrencyLimiter.Operation operation, StreamObserver<?> responseObserver, Runnable call) {
+        ConcurrencyLimiter concurrencyLimiter = staticConcurrencyLimiter;
+        if (concurrencyLimiter == null) {
+            throw new RuntimeException("ConcurrencyLimiter not available. ApplicationStartup may not have run yet.");
+        }
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(operation);
+        if (permit == null) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many calls in flight, retry later")
+                    .asRuntimeException());
+            return;
+        }
+        try {
+            call.run();
+        } finally {
+            permit.release();
+        }
+    }
+
+    @Override
+    public void sendStreamingMessage(io.a2a.grpc.SendMessageRequest request, StreamObserver<StreamResponse> observer) {
+        StreamObserver<StreamResponse> responseObserver = metered(SEND_STREAMING_MESSAGE_METHOD, request.getTenant(), request, observer);
+        StreamAdmission.Permit permit = admit(request.getTenant(), responseObserver);
+        if (permit != null) {
+            MeteredStreamObserver.opened(responseObserver);
+            traced(responseObserver, () -> stream(permit, () -> super.sendStreamingMessage(request, responseObserver)));
+        }
+    }
+
+    @Override
+    public void subscribeToTask(SubscribeToTaskRequest request, StreamObserver<StreamResponse> observer) {
+        StreamObserver<StreamResponse> responseObserver = metered(SUBSCRIBE_TO_TASK_METHOD, request.getTenant(), request, observer);
+        StreamAdmission.Permit permit = admit(request.getTenant(), responseObserver);
+        if (permit != null) {
+            MeteredStreamObserver.opened(responseObserver);
+            traced(responseObserver, () -> stream(permit, () -> super.subscribeToTask(request, responseObserver)));
+        }
+    }
+
+    /**
+     * Takes a place for the stream, or fails the call with {@code RESOURCE_EXHAUSTED} if it is turned down.
+     */
+    private static StreamAdmission.Permit admit(String tenant, StreamObserver<StreamResponse> responseObserver) {
+        StreamAdmission streamAdmission = staticStreamAdmission;
+        if (streamAdmission == null) {
+            throw new RuntimeException("StreamAdmission not available. ApplicationStartup may not have run yet.");
+        }
+        StreamAdmission.Permit permit = streamAdmission.tryAcquire(tenant);
+        if (permit == null) {
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                    .withDescription("Too many open streams, retry later")
+                    .asRuntimeException());
+        }
+        return permit;
+    }
+
+    /**
+     * Opens the stream and releases its place once the call is closed, which cancels its gRPC context whether
+     * the stream completed, failed or was cancelled by the client.
+     */
+    private static void stream(StreamAdmission.Permit permit, Runnable open) {
+        Context.current().addListener(context -> permit.release(), Runnable::run);
+        try {
+            open.run();
+        } catch (RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
     @Override
     protected CallContextFactory getCallContextFactory() {
         return staticCallContextFactory; // Can be null if not configured
@@ -101,74 +343,87 @@ public class WildFlyGrpcHandler extends GrpcHandler {
      * RequestHandler wrapper that sets the deployment classloader as TCCL before delegating.
      * This is necessary because gRPC threads have the grpc extension module classloader,
      * which cannot see deployment WEB-INF/lib jars needed by ServiceLoader.
+     * It also puts the traceparent of the span of the call in the call context, as the HTTP resources do.
      */
     private static class ClassLoaderSwitchingRequestHandler implements RequestHandler {
         private final RequestHandler delegate;
         private final ClassLoader deploymentClassLoader;
+        private final A2ATracing tracing;
 
-        ClassLoaderSwitchingRequestHandler(RequestHandler delegate, ClassLoader deploymentClassLoader) {
+        ClassLoaderSwitchingRequestHandler(RequestHandler delegate, ClassLoader deploymentClassLoader, A2ATracing tracing) {
             this.delegate = delegate;
             this.deploymentClassLoader = deploymentClassLoader;
+            this.tracing = tracing;
         }
 
-        private <T> T withDeploymentClassLoader(java.util.function.Supplier<T> supplier) {
+        private <T> T withDeploymentClassLoader(String operation, ServerCallContext context, java.util.function.Supplier<T> supplier) {
+            if (tracing != null && context != null) {
+                A2ATracing.attach(context, tracing.currentTraceparent());
+            }
+            A2AEvents.ClassLoaderSwitch event = new A2AEvents.ClassLoaderSwitch();
+            event.begin();
             ClassLoader originalTCCL = Thread.currentThread().getContextClassLoader();
             try {
                 Thread.currentThread().setContextClassLoader(deploymentClassLoader);
                 return supplier.get();
             } finally {
                 Thread.currentThread().setContextClassLoader(originalTCCL);
+                if (event.shouldCommit()) {
+                    event.operation = operation;
+                    event.switched = originalTCCL != deploymentClassLoader;
+                    event.commit();
+                }
             }
         }
 
         @Override
         public EventKind onMessageSend(MessageSendParams params, ServerCallContext context) {
-            return withDeploymentClassLoader(() -> delegate.onMessageSend(params, context));
+            return withDeploymentClassLoader("onMessageSend", context, () -> delegate.onMessageSend(params, context));
         }
 
         @Override
         public Flow.Publisher<StreamingEventKind> onMessageSendStream(MessageSendParams params, ServerCallContext context) {
-            return withDeploymentClassLoader(() -> delegate.onMessageSendStream(params, context));
+            return withDeploymentClassLoader("onMessageSendStream", context, () -> delegate.onMessageSendStream(params, context));
         }
 
         @Override
         public Task onGetTask(TaskQueryParams params, ServerCallContext context) {
-            return withDeploymentClassLoader(() -> delegate.onGetTask(params, context));
+            return withDeploymentClassLoader("onGetTask", context, () -> delegate.onGetTask(params, context));
         }
 
         @Override
         public ListTasksResult onListTasks(ListTasksParams params, ServerCallContext context) {
-            return withDeploymentClassLoader(() -> delegate.onListTasks(params, context));
+            return withDeploymentClassLoader("onListTasks", context, () -> delegate.onListTasks(params, context));
         }
 
         @Override
         public Task onCancelTask(CancelTaskParams params, ServerCallContext context) {
-            return withDeploymentClassLoader(() -> delegate.onCancelTask(params, context));
+            return withDeploymentClassLoader("onCancelTask", context, () -> delegate.onCancelTask(params, context));
         }
 
         @Override
         public Flow.Publisher<StreamingEventKind> onSubscribeToTask(TaskIdParams params, ServerCallContext context) {
-            return withDeploymentClassLoader(() -> delegate.onSubscribeToTask(params, context));
+            return withDeploymentClassLoader("onSubscribeToTask", context, () -> delegate.onSubscribeToTask(params, context));
         }
 
         @Override
         public TaskPushNotificationConfig onCreateTaskPushNotificationConfig(TaskPushNotificationConfig config, ServerCallContext context) {
-            return withDeploymentClassLoader(() -> delegate.onCreateTaskPushNotificationConfig(config, context));
+            return withDeploymentClassLoader("onCreateTaskPushNotificationConfig", context, () -> delegate.onCreateTaskPushNotificationConfig(config, context));
         }
 
         @Override
         public TaskPushNotificationConfig onGetTaskPushNotificationConfig(GetTaskPushNotificationConfigParams params, ServerCallContext context) {
-            return withDeploymentClassLoader(() -> delegate.onGetTaskPushNotificationConfig(params, context));
+            return withDeploymentClassLoader("onGetTaskPushNotificationConfig", context, () -> delegate.onGetTaskPushNotificationConfig(params, context));
         }
 
         @Override
         public ListTaskPushNotificationConfigsResult onListTaskPushNotificationConfigs(ListTaskPushNotificationConfigsParams params, ServerCallContext context) throws A2AError {
-            return withDeploymentClassLoader(() -> delegate.onListTaskPushNotificationConfigs(params, context));
+            return withDeploymentClassLoader("onListTaskPushNotificationConfigs", context, () -> delegate.onListTaskPushNotificationConfigs(params, context));
         }
 
         @Override
         public void onDeleteTaskPushNotificationConfig(DeleteTaskPushNotificationConfigParams params, ServerCallContext context) {
-            withDeploymentClassLoader(() -> {
+            withDeploymentClassLoader("onDeleteTaskPushNotificationConfig", context, () -> {
                 delegate.onDeleteTaskPushNotificationConfig(params, context);
                 return null;
             });
@@ -0,0 +1,66 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+
+import io.a2a.spec.TransportProtocol;
+import org.wildfly.extras.a2a.server.apps.common.A2AMetrics;
+import org.wildfly.extras.a2a.server.apps.common.RequestMetricsFilter;
+import org.wildfly.extras.a2a.server.apps.common.TenantRouter;
+
+/**
+ * Records the metrics of the JSON-RPC calls, by the {@code method} of the request.
+ * A batch is recorded as a single call, as it is answered with a single response.
+ * Runs outside of the compression, so the response bytes are those sent.
+ */
+@Provider
+@ApplicationScoped
+@Priority(Priorities.HEADER_DECORATOR)
+public class A2AMetricsFilter extends RequestMetricsFilter {
+
+    static final String BATCH_METHOD = "Batch";
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Inject
+    HttpServletRequest request;
+
+    @Override
+    protected String transport() {
+        return TransportProtocol.JSONRPC.asString();
+    }
+
+    @Override
+    protected String method(ContainerRequestContext requestContext) {
+        Class<?> resourceClass = resourceInfo.getResourceClass();
+        if (resourceClass == null || !A2AServerResource.class.isAssignableFrom(resourceClass)) {
+            return null;
+        }
+        if (HttpMethod.GET.equals(requestContext.getMethod())) {
+            return A2AMetrics.AGENT_CARD_METHOD;
+        }
+        if (requestContext.getProperty(A2ARequestFilter.PARSED_REQUEST_PROPERTY) instanceof JsonRpcBatch) {
+            return BATCH_METHOD;
+        }
+        return requestContext.getProperty(A2ARequestFilter.METHOD_PROPERTY) instanceof String method
+                && A2ARequestFilter.isA2AMethod(method) ? method : A2AMetrics.UNKNOWN_METHOD;
+    }
+
+    @Override
+    protected String tenant(ContainerRequestContext requestContext) {
+        if (HttpMethod.GET.equals(requestContext.getMethod())) {
+            return "";
+        }
+        // As resolved by A2AServerResource for the call context
+        return TenantRouter.WHOLE_PATH.resolve(request.getRequestURI());
+    }
+}
@@ -11,10 +11,14 @@ import static io.a2a.spec.A2AMethods.LIST_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
 import static io.a2a.spec.A2AMethods.SEND_MESSAGE_METHOD;
 import static io.a2a.spec.A2AMethods.SEND_STREAMING_MESSAGE_METHOD;
 import static io.a2a.spec.A2AMethods.SET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.SUBSCRIBE_TO_TASK_METHOD;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
 
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
@@ -22,38 +26,97 @@ import jakarta.ws.rs.container.PreMatching;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.ext.Provider;
 
-import io.a2a.spec.A2AMethods;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.a2a.grpc.utils.JSONRPCUtils;
+import io.a2a.spec.TransportProtocol;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wildfly.extras.a2a.server.apps.common.A2AEvents;
 
 @Provider
 @PreMatching
 public class A2ARequestFilter implements ContainerRequestFilter {
     private static final Logger LOGGER = LoggerFactory.getLogger(A2ARequestFilter.class);
 
+    /**
+     * Request property holding the parsed {@code A2ARequest}, or the exception thrown while parsing it,
+     * so that {@link A2AServerResource} does not need to read and parse the body again.
+     * For batch requests it holds the {@link JsonRpcBatch} of entries instead.
+     */
+    static final String PARSED_REQUEST_PROPERTY = A2ARequestFilter.class.getName() + ".parsedRequest";
+
+    /**
+     * Request property holding the top-level JSON-RPC {@code method} of the request.
+     */
+    static final String METHOD_PROPERTY = A2ARequestFilter.class.getName() + ".method";
+
+    private static final String METHOD_MEMBER = "method";
+
+    private static final Set<String> STREAMING_METHODS = Set.of(
+            SEND_STREAMING_MESSAGE_METHOD,
+            SUBSCRIBE_TO_TASK_METHOD);
+
+    private static final Set<String> NON_STREAMING_METHODS = Set.of(
+            GET_TASK_METHOD,
+            CANCEL_TASK_METHOD,
+            SEND_MESSAGE_METHOD,
+            LIST_TASK_METHOD,
+            SET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD,
+            GET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD,
+            LIST_TASK_PUSH_NOTIFICATION_CONFIG_METHOD,
+            DELETE_TASK_PUSH_NOTIFICATION_CONFIG_METHOD,
+            GET_EXTENDED_AGENT_CARD_METHOD);
+
     @Override
     public void filter(ContainerRequestContext requestContext) {
         if (isA2ARequest(requestContext)) {
+            A2AEvents.RequestParse event = new A2AEvents.RequestParse();
+            event.begin();
             try (InputStream entityInputStream = requestContext.getEntityStream()) {
                 byte[] requestBodyBytes = entityInputStream.readAllBytes();
-                String requestBody = new String(requestBodyBytes);
+                String requestBody = new String(requestBodyBytes, StandardCharsets.UTF_8);
+                if (isBatchRequest(requestBody)) {
+                    // Batches may only contain non-streaming requests
+                    LOGGER.debug("Handling batch request as non-streaming");
+                    putAcceptHeader(requestContext, MediaType.APPLICATION_JSON);
+                    requestContext.setProperty(PARSED_REQUEST_PROPERTY, parseBatch(requestBody));
+                    requestContext.setEntityStream(new ByteArrayInputStream(requestBodyBytes));
+                    commit(event, A2AMetricsFilter.BATCH_METHOD, requestBodyBytes.length);
+                    return;
+                }
                 // ensure the request is treated as a streaming request or a non-streaming request
                 // based on the method in the request body
-                if (isStreamingRequest(requestBody)) {
-                    LOGGER.debug("Handling request as streaming: {}", requestBody);
+                String method = readMethod(requestBody);
+                if (method != null) {
+                    requestContext.setProperty(METHOD_PROPERTY, method);
+                }
+                if (isStreamingRequest(method)) {
+                    LOGGER.debug("Handling {} request as streaming", method);
                     putAcceptHeader(requestContext, MediaType.SERVER_SENT_EVENTS);
-                } else if (isNonStreamingRequest(requestBody)) {
-                    LOGGER.debug("Handling request as non-streaming: {}", requestBody);
+                } else if (isNonStreamingRequest(method)) {
+                    LOGGER.debug("Handling {} request as non-streaming", method);
                     putAcceptHeader(requestContext, MediaType.APPLICATION_JSON);
                 }
-                // reset the entity stream
+                requestContext.setProperty(PARSED_REQUEST_PROPERTY, parseRequest(requestBody));
+                // reset the entity stream, A2AServerResource only reads it if the property is missing
                 requestContext.setEntityStream(new ByteArrayInputStream(requestBodyBytes));
+                commit(event, method, requestBodyBytes.length);
             } catch(IOException e){
                 throw new RuntimeException("Unable to read the request body");
             }
         }
     }
 
+    private static void commit(A2AEvents.RequestParse event, String method, int bodySize) {
+        if (event.shouldCommit()) {
+            event.transport = TransportProtocol.JSONRPC.asString();
+            event.method = method;
+            event.bodySize = bodySize;
+            event.commit();
+        }
+    }
+
     private boolean isA2ARequest(ContainerRequestContext requestContext) {
         String path = requestContext.getUriInfo().getPath().trim();
         if (path.equals("/") || path.startsWith("/agent/") || path.startsWith("/.well-known/")) {
@@ -62,25 +125,79 @@ public class A2ARequestFilter implements ContainerRequestFilter {
         return false;
     }
 
-    private static boolean isStreamingRequest(String requestBody) {
-        return requestBody.contains(SEND_STREAMING_MESSAGE_METHOD) ||
-                requestBody.contains(A2AMethods.SUBSCRIBE_TO_TASK_METHOD);
+    /**
+     * Reads the top-level {@code method} member of a JSON-RPC request, skipping over any other
+     * members without materializing them and stopping as soon as the method is found. Only the
+     * top level is looked at, so a method name appearing in the message text does not count.
+     *
+     * @return the method, or {@code null} if the body is not a JSON object with a string method
+     */
+    static String readMethod(String requestBody) {
+        try (JsonReader reader = new JsonReader(new StringReader(requestBody))) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return null;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (METHOD_MEMBER.equals(reader.nextName()) && reader.peek() == JsonToken.STRING) {
+                    return reader.nextString();
+                }
+                reader.skipValue();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Malformed JSON, the parse error is reported when the request is handled
+            LOGGER.debug("Unable to read the method of the request: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * A JSON-RPC batch is a top-level array.
+     */
+    private static boolean isBatchRequest(String requestBody) {
+        for (int i = 0; i < requestBody.length(); i++) {
+            char c = requestBody.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '[';
+            }
+        }
+        return false;
+    }
+
+    private static Object parseBatch(String requestBody) {
+        try {
+            return JsonRpcBatch.parse(requestBody);
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    private static Object parseRequest(String requestBody) {
+        try {
+            return JSONRPCUtils.parseRequestBody(requestBody, null);
+        } catch (Exception e) {
+            // Rethrown by A2AServerResource so the usual JSON-RPC error is returned
+            return e;
+        }
+    }
+
+    /**
+     * Whether the method is one of the A2A methods.
+     */
+    static boolean isA2AMethod(String method) {
+        return isStreamingRequest(method) || isNonStreamingRequest(method);
+    }
+
+    private static boolean isStreamingRequest(String method) {
+        return method != null && STREAMING_METHODS.contains(method);
     }
 
-    private static boolean isNonStreamingRequest(String requestBody) {
-        return requestBody.contains(GET_TASK_METHOD) ||
-                requestBody.contains(CANCEL_TASK_METHOD) ||
-                requestBody.contains(SEND_MESSAGE_METHOD) ||
-                requestBody.contains(LIST_TASK_METHOD) ||
-                requestBody.contains(SET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD) ||
-                requestBody.contains(GET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD) ||
-                requestBody.contains(LIST_TASK_PUSH_NOTIFICATION_CONFIG_METHOD) ||
-                requestBody.contains(DELETE_TASK_PUSH_NOTIFICATION_CONFIG_METHOD) ||
-                requestBody.contains(GET_EXTENDED_AGENT_CARD_METHOD);
+    private static boolean isNonStreamingRequest(String method) {
+        return method != null && NON_STREAMING_METHODS.contains(method);
     }
 
     private static void putAcceptHeader(ContainerRequestContext requestContext, String mediaType) {
         requestContext.getHeaders().putSingle("Accept", mediaType);
     }
 
-}
\ No newline at end of file
+}
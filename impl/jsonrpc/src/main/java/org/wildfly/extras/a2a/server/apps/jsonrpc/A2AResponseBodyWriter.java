@@ -0,0 +1,153 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import com.google.gson.Gson;
+import com.google.protobuf.MessageOrBuilder;
+import com.google.protobuf.util.JsonFormat;
+import io.a2a.grpc.utils.JSONRPCUtils;
+import io.a2a.grpc.utils.ProtoUtils;
+import io.a2a.jsonrpc.common.wrappers.A2AErrorResponse;
+import io.a2a.jsonrpc.common.wrappers.A2AResponse;
+
+/**
+ * Writes JSON-RPC responses straight to the response stream.
+ *
+ * The result is printed in its protobuf JSON form by {@link JsonFormat} into a buffered writer on top of
+ * the entity stream, so a large task is not first built up as a {@code String} and then copied again by JAX-RS.
+ * Error responses are small and keep using {@link JSONRPCUtils#toJsonRPCErrorResponse}.
+ */
+@Provider
+@Produces({MediaType.APPLICATION_JSON, io.a2a.common.MediaType.APPLICATION_PROBLEM_JSON})
+public class A2AResponseBodyWriter implements MessageBodyWriter<A2AResponse<?>> {
+
+    private static final JsonFormat.Printer PRINTER = JsonFormat.printer().omittingInsignificantWhitespace();
+    private static final Gson GSON = new Gson();
+    private static final int BUFFER_SIZE = 8192;
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return A2AResponse.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(A2AResponse<?> response, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        write(response, entityStream);
+    }
+
+    /**
+     * Writes the response to the stream, leaving the stream open.
+     */
+    static void write(A2AResponse<?> response, OutputStream out) throws IOException {
+        Writer writer = newWriter(out);
+        write(response, writer);
+        writer.flush();
+    }
+
+    static Writer newWriter(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    static void write(A2AResponse<?> response, Writer writer) throws IOException {
+        // For error responses, use JSONRPCUtils error serialization
+        if (response instanceof A2AErrorResponse error) {
+            writer.write(JSONRPCUtils.toJsonRPCErrorResponse(error.getId(), error.getError()));
+            return;
+        }
+        if (response.getError() != null) {
+            writer.write(JSONRPCUtils.toJsonRPCErrorResponse(response.getId(), response.getError()));
+            return;
+        }
+        writer.write("{\"jsonrpc\":\"2.0\",\"id\":");
+        // The id is a string, a number or null
+        writer.write(GSON.toJson(response.getId()));
+        writer.write(",\"result\":");
+        PRINTER.appendTo(convertToProto(response), writer);
+        writer.write('}');
+    }
+
+    /**
+     * Serializes the response to a {@code String}, for the SSE frames.
+     */
+    static String serialize(A2AResponse<?> response) {
+        StringWriter writer = new StringWriter();
+        try {
+            write(response, writer);
+        } catch (IOException e) {
+            // StringWriter does not throw, only the protobuf printer may reject the message
+            throw new IllegalStateException("Unable to serialize response: " + e.getMessage(), e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Encodes the result of a successful response, which is the same whatever the request id, so it can be
+     * shared by the subscribers of a task.
+     */
+    static byte[] encodeResult(A2AResponse<?> response) {
+        try {
+            return PRINTER.print(convertToProto(response)).getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to serialize response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the SSE frame of a response to the given request from its encoded result.
+     */
+    static byte[] sseFrame(Object requestId, byte[] result, long eventId) {
+        byte[] prefix = ("data: {\"jsonrpc\":\"2.0\",\"id\":" + GSON.toJson(requestId) + ",\"result\":")
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] suffix = ("}\nid: " + eventId + "\n\n").getBytes(StandardCharsets.UTF_8);
+        byte[] frame = new byte[prefix.length + result.length + suffix.length];
+        System.arraycopy(prefix, 0, frame, 0, prefix.length);
+        System.arraycopy(result, 0, frame, prefix.length, result.length);
+        System.arraycopy(suffix, 0, frame, prefix.length + result.length, suffix.length);
+        return frame;
+    }
+
+    /**
+     * Converts A2A response objects to their protobuf equivalents.
+     */
+    static MessageOrBuilder convertToProto(A2AResponse<?> response) {
+        if (response instanceof io.a2a.jsonrpc.common.wrappers.GetTaskResponse r) {
+            return ProtoUtils.ToProto.task(r.getResult());
+        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.CancelTaskResponse r) {
+            return ProtoUtils.ToProto.task(r.getResult());
+        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.SendMessageResponse r) {
+            return ProtoUtils.ToProto.taskOrMessage(r.getResult());
+        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.ListTasksResponse r) {
+            return ProtoUtils.ToProto.listTasksResult(r.getResult());
+        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.CreateTaskPushNotificationConfigResponse r) {
+            return ProtoUtils.ToProto.createTaskPushNotificationConfigResponse(r.getResult());
+        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.GetTaskPushNotificationConfigResponse r) {
+            return ProtoUtils.ToProto.getTaskPushNotificationConfigResponse(r.getResult());
+        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.ListTaskPushNotificationConfigsResponse r) {
+            return ProtoUtils.ToProto.listTaskPushNotificationConfigsResponse(r.getResult());
+        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.DeleteTaskPushNotificationConfigResponse) {
+            // DeleteTaskPushNotificationConfig has no result body, just return empty message
+            return com.google.protobuf.Empty.getDefaultInstance();
+        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.GetExtendedAgentCardResponse r) {
+            return ProtoUtils.ToProto.getExtendedCardResponse(r.getResult());
+        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.SendStreamingMessageResponse r) {
+            return ProtoUtils.ToProto.taskOrMessageStream(r.getResult());
+        } else {
+            throw new IllegalArgumentException("Unknown response type: " + response.getClass().getName());
+        }
+    }
+}
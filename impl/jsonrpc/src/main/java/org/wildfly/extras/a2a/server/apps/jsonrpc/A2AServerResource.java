@@ -5,17 +5,23 @@ import static io.a2a.transport.jsonrpc.context.JSONRPCContextKeys.HEADERS_KEY;
 import static io.a2a.transport.jsonrpc.context.JSONRPCContextKeys.TENANT_KEY;
 
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Flow;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
@@ -26,16 +32,19 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.StreamingOutput;
 
 import com.google.gson.JsonSyntaxException;
 import io.a2a.common.A2AHeaders;
 import io.a2a.grpc.utils.JSONRPCUtils;
-import io.a2a.grpc.utils.ProtoUtils;
 import io.a2a.jsonrpc.common.json.IdJsonMappingException;
 import io.a2a.jsonrpc.common.json.InvalidParamsJsonMappingException;
 import io.a2a.jsonrpc.common.json.JsonMappingException;
@@ -54,7 +63,9 @@ import io.a2a.jsonrpc.common.wrappers.ListTaskPushNotificationConfigsRequest;
 import io.a2a.jsonrpc.common.wrappers.ListTasksRequest;
 import io.a2a.jsonrpc.common.wrappers.NonStreamingJSONRPCRequest;
 import io.a2a.jsonrpc.common.wrappers.SendMessageRequest;
+import io.a2a.jsonrpc.common.wrappers.SendMessageResponse;
 import io.a2a.jsonrpc.common.wrappers.SendStreamingMessageRequest;
+import io.a2a.jsonrpc.common.wrappers.SendStreamingMessageResponse;
 import io.a2a.jsonrpc.common.wrappers.StreamingJSONRPCRequest;
 import io.a2a.jsonrpc.common.wrappers.SubscribeToTaskRequest;
 import io.a2a.server.ExtendedAgentCard;
@@ -62,6 +73,7 @@ import io.a2a.server.ServerCallContext;
 import io.a2a.server.auth.UnauthenticatedUser;
 import io.a2a.server.auth.User;
 import io.a2a.server.extensions.A2AExtensions;
+import io.a2a.server.requesthandlers.RequestHandler;
 import io.a2a.server.util.async.Internal;
 import io.a2a.server.util.sse.SseFormatter;
 import io.a2a.spec.A2AError;
@@ -71,17 +83,41 @@ import io.a2a.spec.InvalidParamsError;
 import io.a2a.spec.InvalidRequestError;
 import io.a2a.spec.JSONParseError;
 import io.a2a.spec.MethodNotFoundError;
+import io.a2a.spec.StreamingEventKind;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskQueryParams;
+import io.a2a.spec.TaskStatusUpdateEvent;
 import io.a2a.spec.TransportProtocol;
 import io.a2a.spec.UnsupportedOperationError;
 import io.a2a.transport.jsonrpc.handler.JSONRPCHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wildfly.extras.a2a.server.apps.common.A2AMetrics;
+import org.wildfly.extras.a2a.server.apps.common.A2ATracing;
+import org.wildfly.extras.a2a.server.apps.common.AbstractSseSubscriber;
+import org.wildfly.extras.a2a.server.apps.common.AgentCardCache;
+import org.wildfly.extras.a2a.server.apps.common.AsyncMessageSend;
+import org.wildfly.extras.a2a.server.apps.common.AsyncSseWriter;
+import org.wildfly.extras.a2a.server.apps.common.CompressionConfig;
+import org.wildfly.extras.a2a.server.apps.common.ConcurrencyLimiter;
+import org.wildfly.extras.a2a.server.apps.common.ExecutionLanes;
+import org.wildfly.extras.a2a.server.apps.common.InternalExecutorConfig;
+import org.wildfly.extras.a2a.server.apps.common.SseBackpressure;
+import org.wildfly.extras.a2a.server.apps.common.SseDebugConfig;
+import org.wildfly.extras.a2a.server.apps.common.SseFlushConfig;
+import org.wildfly.extras.a2a.server.apps.common.SseHeartbeat;
+import org.wildfly.extras.a2a.server.apps.common.StreamAdmission;
+import org.wildfly.extras.a2a.server.apps.common.TaskEventJournal;
+import org.wildfly.extras.a2a.server.apps.common.TenantBulkheads;
+import org.wildfly.extras.a2a.server.apps.common.TenantRouter;
 
 @Path("/")
 public class A2AServerResource {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(A2AServerResource.class);
 
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
     @Inject
     JSONRPCHandler jsonRpcHandler;
 
@@ -96,6 +132,48 @@ public class A2AServerResource {
     @Internal
     Executor executor;
 
+    @Inject
+    BatchRequestConfig batchConfig;
+
+    @Inject
+    AgentCardCache agentCardCache;
+
+    @Inject
+    CompressionConfig compressionConfig;
+
+    @Inject
+    SseFlushConfig flushConfig;
+
+    @Inject
+    SseDebugConfig debugConfig;
+
+    @Inject
+    AsyncMessageSend asyncMessageSend;
+
+    @Inject
+    TenantBulkheads bulkheads;
+
+    @Inject
+    StreamAdmission streamAdmission;
+
+    @Inject
+    ConcurrencyLimiter concurrencyLimiter;
+
+    @Inject
+    ExecutionLanes lanes;
+
+    @Inject
+    RequestHandler requestHandler;
+
+    @Inject
+    SseBackpressure backpressure;
+
+    @Inject
+    SseHeartbeat heartbeat;
+
+    @Inject
+    TaskEventJournal eventJournal;
+
 
     @Inject
     Instance<CallContextFactory> callContextFactory;
@@ -104,59 +182,348 @@ public class A2AServerResource {
      * Handles incoming POST requests to the main A2A endpoint. Dispatches the
      * request to the appropriate JSON-RPC handler method and returns the response.
      *
-     * @param body the JSON-RPC request string
-     * @return the JSON-RPC response which may be an error response
+     * {@code SendMessage} runs the agent, which may take long, so it is completed on the internal executor
+     * and the HTTP worker thread is released right away. The other methods run on the control lane of
+     * {@link ExecutionLanes}, so they do not wait behind the agents. The span of the request goes along.
+     *
+     * @param body the JSON-RPC request body, only read if {@link A2ARequestFilter} did not parse it already
+     * @param asyncResponse resumed with the JSON-RPC response, which may be an error response
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    public Response handleNonStreamingRequests(
-            String body,
+    public void handleNonStreamingRequests(
+            InputStream body,
             @Context HttpServletRequest httpRequest,
-            @Context SecurityContext securityContext) {
+            @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) {
 
         ServerCallContext context = createCallContext(httpRequest, securityContext);
+        A2ATracing.Span span = A2ATracing.span(httpRequest);
+        Object parsed = httpRequest.getAttribute(A2ARequestFilter.PARSED_REQUEST_PROPERTY);
+        if (parsed instanceof JsonRpcBatch batch) {
+            handleBatchRequest(batch, context, tenant(context, httpRequest), span, asyncResponse);
+            return;
+        }
+        ConcurrencyLimiter.Operation operation = limitedOperation(parsed);
+        ConcurrencyLimiter.Permit permit = operation == null ? null : concurrencyLimiter.tryAcquire(operation);
+        if (operation != null && permit == null) {
+            asyncResponse.resume(busyResponse(((A2ARequest<?>) parsed).getId()));
+            return;
+        }
+        if (parsed instanceof SendMessageRequest request) {
+            LOGGER.debug("Handling message send on the internal executor");
+            asyncMessageSend.execute(asyncResponse, tenant(context, httpRequest), executor,
+                    span.wrap(() -> {
+                        try {
+                            return toResponse(processRequest(() -> request, context));
+                        } finally {
+                            permit.release();
+                        }
+                    }),
+                    () -> taskSnapshot(request, context),
+                    () -> {
+                        permit.release();
+                        return busyResponse(request.getId());
+                    });
+            return;
+        }
+        if (parsed instanceof A2ARequest<?> request
+                && ExecutionLanes.classify(request.getMethod()) == ExecutionLanes.Lane.CONTROL) {
+            LOGGER.debug("Handling {} on the control lane", request.getMethod());
+            lanes.execute(ExecutionLanes.Lane.CONTROL, executor, asyncResponse,
+                    span.wrap(() -> {
+                        try {
+                            return toResponse(processRequest(() -> request, context));
+                        } finally {
+                            release(permit);
+                        }
+                    }),
+                    () -> {
+                        release(permit);
+                        return busyResponse(request.getId());
+                    });
+            return;
+        }
         LOGGER.debug("Handling non-streaming request");
-        A2AResponse<?> response;
+        try (A2ATracing.Scope scope = span.makeCurrent()) {
+            asyncResponse.resume(toResponse(processRequest(() -> parseRequest(body, httpRequest), context)));
+        } finally {
+            release(permit);
+        }
+    }
+
+    private static void release(ConcurrencyLimiter.Permit permit) {
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
+    /**
+     * Returns the operation the {@link ConcurrencyLimiter} limits the request as, {@code null} if it is not
+     * limited.
+     */
+    private static ConcurrencyLimiter.Operation limitedOperation(Object request) {
+        if (request instanceof SendMessageRequest) {
+            return ConcurrencyLimiter.Operation.SEND;
+        }
+        if (request instanceof GetTaskRequest || request instanceof ListTasksRequest) {
+            return ConcurrencyLimiter.Operation.READ;
+        }
+        if (request instanceof CancelTaskRequest) {
+            return ConcurrencyLimiter.Operation.CANCEL;
+        }
+        return null;
+    }
+
+    private static Response toResponse(A2AResponse<?> response) {
+        // Set Content-Type according to A2A spec: application/problem+json for errors, application/json for success
+        String contentType = response.getError() != null
+            ? io.a2a.common.MediaType.APPLICATION_PROBLEM_JSON
+            : io.a2a.common.MediaType.APPLICATION_JSON;
+
+        // Return Response with explicit content-type header
+        return Response.status(Response.Status.OK)
+                .header(HttpHeaders.CONTENT_TYPE, contentType)
+                // Written by A2AResponseBodyWriter
+                .entity(response)
+                .build();
+    }
+
+    /**
+     * Tells the client to retry later, as the internal executor, the open streams or the calls in flight are at
+     * their limit.
+     */
+    private static Response busyResponse(Object requestId) {
+        return AsyncMessageSend.busy()
+                .header(HttpHeaders.CONTENT_TYPE, io.a2a.common.MediaType.APPLICATION_PROBLEM_JSON)
+                .entity(busyError(requestId))
+                .build();
+    }
+
+    private static A2AErrorResponse busyError(Object requestId) {
+        return new A2AErrorResponse(requestId, new InternalError(AsyncMessageSend.BUSY_MESSAGE));
+    }
+
+    /**
+     * Returns the current state of the task the message was sent to, for a message send that timed out.
+     * A message that starts a new task does not name it, so there is no snapshot until the agent is done.
+     */
+    private Response taskSnapshot(SendMessageRequest request, ServerCallContext context) {
+        SendMessageResponse snapshot = snapshot(request, context);
+        return snapshot == null ? null : toResponse(snapshot);
+    }
+
+    private SendMessageResponse snapshot(SendMessageRequest request, ServerCallContext context) {
+        String taskId = request.getParams().message().taskId();
+        if (taskId == null) {
+            return null;
+        }
+        Task task = requestHandler.onGetTask(new TaskQueryParams(taskId), context);
+        return task == null ? null : new SendMessageResponse(request.getId(), task);
+    }
+
+    /**
+     * Parses and executes a single non-streaming request, mapping any failure to the matching JSON-RPC error.
+     */
+    private A2AResponse<?> processRequest(Callable<A2ARequest<?>> parser, ServerCallContext context) {
         try {
-            A2ARequest<?> request = JSONRPCUtils.parseRequestBody(body, null);
-            response = processNonStreamingRequest((NonStreamingJSONRPCRequest<?>) request, context);
+            A2ARequest<?> request = parser.call();
+            if (!(request instanceof NonStreamingJSONRPCRequest<?> nonStreamingRequest)) {
+                return new A2AErrorResponse(request.getId(),
+                        new InvalidRequestError(null, "Streaming requests are not supported here", null));
+            }
+            return processNonStreamingRequest(nonStreamingRequest, context);
         } catch (InvalidParamsJsonMappingException e) {
             LOGGER.warn("Invalid params in request: {}", e.getMessage());
-            response = new A2AErrorResponse(e.getId(), new InvalidParamsError(null, e.getMessage(), null));
+            return new A2AErrorResponse(e.getId(), new InvalidParamsError(null, e.getMessage(), null));
         } catch (MethodNotFoundJsonMappingException e) {
             LOGGER.warn("Method not found in request: {}", e.getMessage());
-            response = new A2AErrorResponse(e.getId(), new MethodNotFoundError(null, e.getMessage(), null));
+            return new A2AErrorResponse(e.getId(), new MethodNotFoundError(null, e.getMessage(), null));
         } catch (IdJsonMappingException e) {
             LOGGER.warn("Invalid request ID: {}", e.getMessage());
-            response = new A2AErrorResponse(e.getId(), new InvalidRequestError(null, e.getMessage(), null));
+            return new A2AErrorResponse(e.getId(), new InvalidRequestError(null, e.getMessage(), null));
         } catch (JsonMappingException e) {
             LOGGER.warn("JSON mapping error: {}", e.getMessage(), e);
             // General JsonMappingException - treat as InvalidRequest
-            response = new A2AErrorResponse(new InvalidRequestError(null, e.getMessage(), null));
+            return new A2AErrorResponse(new InvalidRequestError(null, e.getMessage(), null));
         } catch (JsonSyntaxException e) {
             LOGGER.warn("JSON syntax error: {}", e.getMessage());
-            response = new A2AErrorResponse(new JSONParseError(e.getMessage()));
+            return new A2AErrorResponse(new JSONParseError(e.getMessage()));
         } catch (JsonProcessingException e) {
             LOGGER.warn("JSON processing error: {}", e.getMessage());
-            response = new A2AErrorResponse(new JSONParseError(e.getMessage()));
+            return new A2AErrorResponse(new JSONParseError(e.getMessage()));
         } catch (Throwable t) {
+            if (InternalExecutorConfig.isRejected(t)) {
+                LOGGER.debug("Internal executor rejected request: {}", t.getMessage());
+                return new A2AErrorResponse(new InternalError(AsyncMessageSend.BUSY_MESSAGE));
+            }
             LOGGER.error("Unexpected error processing request: {}", t.getMessage(), t);
-            response = new A2AErrorResponse(new InternalError(t.getMessage()));
+            return new A2AErrorResponse(new InternalError(t.getMessage()));
         }
+    }
 
-        // Serialize response using protobuf conversion
-        String serialized = serializeResponse(response);
+    /**
+     * Handles a JSON-RPC batch. Each entry is admitted and executed as it would be on its own: it takes a permit
+     * of the {@link ConcurrencyLimiter}, a message send runs on the bulkhead of the tenant and gives the task
+     * snapshot once the timeout of {@link AsyncMessageSend} has passed, and the other calls run on the control
+     * lane, or on the internal executor if the control lane has no threads of its own. An entry that is turned
+     * down gets the busy error while the others go on. At most {@link BatchRequestConfig#getMaxConcurrency()}
+     * entries run at once: the first ones are started here and each of the others once one before it is done,
+     * so the request thread returns right away. The responses are returned in the order of the requests once
+     * all are done. Notifications, i.e. entries without an {@code id}, are executed but get no response.
+     */
+    private void handleBatchRequest(JsonRpcBatch batch, ServerCallContext context, String tenant,
+            A2ATracing.Span span, AsyncResponse asyncResponse) {
+        List<JsonRpcBatch.Entry> entries = batch.entries();
+        LOGGER.debug("Handling batch request with {} entries", entries.size());
+        if (entries.isEmpty()) {
+            asyncResponse.resume(errorResponse(
+                    new A2AErrorResponse(new InvalidRequestError(null, "Empty batch request", null))));
+            return;
+        }
+        if (entries.size() > batchConfig.getMaxSize()) {
+            asyncResponse.resume(errorResponse(new A2AErrorResponse(new InvalidRequestError(null,
+                    "Batch request exceeds the maximum of " + batchConfig.getMaxSize() + " entries", null))));
+            return;
+        }
 
-        // Set Content-Type according to A2A spec: application/problem+json for errors, application/json for success
-        String contentType = response.getError() != null
-            ? io.a2a.common.MediaType.APPLICATION_PROBLEM_JSON
-            : io.a2a.common.MediaType.APPLICATION_JSON;
+        List<CompletableFuture<A2AResponse<?>>> responses = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            responses.add(new CompletableFuture<>());
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, t) -> asyncResponse.resume(batchResponse(entries, responses)));
+        AtomicInteger next = new AtomicInteger();
+        int running = Math.min(batchConfig.getMaxConcurrency(), entries.size());
+        for (int i = 0; i < running; i++) {
+            startBatchEntries(entries, responses, next, context, tenant, span);
+        }
+    }
 
-        // Return Response with explicit content-type header
+    /**
+     * Starts the next entry of the batch not started yet, and the one after once it is done, and so on. An entry
+     * that is done right away is followed by the next one in the loop rather than by a nested call.
+     *
+     * @param next the index of the next entry to start
+     */
+    private void startBatchEntries(List<JsonRpcBatch.Entry> entries, List<CompletableFuture<A2AResponse<?>>> responses,
+            AtomicInteger next, ServerCallContext context, String tenant, A2ATracing.Span span) {
+        while (true) {
+            int index = next.getAndIncrement();
+            if (index >= entries.size()) {
+                return;
+            }
+            CompletableFuture<A2AResponse<?>> response;
+            try (A2ATracing.Scope scope = span.makeCurrent()) {
+                response = executeBatchEntry(entries.get(index), context, tenant, span);
+            }
+            if (response.isDone()) {
+                responses.get(index).complete(response.join());
+                continue;
+            }
+            response.whenComplete((result, t) -> {
+                responses.get(index).complete(result);
+                startBatchEntries(entries, responses, next, context, tenant, span);
+            });
+            return;
+        }
+    }
+
+    /**
+     * Starts an entry of a batch on the executor its request runs on when sent alone, or on the internal executor
+     * if the control lane has none, so that no entry runs on the thread starting it.
+     *
+     * @return the response of the entry, never completed exceptionally
+     */
+    private CompletableFuture<A2AResponse<?>> executeBatchEntry(JsonRpcBatch.Entry entry, ServerCallContext context,
+            String tenant, A2ATracing.Span span) {
+        if (!entry.object()) {
+            return CompletableFuture.completedFuture(
+                    new A2AErrorResponse(new InvalidRequestError(null, "Batch entry is not a JSON object", null)));
+        }
+        A2ARequest<?> request;
+        try {
+            request = JSONRPCUtils.parseRequestBody(entry.json(), null);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(processRequest(() -> {
+                throw e;
+            }, context));
+        }
+        ConcurrencyLimiter.Operation operation = limitedOperation(request);
+        ConcurrencyLimiter.Permit permit = operation == null ? null : concurrencyLimiter.tryAcquire(operation);
+        if (operation != null && permit == null) {
+            return CompletableFuture.completedFuture(busyError(request.getId()));
+        }
+        Supplier<A2AResponse<?>> call = () -> {
+            try {
+                return processRequest(() -> request, context);
+            } finally {
+                release(permit);
+            }
+        };
+        Supplier<A2AResponse<?>> busy = () -> {
+            release(permit);
+            return busyError(request.getId());
+        };
+        if (request instanceof SendMessageRequest send) {
+            CompletableFuture<A2AResponse<?>> response = new CompletableFuture<>();
+            bulkheads.execute(tenant, executor, complete(response, span.wrap(call)),
+                    () -> response.complete(busy.get()));
+            return asyncMessageSend.withSnapshot(response, () -> snapshot(send, context), executor);
+        }
+        Executor control = lanes.executor(ExecutionLanes.classify(request.getMethod()), executor);
+        if (control == null) {
+            control = executor;
+        }
+        CompletableFuture<A2AResponse<?>> response = new CompletableFuture<>();
+        try {
+            control.execute(complete(response, span.wrap(call)));
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Executor rejected batch entry {}: {}", request.getMethod(), e.getMessage());
+            response.complete(busy.get());
+        }
+        return response;
+    }
+
+    private static Runnable complete(CompletableFuture<A2AResponse<?>> response, Supplier<A2AResponse<?>> call) {
+        return () -> response.complete(call.get());
+    }
+
+    private static Response batchResponse(List<JsonRpcBatch.Entry> entries,
+            List<CompletableFuture<A2AResponse<?>>> responses) {
+        List<A2AResponse<?>> results = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            if (!entries.get(i).notification()) {
+                results.add(responses.get(i).join());
+            }
+        }
+        if (results.isEmpty()) {
+            // Only notifications, nothing to return
+            return Response.noContent().build();
+        }
+        StreamingOutput output = out -> {
+            Writer writer = A2AResponseBodyWriter.newWriter(out);
+            writer.write('[');
+            for (int i = 0; i < results.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                A2AResponseBodyWriter.write(results.get(i), writer);
+            }
+            writer.write(']');
+            writer.flush();
+        };
         return Response.status(Response.Status.OK)
-                .header(HttpHeaders.CONTENT_TYPE, contentType)
-                .entity(serialized)
+                .header(HttpHeaders.CONTENT_TYPE, io.a2a.common.MediaType.APPLICATION_JSON)
+                .entity(output)
+                .build();
+    }
+
+    private static Response errorResponse(A2AErrorResponse response) {
+        return Response.status(Response.Status.OK)
+                .header(HttpHeaders.CONTENT_TYPE, io.a2a.common.MediaType.APPLICATION_PROBLEM_JSON)
+                .entity(response)
                 .build();
     }
 
@@ -168,23 +535,39 @@ public class A2AServerResource {
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.SERVER_SENT_EVENTS)
     public void handleStreamingRequests(
-            String body,
+            InputStream body,
             @Context HttpServletResponse response,
             @Context HttpServletRequest httpRequest,
-            @Context SecurityContext securityContext) throws IOException {
+            @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) throws IOException {
 
         ServerCallContext context = createCallContext(httpRequest, securityContext);
         LOGGER.debug("Handling streaming request with custom SSE response");
 
-        // Set SSE headers manually for proper streaming
-        response.setContentType(MediaType.SERVER_SENT_EVENTS);
-        response.setCharacterEncoding("UTF-8");
-        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        // Turned down before the request handler creates the event queue of the stream
+        StreamAdmission.Permit permit = streamAdmission.tryAcquire(tenant(context, httpRequest));
+        if (permit == null) {
+            Object parsed = httpRequest.getAttribute(A2ARequestFilter.PARSED_REQUEST_PROPERTY);
+            asyncResponse.resume(busyResponse(parsed instanceof A2ARequest<?> parsedRequest ? parsedRequest.getId() : null));
+            return;
+        }
 
-        A2ARequest<?> request = null;
+        // Sets the SSE headers and keeps the response open once this method returns
+        AsyncSseWriter writer;
         try {
+            writer = AsyncSseWriter.start(httpRequest, response, compressionConfig, flushConfig);
+        } catch (IOException | RuntimeException e) {
+            // No stream to release the permit when it ends
+            permit.release();
+            throw e;
+        }
+
+        A2ARequest<?> request = null;
+        boolean streaming = false;
+        A2ATracing.Span span = A2ATracing.span(httpRequest);
+        try (A2ATracing.Scope scope = span.makeCurrent()) {
             // Parse the request body
-            request = JSONRPCUtils.parseRequestBody(body, null);
+            request = parseRequest(body, httpRequest);
 
             // Get the publisher synchronously to avoid connection closure issues
             Flow.Publisher<? extends A2AResponse<?>> publisher = createStreamingPublisher((StreamingJSONRPCRequest<?>) request, context);
@@ -193,39 +576,51 @@ public class A2AServerResource {
             if (publisher != null) {
                 // Handle the streaming response with custom SSE formatting
                 LOGGER.debug("Handling custom SSE response for publisher: {}", publisher);
-                handleCustomSSEResponse(publisher, response, context);
+                handleCustomSSEResponse(publisher, writer, context, request, httpRequest, permit);
+                streaming = true;
             } else {
-                // Handle unsupported request types
+                // The writer already owns the response, so the error goes down the stream like the others
                 LOGGER.debug("Unsupported streaming request type: {}", request.getClass().getSimpleName());
-                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unsupported streaming request type");
+                sendErrorSSE(writer, request.getId(),
+                        new InvalidRequestError(null, "Unsupported streaming request type", null));
             }
         } catch (MethodNotFoundJsonMappingException e) {
             LOGGER.warn("Method not found in streaming request: {}", e.getMessage());
-            sendErrorSSE(response, e.getId(), new MethodNotFoundError());
+            sendErrorSSE(writer, e.getId(), new MethodNotFoundError());
         } catch (InvalidParamsJsonMappingException e) {
             LOGGER.warn("Invalid params in streaming request: {}", e.getMessage());
-            sendErrorSSE(response, e.getId(), new InvalidParamsError());
+            sendErrorSSE(writer, e.getId(), new InvalidParamsError());
         } catch (IdJsonMappingException e) {
             LOGGER.warn("Invalid request ID in streaming request: {}", e.getMessage());
-            sendErrorSSE(response, e.getId(), new InvalidRequestError());
+            sendErrorSSE(writer, e.getId(), new InvalidRequestError());
         } catch (JsonMappingException e) {
             LOGGER.warn("JSON mapping error in streaming request: {}", e.getMessage(), e);
             // Check if this is a parse error wrapped in a mapping exception
             if (e.getCause() instanceof JsonProcessingException) {
-                sendErrorSSE(response, null, new JSONParseError());
+                sendErrorSSE(writer, null, new JSONParseError());
             } else {
                 // Otherwise it's an invalid request (valid JSON but doesn't match schema)
-                sendErrorSSE(response, null, new InvalidRequestError());
+                sendErrorSSE(writer, null, new InvalidRequestError());
             }
         } catch (JsonSyntaxException e) {
             LOGGER.warn("JSON syntax error in streaming request: {}", e.getMessage());
-            sendErrorSSE(response, null, new JSONParseError());
+            sendErrorSSE(writer, null, new JSONParseError());
         } catch (JsonProcessingException e) {
             LOGGER.warn("JSON processing error in streaming request: {}", e.getMessage());
-            sendErrorSSE(response, null, new JSONParseError());
+            sendErrorSSE(writer, null, new JSONParseError());
         } catch (Throwable e) {
             LOGGER.error("Unexpected error processing streaming request: {}", e.getMessage(), e);
-            sendErrorSSE(response, null, new InternalError(e.getMessage()));
+            sendErrorSSE(writer, null, new InternalError(e.getMessage()));
+        } finally {
+            if (!streaming) {
+                permit.release();
+                // The errors are written to the stream, not through JAX-RS
+                A2AMetrics.Call call = A2AMetrics.call(httpRequest);
+                call.outcome(A2AMetrics.Outcome.ERROR);
+                call.end(writer.getBytesWritten());
+                span.outcome(A2AMetrics.Outcome.ERROR);
+                span.end();
+            }
         }
 
         LOGGER.debug("Completed streaming request processing");
@@ -233,15 +628,32 @@ public class A2AServerResource {
 
     /**
      * Handles incoming GET requests to the agent card endpoint.
-     * Returns the agent card in JSON format.
+     * Returns the agent card in JSON format, serialized once and answered with an ETag
+     * so that clients can revalidate it.
      *
-     * @return the agent card
+     * @return the agent card, or 304 if the client already has it
      */
     @GET
     @Path("/.well-known/agent-card.json")
     @Produces(MediaType.APPLICATION_JSON)
-    public AgentCard getAgentCard() {
-        return jsonRpcHandler.getAgentCard();
+    public Response getAgentCard(@Context Request request, @Context HttpHeaders headers) {
+        return agentCardCache.publicCardResponse(
+                () -> AgentCardInitializer.serialize(jsonRpcHandler.getAgentCard()), request, headers);
+    }
+
+    /**
+     * Returns the request parsed by {@link A2ARequestFilter}, rethrowing the exception if parsing failed.
+     * The body is only read and parsed here if the filter did not handle the request.
+     */
+    private static A2ARequest<?> parseRequest(InputStream body, HttpServletRequest httpRequest) throws Exception {
+        Object parsed = httpRequest.getAttribute(A2ARequestFilter.PARSED_REQUEST_PROPERTY);
+        if (parsed instanceof A2ARequest<?> request) {
+            return request;
+        }
+        if (parsed instanceof Exception e) {
+            throw e;
+        }
+        return JSONRPCUtils.parseRequestBody(new String(body.readAllBytes(), StandardCharsets.UTF_8), null);
     }
 
     private A2AResponse<?> processNonStreamingRequest(NonStreamingJSONRPCRequest<?> request,
@@ -287,26 +699,23 @@ public class A2AServerResource {
     /**
      * Handles the streaming response using custom SSE formatting.
      * This approach avoids JAX-RS SSE compatibility issues with async publishers.
-     * Implements proper client disconnect detection and EventConsumer cancellation.
+     * The events are written with Servlet non-blocking I/O, so the request thread is released
+     * as soon as the subscription is in place. Client disconnects cancel the EventConsumer.
+     * For {@code SubscribeToTask} the event ids count up per task and a {@code Last-Event-ID} is honored.
+     * For {@code SendStreamingMessage} they count up per task from the first event naming the task, so the
+     * stream can be resumed with {@code SubscribeToTask}.
      */
     private void handleCustomSSEResponse(Flow.Publisher<? extends A2AResponse<?>> publisher,
-                                       HttpServletResponse response,
-                                       ServerCallContext context) throws IOException {
-
-        PrintWriter writer = response.getWriter();
-        AtomicLong eventId = new AtomicLong(0);
-        CompletableFuture<Void> streamingComplete = new CompletableFuture<>();
-
-        publisher.subscribe(new Flow.Subscriber<A2AResponse<?>>() {
-            private Flow.Subscription subscription;
-
+                                       AsyncSseWriter writer,
+                                       ServerCallContext context,
+                                       A2ARequest<?> request,
+                                       HttpServletRequest httpRequest,
+                                       StreamAdmission.Permit permit) {
+
+        Object requestId = request.getId();
+        AbstractSseSubscriber<A2AResponse<?>> subscriber = new AbstractSseSubscriber<A2AResponse<?>>(writer, context) {
             @Override
-            public void onSubscribe(Flow.Subscription subscription) {
-                LOGGER.debug("Custom SSE subscriber onSubscribe called");
-                this.subscription = subscription;
-                // Use backpressure: request one item at a time
-                subscription.request(1);
-
+            protected void onSubscribed() {
                 // Notify tests that we are subscribed
                 Runnable runnable = streamingIsSubscribedRunnable;
                 if (runnable != null) {
@@ -315,75 +724,62 @@ public class A2AServerResource {
             }
 
             @Override
-            public void onNext(A2AResponse<?> item) {
-                LOGGER.debug("Custom SSE subscriber onNext called with item: {}", item);
-                try {
-                    // Format as proper SSE event using centralized SseFormatter
-                    long id = eventId.getAndIncrement();
-                    String sseEvent = SseFormatter.formatResponseAsSSE(item, id);
-
-                    writer.write(sseEvent);
-                    writer.flush();
-
-                    // Check if write failed (client disconnected)
-                    // PrintWriter doesn't throw IOException, so we must check for errors explicitly
-                    if (writer.checkError()) {
-                        LOGGER.info("SSE write failed (likely client disconnect)");
-                        handleClientDisconnect();
-                        return;
-                    }
+            protected String formatEvent(A2AResponse<?> item, long id) {
+                // Format as proper SSE event using centralized SseFormatter
+                return SseFormatter.formatResponseAsSSE(item, id);
+            }
+
+            @Override
+            protected Object eventKey(A2AResponse<?> item) {
+                // Each subscriber has its own JSON-RPC id, so only the event itself is shared
+                return item.getResult();
+            }
 
-                    LOGGER.debug("Custom SSE event sent successfully with id: {}", id);
+            @Override
+            protected byte[] encodeShared(A2AResponse<?> item, long id) {
+                // Only the result, the envelope carries this subscriber's request id
+                return A2AResponseBodyWriter.encodeResult(item);
+            }
 
-                    // Request next item (backpressure)
-                    subscription.request(1);
-                } catch (Exception e) {
-                    LOGGER.error("Error writing SSE event: {}", e.getMessage(), e);
-                    onError(e);
-                }
+            @Override
+            protected byte[] frame(byte[] shared, long id) {
+                return A2AResponseBodyWriter.sseFrame(requestId, shared, id);
             }
 
             @Override
-            public void onError(Throwable throwable) {
-                LOGGER.debug("Custom SSE subscriber onError called: {}", throwable.getMessage(), throwable);
-                handleClientDisconnect();
-                streamingComplete.completeExceptionally(throwable);
+            protected A2AResponse<?> replayItem(Object recorded) {
+                return new SendStreamingMessageResponse(requestId, (StreamingEventKind) recorded);
             }
 
             @Override
-            public void onComplete() {
-                LOGGER.debug("Custom SSE subscriber onComplete called");
-                try {
-                    writer.close();
-                } catch (Exception e) {
-                    LOGGER.error("Error closing writer: {}", e.getMessage(), e);
-                }
-                streamingComplete.complete(null);
+            protected boolean isIntermediateStatus(A2AResponse<?> item) {
+                return item.getResult() instanceof TaskStatusUpdateEvent event && !event.isFinal();
             }
 
-            private void handleClientDisconnect() {
-                LOGGER.debug("SSE connection closed, calling EventConsumer.cancel() to stop polling loop");
-                // Cancel subscription to stop receiving events
-                if (subscription != null) {
-                    subscription.cancel();
-                }
-                // Call EventConsumer cancel callback to clean up ChildQueue
-                context.invokeEventConsumerCancelCallback();
-                try {
-                    writer.close();
-                } catch (Exception e) {
-                    LOGGER.debug("Error closing writer during disconnect: {}", e.getMessage());
-                }
+            @Override
+            protected Instant emittedAt(A2AResponse<?> item) {
+                return item.getResult() instanceof TaskStatusUpdateEvent event && event.status().timestamp() != null
+                        ? event.status().timestamp().toInstant() : null;
             }
-        });
 
-        try {
-            // Wait for streaming to complete before method returns
-            streamingComplete.get();
-        } catch (Exception e) {
-            LOGGER.error("Error waiting for streaming completion: {}", e.getMessage(), e);
-            throw new IOException("Streaming failed", e);
+            @Override
+            protected String formatSlowConsumerError(String message, long id) {
+                return SseFormatter.formatResponseAsSSE(new A2AErrorResponse(requestId, new InternalError(message)), id);
+            }
+        };
+        subscriber.withBackpressure(backpressure).withPermit(permit).withMetrics(A2AMetrics.call(httpRequest).stream())
+                .withTracing(A2ATracing.span(httpRequest).stream()).withLagComments(debugConfig.isLagComments());
+        if (request instanceof SubscribeToTaskRequest req) {
+            subscriber.withJournal(eventJournal.journal(TransportProtocol.JSONRPC.asString(), req.getParams().id()),
+                    TaskEventJournal.parseLastEventId(httpRequest.getHeader(LAST_EVENT_ID)));
+        } else {
+            subscriber.withJournalOf(item -> {
+                String taskId = TaskEventJournal.taskId(item.getResult());
+                return taskId == null ? null : eventJournal.journal(TransportProtocol.JSONRPC.asString(), taskId);
+            });
         }
+        publisher.subscribe(subscriber);
+        heartbeat.register(writer);
     }
 
 
@@ -394,16 +790,13 @@ public class A2AServerResource {
     /**
      * Sends an error response as a Server-Sent Event.
      */
-    private void sendErrorSSE(HttpServletResponse response, Object id, A2AError error) {
+    private void sendErrorSSE(AsyncSseWriter writer, Object id, A2AError error) {
         try {
-            PrintWriter writer = response.getWriter();
             A2AErrorResponse errorResponse = new A2AErrorResponse(id, error);
-            String jsonData = serializeResponse(errorResponse);
-            writer.write("data: " + jsonData + "\n");
-            writer.write("id: 0\n");
-            writer.write("\n"); // Empty line to complete the event
-            writer.flush();
-            writer.close();
+            String jsonData = A2AResponseBodyWriter.serialize(errorResponse);
+            writer.writeAndClose("data: " + jsonData + "\n" +
+                    "id: 0\n" +
+                    "\n"); // Empty line to complete the event
         } catch (Exception e) {
             LOGGER.error("Error sending SSE error response: {}", e.getMessage(), e);
         }
@@ -413,7 +806,11 @@ public class A2AServerResource {
         A2AServerResource.streamingIsSubscribedRunnable = streamingIsSubscribedRunnable;
     }
 
-    private ServerCallContext createCallContext(HttpServletRequest request, SecurityContext securityContext) {
+    /**
+     * Builds the call context with the {@link CallContextFactory} of the application if there is one, or puts the
+     * user, the headers, the requested extensions, the tenant and the transport of the request in it.
+     */
+    ServerCallContext createCallContext(HttpServletRequest request, SecurityContext securityContext) {
 
         if (callContextFactory.isUnsatisfied()) {
             User user;
@@ -441,7 +838,8 @@ public class A2AServerResource {
             Map<String, String> headers = new HashMap<>();
             for (Enumeration<String> headerNames = request.getHeaderNames(); headerNames.hasMoreElements() ; ) {
                 String name = headerNames.nextElement();
-                headers.put(name, headers.get(name));
+                // From the request, the map being filled has no value for it yet
+                headers.put(name, request.getHeader(name));
             }
 
             state.put(HEADERS_KEY, headers);
@@ -452,78 +850,29 @@ public class A2AServerResource {
                 extensionHeaderValues.add(en.nextElement());
             }
             Set<String> requestedExtensions = A2AExtensions.getRequestedExtensions(extensionHeaderValues);
-            state.put(TENANT_KEY, extractTenant(request));
+            state.put(TENANT_KEY, TenantRouter.WHOLE_PATH.resolve(request.getRequestURI()));
             state.put(TRANSPORT_KEY, TransportProtocol.JSONRPC);
             
-            return new ServerCallContext(user, state, requestedExtensions);
+            return A2ATracing.attach(new ServerCallContext(user, state, requestedExtensions),
+                    A2ATracing.span(request).traceparent());
         } else {
             CallContextFactory builder = callContextFactory.get();
-            return builder.build(request);
+            return A2ATracing.attach(builder.build(request), A2ATracing.span(request).traceparent());
         }
     }
 
-    private String extractTenant(HttpServletRequest request) {
-        String tenantPath = request.getRequestURI();
-        if (tenantPath == null || tenantPath.isBlank()) {
-            return "";
-        }
-        if (tenantPath.startsWith("/")) {
-            tenantPath = tenantPath.substring(1);
-        }
-        if(tenantPath.endsWith("/")) {
-            tenantPath = tenantPath.substring(0, tenantPath.length() -1);
+    /**
+     * Returns the tenant resolved by {@link #createCallContext}, or resolves it if the call context was built
+     * by a {@link CallContextFactory}.
+     */
+    private static String tenant(ServerCallContext context, HttpServletRequest request) {
+        if (context.getState().get(TENANT_KEY) instanceof String tenant) {
+            return tenant;
         }
-        return tenantPath;
+        return TenantRouter.WHOLE_PATH.resolve(request.getRequestURI());
     }
 
 
     // Exception mappers removed - all error handling now done in main handler method
     // to avoid JAX-RS double-encoding the JSON error responses
-
-    /**
-     * Serializes A2A responses to JSON using protobuf conversion.
-     * This ensures enum values are serialized correctly using protobuf JSON format.
-     */
-    private static String serializeResponse(A2AResponse<?> response) {
-        // For error responses, use JSONRPCUtils error serialization
-        if (response instanceof A2AErrorResponse error) {
-            return JSONRPCUtils.toJsonRPCErrorResponse(error.getId(), error.getError());
-        }
-        if (response.getError() != null) {
-            return JSONRPCUtils.toJsonRPCErrorResponse(response.getId(), response.getError());
-        }
-        // Convert domain response to protobuf message and serialize
-        com.google.protobuf.MessageOrBuilder protoMessage = convertToProto(response);
-        return JSONRPCUtils.toJsonRPCResultResponse(response.getId(), protoMessage);
-    }
-
-    /**
-     * Converts A2A response objects to their protobuf equivalents.
-     */
-    private static com.google.protobuf.MessageOrBuilder convertToProto(A2AResponse<?> response) {
-        if (response instanceof io.a2a.jsonrpc.common.wrappers.GetTaskResponse r) {
-            return ProtoUtils.ToProto.task(r.getResult());
-        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.CancelTaskResponse r) {
-            return ProtoUtils.ToProto.task(r.getResult());
-        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.SendMessageResponse r) {
-            return ProtoUtils.ToProto.taskOrMessage(r.getResult());
-        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.ListTasksResponse r) {
-            return ProtoUtils.ToProto.listTasksResult(r.getResult());
-        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.CreateTaskPushNotificationConfigResponse r) {
-            return ProtoUtils.ToProto.createTaskPushNotificationConfigResponse(r.getResult());
-        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.GetTaskPushNotificationConfigResponse r) {
-            return ProtoUtils.ToProto.getTaskPushNotificationConfigResponse(r.getResult());
-        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.ListTaskPushNotificationConfigsResponse r) {
-            return ProtoUtils.ToProto.listTaskPushNotificationConfigsResponse(r.getResult());
-        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.DeleteTaskPushNotificationConfigResponse) {
-            // DeleteTaskPushNotificationConfig has no result body, just return empty message
-            return com.google.protobuf.Empty.getDefaultInstance();
-        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.GetExtendedAgentCardResponse r) {
-            return ProtoUtils.ToProto.getExtendedCardResponse(r.getResult());
-        } else if (response instanceof io.a2a.jsonrpc.common.wrappers.SendStreamingMessageResponse r) {
-            return ProtoUtils.ToProto.taskOrMessageStream(r.getResult());
-        } else {
-            throw new IllegalArgumentException("Unknown response type: " + response.getClass().getName());
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+
+import io.a2a.jsonrpc.common.json.JsonUtil;
+import io.a2a.server.PublicAgentCard;
+import io.a2a.spec.AgentCard;
+import org.wildfly.extras.a2a.server.apps.common.AgentCardCache;
+import org.wildfly.extras.a2a.server.apps.common.CachedRepresentation;
+
+/**
+ * Serializes the public agent card when the application starts, so the first request does not pay for it.
+ */
+@ApplicationScoped
+public class AgentCardInitializer {
+
+    @Inject
+    @PublicAgentCard
+    AgentCard agentCard;
+
+    @Inject
+    AgentCardCache agentCardCache;
+
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        agentCardCache.getPublicCard(() -> serialize(agentCard));
+    }
+
+    static CachedRepresentation serialize(AgentCard agentCard) {
+        try {
+            return CachedRepresentation.of(JsonUtil.toJson(agentCard), MediaType.APPLICATION_JSON);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to serialize the agent card: " + e.getMessage(), e);
+        }
+    }
+}
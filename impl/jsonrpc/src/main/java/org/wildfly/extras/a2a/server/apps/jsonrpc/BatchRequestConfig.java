@@ -0,0 +1,44 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import io.a2a.server.config.A2AConfigProvider;
+
+/**
+ * Limits applied to JSON-RPC batch requests.
+ * The defaults are in {@code META-INF/a2a-defaults.properties}.
+ */
+@ApplicationScoped
+public class BatchRequestConfig {
+
+    static final String MAX_SIZE = "a2a.jakarta.jsonrpc.batch.max-size";
+    static final String MAX_CONCURRENCY = "a2a.jakarta.jsonrpc.batch.max-concurrency";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private int maxSize;
+    private int maxConcurrency;
+
+    @PostConstruct
+    void init() {
+        maxSize = Integer.parseInt(configProvider.getValue(MAX_SIZE));
+        maxConcurrency = Math.max(1, Integer.parseInt(configProvider.getValue(MAX_CONCURRENCY)));
+    }
+
+    /**
+     * The maximum number of entries in a batch request.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * The maximum number of entries of one batch request executed at the same time.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+}
@@ -0,0 +1,159 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * The entries of a JSON-RPC batch, each kept as its own JSON text, so that it is parsed once by
+ * {@code JSONRPCUtils} like a single request rather than into a tree first. The batch is only scanned for where
+ * the entries start and end and which of them have an {@code id}. A batch that is not a well-formed array fails
+ * as a whole, while an entry whose content is malformed gets its own parse error.
+ */
+final class JsonRpcBatch {
+
+    private static final String ID_MEMBER = "id";
+    private static final String NOTIFICATION_ID_PREFIX = "batch-notification-";
+
+    /**
+     * An entry of the batch.
+     *
+     * @param json the JSON text to parse the request from
+     * @param object whether the entry is a JSON object, the others are invalid requests
+     * @param notification whether the entry has no {@code id}, in which case it gets no response. The request
+     *                     parsing requires an id, so the JSON text has one that is never sent back.
+     */
+    record Entry(String json, boolean object, boolean notification) {
+    }
+
+    private final List<Entry> entries;
+
+    private JsonRpcBatch(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * The entries, in the order of the batch.
+     */
+    List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Splits the batch into its entries.
+     *
+     * @throws JsonSyntaxException if the body is not a JSON array, or its brackets or strings are not closed
+     */
+    static JsonRpcBatch parse(String body) {
+        List<Entry> entries = new ArrayList<>();
+        int i = skipWhitespace(body, 0);
+        if (i == body.length() || body.charAt(i) != '[') {
+            throw new JsonSyntaxException("Expected a JSON array");
+        }
+        i = skipWhitespace(body, i + 1);
+        if (i < body.length() && body.charAt(i) == ']') {
+            i++;
+        } else {
+            while (true) {
+                i = scanEntry(body, i, entries);
+                char separator = body.charAt(i++);
+                if (separator == ']') {
+                    break;
+                }
+                i = skipWhitespace(body, i);
+            }
+        }
+        if (skipWhitespace(body, i) != body.length()) {
+            throw new JsonSyntaxException("Unexpected content after the batch");
+        }
+        return new JsonRpcBatch(entries);
+    }
+
+    /**
+     * Scans the entry starting at {@code start} and adds it.
+     *
+     * @return the index of the {@code ,} or {@code ]} following the entry
+     */
+    private static int scanEntry(String body, int start, List<Entry> entries) {
+        boolean object = start < body.length() && body.charAt(start) == '{';
+        boolean hasMembers = false;
+        boolean hasId = false;
+        // Whether the next string is a member name of the entry, only tracked at its top level
+        boolean expectName = false;
+        StringBuilder open = new StringBuilder();
+        int end = start;
+        for (int i = start; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '"') {
+                int close = endOfString(body, i);
+                if (object && open.length() == 1 && expectName) {
+                    hasMembers = true;
+                    hasId |= close - i - 1 == ID_MEMBER.length() && body.startsWith(ID_MEMBER, i + 1);
+                }
+                i = close;
+                end = i + 1;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            if (open.length() == 0 && (c == ',' || c == ']')) {
+                if (end == start) {
+                    throw new JsonSyntaxException("Missing batch entry at " + i);
+                }
+                entries.add(entry(body.substring(start, end), object, hasMembers, hasId, entries.size()));
+                return i;
+            }
+            switch (c) {
+                case '{', '[' -> {
+                    open.append(c);
+                    expectName = c == '{' && open.length() == 1;
+                }
+                case '}', ']' -> {
+                    if (open.length() == 0 || open.charAt(open.length() - 1) != (c == '}' ? '{' : '[')) {
+                        throw new JsonSyntaxException("Unexpected '" + c + "' at " + i);
+                    }
+                    open.setLength(open.length() - 1);
+                }
+                case ',' -> expectName = open.length() == 1;
+                case ':' -> expectName = false;
+                default -> {
+                }
+            }
+            end = i + 1;
+        }
+        throw new JsonSyntaxException("Unterminated batch");
+    }
+
+    private static Entry entry(String json, boolean object, boolean hasMembers, boolean hasId, int index) {
+        if (!object || hasId) {
+            return new Entry(json, object, false);
+        }
+        String id = "{\"" + ID_MEMBER + "\":\"" + NOTIFICATION_ID_PREFIX + index + "\"";
+        return new Entry(id + (hasMembers ? "," : "") + json.substring(1), true, true);
+    }
+
+    /**
+     * Returns the index of the quote closing the string that starts at {@code start}.
+     */
+    private static int endOfString(String body, int start) {
+        for (int i = start + 1; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        throw new JsonSyntaxException("Unterminated string at " + start);
+    }
+
+    private static int skipWhitespace(String body, int start) {
+        int i = start;
+        while (i < body.length() && Character.isWhitespace(body.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+package org.wildfly.extras.a2a.server.apps.rest;
+
+import static io.a2a.spec.A2AMethods.CANCEL_TASK_METHOD;
+import static io.a2a.spec.A2AMethods.DELETE_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.GET_EXTENDED_AGENT_CARD_METHOD;
+import static io.a2a.spec.A2AMethods.GET_TASK_METHOD;
+import static io.a2a.spec.A2AMethods.GET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.LIST_TASK_METHOD;
+import static io.a2a.spec.A2AMethods.LIST_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.SEND_MESSAGE_METHOD;
+import static io.a2a.spec.A2AMethods.SEND_STREAMING_MESSAGE_METHOD;
+import static io.a2a.spec.A2AMethods.SET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+import static io.a2a.spec.A2AMethods.SUBSCRIBE_TO_TASK_METHOD;
+
+import java.lang.reflect.Method;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+
+import io.a2a.spec.TransportProtocol;
+import org.wildfly.extras.a2a.server.apps.common.A2AMetrics;
+import org.wildfly.extras.a2a.server.apps.common.RequestMetricsFilter;
+
+/**
+ * Records the metrics of the HTTP+JSON calls, by the A2A method of the matched endpoint, named as in JSON-RPC
+ * so that the transports can be compared. Runs outside of the compression, so the response bytes are those sent.
+ */
+@Provider
+@ApplicationScoped
+@Priority(Priorities.HEADER_DECORATOR)
+public class A2ARestMetricsFilter extends RequestMetricsFilter {
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    @Inject
+    HttpServletRequest request;
+
+    @Override
+    protected String transport() {
+        return TransportProtocol.HTTP_JSON.asString();
+    }
+
+    @Override
+    protected String method(ContainerRequestContext requestContext) {
+        Method resourceMethod = resourceInfo.getResourceMethod();
+        if (resourceMethod == null || !A2ARestServerResource.class.isAssignableFrom(resourceInfo.getResourceClass())) {
+            return null;
+        }
+        return switch (resourceMethod.getName()) {
+            case "sendMessage" -> SEND_MESSAGE_METHOD;
+            case "sendMessageStreaming" -> SEND_STREAMING_MESSAGE_METHOD;
+            case "resubscribeTask" -> SUBSCRIBE_TO_TASK_METHOD;
+            case "getAgentCard" -> A2AMetrics.AGENT_CARD_METHOD;
+            case "getAuthenticatedExtendedCard", "getExtendedAgentCard" -> GET_EXTENDED_AGENT_CARD_METHOD;
+            case "listTasks" -> LIST_TASK_METHOD;
+            case "getTask" -> GET_TASK_METHOD;
+            case "cancelTask" -> CANCEL_TASK_METHOD;
+            case "setTaskPushNotificationConfiguration" -> SET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+            case "getTaskPushNotificationConfiguration" -> GET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+            // Told apart by the resource as it is, by the trailing slash
+            case "getOrListTaskPushNotificationConfigurations" -> request.getRequestURI().endsWith("/")
+                    ? GET_TASK_PUSH_NOTIFICATION_CONFIG_METHOD : LIST_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+            case "deleteTaskPushNotificationConfiguration" -> DELETE_TASK_PUSH_NOTIFICATION_CONFIG_METHOD;
+            default -> A2AMetrics.UNKNOWN_METHOD;
+        };
+    }
+
+    @Override
+    protected String tenant(ContainerRequestContext requestContext) {
+        // As resolved by A2ARestServerResource for the call context
+        return A2ARestServerResource.TENANT_ROUTER.resolve(request.getRequestURI());
+    }
+}
@@ -4,19 +4,17 @@ import static io.a2a.server.ServerCallContext.TRANSPORT_KEY;
 import static io.a2a.transport.rest.context.RestContextKeys.HEADERS_KEY;
 import static io.a2a.transport.rest.context.RestContextKeys.TENANT_KEY;
 import static jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE;
-import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Flow;
+import java.util.function.Supplier;
 
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
@@ -30,11 +28,17 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
 
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.util.JsonFormat;
 import io.a2a.common.A2AHeaders;
 import io.a2a.server.ExtendedAgentCard;
 import io.a2a.server.ServerCallContext;
@@ -48,6 +52,24 @@ import io.a2a.spec.TransportProtocol;
 import io.a2a.transport.rest.handler.RestHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.wildfly.extras.a2a.server.apps.common.A2AMetrics;
+import org.wildfly.extras.a2a.server.apps.common.A2ATracing;
+import org.wildfly.extras.a2a.server.apps.common.AgentCardCache;
+import org.wildfly.extras.a2a.server.apps.common.AsyncMessageSend;
+import org.wildfly.extras.a2a.server.apps.common.AsyncSseWriter;
+import org.wildfly.extras.a2a.server.apps.common.CachedRepresentation;
+import org.wildfly.extras.a2a.server.apps.common.CompressionConfig;
+import org.wildfly.extras.a2a.server.apps.common.ConcurrencyLimiter;
+import org.wildfly.extras.a2a.server.apps.common.ExecutionLanes;
+import org.wildfly.extras.a2a.server.apps.common.InternalExecutorConfig;
+import org.wildfly.extras.a2a.server.apps.common.SseBackpressure;
+import org.wildfly.extras.a2a.server.apps.common.SseDebugConfig;
+import org.wildfly.extras.a2a.server.apps.common.SseFlushConfig;
+import org.wildfly.extras.a2a.server.apps.common.SseHeartbeat;
+import org.wildfly.extras.a2a.server.apps.common.StreamAdmission;
+import org.wildfly.extras.a2a.server.apps.common.TaskEventJournal;
+import org.wildfly.extras.a2a.server.apps.common.TenantBulkheads;
+import org.wildfly.extras.a2a.server.apps.common.TenantRouter;
 
 @Path("/")
 public class A2ARestServerResource {
@@ -57,6 +79,10 @@ public class A2ARestServerResource {
     private static final String PAGE_TOKEN_PARAM = "pageToken";
     private static final String HISTORY_LENGTH_PARAM = "historyLength";
     private static final String STATUS_TIMESTAMP_AFTER = "statusTimestampAfter";
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    // The first segments of the @Path of the endpoints of this class, the tenant is the segment before them
+    static final TenantRouter TENANT_ROUTER =
+            TenantRouter.firstSegment("message", "tasks", "card", "extendedAgentCard", ".well-known");
 
     @Inject
     RestHandler jsonRestHandler;
@@ -75,80 +101,165 @@ public class A2ARestServerResource {
     @Inject
     Instance<CallContextFactory> callContextFactory;
 
+    @Inject
+    AgentCardCache agentCardCache;
+
+    @Inject
+    CompressionConfig compressionConfig;
+
+    @Inject
+    SseFlushConfig flushConfig;
+
+    @Inject
+    SseDebugConfig debugConfig;
+
+    @Inject
+    AsyncMessageSend asyncMessageSend;
+
+    @Inject
+    TenantBulkheads bulkheads;
+
+    @Inject
+    StreamAdmission streamAdmission;
+
+    @Inject
+    ConcurrencyLimiter concurrencyLimiter;
+
+    @Inject
+    ExecutionLanes lanes;
+
+    @Inject
+    SseBackpressure backpressure;
+
+    @Inject
+    SseHeartbeat heartbeat;
+
+    @Inject
+    TaskEventJournal eventJournal;
+
     /**
      * Handles incoming POST requests to the main A2A endpoint.Dispatches the
      * request to the appropriate JSON-RPC handler method and returns the response.
+     * The agent runs on the internal executor, so the HTTP worker thread is released right away.
      *
      * @param body
      * @param httpRequest the HTTP request
-     * @return the JSON-RPC response which may be an error response
+     * @param asyncResponse resumed with the response, which may be an error response
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Path("message:send")
-    public Response sendMessage(String body, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
+    public void sendMessage(String body, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = null;
-        try {
-            response = jsonRestHandler.sendMessage(context, extractTenant(httpRequest), body);
-        } catch (Throwable t) {
-            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
-        } finally {
+        String tenant = tenant(context, httpRequest);
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Operation.SEND);
+        if (permit == null) {
+            asyncResponse.resume(busyResponse());
+            return;
+        }
+        asyncMessageSend.execute(asyncResponse, tenant, executor, A2ATracing.span(httpRequest).wrap(() -> {
+            RestHandler.HTTPRestResponse response;
+            try {
+                response = jsonRestHandler.sendMessage(context, tenant, body);
+            } catch (Throwable t) {
+                if (InternalExecutorConfig.isRejected(t)) {
+                    return busyResponse();
+                }
+                response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
+            } finally {
+                permit.release();
+            }
             return Response.status(response.getStatusCode())
                     .header(CONTENT_TYPE, response.getContentType())
                     .entity(response.getBody())
                     .build();
+        }), () -> taskSnapshot(body, context, tenant), () -> {
+            permit.release();
+            return busyResponse();
+        });
+    }
+
+    /**
+     * Tells the client to retry later, as the internal executor, the open streams or the calls in flight are at
+     * their limit.
+     */
+    private Response busyResponse() {
+        RestHandler.HTTPRestResponse error = jsonRestHandler.createErrorResponse(
+                new io.a2a.spec.InternalError(AsyncMessageSend.BUSY_MESSAGE));
+        return AsyncMessageSend.busy()
+                .header(CONTENT_TYPE, error.getContentType())
+                .entity(error.getBody())
+                .build();
+    }
+
+    /**
+     * Returns the current state of the task the message was sent to, for a message send that timed out.
+     * A message that starts a new task does not name it, so there is no snapshot until the agent is done.
+     */
+    private Response taskSnapshot(String body, ServerCallContext context, String tenant) {
+        io.a2a.grpc.SendMessageRequest.Builder request = io.a2a.grpc.SendMessageRequest.newBuilder();
+        try {
+            JsonFormat.parser().ignoringUnknownFields().merge(body, request);
+        } catch (InvalidProtocolBufferException e) {
+            return null;
+        }
+        String taskId = request.getMessage().getTaskId();
+        if (taskId.isEmpty()) {
+            return null;
+        }
+        RestHandler.HTTPRestResponse response = jsonRestHandler.getTask(context, tenant, taskId, null);
+        if (response.getStatusCode() != Response.Status.OK.getStatusCode()) {
+            return null;
         }
+        // A message:send response holds either a task or a message
+        return Response.ok("{\"task\":" + response.getBody() + "}")
+                .header(CONTENT_TYPE, response.getContentType())
+                .build();
     }
 
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.SERVER_SENT_EVENTS)
     @Path("message:stream")
-    public void sendMessageStreaming(String body, @Context HttpServletRequest httpRequest, @Context HttpServletResponse httpResponse, @Context SecurityContext securityContext) throws IOException {
+    public void sendMessageStreaming(String body, @Context HttpServletRequest httpRequest, @Context HttpServletResponse httpResponse,
+            @Context SecurityContext securityContext, @Suspended AsyncResponse asyncResponse) throws IOException {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestStreamingResponse streamingResponse = null;
-        RestHandler.HTTPRestResponse error = null;
-        try {
-            RestHandler.HTTPRestResponse response = jsonRestHandler.sendStreamingMessage(context, extractTenant(httpRequest), body);
-            if (response instanceof RestHandler.HTTPRestStreamingResponse hTTPRestStreamingResponse) {
-                streamingResponse = hTTPRestStreamingResponse;
-            } else {
-                error = response;
-            }
-        } finally {
-            if (error != null) {
-                httpResponse.setHeader(CONTENT_TYPE, APPLICATION_JSON);
-                httpResponse.sendError(error.getStatusCode(), error.getBody());
-            } else {
-                handleCustomSSEResponse(streamingResponse.getPublisher(), httpResponse, context);
-            }
+        String tenant = tenant(context, httpRequest);
+        StreamAdmission.Permit permit = streamAdmission.tryAcquire(tenant);
+        if (permit == null) {
+            asyncResponse.resume(busyResponse());
+            return;
         }
+        RestHandler.HTTPRestResponse response;
+        try (A2ATracing.Scope scope = A2ATracing.span(httpRequest).makeCurrent()) {
+            response = jsonRestHandler.sendStreamingMessage(context, tenant, body);
+        } catch (Throwable t) {
+            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
+        }
+        handleStreamingResponse(response, httpRequest, httpResponse, asyncResponse, context, null, permit);
     }
 
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.SERVER_SENT_EVENTS)
     @Path("tasks/{taskId}:subscribe")
-    public void resubscribeTask(@PathParam("taskId") String taskId, @Context HttpServletRequest httpRequest, @Context HttpServletResponse httpResponse, @Context SecurityContext securityContext) throws IOException {
+    public void resubscribeTask(@PathParam("taskId") String taskId, @Context HttpServletRequest httpRequest, @Context HttpServletResponse httpResponse,
+            @Context SecurityContext securityContext, @Suspended AsyncResponse asyncResponse) throws IOException {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestStreamingResponse streamingResponse = null;
-        RestHandler.HTTPRestResponse error = null;
-        try {
-            RestHandler.HTTPRestResponse response = jsonRestHandler.subscribeToTask(context, extractTenant(httpRequest), taskId);
-            if (response instanceof RestHandler.HTTPRestStreamingResponse hTTPRestStreamingResponse) {
-                streamingResponse = hTTPRestStreamingResponse;
-            } else {
-                error = response;
-            }
-        } finally {
-            if (error != null) {
-                httpResponse.setHeader(CONTENT_TYPE, APPLICATION_JSON);
-                httpResponse.sendError(error.getStatusCode(), error.getBody());
-            } else {
-                handleCustomSSEResponse(streamingResponse.getPublisher(), httpResponse, context);
-            }
+        String tenant = tenant(context, httpRequest);
+        StreamAdmission.Permit permit = streamAdmission.tryAcquire(tenant);
+        if (permit == null) {
+            asyncResponse.resume(busyResponse());
+            return;
+        }
+        RestHandler.HTTPRestResponse response;
+        try (A2ATracing.Scope scope = A2ATracing.span(httpRequest).makeCurrent()) {
+            response = jsonRestHandler.subscribeToTask(context, tenant, taskId);
+        } catch (Throwable t) {
+            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
         }
+        handleStreamingResponse(response, httpRequest, httpResponse, asyncResponse, context, taskId, permit);
     }
 
     /**
@@ -160,243 +271,299 @@ public class A2ARestServerResource {
     @GET
     @Path(".well-known/agent-card.json")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response getAgentCard() {
-        RestHandler.HTTPRestResponse response = jsonRestHandler.getAgentCard();
-        return Response.status(response.getStatusCode())
-                .header(CONTENT_TYPE, response.getContentType())
-                .entity(response.getBody())
-                .build();
+    public Response getAgentCard(@Context Request request, @Context HttpHeaders headers) {
+        return agentCardCache.publicCardResponse(() -> AgentCardInitializer.serialize(jsonRestHandler), request, headers);
     }
 
     @GET
     @Path("card")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response getAuthenticatedExtendedCard(@Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
-        ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = jsonRestHandler.getExtendedAgentCard(context, extractTenant(httpRequest));
-        return Response.status(response.getStatusCode())
-                .header(CONTENT_TYPE, response.getContentType())
-                .entity(response.getBody())
-                .build();
+    public Response getAuthenticatedExtendedCard(@Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Context Request request, @Context HttpHeaders headers) {
+        return extendedAgentCardResponse(httpRequest, securityContext, request, headers);
     }
 
     @GET
     @Path("extendedAgentCard")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response getExtendedAgentCard(@Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
+    public Response getExtendedAgentCard(@Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Context Request request, @Context HttpHeaders headers) {
+        return extendedAgentCardResponse(httpRequest, securityContext, request, headers);
+    }
+
+    private Response extendedAgentCardResponse(HttpServletRequest httpRequest, SecurityContext securityContext,
+            Request request, HttpHeaders headers) {
+        String principal = securityContext.getUserPrincipal() == null ? null : securityContext.getUserPrincipal().getName();
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = jsonRestHandler.getExtendedAgentCard(context, extractTenant(httpRequest));
-        return Response.status(response.getStatusCode())
-                .header(CONTENT_TYPE, response.getContentType())
-                .entity(response.getBody())
-                .build();
+        // The card may differ per tenant as well as per caller
+        String tenant = tenant(context, httpRequest);
+        CachedRepresentation card = agentCardCache.getExtendedCard(tenant, principal);
+        if (card == null) {
+            RestHandler.HTTPRestResponse response = jsonRestHandler.getExtendedAgentCard(context, tenant);
+            if (response.getStatusCode() != Response.Status.OK.getStatusCode()) {
+                // Errors, e.g. no extended card configured, are not cached
+                return Response.status(response.getStatusCode())
+                        .header(CONTENT_TYPE, response.getContentType())
+                        .entity(response.getBody())
+                        .build();
+            }
+            card = agentCardCache.putExtendedCard(tenant, principal,
+                    CachedRepresentation.of(response.getBody(), response.getContentType()));
+        }
+        return agentCardCache.extendedCardResponse(card, request, headers);
     }
 
     @GET
     @Path("tasks")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response listTasks(@Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
+    public void listTasks(@Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = null;
-        try {
-            // Extract query parameters
-            String contextId = httpRequest.getParameter("contextId");
-            String statusStr = httpRequest.getParameter("status");
-            if (statusStr != null && !statusStr.isEmpty()) {
-                statusStr = statusStr.toUpperCase();
-            }
-            String pageSizeStr = httpRequest.getParameter(PAGE_SIZE_PARAM);
-            String pageToken = httpRequest.getParameter(PAGE_TOKEN_PARAM);
-            String historyLengthStr = httpRequest.getParameter(HISTORY_LENGTH_PARAM);
-            String statusTimestampAfter = httpRequest.getParameter(STATUS_TIMESTAMP_AFTER);
-            String includeArtifactsStr = httpRequest.getParameter("includeArtifacts");
-
-            // Parse optional parameters
-            Integer pageSize = null;
-            if (pageSizeStr != null && !pageSizeStr.isEmpty()) {
-                pageSize = Integer.valueOf(pageSizeStr);
-            }
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Operation.READ);
+        if (permit == null) {
+            asyncResponse.resume(busyResponse());
+            return;
+        }
+        String tenant = tenant(context, httpRequest);
+        // Extract query parameters
+        String contextId = httpRequest.getParameter("contextId");
+        String status = httpRequest.getParameter("status");
+        String pageSizeStr = httpRequest.getParameter(PAGE_SIZE_PARAM);
+        String pageToken = httpRequest.getParameter(PAGE_TOKEN_PARAM);
+        String historyLengthStr = httpRequest.getParameter(HISTORY_LENGTH_PARAM);
+        String statusTimestampAfter = httpRequest.getParameter(STATUS_TIMESTAMP_AFTER);
+        String includeArtifactsStr = httpRequest.getParameter("includeArtifacts");
+        onControlLane(httpRequest, asyncResponse, permit, () -> {
+            try {
+                String statusStr = status;
+                if (statusStr != null && !statusStr.isEmpty()) {
+                    statusStr = statusStr.toUpperCase();
+                }
 
-            Integer historyLength = null;
-            if (historyLengthStr != null && !historyLengthStr.isEmpty()) {
-                historyLength = Integer.valueOf(historyLengthStr);
-            }
+                // Parse optional parameters
+                Integer pageSize = null;
+                if (pageSizeStr != null && !pageSizeStr.isEmpty()) {
+                    pageSize = Integer.valueOf(pageSizeStr);
+                }
 
-            Boolean includeArtifacts = null;
-            if (includeArtifactsStr != null && !includeArtifactsStr.isEmpty()) {
-                includeArtifacts = Boolean.valueOf(includeArtifactsStr);
-            }
+                Integer historyLength = null;
+                if (historyLengthStr != null && !historyLengthStr.isEmpty()) {
+                    historyLength = Integer.valueOf(historyLengthStr);
+                }
 
-            response = jsonRestHandler.listTasks(context, extractTenant(httpRequest), contextId, statusStr, pageSize,
-                    pageToken, historyLength, statusTimestampAfter, includeArtifacts);
-        } catch (NumberFormatException e) {
-            response = jsonRestHandler.createErrorResponse(new InvalidParamsError("Invalid number format in parameters"));
-        } catch (IllegalArgumentException e) {
-            response = jsonRestHandler.createErrorResponse(new InvalidParamsError("Invalid parameter value: " + e.getMessage()));
-        } catch (Throwable t) {
-            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
-        } finally {
-            return Response.status(response.getStatusCode())
-                    .header(CONTENT_TYPE, response.getContentType())
-                    .entity(response.getBody())
-                    .build();
-        }
+                Boolean includeArtifacts = null;
+                if (includeArtifactsStr != null && !includeArtifactsStr.isEmpty()) {
+                    includeArtifacts = Boolean.valueOf(includeArtifactsStr);
+                }
+
+                return jsonRestHandler.listTasks(context, tenant, contextId, statusStr, pageSize,
+                        pageToken, historyLength, statusTimestampAfter, includeArtifacts);
+            } catch (NumberFormatException e) {
+                return jsonRestHandler.createErrorResponse(new InvalidParamsError("Invalid number format in parameters"));
+            } catch (IllegalArgumentException e) {
+                return jsonRestHandler.createErrorResponse(new InvalidParamsError("Invalid parameter value: " + e.getMessage()));
+            }
+        });
     }
 
     @GET
     @Path("tasks/{taskId}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response getTask(@PathParam("taskId") String taskId, @QueryParam("historyLength") String historyLengthStr,
-            @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
+    public void getTask(@PathParam("taskId") String taskId, @QueryParam("historyLength") String historyLengthStr,
+            @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = null;
-        try {
-            Integer historyLength = null;
-            if (historyLengthStr != null && !historyLengthStr.isEmpty()) {
-                historyLength = Integer.valueOf(historyLengthStr);
-            }
-            response = jsonRestHandler.getTask(context, extractTenant(httpRequest), taskId, historyLength);
-        } catch (NumberFormatException e) {
-            response = jsonRestHandler.createErrorResponse(new InvalidParamsError("bad historyLength"));
-        } catch (Throwable t) {
-            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
-        } finally {
-            return Response.status(response.getStatusCode())
-                    .header(CONTENT_TYPE, response.getContentType())
-                    .entity(response.getBody())
-                    .build();
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Operation.READ);
+        if (permit == null) {
+            asyncResponse.resume(busyResponse());
+            return;
         }
+        String tenant = tenant(context, httpRequest);
+        onControlLane(httpRequest, asyncResponse, permit, () -> {
+            try {
+                Integer historyLength = null;
+                if (historyLengthStr != null && !historyLengthStr.isEmpty()) {
+                    historyLength = Integer.valueOf(historyLengthStr);
+                }
+                return jsonRestHandler.getTask(context, tenant, taskId, historyLength);
+            } catch (NumberFormatException e) {
+                return jsonRestHandler.createErrorResponse(new InvalidParamsError("bad historyLength"));
+            }
+        });
     }
 
     @POST
     @Path("tasks/{taskId}:cancel")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response cancelTask(@PathParam("taskId") String taskId, String body, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
+    public void cancelTask(@PathParam("taskId") String taskId, String body, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = null;
-        try {
-            response = jsonRestHandler.cancelTask(context, extractTenant(httpRequest), body, taskId);
-        } catch (Throwable t) {
-            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
-        } finally {
-            return Response.status(response.getStatusCode())
-                    .header(CONTENT_TYPE, response.getContentType())
-                    .entity(response.getBody())
-                    .build();
+        ConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire(ConcurrencyLimiter.Operation.CANCEL);
+        if (permit == null) {
+            asyncResponse.resume(busyResponse());
+            return;
         }
+        String tenant = tenant(context, httpRequest);
+        onControlLane(httpRequest, asyncResponse, permit, () -> jsonRestHandler.cancelTask(context, tenant, body, taskId));
     }
 
     @POST
     @Path("tasks/{taskId}/pushNotificationConfigs")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response setTaskPushNotificationConfiguration(@PathParam("taskId") String taskId, String body, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
+    public void setTaskPushNotificationConfiguration(@PathParam("taskId") String taskId, String body, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = null;
-        try {
-            response = jsonRestHandler.createTaskPushNotificationConfiguration(context, extractTenant(httpRequest), body, taskId);
-        } catch (Throwable t) {
-            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
-        } finally {
-            return Response.status(response.getStatusCode())
-                    .header(CONTENT_TYPE, response.getContentType())
-                    .entity(response.getBody())
-                    .build();
-        }
+        String tenant = tenant(context, httpRequest);
+        onControlLane(httpRequest, asyncResponse, null,
+                () -> jsonRestHandler.createTaskPushNotificationConfiguration(context, tenant, body, taskId));
     }
 
     @GET
     @Path("tasks/{taskId}/pushNotificationConfigs/{configId}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response getTaskPushNotificationConfiguration(@PathParam("taskId") String taskId, @PathParam("configId") String configId, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
+    public void getTaskPushNotificationConfiguration(@PathParam("taskId") String taskId, @PathParam("configId") String configId, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = null;
-        try {
-            response = jsonRestHandler.getTaskPushNotificationConfiguration(context, extractTenant(httpRequest), taskId, configId);
-        } catch (Throwable t) {
-            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
-        } finally {
-            return Response.status(response.getStatusCode())
-                    .header(CONTENT_TYPE, response.getContentType())
-                    .entity(response.getBody())
-                    .build();
-        }
+        String tenant = tenant(context, httpRequest);
+        onControlLane(httpRequest, asyncResponse, null,
+                () -> jsonRestHandler.getTaskPushNotificationConfiguration(context, tenant, taskId, configId));
     }
 
     @GET
     @Path("tasks/{taskId}/pushNotificationConfigs")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response getOrListTaskPushNotificationConfigurations(@PathParam("taskId") String taskId, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
+    public void getOrListTaskPushNotificationConfigurations(@PathParam("taskId") String taskId, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = null;
-        try {
+        String tenant = tenant(context, httpRequest);
+        // Check if request has trailing slash to distinguish GET (with /) from LIST (without /)
+        boolean trailingSlash = httpRequest.getRequestURI().endsWith("/");
+        String pageSizeStr = httpRequest.getParameter(PAGE_SIZE_PARAM);
+        String pageTokenStr = httpRequest.getParameter(PAGE_TOKEN_PARAM);
+        onControlLane(httpRequest, asyncResponse, null, () -> {
             if (taskId == null || taskId.isEmpty()) {
-                response = jsonRestHandler.createErrorResponse(new InvalidParamsError("bad task id"));
-            } else {
-                // Check if request has trailing slash to distinguish GET (with /) from LIST (without /)
-                String requestURI = httpRequest.getRequestURI();
-                if (requestURI.endsWith("/")) {
-                    // GET with null configId - trailing slash case
-                    response = jsonRestHandler.getTaskPushNotificationConfiguration(context, extractTenant(httpRequest),
-                            taskId, null);
-                } else {
-                    // LIST - no trailing slash case
-                    int pageSize = 0;
-                    if (httpRequest.getParameter(PAGE_SIZE_PARAM) != null) {
-                        pageSize = Integer.parseInt(httpRequest.getParameter(PAGE_SIZE_PARAM));
-                    }
-                    String pageToken = "";
-                    if (httpRequest.getParameter(PAGE_TOKEN_PARAM) != null) {
-                        pageToken = httpRequest.getParameter(PAGE_TOKEN_PARAM);
-                    }
-                    response = jsonRestHandler.listTaskPushNotificationConfigurations(context, extractTenant(httpRequest),
-                            taskId, pageSize, pageToken);
+                return jsonRestHandler.createErrorResponse(new InvalidParamsError("bad task id"));
+            }
+            if (trailingSlash) {
+                // GET with null configId - trailing slash case
+                return jsonRestHandler.getTaskPushNotificationConfiguration(context, tenant, taskId, null);
+            }
+            // LIST - no trailing slash case
+            try {
+                int pageSize = 0;
+                if (pageSizeStr != null) {
+                    pageSize = Integer.parseInt(pageSizeStr);
+                }
+                String pageToken = "";
+                if (pageTokenStr != null) {
+                    pageToken = pageTokenStr;
                 }
+                return jsonRestHandler.listTaskPushNotificationConfigurations(context, tenant, taskId, pageSize, pageToken);
+            } catch (NumberFormatException e) {
+                return jsonRestHandler.createErrorResponse(new InvalidParamsError("bad " + PAGE_SIZE_PARAM));
             }
-        } catch (NumberFormatException e) {
-            response = jsonRestHandler.createErrorResponse(new InvalidParamsError("bad " + PAGE_SIZE_PARAM));
-        } catch (Throwable t) {
-            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
-        }
-        return Response.status(response.getStatusCode())
-                .header(CONTENT_TYPE, response.getContentType())
-                .entity(response.getBody())
-                .build();
+        });
     }
 
     @DELETE
     @Path("tasks/{taskId}/pushNotificationConfigs/{configId}")
     @Consumes(MediaType.APPLICATION_JSON)
-    public Response deleteTaskPushNotificationConfiguration(@PathParam("taskId") String taskId, @PathParam("configId") String configId, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext) {
+    public void deleteTaskPushNotificationConfiguration(@PathParam("taskId") String taskId, @PathParam("configId") String configId, @Context HttpServletRequest httpRequest, @Context SecurityContext securityContext,
+            @Suspended AsyncResponse asyncResponse) {
         ServerCallContext context = createCallContext(httpRequest, securityContext);
-        RestHandler.HTTPRestResponse response = null;
-        try {
-            response = jsonRestHandler.deleteTaskPushNotificationConfiguration(context, extractTenant(httpRequest), taskId, configId);
-        } catch (Throwable t) {
-            response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
-        } finally {
+        String tenant = tenant(context, httpRequest);
+        onControlLane(httpRequest, asyncResponse, null,
+                () -> jsonRestHandler.deleteTaskPushNotificationConfiguration(context, tenant, taskId, configId));
+    }
+
+    /**
+     * Runs a call that does not involve the agent on the control lane of {@link ExecutionLanes}, so it does not
+     * wait behind the agents. The request is read on the request thread, the call only gets what it needs.
+     * The call runs with the span of the request.
+     *
+     * @param permit released once the call is done, may be {@code null} for calls that are not limited
+     */
+    private void onControlLane(HttpServletRequest httpRequest, AsyncResponse asyncResponse,
+            ConcurrencyLimiter.Permit permit, Supplier<RestHandler.HTTPRestResponse> call) {
+        lanes.execute(ExecutionLanes.Lane.CONTROL, executor, asyncResponse, A2ATracing.span(httpRequest).wrap(() -> {
+            RestHandler.HTTPRestResponse response;
+            try {
+                response = call.get();
+            } catch (Throwable t) {
+                response = jsonRestHandler.createErrorResponse(new io.a2a.spec.InternalError(t.getMessage()));
+            } finally {
+                if (permit != null) {
+                    permit.release();
+                }
+            }
             return Response.status(response.getStatusCode())
                     .header(CONTENT_TYPE, response.getContentType())
                     .entity(response.getBody())
                     .build();
+        }), () -> {
+            if (permit != null) {
+                permit.release();
+            }
+            return busyResponse();
+        });
+    }
+
+    /**
+     * Streams the events of a successful streaming call, or resumes the suspended JAX-RS response
+     * with the error returned by the handler.
+     */
+    private void handleStreamingResponse(RestHandler.HTTPRestResponse response,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse,
+            AsyncResponse asyncResponse,
+            ServerCallContext context,
+            String taskId,
+            StreamAdmission.Permit permit) throws IOException {
+        if (response instanceof RestHandler.HTTPRestStreamingResponse streamingResponse) {
+            handleCustomSSEResponse(streamingResponse.getPublisher(), httpRequest, httpResponse, context, taskId, permit);
+        } else {
+            permit.release();
+            asyncResponse.resume(Response.status(response.getStatusCode())
+                    .header(CONTENT_TYPE, response.getContentType())
+                    .entity(response.getBody())
+                    .build());
         }
     }
 
     /**
      * Handles the streaming response using custom SSE formatting.
      * This approach avoids JAX-RS SSE compatibility issues with async publishers.
-     * Implements proper client disconnect detection and EventConsumer cancellation.
+     * The events are written with Servlet non-blocking I/O, so the request thread is released
+     * as soon as the subscription is in place. Client disconnects cancel the EventConsumer.
+     * When the task is known, event ids count up per task and a {@code Last-Event-ID} is honored. Otherwise
+     * they count up per task from the first event naming the task, so the stream can be resumed by subscribing
+     * to the task.
      */
     private void handleCustomSSEResponse(Flow.Publisher<String> publisher,
+            HttpServletRequest request,
             HttpServletResponse response,
-            ServerCallContext context) throws IOException {
-        CompletableFuture<Void> streamingComplete = new CompletableFuture<>();
-        try (PrintWriter writer = response.getWriter()) {
-            publisher.subscribe(new SSESubscriber(streamingComplete, writer, context));
-            // Wait for streaming to complete before method returns
-            streamingComplete.get();
-        } catch (Exception e) {
-            LOGGER.error("Error waiting for streaming completion: {}", e.getMessage(), e);
-            throw new IOException("Streaming failed", e);
+            ServerCallContext context,
+            String taskId,
+            StreamAdmission.Permit permit) throws IOException {
+        try {
+            AsyncSseWriter writer = AsyncSseWriter.start(request, response, compressionConfig, flushConfig);
+            SSESubscriber subscriber = new SSESubscriber(writer, context);
+            subscriber.withBackpressure(backpressure).withPermit(permit).withMetrics(A2AMetrics.call(request).stream())
+                    .withTracing(A2ATracing.span(request).stream()).withLagComments(debugConfig.isLagComments());
+            if (taskId != null) {
+                subscriber.withJournal(eventJournal.journal(TransportProtocol.HTTP_JSON.asString(), taskId),
+                        TaskEventJournal.parseLastEventId(request.getHeader(LAST_EVENT_ID)));
+            } else {
+                subscriber.withJournalOf(item -> {
+                    String eventTaskId = SSESubscriber.taskId(item);
+                    return eventTaskId == null ? null : eventJournal.journal(TransportProtocol.HTTP_JSON.asString(), eventTaskId);
+                });
+            }
+            publisher.subscribe(subscriber);
+            heartbeat.register(writer);
+        } catch (IOException | RuntimeException e) {
+            permit.release();
+            throw e;
         }
     }
 
@@ -437,7 +604,7 @@ public class A2ARestServerResource {
             }
 
             state.put(HEADERS_KEY, headers);
-            state.put(TENANT_KEY, extractTenant(request));
+            state.put(TENANT_KEY, TENANT_ROUTER.resolve(request.getRequestURI()));
             state.put(TRANSPORT_KEY, TransportProtocol.HTTP_JSON);
 
             Enumeration<String> en = request.getHeaders(A2AHeaders.A2A_EXTENSIONS);
@@ -446,60 +613,22 @@ public class A2ARestServerResource {
                 extensionHeaderValues.add(en.nextElement());
             }
             Set<String> requestedExtensions = A2AExtensions.getRequestedExtensions(extensionHeaderValues);
-            return new ServerCallContext(user, state, requestedExtensions);
+            return A2ATracing.attach(new ServerCallContext(user, state, requestedExtensions),
+                    A2ATracing.span(request).traceparent());
         } else {
             CallContextFactory builder = callContextFactory.get();
-            return builder.build(request);
+            return A2ATracing.attach(builder.build(request), A2ATracing.span(request).traceparent());
         }
     }
 
-    private String extractTenant(HttpServletRequest request) {
-        // Extract tenant from request URI
-        // Quarkus uses regex like: ^\\/(?<tenant>[^\\/]*\\/?)message:send$
-        // This means tenant is the optional segment BEFORE the known endpoint path
-        // Examples:
-        //   /message:send -> tenant=""
-        //   /tenant1/message:send -> tenant="tenant1"
-        //   /tasks -> tenant=""
-        //   /tenant1/tasks -> tenant="tenant1"
-        String requestURI = request.getRequestURI();
-        if (requestURI == null || requestURI.isBlank()) {
-            return "";
-        }
-
-        // Remove leading slash
-        if (requestURI.startsWith("/")) {
-            requestURI = requestURI.substring(1);
-        }
-
-        // Extract first path segment
-        int slashIndex = requestURI.indexOf('/');
-        int colonIndex = requestURI.indexOf(':');
-        String firstSegment;
-
-        if (colonIndex >= 0 && (slashIndex < 0 || colonIndex < slashIndex)) {
-            // Colon before slash (e.g., "message:send")
-            firstSegment = requestURI.substring(0, colonIndex);
-        } else if (slashIndex > 0) {
-            // Slash found, extract up to it
-            firstSegment = requestURI.substring(0, slashIndex);
-        } else {
-            // No slash or colon, entire URI is the first segment
-            firstSegment = requestURI;
-        }
-
-        // Check if first segment is a known endpoint prefix
-        // These match the @Path annotations in this class
-        if (firstSegment.equals("message") ||
-            firstSegment.equals("tasks") ||
-            firstSegment.equals("card") ||
-            firstSegment.equals("extendedAgentCard") ||
-            firstSegment.equals(".well-known")) {
-            // First segment is an endpoint, not a tenant
-            return "";
+    /**
+     * Returns the tenant resolved by {@link #createCallContext}, or resolves it if the call context was built
+     * by a {@link CallContextFactory}.
+     */
+    private static String tenant(ServerCallContext context, HttpServletRequest request) {
+        if (context.getState().get(TENANT_KEY) instanceof String tenant) {
+            return tenant;
         }
-
-        // First segment is the tenant
-        return firstSegment;
+        return TENANT_ROUTER.resolve(request.getRequestURI());
     }
 }
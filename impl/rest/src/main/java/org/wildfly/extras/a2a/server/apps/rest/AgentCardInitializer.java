@@ -0,0 +1,32 @@
+package org.wildfly.extras.a2a.server.apps.rest;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import io.a2a.transport.rest.handler.RestHandler;
+import org.wildfly.extras.a2a.server.apps.common.AgentCardCache;
+import org.wildfly.extras.a2a.server.apps.common.CachedRepresentation;
+
+/**
+ * Serializes the public agent card when the application starts, so the first request does not pay for it.
+ */
+@ApplicationScoped
+public class AgentCardInitializer {
+
+    @Inject
+    RestHandler jsonRestHandler;
+
+    @Inject
+    AgentCardCache agentCardCache;
+
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        agentCardCache.getPublicCard(() -> serialize(jsonRestHandler));
+    }
+
+    static CachedRepresentation serialize(RestHandler jsonRestHandler) {
+        RestHandler.HTTPRestResponse response = jsonRestHandler.getAgentCard();
+        return CachedRepresentation.of(response.getBody(), response.getContentType());
+    }
+}
@@ -4,33 +4,42 @@
  */
 package org.wildfly.extras.a2a.server.apps.rest;
 
-import java.io.PrintWriter;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Flow;
-import java.util.concurrent.atomic.AtomicLong;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import io.a2a.server.ServerCallContext;
 import io.a2a.server.util.sse.SseFormatter;
+import org.wildfly.extras.a2a.server.apps.common.AbstractSseSubscriber;
+import org.wildfly.extras.a2a.server.apps.common.AsyncSseWriter;
+import org.wildfly.extras.a2a.server.apps.common.SseFrames;
+
+class SSESubscriber extends AbstractSseSubscriber<String> {
+
+    /**
+     * The status of an event, as far as the hooks need it.
+     *
+     * @param update whether the event is a status update
+     * @param isFinal whether the update is the last one of the task
+     * @param timestamp the time of the status, {@code null} if it has none
+     */
+    record Status(boolean update, boolean isFinal, Instant timestamp) {
+        static final Status NONE = new Status(false, false, null);
+    }
 
-class SSESubscriber implements Flow.Subscriber<String> {
+    // The status read from the last event, which both hooks ask about
+    private String statusOf;
+    private Status status;
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(SSESubscriber.class);
     // Hook so testing can wait until the async Subscription is subscribed.
     private static volatile Runnable streamingIsSubscribedRunnable;
 
-    private Flow.Subscription subscription;
-
-    private final AtomicLong eventId = new AtomicLong(0);
-    private final CompletableFuture<Void> streamingComplete;
-    private final PrintWriter writer;
-    private final ServerCallContext context;
-
-    public SSESubscriber(CompletableFuture<Void> streamingComplete, PrintWriter writer, ServerCallContext context) {
-        this.streamingComplete = streamingComplete;
-        this.writer = writer;
-        this.context = context;
+    public SSESubscriber(AsyncSseWriter writer, ServerCallContext context) {
+        super(writer, context);
     }
 
     public static void setStreamingIsSubscribedRunnable(Runnable streamingIsSubscribedRunnable) {
@@ -38,12 +47,7 @@ class SSESubscriber implements Flow.Subscriber<String> {
     }
 
     @Override
-    public void onSubscribe(Flow.Subscription subscription) {
-        LOGGER.debug("Custom SSE subscriber onSubscribe called");
-        this.subscription = subscription;
-        // Use backpressure: request one item at a time
-        subscription.request(1);
-
+    protected void onSubscribed() {
         // Notify tests that we are subscribed
         Runnable runnable = streamingIsSubscribedRunnable;
         if (runnable != null) {
@@ -52,54 +56,155 @@ class SSESubscriber implements Flow.Subscriber<String> {
     }
 
     @Override
-    public void onNext(String item) {
-        LOGGER.debug("Custom SSE subscriber onNext called with item: {}", item);
-        try {
-            // Format as proper SSE event using centralized SseFormatter
-            long id = eventId.getAndIncrement();
-            String sseEvent = SseFormatter.formatJsonAsSSE(item, id);
-
-            writer.write(sseEvent);
-            writer.flush();
-
-            // Check if write failed (client disconnected)
-            // PrintWriter doesn't throw IOException, so we must check for errors explicitly
-            if (writer.checkError()) {
-                LOGGER.info("SSE write failed (likely client disconnect)");
-                handleClientDisconnect();
-                return;
-            }
+    protected String formatEvent(String item, long id) {
+        // Format as proper SSE event using centralized SseFormatter
+        return SseFormatter.formatJsonAsSSE(item, id);
+    }
+
+    @Override
+    protected boolean isIntermediateStatus(String item) {
+        Status itemStatus = status(item);
+        return itemStatus.update() && !itemStatus.isFinal();
+    }
+
+    @Override
+    protected Instant emittedAt(String item) {
+        return status(item).timestamp();
+    }
+
+    private Status status(String item) {
+        // The items come one at a time, from onNext
+        if (item != statusOf) {
+            status = readStatus(item);
+            statusOf = item;
+        }
+        return status;
+    }
 
-            LOGGER.info("Custom SSE event sent successfully with id: {}", id);
+    /**
+     * Reads the status of an event from its JSON, a {@code StreamResponse}: the {@code final} flag of a status
+     * update and the {@code timestamp} of its status. The members are looked up where they belong, so the same
+     * names in the message or the metadata do not count, and everything else is skipped without being parsed.
+     */
+    static Status readStatus(String item) {
+        try (JsonReader reader = new JsonReader(new StringReader(item))) {
+            reader.beginObject();
+            if (!reader.hasNext() || !reader.nextName().equals("statusUpdate") || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return Status.NONE;
+            }
+            boolean isFinal = false;
+            Instant timestamp = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (name.equals("final") && reader.peek() == JsonToken.BOOLEAN) {
+                    isFinal = reader.nextBoolean();
+                } else if (name.equals("status") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    timestamp = readTimestamp(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            return new Status(true, isFinal, timestamp);
+        } catch (IOException | IllegalStateException e) {
+            return Status.NONE;
+        }
+    }
 
-            // Request next item (backpressure)
-            subscription.request(1);
-        } catch (Exception e) {
-            LOGGER.error("Error writing SSE event: {}", e.getMessage(), e);
-            onError(e);
+    private static Instant readTimestamp(JsonReader reader) throws IOException {
+        Instant timestamp = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("timestamp") && reader.peek() == JsonToken.STRING) {
+                try {
+                    timestamp = OffsetDateTime.parse(reader.nextString()).toInstant();
+                } catch (DateTimeParseException e) {
+                    timestamp = null;
+                }
+            } else {
+                reader.skipValue();
+            }
         }
+        reader.endObject();
+        return timestamp;
     }
 
     @Override
-    public void onError(Throwable throwable) {
-        LOGGER.debug("Custom SSE subscriber onError called: {}", throwable.getMessage(), throwable);
-        handleClientDisconnect();
-        streamingComplete.completeExceptionally(throwable);
+    protected Object eventKey(String item) {
+        // The SDK hands out the events already serialized, once per subscriber, so there is no shared object
+        // to key on, only the JSON, which the key does not hash in full
+        return new EventKey(item);
+    }
+
+    /**
+     * Reads the id of the task of an event from its JSON, a {@code StreamResponse}. Only reads as far as the id,
+     * which comes first in a task and in the updates, and before the parts in a message.
+     *
+     * @return the task id, or {@code null} if the event names none or is not an event, such as an error
+     */
+    static String taskId(String item) {
+        try (JsonReader reader = new JsonReader(new StringReader(item))) {
+            reader.beginObject();
+            if (!reader.hasNext()) {
+                return null;
+            }
+            String idName = switch (reader.nextName()) {
+                case "task" -> "id";
+                case "message", "statusUpdate", "artifactUpdate" -> "taskId";
+                default -> null;
+            };
+            if (idName == null || reader.peek() != JsonToken.BEGIN_OBJECT) {
+                return null;
+            }
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (reader.nextName().equals(idName) && reader.peek() == JsonToken.STRING) {
+                    return reader.nextString();
+                }
+                reader.skipValue();
+            }
+            return null;
+        } catch (IOException | IllegalStateException e) {
+            return null;
+        }
     }
 
     @Override
-    public void onComplete() {
-        LOGGER.debug("Custom SSE subscriber onComplete called");
-        streamingComplete.complete(null);
+    protected byte[] encodeShared(String item, long id) {
+        // Straight to UTF-8, without formatting the frame as a String first
+        return SseFrames.encode(item, id);
     }
 
-    private void handleClientDisconnect() {
-        LOGGER.debug("SSE connection closed, calling EventConsumer.cancel() to stop polling loop");
-        // Cancel subscription to stop receiving events
-        if (subscription != null) {
-            subscription.cancel();
+    /**
+     * Identifies an event by its JSON, the same for every subscriber of the task. The hash only samples the JSON,
+     * so recording an event does not go through all of it; unequal events are mostly told apart by the hash
+     * or the length, and the full comparison is left to the event that matches.
+     */
+    private static final class EventKey {
+        private static final int SAMPLES = 32;
+
+        private final String json;
+        private final int hash;
+
+        EventKey(String json) {
+            this.json = json;
+            int length = json.length();
+            int step = Math.max(1, length / SAMPLES);
+            int h = length;
+            for (int i = 0; i < length; i += step) {
+                h = 31 * h + json.charAt(i);
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof EventKey other && other.hash == hash && other.json.equals(json);
         }
-        // Call EventConsumer cancel callback to clean up ChildQueue
-        context.invokeEventConsumerCancelCallback();
     }
 }
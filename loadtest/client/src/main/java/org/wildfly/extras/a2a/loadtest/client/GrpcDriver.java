@@ -0,0 +1,119 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.a2a.grpc.A2AServiceGrpc;
+import io.a2a.grpc.GetTaskRequest;
+import io.a2a.grpc.SendMessageRequest;
+import io.a2a.grpc.SendMessageResponse;
+import io.a2a.grpc.StreamResponse;
+import io.a2a.grpc.SubscribeToTaskRequest;
+import io.a2a.grpc.Task;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * The calls of the gRPC transport, all multiplexed over one channel as a gRPC client usually does.
+ */
+final class GrpcDriver implements TransportDriver {
+
+    static final String NAME = "grpc";
+
+    private final ManagedChannel channel;
+    private final A2AServiceGrpc.A2AServiceStub stub;
+
+    GrpcDriver(String target) {
+        channel = ManagedChannelBuilder.forTarget(target).usePlaintext().build();
+        stub = A2AServiceGrpc.newStub(channel);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<String> send(String request) {
+        CompletableFuture<SendMessageResponse> response = new CompletableFuture<>();
+        stub.sendMessage(Payloads.merge(request, SendMessageRequest.newBuilder()).build(), unary(response));
+        return response.thenApply(Payloads::taskId);
+    }
+
+    @Override
+    public void stream(String request, StreamListener listener) {
+        stub.sendStreamingMessage(Payloads.merge(request, SendMessageRequest.newBuilder()).build(),
+                new StreamingObserver(listener));
+    }
+
+    @Override
+    public void subscribe(String taskId, StreamListener listener) {
+        stub.subscribeToTask(SubscribeToTaskRequest.newBuilder().setId(taskId).build(), new StreamingObserver(listener));
+    }
+
+    @Override
+    public CompletableFuture<?> getTask(String taskId) {
+        CompletableFuture<Task> task = new CompletableFuture<>();
+        stub.getTask(GetTaskRequest.newBuilder().setId(taskId).build(), unary(task));
+        return task;
+    }
+
+    @Override
+    public void close() {
+        channel.shutdownNow();
+        try {
+            channel.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> StreamObserver<T> unary(CompletableFuture<T> result) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                result.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                result.complete(null);
+            }
+        };
+    }
+
+    private static final class StreamingObserver implements StreamObserver<StreamResponse> {
+        private final StreamListener listener;
+        private boolean first = true;
+
+        StreamingObserver(StreamListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onNext(StreamResponse value) {
+            if (first) {
+                first = false;
+                listener.onEvent(Payloads.taskId(value));
+            } else {
+                listener.onEvent(null);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            listener.onError(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            listener.onComplete();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * The calls of the HTTP transports, made with a {@link HttpClient} shared by all the runs.
+ */
+abstract class HttpDriver implements TransportDriver {
+
+    static final String APPLICATION_JSON = "application/json";
+    static final String SERVER_SENT_EVENTS = "text/event-stream";
+
+    private final HttpClient http;
+    private final String baseUrl;
+
+    HttpDriver(HttpClient http, String url) {
+        this.http = http;
+        this.baseUrl = url.endsWith("/") ? url : url + "/";
+    }
+
+    URI uri(String path) {
+        // Not URI.resolve, which takes the 'message' of 'message:send' for a scheme
+        return URI.create(baseUrl + path);
+    }
+
+    HttpRequest.Builder post(String path, String body) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", APPLICATION_JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    /**
+     * Completes with the body of the response, or exceptionally if its status is not a success.
+     */
+    CompletableFuture<String> call(HttpRequest request) {
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() / 100 != 2) {
+                throw new IllegalStateException("HTTP " + response.statusCode() + " from " + request.uri());
+            }
+            return response.body();
+        });
+    }
+
+    void openStream(HttpRequest.Builder request, StreamListener listener, Function<String, String> taskIdOf) {
+        SseLineSubscriber subscriber = new SseLineSubscriber(listener, taskIdOf);
+        HttpResponse.BodyHandler<Void> events = info -> info.statusCode() == 200
+                ? HttpResponse.BodySubscribers.fromLineSubscriber(subscriber)
+                : HttpResponse.BodySubscribers.discarding();
+        http.sendAsync(request.header("Accept", SERVER_SENT_EVENTS).build(), events)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        subscriber.fail(error);
+                    } else if (response.statusCode() != 200) {
+                        subscriber.fail(new IllegalStateException("HTTP " + response.statusCode() + " from "
+                                + response.uri()));
+                    }
+                });
+    }
+
+    @Override
+    public void close() {
+        // The client is shared
+    }
+}
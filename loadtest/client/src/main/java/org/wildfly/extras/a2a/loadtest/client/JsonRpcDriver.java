@@ -0,0 +1,66 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+final class JsonRpcDriver extends HttpDriver {
+
+    static final String NAME = "jsonrpc";
+
+    private final AtomicLong ids = new AtomicLong();
+
+    JsonRpcDriver(HttpClient http, String url) {
+        super(http, url);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<String> send(String request) {
+        return call(post("", envelope("SendMessage", request)).build())
+                .thenApply(body -> Payloads.sendTaskId(result(body)));
+    }
+
+    @Override
+    public void stream(String request, StreamListener listener) {
+        openStream(post("", envelope("SendStreamingMessage", request)), listener,
+                data -> Payloads.streamTaskId(result(data)));
+    }
+
+    @Override
+    public void subscribe(String taskId, StreamListener listener) {
+        openStream(post("", envelope("SubscribeToTask", "{\"id\":\"" + taskId + "\"}")), listener,
+                data -> Payloads.streamTaskId(result(data)));
+    }
+
+    @Override
+    public CompletableFuture<?> getTask(String taskId) {
+        return call(post("", envelope("GetTask", "{\"id\":\"" + taskId + "\"}")).build())
+                .thenApply(JsonRpcDriver::result);
+    }
+
+    private String envelope(String method, String params) {
+        return "{\"jsonrpc\":\"2.0\",\"id\":" + ids.incrementAndGet() + ",\"method\":\"" + method + "\",\"params\":"
+                + params + "}";
+    }
+
+    /**
+     * Returns the JSON of the result of the response, throwing if it is an error, which is sent with a 200.
+     */
+    private static String result(String body) {
+        JsonObject response = JsonParser.parseString(body).getAsJsonObject();
+        JsonElement result = response.get("result");
+        if (result == null) {
+            throw new IllegalStateException("JSON-RPC error: " + response.get("error"));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the load test server with an open model: the calls are started at a fixed rate, whether the previous
+ * ones ended or not, as independent clients would, and each is measured from the time it was scheduled to
+ * start. Each workload is run on each transport in turn, against the same synthetic agent, and the latency
+ * percentiles, throughput and server CPU and heap of the runs are printed side by side.
+ */
+public class LoadGenerator {
+
+    private final LoadTestOptions options;
+    private final HttpClient http;
+    private final String text;
+
+    LoadGenerator(LoadTestOptions options, HttpClient http) {
+        this.options = options;
+        this.http = http;
+        this.text = "x".repeat(options.messageSize());
+    }
+
+    List<RunResult> runAll() throws Exception {
+        // Fail early if the server is not there
+        ServerStats.fetch(http, options.url());
+        List<RunResult> results = new ArrayList<>();
+        for (String transport : options.transports()) {
+            try (TransportDriver driver = TransportDriver.create(transport, options, http)) {
+                for (Workload workload : options.workloads()) {
+                    System.out.printf("Running %s on %s: %d calls/s, %ds warm-up, %ds measured%n",
+                            workload.name().toLowerCase(Locale.ROOT), transport, options.rate(),
+                            options.warmup().toSeconds(), options.duration().toSeconds());
+                    results.add(run(driver, workload));
+                }
+            }
+        }
+        return results;
+    }
+
+    private RunResult run(TransportDriver driver, Workload workload) throws Exception {
+        List<String> taskIds = workload == Workload.GET ? completeTasks(driver) : List.of();
+        AtomicInteger nextTask = new AtomicInteger();
+        Workload.Context context = new Workload.Context() {
+            @Override
+            public String sendMessageRequest() {
+                return Payloads.sendMessageRequest(text, options.agentSettings());
+            }
+
+            @Override
+            public String nextTaskId() {
+                return taskIds.get(Math.floorMod(nextTask.getAndIncrement(), taskIds.size()));
+            }
+        };
+
+        Measurement measurement = new Measurement(options.maxInFlight());
+        ServerStats.Sampler sampler = new ServerStats.Sampler(http, options.url());
+        long start = System.nanoTime();
+        long measuredFrom = start + options.warmup().toNanos();
+        long end = measuredFrom + options.duration().toNanos();
+        sampler.start(options.warmup().toMillis(), TimeUnit.MILLISECONDS);
+        for (long i = 0; ; i++) {
+            // Computed from the start rather than added up, so the schedule does not drift
+            long scheduled = start + i * TimeUnit.SECONDS.toNanos(1) / options.rate();
+            if (scheduled >= end) {
+                break;
+            }
+            parkUntil(scheduled);
+            Measurement.Call call = measurement.start(scheduled, scheduled >= measuredFrom);
+            try {
+                workload.start(driver, context, call);
+            } catch (RuntimeException e) {
+                call.failure(e);
+            }
+        }
+        int timedOut = measurement.awaitCalls(options.drainTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        ServerStats.Usage usage = sampler.stop();
+        return RunResult.of(driver.name(), workload, options.rate(), options.duration().toNanos() / 1e9, measurement,
+                timedOut, usage);
+    }
+
+    /**
+     * Completes the tasks a {@link Workload#GET} run looks up, with an agent that does not wait or emit artifacts.
+     */
+    private List<String> completeTasks(TransportDriver driver) {
+        Map<String, Long> immediate = new HashMap<>(options.agentSettings());
+        immediate.put("think-time", 0L);
+        immediate.put("events", 0L);
+        List<CompletableFuture<String>> tasks = new ArrayList<>(options.taskPool());
+        for (int i = 0; i < options.taskPool(); i++) {
+            tasks.add(driver.send(Payloads.sendMessageRequest(text, immediate)));
+        }
+        List<String> taskIds = new ArrayList<>(tasks.size());
+        for (CompletableFuture<String> task : tasks) {
+            String taskId = task.join();
+            if (taskId == null) {
+                throw new IllegalStateException("The agent answered with a message rather than a task");
+            }
+            taskIds.add(taskId);
+        }
+        return taskIds;
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (Arrays.asList(args).contains("--help")) {
+            System.out.println(LoadTestOptions.USAGE);
+            return;
+        }
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(1);
+            return;
+        }
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        List<RunResult> results = new LoadGenerator(options, http).runAll();
+        Report.print(results, System.out);
+        if (options.histogramDirectory() != null) {
+            Report.writeHistograms(results, options.histogramDirectory());
+        }
+        System.exit(0);
+    }
+}
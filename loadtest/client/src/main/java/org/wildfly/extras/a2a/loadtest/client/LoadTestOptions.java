@@ -0,0 +1,101 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The options of the load generator, given as {@code --name=value} arguments.
+ *
+ * @param agentSettings the settings of the synthetic agent that were given, sent as metadata of each message
+ */
+record LoadTestOptions(String url, String grpcTarget, List<String> transports, List<Workload> workloads, int rate,
+        Duration warmup, Duration duration, int maxInFlight, int messageSize, int taskPool, Duration drainTimeout,
+        Path histogramDirectory, Map<String, Long> agentSettings) {
+
+    static final String USAGE = """
+            Options, as --name=value:
+              url             base URL of the JSON-RPC and HTTP+JSON transports (http://localhost:8080)
+              grpc-target     target of the gRPC transport (localhost:9555)
+              transports      comma separated, among jsonrpc, rest and grpc (jsonrpc,rest,grpc)
+              workloads       comma separated, among send, stream, subscribe and get (send,stream,subscribe,get)
+              rate            calls started per second, whether the previous ones ended or not (50)
+              warmup          seconds of calls that are not measured before each run (10)
+              duration        seconds of measured calls of each run (30)
+              max-in-flight   calls in flight after which the next ones wait, counting the wait (1000)
+              message-size    characters of the text of each message (256)
+              task-pool       tasks completed before a get run, which it looks up in turn (100)
+              drain-timeout   seconds to wait for the calls in flight at the end of a run (60)
+              histograms      directory to write the latency distribution of each run to, as .hgrm files
+            Settings of the synthetic agent, the server's are used for those not given:
+              think-time      milliseconds the agent waits before each event
+              events          artifacts the agent emits per task
+              artifact-size   characters of each artifact
+            """;
+
+    private static final List<String> AGENT_SETTINGS = List.of("think-time", "events", "artifact-size");
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("url", "http://localhost:8080"),
+            Map.entry("grpc-target", "localhost:9555"),
+            Map.entry("transports", "jsonrpc,rest,grpc"),
+            Map.entry("workloads", "send,stream,subscribe,get"),
+            Map.entry("rate", "50"),
+            Map.entry("warmup", "10"),
+            Map.entry("duration", "30"),
+            Map.entry("max-in-flight", "1000"),
+            Map.entry("message-size", "256"),
+            Map.entry("task-pool", "100"),
+            Map.entry("drain-timeout", "60"),
+            Map.entry("histograms", ""));
+
+    static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+        Map<String, Long> agentSettings = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            if (AGENT_SETTINGS.contains(name)) {
+                agentSettings.put(name, Long.parseLong(value));
+            } else if (DEFAULTS.containsKey(name)) {
+                values.put(name, value);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + name);
+            }
+        }
+        int rate = Integer.parseInt(values.get("rate"));
+        if (rate <= 0) {
+            throw new IllegalArgumentException("The rate must be positive");
+        }
+        int taskPool = Integer.parseInt(values.get("task-pool"));
+        if (taskPool <= 0) {
+            throw new IllegalArgumentException("The task pool must not be empty");
+        }
+        String histograms = values.get("histograms");
+        return new LoadTestOptions(
+                values.get("url"),
+                values.get("grpc-target"),
+                split(values.get("transports")),
+                split(values.get("workloads")).stream().map(Workload::of).toList(),
+                rate,
+                Duration.ofSeconds(Long.parseLong(values.get("warmup"))),
+                Duration.ofSeconds(Long.parseLong(values.get("duration"))),
+                Integer.parseInt(values.get("max-in-flight")),
+                Integer.parseInt(values.get("message-size")),
+                taskPool,
+                Duration.ofSeconds(Long.parseLong(values.get("drain-timeout"))),
+                histograms.isBlank() ? null : Path.of(histograms),
+                Map.copyOf(agentSettings));
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
@@ -0,0 +1,138 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Records the calls of a run, in microseconds.
+ *
+ * The latency of a call is taken from the time it was scheduled to start, not from the time it was actually
+ * sent: when the server falls behind, the calls that wait on it, or on the bound of calls in flight, count the
+ * wait. Measuring from the send instead, as the service time does, hides the stall behind the few calls that
+ * were waiting when it started, which is the coordinated omission the latency is corrected for.
+ */
+final class Measurement {
+
+    private final Recorder latency = new Recorder(3);
+    private final Recorder serviceTime = new Recorder(3);
+    private final Recorder firstEvent = new Recorder(3);
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private volatile Throwable lastError;
+
+    Measurement(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Starts a call, once there is room for one more in flight.
+     *
+     * @param scheduledNanos when the call was scheduled to start, in {@link System#nanoTime()}
+     * @param measured whether the call counts, {@code false} during the warm-up
+     */
+    Call start(long scheduledNanos, boolean measured) throws InterruptedException {
+        inFlight.acquire();
+        return new Call(scheduledNanos, measured);
+    }
+
+    /**
+     * Waits for the calls in flight to end.
+     *
+     * @return the number of calls that did not end in time
+     */
+    int awaitCalls(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int acquired = 0; acquired < maxInFlight; acquired++) {
+            if (!inFlight.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return maxInFlight - acquired;
+            }
+        }
+        return 0;
+    }
+
+    Histogram latency() {
+        return latency.getIntervalHistogram();
+    }
+
+    Histogram serviceTime() {
+        return serviceTime.getIntervalHistogram();
+    }
+
+    Histogram firstEvent() {
+        return firstEvent.getIntervalHistogram();
+    }
+
+    long completed() {
+        return completed.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    Throwable lastError() {
+        return lastError;
+    }
+
+    private static long micros(long nanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * A call in flight. The events of a stream are delivered one after another, so only the end needs to be
+     * guarded against being reported twice.
+     */
+    final class Call {
+        private final long scheduled;
+        private final long sent = System.nanoTime();
+        private final boolean measured;
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private boolean gotEvent;
+
+        private Call(long scheduled, boolean measured) {
+            this.scheduled = scheduled;
+            this.measured = measured;
+        }
+
+        void event() {
+            if (!gotEvent) {
+                gotEvent = true;
+                if (measured) {
+                    firstEvent.recordValue(micros(System.nanoTime() - scheduled));
+                }
+            }
+        }
+
+        void success() {
+            if (!ended.compareAndSet(false, true)) {
+                return;
+            }
+            if (measured) {
+                long now = System.nanoTime();
+                latency.recordValue(micros(now - scheduled));
+                serviceTime.recordValue(micros(now - sent));
+                completed.increment();
+            }
+            inFlight.release();
+        }
+
+        void failure(Throwable error) {
+            if (!ended.compareAndSet(false, true)) {
+                return;
+            }
+            if (measured) {
+                errors.increment();
+                lastError = error;
+            }
+            inFlight.release();
+        }
+    }
+}
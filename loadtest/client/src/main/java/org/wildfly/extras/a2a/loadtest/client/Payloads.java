@@ -0,0 +1,77 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.util.Map;
+import java.util.UUID;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+import io.a2a.grpc.SendMessageResponse;
+import io.a2a.grpc.StreamResponse;
+
+/**
+ * Builds the requests of the load test and reads the task ids out of the responses.
+ */
+final class Payloads {
+
+    private static final JsonFormat.Parser PARSER = JsonFormat.parser().ignoringUnknownFields();
+
+    private Payloads() {
+    }
+
+    /**
+     * Returns the JSON of a {@code SendMessageRequest} with a new message.
+     *
+     * @param text the text of the message, which must not need escaping
+     * @param metadata the metadata of the message, the synthetic agent takes its settings from it
+     */
+    static String sendMessageRequest(String text, Map<String, Long> metadata) {
+        StringBuilder json = new StringBuilder(text.length() + 128 + 32 * metadata.size())
+                .append("{\"message\":{\"messageId\":\"").append(UUID.randomUUID())
+                .append("\",\"role\":\"ROLE_USER\",\"parts\":[{\"text\":\"").append(text).append("\"}]");
+        if (!metadata.isEmpty()) {
+            json.append(",\"metadata\":{");
+            String separator = "";
+            for (Map.Entry<String, Long> entry : metadata.entrySet()) {
+                json.append(separator).append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+                separator = ",";
+            }
+            json.append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    static <B extends Message.Builder> B merge(String json, B builder) {
+        try {
+            PARSER.merge(json, builder);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalStateException("Unexpected response: " + e.getMessage(), e);
+        }
+        return builder;
+    }
+
+    static String taskId(SendMessageResponse response) {
+        return response.hasTask() ? response.getTask().getId() : null;
+    }
+
+    static String taskId(StreamResponse response) {
+        if (response.hasTask()) {
+            return response.getTask().getId();
+        }
+        if (response.hasStatusUpdate()) {
+            return response.getStatusUpdate().getTaskId();
+        }
+        if (response.hasArtifactUpdate()) {
+            return response.getArtifactUpdate().getTaskId();
+        }
+        return null;
+    }
+
+    static String sendTaskId(String json) {
+        return taskId(merge(json, SendMessageResponse.newBuilder()).build());
+    }
+
+    static String streamTaskId(String json) {
+        return taskId(merge(json, StreamResponse.newBuilder()).build());
+    }
+}
@@ -0,0 +1,72 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Prints the results of the runs side by side, so the transports can be compared workload by workload.
+ */
+final class Report {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final String HEADER = "%-8s %-9s %6s %9s %7s %9s %9s %9s %9s %9s %9s %9s %6s %9s %8s %6s%n";
+    private static final String ROW = "%-8s %-9s %6d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %9s %6.1f %9.3f %8.1f %6d%n";
+
+    private Report() {
+    }
+
+    static void print(List<RunResult> results, PrintStream out) {
+        out.println();
+        out.println("Latencies in milliseconds, from the time each call was scheduled (corrected for coordinated omission).");
+        out.println("svc p99 is from the time each call was sent, first p99 is the first event of the streaming calls.");
+        out.println("cpu % is of all the processors of the server, heap MB is the peak used heap sampled once a second.");
+        out.println();
+        out.printf(Locale.ROOT, HEADER, "tport", "workload", "rate", "calls/s", "errors", "p50", "p90", "p99", "p99.9",
+                "max", "svc p99", "first p99", "cpu %", "cpu ms/c", "heap MB", "gc ms");
+        for (RunResult result : results) {
+            Histogram latency = result.latency();
+            ServerStats.Usage usage = result.usage();
+            String firstEvent = result.firstEvent().getTotalCount() == 0 ? "-"
+                    : String.format(Locale.ROOT, "%.2f", millis(result.firstEvent(), 99.0));
+            out.printf(Locale.ROOT, ROW, result.transport(), result.workload().name().toLowerCase(Locale.ROOT),
+                    result.rate(), result.throughput(), result.errors() + result.timedOut(),
+                    millis(latency, 50.0), millis(latency, 90.0), millis(latency, 99.0), millis(latency, 99.9),
+                    latency.getMaxValue() / MICROS_PER_MILLI, millis(result.serviceTime(), 99.0), firstEvent,
+                    usage.cpuPercent(), usage.cpuMillisPerCall(result.completed()),
+                    usage.peakHeapUsed() / (1024.0 * 1024.0), usage.gcTimeMillis());
+        }
+        for (RunResult result : results) {
+            if (result.lastError() != null || result.timedOut() > 0) {
+                out.printf(Locale.ROOT, "%s %s: %d errors, %d timed out, last error: %s%n", result.transport(),
+                        result.workload().name().toLowerCase(Locale.ROOT), result.errors(), result.timedOut(),
+                        result.lastError());
+            }
+        }
+    }
+
+    /**
+     * Writes the latency distribution of each run as an {@code .hgrm} file, in milliseconds, which the
+     * HdrHistogram plotter can draw.
+     */
+    static void writeHistograms(List<RunResult> results, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (RunResult result : results) {
+            Path file = directory.resolve(result.transport() + "-" + result.workload().name().toLowerCase(Locale.ROOT)
+                    + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                result.latency().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
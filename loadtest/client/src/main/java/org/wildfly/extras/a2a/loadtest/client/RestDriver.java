@@ -0,0 +1,40 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.concurrent.CompletableFuture;
+
+final class RestDriver extends HttpDriver {
+
+    static final String NAME = "rest";
+
+    RestDriver(HttpClient http, String url) {
+        super(http, url);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<String> send(String request) {
+        return call(post("message:send", request).build()).thenApply(Payloads::sendTaskId);
+    }
+
+    @Override
+    public void stream(String request, StreamListener listener) {
+        openStream(post("message:stream", request), listener, Payloads::streamTaskId);
+    }
+
+    @Override
+    public void subscribe(String taskId, StreamListener listener) {
+        openStream(HttpRequest.newBuilder(uri("tasks/" + taskId + ":subscribe")).POST(HttpRequest.BodyPublishers.noBody()),
+                listener, Payloads::streamTaskId);
+    }
+
+    @Override
+    public CompletableFuture<?> getTask(String taskId) {
+        return call(HttpRequest.newBuilder(uri("tasks/" + taskId)).GET().build());
+    }
+}
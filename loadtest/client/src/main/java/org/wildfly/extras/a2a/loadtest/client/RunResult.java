@@ -0,0 +1,32 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The outcome of running one workload on one transport.
+ *
+ * @param rate the calls per second that were scheduled
+ * @param seconds the length of the measured part of the run
+ * @param latency from the time each call was scheduled to its end, in microseconds
+ * @param serviceTime from the time each call was sent to its end, in microseconds
+ * @param firstEvent from the time each streaming call was scheduled to its first event, in microseconds
+ * @param timedOut the calls still in flight once the run was given up on
+ */
+record RunResult(String transport, Workload workload, int rate, double seconds, Histogram latency,
+        Histogram serviceTime, Histogram firstEvent, long completed, long errors, int timedOut, Throwable lastError,
+        ServerStats.Usage usage) {
+
+    static RunResult of(String transport, Workload workload, int rate, double seconds, Measurement measurement,
+            int timedOut, ServerStats.Usage usage) {
+        return new RunResult(transport, workload, rate, seconds, measurement.latency(), measurement.serviceTime(),
+                measurement.firstEvent(), measurement.completed(), measurement.errors(), timedOut,
+                measurement.lastError(), usage);
+    }
+
+    /**
+     * The calls completed per second.
+     */
+    double throughput() {
+        return completed / seconds;
+    }
+}
@@ -0,0 +1,119 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+
+/**
+ * The resource usage of the server at one time, as given by the {@code /loadtest/stats} endpoint of the load
+ * test server.
+ */
+record ServerStats(long uptimeMillis, int processors, long cpuTimeNanos, long heapUsed, long heapCommitted,
+        long gcCount, long gcTimeMillis, int threads) {
+
+    private static final Gson GSON = new Gson();
+
+    static ServerStats fetch(HttpClient http, String url) throws IOException, InterruptedException {
+        URI uri = URI.create((url.endsWith("/") ? url : url + "/") + "loadtest/stats");
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(uri).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() + " from " + uri
+                    + ", is the load test server deployed there?");
+        }
+        return GSON.fromJson(response.body(), ServerStats.class);
+    }
+
+    /**
+     * The usage of the server between two samples.
+     *
+     * @param peakHeapUsed the most heap used of the samples taken in between, once a second
+     */
+    record Usage(ServerStats start, ServerStats end, long peakHeapUsed) {
+
+        /**
+         * The CPU used by the server, as a percentage of all its processors, {@code NaN} if it is unknown.
+         */
+        double cpuPercent() {
+            long wallNanos = TimeUnit.MILLISECONDS.toNanos(end.uptimeMillis - start.uptimeMillis);
+            if (start.cpuTimeNanos < 0 || wallNanos <= 0) {
+                return Double.NaN;
+            }
+            return 100.0 * (end.cpuTimeNanos - start.cpuTimeNanos) / ((double) wallNanos * end.processors);
+        }
+
+        /**
+         * The CPU time the server used per call, in milliseconds, {@code NaN} if it is unknown.
+         */
+        double cpuMillisPerCall(long calls) {
+            if (start.cpuTimeNanos < 0 || calls == 0) {
+                return Double.NaN;
+            }
+            return (end.cpuTimeNanos - start.cpuTimeNanos) / 1_000_000.0 / calls;
+        }
+
+        long gcCount() {
+            return end.gcCount - start.gcCount;
+        }
+
+        long gcTimeMillis() {
+            return end.gcTimeMillis - start.gcTimeMillis;
+        }
+    }
+
+    /**
+     * Samples the server once a second, from its own thread so the load is not held up by it.
+     */
+    static final class Sampler {
+        private final HttpClient http;
+        private final String url;
+        private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "server-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        private volatile ServerStats first;
+        private volatile long peakHeapUsed;
+
+        Sampler(HttpClient http, String url) {
+            this.http = http;
+            this.url = url;
+        }
+
+        /**
+         * Takes the first sample after the delay, then the others once a second.
+         */
+        void start(long delay, TimeUnit unit) {
+            executor.scheduleAtFixedRate(this::sample, unit.toMillis(delay), 1000, TimeUnit.MILLISECONDS);
+        }
+
+        Usage stop() throws IOException, InterruptedException {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            ServerStats last = fetch(http, url);
+            ServerStats start = first == null ? last : first;
+            return new Usage(start, last, Math.max(peakHeapUsed, last.heapUsed()));
+        }
+
+        private void sample() {
+            try {
+                ServerStats stats = fetch(http, url);
+                if (first == null) {
+                    first = stats;
+                }
+                peakHeapUsed = Math.max(peakHeapUsed, stats.heapUsed());
+            } catch (IOException e) {
+                // A missed sample only makes the peak less accurate
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
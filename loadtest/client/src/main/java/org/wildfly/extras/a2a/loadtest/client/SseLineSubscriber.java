@@ -0,0 +1,93 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Splits the lines of an event stream into events for a {@link TransportDriver.StreamListener}. Only the data
+ * of the first event is kept, to read the task id from, the others are just counted.
+ */
+final class SseLineSubscriber implements Flow.Subscriber<String> {
+
+    private static final String DATA = "data:";
+
+    private final TransportDriver.StreamListener listener;
+    private final Function<String, String> taskIdOf;
+    private final AtomicBoolean done = new AtomicBoolean();
+    private final StringBuilder data = new StringBuilder();
+    private Flow.Subscription subscription;
+    private boolean first = true;
+    private boolean pending;
+
+    /**
+     * @param taskIdOf reads the task id from the data of the first event, throwing if it is an error
+     */
+    SseLineSubscriber(TransportDriver.StreamListener listener, Function<String, String> taskIdOf) {
+        this.listener = listener;
+        this.taskIdOf = taskIdOf;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(String line) {
+        if (line.isEmpty()) {
+            dispatch();
+        } else if (line.startsWith(DATA)) {
+            pending = true;
+            if (first) {
+                if (!data.isEmpty()) {
+                    data.append('\n');
+                }
+                int start = line.length() > DATA.length() && line.charAt(DATA.length()) == ' ' ? DATA.length() + 1 : DATA.length();
+                data.append(line, start, line.length());
+            }
+        }
+        // Comments, ids and event names are not needed
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        dispatch();
+        if (done.compareAndSet(false, true)) {
+            listener.onComplete();
+        }
+    }
+
+    void fail(Throwable error) {
+        if (done.compareAndSet(false, true)) {
+            listener.onError(error);
+        }
+    }
+
+    private void dispatch() {
+        if (!pending || done.get()) {
+            return;
+        }
+        pending = false;
+        if (!first) {
+            listener.onEvent(null);
+            return;
+        }
+        first = false;
+        String taskId;
+        try {
+            taskId = taskIdOf.apply(data.toString());
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            fail(e);
+            return;
+        }
+        listener.onEvent(taskId);
+    }
+}
@@ -0,0 +1,61 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Makes the A2A calls of the load test on one transport. The calls are asynchronous, so the load generator
+ * never waits on the server to start the next one.
+ *
+ * The requests are given as the JSON of their protobuf messages, which the HTTP transports send as is and
+ * the gRPC transport parses, so every transport gets the same messages.
+ */
+interface TransportDriver extends AutoCloseable {
+
+    String name();
+
+    /**
+     * Sends a {@code SendMessageRequest}, completing with the id of the task it answered with, {@code null}
+     * if it answered with a message.
+     */
+    CompletableFuture<String> send(String request);
+
+    /**
+     * Sends a {@code SendMessageRequest} as a stream.
+     */
+    void stream(String request, StreamListener listener);
+
+    void subscribe(String taskId, StreamListener listener);
+
+    CompletableFuture<?> getTask(String taskId);
+
+    @Override
+    void close();
+
+    /**
+     * Gets the events of a stream. Only one of {@link #onComplete} and {@link #onError} is called.
+     */
+    interface StreamListener {
+        /**
+         * An event of the stream.
+         *
+         * @param taskId the task of the event if it is the first one, {@code null} for the others, which are
+         *               not parsed
+         */
+        void onEvent(String taskId);
+
+        void onComplete();
+
+        void onError(Throwable error);
+    }
+
+    static TransportDriver create(String transport, LoadTestOptions options, HttpClient http) {
+        return switch (transport) {
+            case JsonRpcDriver.NAME -> new JsonRpcDriver(http, options.url());
+            case RestDriver.NAME -> new RestDriver(http, options.url());
+            case GrpcDriver.NAME -> new GrpcDriver(options.grpcTarget());
+            default -> throw new IllegalArgumentException("Unknown transport " + transport + ", expected one of "
+                    + JsonRpcDriver.NAME + ", " + RestDriver.NAME + " or " + GrpcDriver.NAME);
+        };
+    }
+}
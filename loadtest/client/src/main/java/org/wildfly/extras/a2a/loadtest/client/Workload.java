@@ -0,0 +1,128 @@
+package org.wildfly.extras.a2a.loadtest.client;
+
+import java.util.Locale;
+
+/**
+ * The calls a run is made of. A streaming call ends with its stream, its first event is measured on its own.
+ */
+enum Workload {
+
+    /**
+     * A message, answered once the agent completed its task.
+     */
+    SEND {
+        @Override
+        void start(TransportDriver driver, Context context, Measurement.Call call) {
+            driver.send(context.sendMessageRequest()).whenComplete((taskId, error) -> end(call, error));
+        }
+    },
+
+    /**
+     * A message whose task is streamed until the agent completes it.
+     */
+    STREAM {
+        @Override
+        void start(TransportDriver driver, Context context, Measurement.Call call) {
+            driver.stream(context.sendMessageRequest(), measuring(call));
+        }
+    },
+
+    /**
+     * A message sent as a stream, and a subscription to its task as soon as the task is known, which is
+     * measured until the agent completes the task. The agent must think long enough for the task to still be
+     * running then.
+     */
+    SUBSCRIBE {
+        @Override
+        void start(TransportDriver driver, Context context, Measurement.Call call) {
+            driver.stream(context.sendMessageRequest(), new TransportDriver.StreamListener() {
+                private boolean subscribed;
+
+                @Override
+                public void onEvent(String taskId) {
+                    if (subscribed) {
+                        return;
+                    }
+                    subscribed = true;
+                    if (taskId == null) {
+                        call.failure(new IllegalStateException("The first event of the stream has no task"));
+                    } else {
+                        driver.subscribe(taskId, measuring(call));
+                    }
+                }
+
+                @Override
+                public void onComplete() {
+                    if (!subscribed) {
+                        call.failure(new IllegalStateException("The stream ended without events"));
+                    }
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    if (!subscribed) {
+                        call.failure(error);
+                    }
+                }
+            });
+        }
+    },
+
+    /**
+     * A lookup of one of the tasks completed before the run.
+     */
+    GET {
+        @Override
+        void start(TransportDriver driver, Context context, Measurement.Call call) {
+            driver.getTask(context.nextTaskId()).whenComplete((task, error) -> end(call, error));
+        }
+    };
+
+    /**
+     * What the calls are made with.
+     */
+    interface Context {
+        /**
+         * Returns the JSON of a new {@code SendMessageRequest}.
+         */
+        String sendMessageRequest();
+
+        /**
+         * Returns the id of a completed task to look up.
+         */
+        String nextTaskId();
+    }
+
+    abstract void start(TransportDriver driver, Context context, Measurement.Call call);
+
+    static Workload of(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static void end(Measurement.Call call, Throwable error) {
+        if (error == null) {
+            call.success();
+        } else {
+            call.failure(error);
+        }
+    }
+
+    private static TransportDriver.StreamListener measuring(Measurement.Call call) {
+        return new TransportDriver.StreamListener() {
+            @Override
+            public void onEvent(String taskId) {
+                call.event();
+            }
+
+            @Override
+            public void onComplete() {
+                call.success();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                call.failure(error);
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package org.wildfly.extras.a2a.loadtest.server;
+
+import java.util.List;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+
+import io.a2a.server.PublicAgentCard;
+import io.a2a.spec.AgentCapabilities;
+import io.a2a.spec.AgentCard;
+import io.a2a.spec.AgentInterface;
+import io.a2a.spec.AgentSkill;
+import io.a2a.spec.TransportProtocol;
+
+/**
+ * The card of the synthetic agent, which is served on all three transports.
+ */
+@ApplicationScoped
+public class LoadTestAgentCardProducer {
+
+    @Produces
+    @PublicAgentCard
+    public AgentCard createAgentCard() {
+        return AgentCard.builder()
+                .name("Load Test Agent")
+                .description("Synthetic agent emitting events of a configurable size at a configurable pace")
+                .version("1.0.0")
+                .capabilities(AgentCapabilities.builder()
+                        .streaming(true)
+                        .build())
+                .defaultInputModes(List.of("text"))
+                .defaultOutputModes(List.of("text"))
+                .skills(List.of(AgentSkill.builder()
+                        .id("synthetic")
+                        .name("Synthetic work")
+                        .description("Thinks, then emits artifacts, as many times as configured")
+                        .tags(List.of("load test"))
+                        .build()))
+                .supportedInterfaces(List.of(
+                        new AgentInterface(TransportProtocol.JSONRPC.asString(), "http://localhost:8080"),
+                        new AgentInterface(TransportProtocol.HTTP_JSON.asString(), "http://localhost:8080"),
+                        new AgentInterface(TransportProtocol.GRPC.asString(), "localhost:9555")))
+                .build();
+    }
+}
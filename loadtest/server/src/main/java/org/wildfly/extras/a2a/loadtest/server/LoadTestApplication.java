@@ -0,0 +1,8 @@
+package org.wildfly.extras.a2a.loadtest.server;
+
+import jakarta.ws.rs.ApplicationPath;
+import jakarta.ws.rs.core.Application;
+
+@ApplicationPath("/")
+public class LoadTestApplication extends Application {
+}
@@ -0,0 +1,40 @@
+package org.wildfly.extras.a2a.loadtest.server;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * The resource usage of the server, which the load generator samples during each run to report the CPU and
+ * heap the transports cost.
+ */
+@Path("/loadtest")
+public class ServerStatsResource {
+
+    @GET
+    @Path("stats")
+    @Produces(MediaType.APPLICATION_JSON)
+    public String stats() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        // The process CPU time is only available through the HotSpot extension of the bean
+        long cpuTime = os instanceof com.sun.management.OperatingSystemMXBean hotspot ? hotspot.getProcessCpuTime() : -1;
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+        return """
+                {"uptimeMillis":%d,"processors":%d,"cpuTimeNanos":%d,"heapUsed":%d,"heapCommitted":%d,\
+                "gcCount":%d,"gcTimeMillis":%d,"threads":%d}\
+                """.formatted(ManagementFactory.getRuntimeMXBean().getUptime(), os.getAvailableProcessors(), cpuTime,
+                heap.getUsed(), heap.getCommitted(), gcCount, gcTime, ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+}
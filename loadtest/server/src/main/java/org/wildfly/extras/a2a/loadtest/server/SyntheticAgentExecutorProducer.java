@@ -0,0 +1,110 @@
+package org.wildfly.extras.a2a.loadtest.server;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
+
+import io.a2a.server.agentexecution.AgentExecutor;
+import io.a2a.server.agentexecution.RequestContext;
+import io.a2a.server.config.A2AConfigProvider;
+import io.a2a.server.tasks.AgentEmitter;
+import io.a2a.spec.A2AError;
+import io.a2a.spec.Message;
+import io.a2a.spec.TaskNotCancelableError;
+import io.a2a.spec.TextPart;
+
+/**
+ * Produces the synthetic agent the load tests run against. For each message it starts a task, then
+ * {@code events} times waits {@code think-time} milliseconds, as an agent waiting on an LLM would, and emits an
+ * artifact of {@code artifact-size} characters, before completing the task.
+ *
+ * The settings default to the {@code a2a.jakarta.loadtest.agent.*} values of
+ * {@code META-INF/a2a-defaults.properties}, which can be overridden as any other setting, and a message can
+ * override them for its own task with metadata of the same names, which is what the load generator does.
+ */
+@ApplicationScoped
+public class SyntheticAgentExecutorProducer {
+
+    static final String THINK_TIME = "a2a.jakarta.loadtest.agent.think-time";
+    static final String EVENTS = "a2a.jakarta.loadtest.agent.events";
+    static final String ARTIFACT_SIZE = "a2a.jakarta.loadtest.agent.artifact-size";
+
+    static final String THINK_TIME_METADATA = "think-time";
+    static final String EVENTS_METADATA = "events";
+    static final String ARTIFACT_SIZE_METADATA = "artifact-size";
+
+    @Inject
+    A2AConfigProvider configProvider;
+
+    private long thinkTime;
+    private int events;
+    private int artifactSize;
+
+    @PostConstruct
+    void init() {
+        thinkTime = Long.parseLong(configProvider.getValue(THINK_TIME));
+        events = Integer.parseInt(configProvider.getValue(EVENTS));
+        artifactSize = Integer.parseInt(configProvider.getValue(ARTIFACT_SIZE));
+    }
+
+    @Produces
+    public AgentExecutor syntheticExecutor() {
+        return new SyntheticAgentExecutor(thinkTime, events, artifactSize);
+    }
+
+    private static class SyntheticAgentExecutor implements AgentExecutor {
+        private final long thinkTime;
+        private final int events;
+        private final int artifactSize;
+        // The same artifacts are sent over and over, only build each size once
+        private final Map<Integer, String> artifacts = new ConcurrentHashMap<>();
+
+        SyntheticAgentExecutor(long thinkTime, int events, int artifactSize) {
+            this.thinkTime = thinkTime;
+            this.events = events;
+            this.artifactSize = artifactSize;
+        }
+
+        @Override
+        public void execute(RequestContext context, AgentEmitter emitter) throws A2AError {
+            Message message = context.getMessage();
+            Map<String, Object> metadata = message == null ? null : message.metadata();
+            long taskThinkTime = setting(metadata, THINK_TIME_METADATA, thinkTime);
+            long taskEvents = setting(metadata, EVENTS_METADATA, events);
+            int taskArtifactSize = (int) setting(metadata, ARTIFACT_SIZE_METADATA, artifactSize);
+            String artifact = artifacts.computeIfAbsent(taskArtifactSize, "x"::repeat);
+
+            emitter.startWork();
+            for (int i = 0; i < taskEvents; i++) {
+                if (taskThinkTime > 0) {
+                    try {
+                        Thread.sleep(taskThinkTime);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                emitter.addArtifact(List.of(new TextPart(artifact)), "artifact-" + i, "chunk", null);
+            }
+            emitter.complete();
+        }
+
+        @Override
+        public void cancel(RequestContext context, AgentEmitter emitter) throws A2AError {
+            throw new TaskNotCancelableError();
+        }
+
+        private static long setting(Map<String, Object> metadata, String name, long defaultValue) {
+            // Numbers in metadata are JSON numbers, which may come as any Number
+            if (metadata != null && metadata.get(name) instanceof Number value) {
+                return Math.max(0, value.longValue());
+            }
+            return defaultValue;
+        }
+    }
+}
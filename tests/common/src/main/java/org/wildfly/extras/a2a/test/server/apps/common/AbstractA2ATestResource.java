@@ -0,0 +1,209 @@
+package org.wildfly.extras.a2a.test.server.apps.common;
+
+import static jakarta.ws.rs.core.MediaType.TEXT_PLAIN;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.consumer.RecordingStream;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Response;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import org.wildfly.extras.a2a.server.apps.common.A2AEvents;
+
+/**
+ * The endpoints of the {@code A2ATestResource} of each transport that read back what the server recorded: the
+ * metrics of {@link TestMeterRegistryProducer}, the spans of {@link TestOpenTelemetryProducer}, the heap and the
+ * flight recorder events. The subclass is the resource, under {@code /test}, and adds the endpoints that depend
+ * on its transport.
+ */
+public abstract class AbstractA2ATestResource {
+    private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+    private static final String HOTSPOT_DIAGNOSTIC = "com.sun.management:type=HotSpotDiagnostic";
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    InMemorySpanExporter spanExporter;
+
+    private final Set<String> recordedEvents = ConcurrentHashMap.newKeySet();
+    private RecordingStream recordingStream;
+
+    /**
+     * Returns the number of calls of the A2A method recorded with the given outcome, over all tenants.
+     */
+    @GET
+    @Path("/metrics/requests/{method}/{outcome}")
+    @Produces(TEXT_PLAIN)
+    public Response getRequestCount(@PathParam("method") String method, @PathParam("outcome") String outcome) {
+        long count = meterRegistry.find("a2a.server.requests")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+        return Response.ok(String.valueOf(count), TEXT_PLAIN).build();
+    }
+
+    /**
+     * Returns the number of stream events whose latency was recorded for the given stage, over all transports.
+     */
+    @GET
+    @Path("/metrics/latency/{stage}")
+    @Produces(TEXT_PLAIN)
+    public Response getLatencyCount(@PathParam("stage") String stage) {
+        long count = meterRegistry.find("a2a.server.stream.event.latency")
+                .tag("stage", stage)
+                .timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+        return Response.ok(String.valueOf(count), TEXT_PLAIN).build();
+    }
+
+    /**
+     * Returns the finished spans with the given name, one per line with its trace id, status and number of events.
+     */
+    @GET
+    @Path("/tracing/spans/{name}")
+    @Produces(TEXT_PLAIN)
+    public Response getSpans(@PathParam("name") String name) {
+        String spans = spanExporter.getFinishedSpanItems().stream()
+                .filter(span -> span.getName().equals(name))
+                .map(span -> span.getTraceId() + " " + span.getStatus().getStatusCode() + " " + span.getEvents().size())
+                .collect(Collectors.joining("\n"));
+        return Response.ok(spans, TEXT_PLAIN).build();
+    }
+
+    /**
+     * Returns the sum of the gauges with the given name, over all their tags.
+     */
+    @GET
+    @Path("/metrics/gauge/{name}")
+    @Produces(TEXT_PLAIN)
+    public Response getGauge(@PathParam("name") String name) {
+        double value = meterRegistry.find(name)
+                .gauges().stream()
+                .mapToDouble(Gauge::value)
+                .sum();
+        return Response.ok(String.valueOf((long) value), TEXT_PLAIN).build();
+    }
+
+    /**
+     * Forgets the finished spans, which are otherwise kept for as long as the deployment.
+     */
+    @POST
+    @Path("/tracing/reset")
+    public Response resetSpans() {
+        spanExporter.reset();
+        return Response.ok().build();
+    }
+
+    /**
+     * Returns the live instances of the classes whose name starts with one of the prefixes, one line per class
+     * with its name, instance count and size in bytes, then a {@code Total} line with those of the whole heap.
+     * The histogram is taken in process with the {@code GC.class_histogram} diagnostic command, which runs a
+     * full GC first, so it only counts what is still reachable.
+     */
+    @GET
+    @Path("/heap/histogram")
+    @Produces(TEXT_PLAIN)
+    public Response getHeapHistogram(@QueryParam("prefix") List<String> prefixes) throws JMException {
+        String histogram = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName(DIAGNOSTIC_COMMAND), "gcClassHistogram",
+                new Object[] {new String[0]}, new String[] {String[].class.getName()});
+        StringBuilder result = new StringBuilder();
+        for (String line : histogram.split("\n")) {
+            // "   1:   instances   bytes  class-name (module)" or "Total   instances   bytes"
+            String[] columns = line.trim().split("\\s+");
+            if (columns.length >= 4 && columns[0].endsWith(":")
+                    && prefixes.stream().anyMatch(columns[3]::startsWith)) {
+                result.append(columns[3]).append(' ').append(columns[1]).append(' ').append(columns[2]).append('\n');
+            } else if (columns.length == 3 && columns[0].equals("Total")) {
+                result.append(line.trim().replaceAll("\\s+", " ")).append('\n');
+            }
+        }
+        return Response.ok(result.toString(), TEXT_PLAIN).build();
+    }
+
+    /**
+     * Dumps the live objects of the heap with the {@code HotSpotDiagnosticMXBean}, to look into a leak.
+     *
+     * @return the path of the dump
+     */
+    @POST
+    @Path("/heap/dump")
+    @Produces(TEXT_PLAIN)
+    public Response dumpHeap() throws JMException {
+        File file = new File(System.getProperty("jboss.server.data.dir"), "heap-" + System.currentTimeMillis() + ".hprof");
+        ManagementFactory.getPlatformMBeanServer().invoke(
+                new ObjectName(HOTSPOT_DIAGNOSTIC), "dumpHeap",
+                new Object[] {file.getPath(), true}, new String[] {String.class.getName(), boolean.class.getName()});
+        return Response.ok(file.getPath(), TEXT_PLAIN).build();
+    }
+
+    /**
+     * Starts recording which of the A2A flight recorder events are emitted, whatever their duration.
+     */
+    @POST
+    @Path("/jfr/start")
+    public synchronized Response startRecording() {
+        closeRecording();
+        recordedEvents.clear();
+        recordingStream = new RecordingStream();
+        for (Class<? extends Event> type : A2AEvents.TYPES) {
+            recordingStream.enable(type).withThreshold(Duration.ZERO);
+            recordingStream.onEvent(type.getAnnotation(Name.class).value(),
+                    event -> recordedEvents.add(event.getEventType().getName()));
+        }
+        recordingStream.startAsync();
+        return Response.ok().build();
+    }
+
+    /**
+     * Returns the names of the A2A flight recorder events emitted since the recording started, comma separated.
+     */
+    @GET
+    @Path("/jfr/events")
+    @Produces(TEXT_PLAIN)
+    public Response getRecordedEvents() {
+        return Response.ok(String.join(",", recordedEvents), TEXT_PLAIN).build();
+    }
+
+    @POST
+    @Path("/jfr/stop")
+    public Response stopRecording() {
+        closeRecording();
+        return Response.ok().build();
+    }
+
+    @PreDestroy
+    synchronized void closeRecording() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.wildfly.extras.a2a.test.server.apps.common;
+
+import java.net.http.HttpClient;
+import java.util.UUID;
+
+import io.a2a.jsonrpc.common.json.JsonUtil;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskState;
+import io.a2a.spec.TaskStatus;
+import io.restassured.http.ContentType;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.BeforeEach;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Runs into the limits the server puts on the calls of a transport, with the settings of {@value #CONFIG}, which
+ * are low enough for a couple of calls to reach them, and the agent of {@link SlowAgentExecutorProducer}, which
+ * keeps a message send in flight for as long as the message asks: one message send at a time, two open
+ * streams, one per tenant, a second before a message send returns the snapshot of its task, and a managed
+ * internal executor {@link ExecutorTestResource} can fill up. The subclasses make the calls and check how the
+ * transport answers them.
+ *
+ * Each test starts once the calls of the previous one are done with, as the agent may still be running after
+ * the client got its response.
+ */
+public abstract class AbstractLimitsTest {
+
+    /**
+     * The settings of the deployment, see {@link #configure}.
+     */
+    public static final String CONFIG = "limits-microprofile-config.properties";
+
+    private static final long TIMEOUT_MS = 30_000;
+
+    protected final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    /**
+     * Adds the agent and the settings of the tests to the deployment of the transport, in place of its own
+     * settings.
+     */
+    public static WebArchive configure(WebArchive archive) {
+        String settings = "/WEB-INF/classes/META-INF/microprofile-config.properties";
+        if (archive.contains(settings)) {
+            archive.delete(settings);
+        }
+        return archive.addClasses(SlowAgentExecutorProducer.class, ExecutorTestResource.class)
+                .addAsResource(CONFIG, "META-INF/microprofile-config.properties");
+    }
+
+    @BeforeEach
+    public void awaitIdle() throws InterruptedException {
+        awaitGauge("a2a.limit.in.flight", 0);
+        awaitGauge("a2a.stream.admission.open", 0);
+        awaitGauge("a2a.executor.active", 0);
+    }
+
+    /**
+     * Fills the internal executor up with tasks that wait until {@link #releaseExecutor}, see
+     * {@link ExecutorTestResource}.
+     */
+    protected static void fillExecutor() {
+        given().post("/limits/executor/fill")
+                .then()
+                .statusCode(200);
+    }
+
+    protected static void releaseExecutor() {
+        given().post("/limits/executor/release")
+                .then()
+                .statusCode(200);
+    }
+
+    /**
+     * Creates a task that is still to be worked on, with its queue, so streams can subscribe to it.
+     */
+    protected static String createTask() {
+        String taskId = "limits-" + UUID.randomUUID();
+        Task task = Task.builder()
+                .id(taskId)
+                .contextId("limits")
+                .status(new TaskStatus(TaskState.SUBMITTED))
+                .build();
+        given().contentType(ContentType.JSON)
+                .body(JsonUtil.toJson(task))
+                .post("/test/task")
+                .then()
+                .statusCode(200);
+        given().post("/test/queue/ensure/" + taskId)
+                .then()
+                .statusCode(200);
+        return taskId;
+    }
+
+    protected static void deleteTask(String taskId) {
+        given().delete("/test/task/" + taskId);
+    }
+
+    /**
+     * The body of a message send, as the REST transport takes it and the JSON-RPC transport takes its params.
+     *
+     * @param taskId the task the message is sent to, {@code null} to start a new one
+     * @param delayMillis how long the agent takes over the message
+     */
+    protected static String sendMessageRequest(String taskId, long delayMillis) {
+        String task = taskId == null ? "" : """
+                "taskId": "%s", "contextId": "limits",""".formatted(taskId);
+        return """
+                {"message": {"messageId": "%s", %s "role": "ROLE_USER", "parts": [{"text": "take your time"}],
+                 "metadata": {"%s": %d}}}""".formatted(
+                UUID.randomUUID(), task, SlowAgentExecutorProducer.DELAY, delayMillis);
+    }
+
+    /**
+     * Returns the sum of the gauges with the given name, over all their tags.
+     */
+    protected static long gauge(String name) {
+        return Long.parseLong(given().get("/test/metrics/gauge/" + name).asString());
+    }
+
+    /**
+     * Waits for the gauge to reach the value, and returns the value it has when it did or the wait timed out.
+     */
+    protected static long awaitGauge(String name, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        long value = gauge(name);
+        while (value != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            value = gauge(name);
+        }
+        return value;
+    }
+}
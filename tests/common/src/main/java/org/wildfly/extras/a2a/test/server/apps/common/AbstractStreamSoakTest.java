@@ -0,0 +1,299 @@
+package org.wildfly.extras.a2a.test.server.apps.common;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.a2a.jsonrpc.common.json.JsonUtil;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskState;
+import io.a2a.spec.TaskStatus;
+import io.a2a.spec.TaskStatusUpdateEvent;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Opens and abruptly drops tens of thousands of streams, in random ways and while events are written to them,
+ * then checks that the server is back where it started: no child queue left behind, no stream still counted as
+ * open, and no more live A2A objects or retained heap than before. The transports only open the streams and
+ * drop them, see {@link #open}.
+ *
+ * A warm-up round runs first, so the baseline already has what is created once, such as the journals of the
+ * tasks. The heap is measured with class histograms taken by the server itself after a full GC, see
+ * {@code /test/heap/histogram}, and dumped for a closer look if it grew.
+ *
+ * It runs for minutes, so the subclasses are tagged {@code soak} and only run with {@code -Psoak}. The
+ * {@code test.soak.*} system properties set how many streams are opened, how many are open at once, and the
+ * tolerances. {@code test.soak.seed} replays the same drops.
+ */
+public abstract class AbstractStreamSoakTest {
+
+    private static final int STREAMS = Integer.getInteger("test.soak.streams", 20_000);
+    private static final int CONCURRENCY = Integer.getInteger("test.soak.concurrency", 500);
+    private static final int TASKS = Integer.getInteger("test.soak.tasks", 16);
+    private static final long EVENT_INTERVAL_MS = Long.getLong("test.soak.event-interval-ms", 2);
+    private static final long SETTLE_MS = Long.getLong("test.soak.settle-ms", 60_000);
+    private static final long CLASS_TOLERANCE = Long.getLong("test.soak.class-tolerance", 100);
+    private static final long HEAP_TOLERANCE_MB = Long.getLong("test.soak.heap-tolerance-mb", 32);
+
+    /**
+     * The longest a stream stays open, in milliseconds.
+     */
+    protected static final long MAX_LIFETIME_MS = Long.getLong("test.soak.max-lifetime-ms", 2_000);
+
+    /**
+     * Writes the events and drops the streams on time.
+     */
+    protected final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    protected final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    /**
+     * The ways a client goes away.
+     */
+    public enum Drop {
+        // Right after starting the call, while the stream may not be subscribed to the queue yet
+        IMMEDIATELY,
+        // As soon as the stream is open
+        ON_RESPONSE,
+        // After a few events, possibly while the next one is written
+        AFTER_EVENTS,
+        // After a random time, whatever the stream is doing
+        AFTER_DELAY
+    }
+
+    /**
+     * A stream opened by the transport.
+     */
+    public interface Stream {
+        /**
+         * Closes the stream unless it is already, and then runs the callback given when it was opened. May be
+         * called any number of times.
+         */
+        void drop();
+    }
+
+    /**
+     * Opens a stream of the events of the task. The stream drops itself {@link Drop#ON_RESPONSE} and
+     * {@link Drop#AFTER_EVENTS}, and when the server ends it; the other drops are done by the caller.
+     *
+     * @param events the number of events after which the stream is dropped {@link Drop#AFTER_EVENTS}
+     * @param random to make any choice of the transport with, so that the seed replays it
+     * @param onDropped to run once the stream is dropped
+     */
+    protected abstract Stream open(String taskId, Drop drop, int events, Random random, Runnable onDropped);
+
+    /**
+     * The ways the streams of the transport are dropped, all of them by default.
+     */
+    protected Drop[] drops() {
+        return Drop.values();
+    }
+
+    /**
+     * The gauges counting the open streams, all back to 0 once the server let go of them.
+     */
+    protected List<String> streamGauges() {
+        return List.of("a2a.server.streams.open", "a2a.stream.admission.open");
+    }
+
+    @Test
+    public void testDroppedStreamsReleaseEverything() throws Exception {
+        long seed = Long.getLong("test.soak.seed", System.nanoTime());
+        Random random = new Random(seed);
+        List<String> taskIds = createTasks();
+        try {
+            // Random events keep the streams busy, so some are dropped while written to
+            scheduler.scheduleWithFixedDelay(
+                    () -> enqueueEvent(taskIds.get(ThreadLocalRandom.current().nextInt(taskIds.size()))),
+                    0, EVENT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+            soak(random, taskIds, Math.max(1, STREAMS / 10));
+            awaitSettled(taskIds, seed);
+            given().post("/test/tracing/reset").then().statusCode(200);
+            HeapHistogram baseline = HeapHistogram.take();
+
+            soak(random, taskIds, STREAMS);
+            awaitSettled(taskIds, seed);
+            given().post("/test/tracing/reset").then().statusCode(200);
+            HeapHistogram after = HeapHistogram.take();
+
+            Map<String, Long> grown = after.growthOver(baseline, CLASS_TOLERANCE);
+            assertTrue(grown.isEmpty(), () -> "More live instances after " + STREAMS + " dropped streams (seed " + seed
+                    + "): " + grown + ", heap dumped to " + dumpHeap());
+            long heapGrowth = after.heapBytes() - baseline.heapBytes();
+            assertTrue(heapGrowth <= HEAP_TOLERANCE_MB * 1024 * 1024, () -> "The live heap grew by " + heapGrowth
+                    + " bytes after " + STREAMS + " dropped streams (seed " + seed + "), heap dumped to " + dumpHeap());
+        } finally {
+            scheduler.shutdownNow();
+            for (String taskId : taskIds) {
+                given().delete("/test/task/" + taskId);
+            }
+        }
+    }
+
+    /**
+     * Opens the streams over the tasks, at most {@link #CONCURRENCY} at once, and returns once they are all
+     * dropped.
+     */
+    private void soak(Random random, List<String> taskIds, int streams) throws InterruptedException {
+        Semaphore open = new Semaphore(CONCURRENCY);
+        Drop[] drops = drops();
+        for (int i = 0; i < streams; i++) {
+            open.acquire();
+            Drop drop = drops[random.nextInt(drops.length)];
+            long delay = random.nextLong(MAX_LIFETIME_MS);
+            Stream stream = open(taskIds.get(random.nextInt(taskIds.size())), drop, 1 + random.nextInt(3), random,
+                    open::release);
+            if (drop == Drop.IMMEDIATELY) {
+                stream.drop();
+                continue;
+            }
+            if (drop == Drop.AFTER_DELAY) {
+                scheduler.schedule(stream::drop, delay, TimeUnit.MILLISECONDS);
+            }
+            // Streams that did not get their events are dropped in the end anyway
+            scheduler.schedule(stream::drop, MAX_LIFETIME_MS, TimeUnit.MILLISECONDS);
+        }
+        open.acquire(CONCURRENCY);
+        open.release(CONCURRENCY);
+    }
+
+    private static List<String> createTasks() {
+        List<String> taskIds = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            String taskId = "soak-" + UUID.randomUUID();
+            Task task = Task.builder()
+                    .id(taskId)
+                    .contextId("soak")
+                    .status(new TaskStatus(TaskState.SUBMITTED))
+                    .build();
+            given().contentType(ContentType.JSON)
+                    .body(JsonUtil.toJson(task))
+                    .post("/test/task")
+                    .then()
+                    .statusCode(200);
+            given().post("/test/queue/ensure/" + taskId)
+                    .then()
+                    .statusCode(200);
+            taskIds.add(taskId);
+        }
+        return taskIds;
+    }
+
+    private void enqueueEvent(String taskId) {
+        TaskStatusUpdateEvent event = TaskStatusUpdateEvent.builder()
+                .taskId(taskId)
+                .contextId("soak")
+                .status(new TaskStatus(TaskState.WORKING))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:8080/test/queue/enqueueTaskStatusUpdateEvent/" + taskId))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(JsonUtil.toJson(event)))
+                .build();
+        try {
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            // The next one will do
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the server to notice every client is gone, which for an SSE stream that was not written to since
+     * may take until its next heartbeat.
+     */
+    private void awaitSettled(List<String> taskIds, long seed) throws InterruptedException {
+        for (String taskId : taskIds) {
+            String released = given().post("/test/queue/awaitChildCountStable/" + taskId + "/0/" + SETTLE_MS)
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .asString();
+            assertEquals("true", released, "The child queues of " + taskId + " should be released (seed " + seed + ")");
+        }
+        for (String gauge : streamGauges()) {
+            long deadline = System.currentTimeMillis() + SETTLE_MS;
+            long value = gauge(gauge);
+            while (value != 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+                value = gauge(gauge);
+            }
+            assertEquals(0, value, gauge + " should be back to 0 (seed " + seed + ")");
+        }
+    }
+
+    private static long gauge(String name) {
+        return Long.parseLong(given().get("/test/metrics/gauge/" + name).asString());
+    }
+
+    private static String dumpHeap() {
+        return given().post("/test/heap/dump").then().statusCode(200).extract().asString();
+    }
+
+    /**
+     * The live instances of the A2A classes, summed over the class loaders, and the size of the live heap.
+     */
+    private record HeapHistogram(Map<String, Long> instances, long heapBytes) {
+
+        static HeapHistogram take() {
+            String histogram = given()
+                    .queryParam("prefix", "io.a2a.", "org.wildfly.extras.a2a.")
+                    .get("/test/heap/histogram")
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .asString();
+            Map<String, Long> instances = new HashMap<>();
+            long heapBytes = 0;
+            for (String line : histogram.split("\n")) {
+                String[] columns = line.split(" ");
+                if (columns.length != 3) {
+                    continue;
+                }
+                if (columns[0].equals("Total")) {
+                    heapBytes = Long.parseLong(columns[2]);
+                } else {
+                    instances.merge(columns[0], Long.parseLong(columns[1]), Long::sum);
+                }
+            }
+            return new HeapHistogram(instances, heapBytes);
+        }
+
+        /**
+         * Returns the classes with more live instances than in the baseline by more than the tolerance, with
+         * how many more.
+         */
+        Map<String, Long> growthOver(HeapHistogram baseline, long tolerance) {
+            Map<String, Long> grown = new TreeMap<>();
+            instances.forEach((name, count) -> {
+                long growth = count - baseline.instances().getOrDefault(name, 0L);
+                if (growth > tolerance) {
+                    grown.put(name, growth);
+                }
+            });
+            return grown;
+        }
+    }
+}
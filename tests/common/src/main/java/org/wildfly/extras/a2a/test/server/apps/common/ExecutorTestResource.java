@@ -0,0 +1,90 @@
+package org.wildfly.extras.a2a.test.server.apps.common;
+
+import static jakarta.ws.rs.core.MediaType.TEXT_PLAIN;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Response;
+
+import io.a2a.server.util.async.Internal;
+
+/**
+ * Fills the {@code @Internal} executor up, as agents that all take their time would, for the tests of what the
+ * server does while it is full. Added to the deployments of {@link AbstractLimitsTest}.
+ */
+@Path("/limits/executor")
+@ApplicationScoped
+public class ExecutorTestResource {
+
+    // Enough for any pool a test server has
+    private static final int MAX_TASKS = 1000;
+    // The executor turns down tasks this many times in a row, apart by the pause, once its threads are all busy
+    private static final int REJECTIONS = 3;
+    private static final long PAUSE_MS = 100;
+
+    @Inject
+    @Internal
+    Executor executor;
+
+    private volatile CountDownLatch blocked = new CountDownLatch(0);
+
+    /**
+     * Hands the executor tasks that wait until they are released, until it keeps turning them down, which a
+     * bounded executor does once its threads are all busy and its queue is full.
+     *
+     * @return the number of tasks the executor took, or {@code 409 Conflict} if it took {@value #MAX_TASKS}
+     *         without turning any down
+     */
+    @POST
+    @Path("/fill")
+    @Produces(TEXT_PLAIN)
+    public synchronized Response fill() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        blocked = latch;
+        int accepted = 0;
+        int rejections = 0;
+        while (rejections < REJECTIONS && accepted < MAX_TASKS) {
+            try {
+                executor.execute(() -> await(latch));
+                accepted++;
+                rejections = 0;
+            } catch (RejectedExecutionException e) {
+                // The threads may still be picking up the tasks that fill the queue
+                rejections++;
+                Thread.sleep(PAUSE_MS);
+            }
+        }
+        if (rejections < REJECTIONS) {
+            latch.countDown();
+            return Response.status(Response.Status.CONFLICT)
+                    .entity("The internal executor took " + accepted + " tasks without turning any down")
+                    .build();
+        }
+        return Response.ok(String.valueOf(accepted), TEXT_PLAIN).build();
+    }
+
+    /**
+     * Lets the tasks of the last {@link #fill} finish.
+     */
+    @POST
+    @Path("/release")
+    public Response release() {
+        blocked.countDown();
+        return Response.ok().build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
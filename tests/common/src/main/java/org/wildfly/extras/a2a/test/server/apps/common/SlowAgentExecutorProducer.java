@@ -0,0 +1,63 @@
+package org.wildfly.extras.a2a.test.server.apps.common;
+
+import java.util.Map;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.enterprise.inject.Produces;
+
+import io.a2a.server.agentexecution.AgentExecutor;
+import io.a2a.server.agentexecution.RequestContext;
+import io.a2a.server.tasks.AgentEmitter;
+import io.a2a.spec.A2AError;
+import io.a2a.spec.Message;
+import io.a2a.spec.TaskNotCancelableError;
+
+/**
+ * Produces an agent that takes its time, for the tests of how the server holds up while agents are busy. For
+ * each message it starts the task, waits the milliseconds of the {@value #DELAY} metadata of the message, if it
+ * has any, and completes the task.
+ *
+ * It is an alternative to the agent of the SDK tests, so it only replaces it in the deployments it is added to.
+ */
+@Alternative
+@Priority(1000)
+@ApplicationScoped
+public class SlowAgentExecutorProducer {
+
+    /**
+     * The metadata of a message holding how long the agent takes over it, in milliseconds.
+     */
+    public static final String DELAY = "delay";
+
+    @Produces
+    public AgentExecutor slowAgentExecutor() {
+        return new SlowAgentExecutor();
+    }
+
+    private static class SlowAgentExecutor implements AgentExecutor {
+
+        @Override
+        public void execute(RequestContext context, AgentEmitter emitter) throws A2AError {
+            Message message = context.getMessage();
+            Map<String, Object> metadata = message == null ? null : message.metadata();
+            emitter.startWork();
+            // Numbers in metadata are JSON numbers, which may come as any Number
+            if (metadata != null && metadata.get(DELAY) instanceof Number delay && delay.longValue() > 0) {
+                try {
+                    Thread.sleep(delay.longValue());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            emitter.complete();
+        }
+
+        @Override
+        public void cancel(RequestContext context, AgentEmitter emitter) throws A2AError {
+            throw new TaskNotCancelableError();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.wildfly.extras.a2a.test.server.apps.common;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An SSE response read line by line until it is dropped, by closing the connection, for the soak tests of the
+ * transports streaming over SSE.
+ */
+public final class SseStream implements AbstractStreamSoakTest.Stream, Flow.Subscriber<String> {
+    private final AbstractStreamSoakTest.Drop drop;
+    private final int events;
+    private final Runnable onDropped;
+    private final AtomicBoolean dropped = new AtomicBoolean();
+    private Flow.Subscription subscription;
+    private CompletableFuture<?> response;
+    private int received;
+
+    private SseStream(AbstractStreamSoakTest.Drop drop, int events, Runnable onDropped) {
+        this.drop = drop;
+        this.events = events;
+        this.onDropped = onDropped;
+    }
+
+    /**
+     * Sends the request opening the stream.
+     *
+     * @see AbstractStreamSoakTest#open
+     */
+    public static SseStream open(HttpClient httpClient, HttpRequest request, AbstractStreamSoakTest.Drop drop,
+            int events, Runnable onDropped) {
+        SseStream stream = new SseStream(drop, events, onDropped);
+        CompletableFuture<?> response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(stream));
+        stream.response(response);
+        response.whenComplete((r, t) -> stream.drop());
+        return stream;
+    }
+
+    private synchronized void response(CompletableFuture<?> response) {
+        this.response = response;
+        if (dropped.get()) {
+            response.cancel(true);
+        }
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (dropped.get()) {
+            subscription.cancel();
+        } else if (drop == AbstractStreamSoakTest.Drop.ON_RESPONSE) {
+            drop();
+        } else {
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    public void onNext(String item) {
+        if (drop == AbstractStreamSoakTest.Drop.AFTER_EVENTS && item.startsWith("id:") && ++received >= events) {
+            drop();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        drop();
+    }
+
+    @Override
+    public void onComplete() {
+        drop();
+    }
+
+    @Override
+    public void drop() {
+        if (!dropped.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            if (response != null) {
+                response.cancel(true);
+            }
+        }
+        onDropped.run();
+    }
+}
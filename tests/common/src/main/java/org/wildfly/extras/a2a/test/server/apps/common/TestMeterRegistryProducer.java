@@ -0,0 +1,27 @@
+package org.wildfly.extras.a2a.test.server.apps.common;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Records the metrics of the tests in memory, in place of the registry of the micrometer subsystem,
+ * so that {@link AbstractA2ATestResource} can read them back.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(1)
+public class TestMeterRegistryProducer {
+
+    // A singleton, as a MeterRegistry cannot be proxied
+    @Produces
+    @Singleton
+    MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
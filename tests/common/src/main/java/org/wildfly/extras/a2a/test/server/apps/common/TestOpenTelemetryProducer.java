@@ -0,0 +1,51 @@
+package org.wildfly.extras.a2a.test.server.apps.common;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.TracerProvider;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+
+/**
+ * Records the spans of the tests in memory, in place of the exporter of the opentelemetry subsystem,
+ * so that {@link AbstractA2ATestResource} can read them back.
+ */
+@ApplicationScoped
+@Alternative
+@Priority(1)
+public class TestOpenTelemetryProducer {
+
+    @Produces
+    @Singleton
+    InMemorySpanExporter spanExporter() {
+        return InMemorySpanExporter.create();
+    }
+
+    @Produces
+    @Singleton
+    OpenTelemetry openTelemetry(InMemorySpanExporter spanExporter) {
+        SdkTracerProvider tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+                .build();
+        ContextPropagators propagators = ContextPropagators.create(W3CTraceContextPropagator.getInstance());
+        return new OpenTelemetry() {
+            @Override
+            public TracerProvider getTracerProvider() {
+                return tracerProvider;
+            }
+
+            @Override
+            public ContextPropagators getPropagators() {
+                return propagators;
+            }
+        };
+    }
+}
@@ -25,10 +25,12 @@ import io.a2a.spec.TaskArtifactUpdateEvent;
 import io.a2a.spec.TaskPushNotificationConfig;
 import io.a2a.spec.TaskStatusUpdateEvent;
 import io.a2a.transport.grpc.handler.GrpcHandler;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractA2ATestResource;
 
 @Path("/test")
 @ApplicationScoped
-public class A2ATestResource {
+public class A2ATestResource extends AbstractA2ATestResource {
+
     @Inject
     TestUtilsBean testUtilsBean;
 
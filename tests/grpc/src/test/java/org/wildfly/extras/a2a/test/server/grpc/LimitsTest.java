@@ -0,0 +1,116 @@
+package org.wildfly.extras.a2a.test.server.grpc;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import io.a2a.grpc.A2AServiceGrpc;
+import io.a2a.grpc.GetTaskRequest;
+import io.a2a.grpc.StreamResponse;
+import io.a2a.grpc.SubscribeToTaskRequest;
+import io.a2a.grpc.Task;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit5.container.annotation.ArquillianTest;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractLimitsTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs into the limits of the server over gRPC, see {@link AbstractLimitsTest}. Unlike the HTTP transports, the
+ * tenant is a field of the request, so the streams of several tenants are opened.
+ */
+@ArquillianTest
+@RunAsClient
+public class LimitsTest extends AbstractLimitsTest {
+
+    private static final String TARGET = "localhost:9555";
+
+    @Deployment
+    public static WebArchive createDeployment() throws Exception {
+        return configure(WildFlyA2AGrpcTestCase.createDeployment());
+    }
+
+    @Test
+    public void testStreamsBeyondTheLimitAreTurnedDown() throws Exception {
+        String taskId = createTask();
+        ManagedChannel channel = ManagedChannelBuilder.forTarget(TARGET).usePlaintext().build();
+        try {
+            subscribe(channel, "", taskId);
+            assertEquals(1, awaitGauge("a2a.stream.admission.open", 1));
+            // The tenant has its one stream already
+            assertTurnedDown(channel, "", taskId);
+
+            subscribe(channel, "acme", taskId);
+            assertEquals(2, awaitGauge("a2a.stream.admission.open", 2));
+            // Whatever the tenant, two streams are open already
+            assertTurnedDown(channel, "other", taskId);
+            assertEquals(2, gauge("a2a.stream.admission.open"));
+        } finally {
+            // Cancels the open streams
+            channel.shutdownNow();
+            channel.awaitTermination(10, TimeUnit.SECONDS);
+            deleteTask(taskId);
+        }
+        assertEquals(0, awaitGauge("a2a.stream.admission.open", 0));
+    }
+
+    @Test
+    public void testTaskLookupCompletesWhileTheExecutorIsFull() throws Exception {
+        String taskId = createTask();
+        ManagedChannel channel = ManagedChannelBuilder.forTarget(TARGET).usePlaintext().build();
+        fillExecutor();
+        try {
+            // Task lookups run on the control lane, not behind the agents
+            Task task = A2AServiceGrpc.newBlockingStub(channel)
+                    .withDeadlineAfter(10, TimeUnit.SECONDS)
+                    .getTask(GetTaskRequest.newBuilder().setId(taskId).build());
+            assertEquals(taskId, task.getId());
+        } finally {
+            releaseExecutor();
+            channel.shutdownNow();
+            channel.awaitTermination(10, TimeUnit.SECONDS);
+            deleteTask(taskId);
+        }
+    }
+
+    /**
+     * Opens a stream of the events of the task, which stays open until the channel is shut down.
+     */
+    private static void subscribe(ManagedChannel channel, String tenant, String taskId) {
+        A2AServiceGrpc.newStub(channel).subscribeToTask(request(tenant, taskId), new StreamObserver<>() {
+            @Override
+            public void onNext(StreamResponse value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+    }
+
+    private static void assertTurnedDown(ManagedChannel channel, String tenant, String taskId) {
+        Iterator<StreamResponse> responses = A2AServiceGrpc.newBlockingStub(channel)
+                .subscribeToTask(request(tenant, taskId));
+        StatusRuntimeException e = assertThrows(StatusRuntimeException.class, responses::hasNext);
+        assertEquals(Status.Code.RESOURCE_EXHAUSTED, e.getStatus().getCode());
+    }
+
+    private static SubscribeToTaskRequest request(String tenant, String taskId) {
+        return SubscribeToTaskRequest.newBuilder()
+                .setTenant(tenant)
+                .setId(taskId)
+                .build();
+    }
+}
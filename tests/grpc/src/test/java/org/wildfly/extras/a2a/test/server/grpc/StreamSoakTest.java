@@ -0,0 +1,138 @@
+package org.wildfly.extras.a2a.test.server.grpc;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.a2a.grpc.A2AServiceGrpc;
+import io.a2a.grpc.StreamResponse;
+import io.a2a.grpc.SubscribeToTaskRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit5.container.annotation.ArquillianTest;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractStreamSoakTest;
+
+/**
+ * Soaks the streams of {@code SubscribeToTask}, see {@link AbstractStreamSoakTest}.
+ *
+ * The streams are spread over a few channels. Besides cancelling single calls, a channel is now and then shut
+ * down with all its streams, as when a client goes away. The server lets go of a stream as soon as its call is
+ * cancelled or its connection closed, there is no heartbeat to wait for.
+ */
+@ArquillianTest
+@RunAsClient
+@Tag("soak")
+public class StreamSoakTest extends AbstractStreamSoakTest {
+
+    private static final String TARGET = "localhost:9555";
+
+    private static final int CHANNELS = Integer.getInteger("test.soak.channels", 8);
+
+    private final AtomicReferenceArray<ManagedChannel> channels = new AtomicReferenceArray<>(CHANNELS);
+
+    @Deployment
+    public static WebArchive createDeployment() throws Exception {
+        return WildFlyA2AGrpcTestCase.createDeployment();
+    }
+
+    @BeforeEach
+    public void openChannels() {
+        for (int i = 0; i < CHANNELS; i++) {
+            channels.set(i, newChannel());
+        }
+    }
+
+    @AfterEach
+    public void closeChannels() {
+        for (int i = 0; i < CHANNELS; i++) {
+            channels.get(i).shutdownNow();
+        }
+    }
+
+    @Override
+    protected Drop[] drops() {
+        // A call is only known to be open once its first event arrives
+        return new Drop[] {Drop.IMMEDIATELY, Drop.AFTER_EVENTS, Drop.AFTER_DELAY};
+    }
+
+    @Override
+    protected Stream open(String taskId, Drop drop, int events, Random random, Runnable onDropped) {
+        int channel = random.nextInt(CHANNELS);
+        // Shutting down a channel drops many streams at once, so it is the rarest way to go
+        if (random.nextInt(100) == 0) {
+            scheduler.schedule(() -> {
+                // Replaced first, so no new stream is opened on the channel going away
+                ManagedChannel previous = channels.getAndSet(channel, newChannel());
+                previous.shutdownNow();
+            }, random.nextLong(MAX_LIFETIME_MS), TimeUnit.MILLISECONDS);
+        }
+        DroppingObserver observer = new DroppingObserver(drop, events, onDropped);
+        SubscribeToTaskRequest request = SubscribeToTaskRequest.newBuilder()
+                .setId(taskId)
+                .build();
+        A2AServiceGrpc.newStub(channels.get(channel)).subscribeToTask(request, observer);
+        return observer;
+    }
+
+    private static ManagedChannel newChannel() {
+        return ManagedChannelBuilder.forTarget(TARGET).usePlaintext().build();
+    }
+
+    /**
+     * Reads the events of a stream until it is dropped, by cancelling the call.
+     */
+    private static final class DroppingObserver implements Stream, ClientResponseObserver<SubscribeToTaskRequest, StreamResponse> {
+        private final Drop drop;
+        private final int events;
+        private final Runnable onDropped;
+        private final AtomicBoolean dropped = new AtomicBoolean();
+        private volatile ClientCallStreamObserver<SubscribeToTaskRequest> call;
+        private int received;
+
+        DroppingObserver(Drop drop, int events, Runnable onDropped) {
+            this.drop = drop;
+            this.events = events;
+            this.onDropped = onDropped;
+        }
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<SubscribeToTaskRequest> call) {
+            this.call = call;
+        }
+
+        @Override
+        public void onNext(StreamResponse value) {
+            if (drop == Drop.AFTER_EVENTS && ++received >= events) {
+                drop();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            drop();
+        }
+
+        @Override
+        public void onCompleted() {
+            drop();
+        }
+
+        @Override
+        public void drop() {
+            if (!dropped.compareAndSet(false, true)) {
+                return;
+            }
+            call.cancel("Dropped by the soak test", null);
+            onDropped.run();
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package org.wildfly.extras.a2a.test.server.grpc;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import jdk.jfr.Name;
+
 import com.google.api.AnnotationsProto;
 import com.google.common.collect.ImmutableSet;
 import com.google.gson.Gson;
@@ -16,6 +20,7 @@ import io.a2a.client.transport.grpc.GrpcTransportConfigBuilder;
 import io.a2a.client.transport.grpc.GrpcTransportProvider;
 import io.a2a.client.transport.spi.ClientTransport;
 import io.a2a.grpc.A2AServiceGrpc;
+import io.a2a.grpc.GetTaskRequest;
 import io.a2a.grpc.utils.JSONRPCUtils;
 import io.a2a.integrations.microprofile.MicroProfileConfigProvider;
 import io.a2a.jsonrpc.common.json.JsonUtil;
@@ -27,6 +32,10 @@ import io.a2a.transport.grpc.handler.GrpcHandler;
 import io.a2a.util.Assert;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import mutiny.zero.ZeroPublisher;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.container.test.api.RunAsClient;
@@ -36,7 +45,17 @@ import org.jboss.shrinkwrap.api.asset.StringAsset;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.wildfly.extras.a2a.server.apps.common.A2AEvents;
+import org.wildfly.extras.a2a.server.apps.common.StreamAdmission;
 import org.wildfly.extras.a2a.server.apps.grpc.WildFlyGrpcHandler;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractA2ATestResource;
+import org.wildfly.extras.a2a.test.server.apps.common.TestMeterRegistryProducer;
+import org.wildfly.extras.a2a.test.server.apps.common.TestOpenTelemetryProducer;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ArquillianTest
 @RunAsClient
@@ -72,6 +91,13 @@ public class WildFlyA2AGrpcTestCase extends AbstractA2AServerTest {
         final JavaArchive[] libraries = List.of(
                 // a2a-java-sdk-jakarta-grpc.jar - contains WildFlyGrpcTransportMetadata
                 getJarForClass(WildFlyGrpcHandler.class),
+                // a2a-java-sdk-jakarta-common.jar - code shared by the transports
+                getJarForClass(StreamAdmission.class),
+                // opentelemetry-sdk-trace.jar, opentelemetry-sdk-common.jar and opentelemetry-sdk-testing.jar, to record
+                // the spans in memory
+                getJarForClass(SdkTracerProvider.class),
+                getJarForClass(CompletableResultCode.class),
+                getJarForClass(InMemorySpanExporter.class),
                 // a2a-java-sdk-client.jar
                 getJarForClass(A2A.class),
                 // a2a-java-sdk-common.jar
@@ -121,6 +147,9 @@ public class WildFlyA2AGrpcTestCase extends AbstractA2AServerTest {
                 // Extra dependencies needed by the tests
                 .addPackage(AbstractA2AServerTest.class.getPackage())
                 .addPackage(A2ATestResource.class.getPackage())
+                // The endpoints and beans the A2ATestResource of each transport shares
+                .addClasses(AbstractA2ATestResource.class, TestMeterRegistryProducer.class,
+                        TestOpenTelemetryProducer.class)
                 .addClass(RestApplication.class)
                 .addAsWebInfResource("WEB-INF/web.xml")
                 .addAsWebInfResource("META-INF/beans.xml", "beans.xml")
@@ -130,6 +159,96 @@ public class WildFlyA2AGrpcTestCase extends AbstractA2AServerTest {
                 .setManifest(new StringAsset(manifest));
     }
 
+    @Test
+    public void testCallsAreMeasured() throws Exception {
+        long failedBefore = requestCount("GetTask", "error");
+        ManagedChannel metricsChannel = ManagedChannelBuilder.forTarget(getTransportUrl()).usePlaintext().build();
+        try {
+            A2AServiceGrpc.A2AServiceBlockingStub stub = A2AServiceGrpc.newBlockingStub(metricsChannel);
+            assertThrows(StatusRuntimeException.class, () -> stub.getTask(GetTaskRequest.getDefaultInstance()));
+        } finally {
+            metricsChannel.shutdownNow();
+        }
+
+        // Recorded under the JSON-RPC name of the method, as for the other transports
+        assertTrue(requestCount("GetTask", "error") > failedBefore, "The failed GetTask should be recorded");
+    }
+
+    @Test
+    public void testCallsEmitFlightRecorderEvents() throws Exception {
+        given().post("/test/jfr/start").then().statusCode(200);
+        try {
+            ManagedChannel jfrChannel = ManagedChannelBuilder.forTarget(getTransportUrl()).usePlaintext().build();
+            try {
+                A2AServiceGrpc.A2AServiceBlockingStub stub = A2AServiceGrpc.newBlockingStub(jfrChannel);
+                assertThrows(StatusRuntimeException.class, () -> stub.getTask(GetTaskRequest.getDefaultInstance()));
+            } finally {
+                jfrChannel.shutdownNow();
+            }
+
+            Set<String> expected = Set.of(
+                    eventName(A2AEvents.GrpcCall.class),
+                    eventName(A2AEvents.ClassLoaderSwitch.class),
+                    eventName(A2AEvents.HandlerDispatch.class));
+            Set<String> events = awaitRecordedEvents(expected);
+            assertTrue(events.containsAll(expected), "Expected " + expected + " but recorded " + events);
+        } finally {
+            given().post("/test/jfr/stop").then().statusCode(200);
+        }
+    }
+
+    @Test
+    public void testCallsAreTraced() throws Exception {
+        long failedBefore = failedSpanCount("GetTask");
+        ManagedChannel tracedChannel = ManagedChannelBuilder.forTarget(getTransportUrl()).usePlaintext().build();
+        try {
+            A2AServiceGrpc.A2AServiceBlockingStub stub = A2AServiceGrpc.newBlockingStub(tracedChannel);
+            assertThrows(StatusRuntimeException.class, () -> stub.getTask(GetTaskRequest.getDefaultInstance()));
+        } finally {
+            tracedChannel.shutdownNow();
+        }
+
+        // The span is named after the JSON-RPC method, as for the other transports. The trace of the client is
+        // only continued when the metadata of the call is made available to the handler, so it is not checked here
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (failedSpanCount("GetTask") <= failedBefore && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(failedSpanCount("GetTask") > failedBefore, "The failed GetTask should be traced");
+    }
+
+    private static long failedSpanCount(String method) {
+        return Arrays.stream(given().get("/test/tracing/spans/" + method).asString().split("\n"))
+                .filter(span -> span.contains(" ERROR "))
+                .count();
+    }
+
+    /**
+     * Waits for the flight recorder events to be recorded, as the recording stream reads them from the
+     * repository about once a second.
+     */
+    private static Set<String> awaitRecordedEvents(Set<String> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Set<String> events = recordedEvents();
+        while (!events.containsAll(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            events = recordedEvents();
+        }
+        return events;
+    }
+
+    private static Set<String> recordedEvents() {
+        return Set.copyOf(Arrays.asList(given().get("/test/jfr/events").asString().split(",")));
+    }
+
+    private static String eventName(Class<?> type) {
+        return type.getAnnotation(Name.class).value();
+    }
+
+    private static long requestCount(String method, String outcome) {
+        return Long.parseLong(given().get("/test/metrics/requests/" + method + "/" + outcome).asString());
+    }
+
     static JavaArchive getJarForClass(Class<?> clazz) throws Exception {
         File f = new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
         return ShrinkWrap.createFromZipFile(JavaArchive.class, f);
@@ -0,0 +1,145 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import io.a2a.A2A;
+import io.a2a.grpc.utils.JSONRPCUtils;
+import io.a2a.jsonrpc.common.json.JsonUtil;
+import io.a2a.jsonrpc.common.wrappers.A2AResponse;
+import io.a2a.jsonrpc.common.wrappers.CancelTaskResponse;
+import io.a2a.jsonrpc.common.wrappers.CreateTaskPushNotificationConfigResponse;
+import io.a2a.jsonrpc.common.wrappers.DeleteTaskPushNotificationConfigResponse;
+import io.a2a.jsonrpc.common.wrappers.GetExtendedAgentCardResponse;
+import io.a2a.jsonrpc.common.wrappers.GetTaskPushNotificationConfigResponse;
+import io.a2a.jsonrpc.common.wrappers.GetTaskResponse;
+import io.a2a.jsonrpc.common.wrappers.ListTaskPushNotificationConfigsResponse;
+import io.a2a.jsonrpc.common.wrappers.ListTasksResponse;
+import io.a2a.jsonrpc.common.wrappers.ListTasksResult;
+import io.a2a.jsonrpc.common.wrappers.SendMessageResponse;
+import io.a2a.jsonrpc.common.wrappers.SendStreamingMessageResponse;
+import io.a2a.spec.AgentCapabilities;
+import io.a2a.spec.AgentCard;
+import io.a2a.spec.AgentInterface;
+import io.a2a.spec.Artifact;
+import io.a2a.spec.ListTaskPushNotificationConfigsResult;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskArtifactUpdateEvent;
+import io.a2a.spec.TaskPushNotificationConfig;
+import io.a2a.spec.TaskState;
+import io.a2a.spec.TaskStatus;
+import io.a2a.spec.TaskStatusUpdateEvent;
+import io.a2a.spec.TextPart;
+import io.a2a.spec.TransportProtocol;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that {@link A2AResponseBodyWriter}, which writes the JSON-RPC envelope itself, produces the same JSON
+ * as {@link JSONRPCUtils#toJsonRPCResultResponse} did, for every response type it converts and for string,
+ * number and null ids.
+ */
+public class A2AResponseBodyWriterTest {
+
+    private static final Task TASK = Task.builder()
+            .id("task-1")
+            .contextId("context-1")
+            .status(new TaskStatus(TaskState.COMPLETED))
+            .artifacts(List.of(Artifact.builder()
+                    .artifactId("artifact-1")
+                    .parts(List.of(new TextPart("Caf\u00e9 \"quoted\" \u2603")))
+                    .build()))
+            .build();
+
+    private static final TaskPushNotificationConfig PUSH_CONFIG = JsonUtil.fromJson("""
+            {
+              "taskId": "task-1",
+              "pushNotificationConfig": {
+                "id": "config-1",
+                "url": "http://example.com/callback"
+              }
+            }""", TaskPushNotificationConfig.class);
+
+    private static final AgentCard AGENT_CARD = AgentCard.builder()
+            .name("Test Agent")
+            .description("Agent of the response writer test")
+            .version("1.0.0")
+            .capabilities(AgentCapabilities.builder()
+                    .streaming(true)
+                    .build())
+            .defaultInputModes(List.of("text"))
+            .defaultOutputModes(List.of("text"))
+            .skills(List.of())
+            .supportedInterfaces(List.of(
+                    new AgentInterface(TransportProtocol.JSONRPC.asString(), "http://localhost:8080")))
+            .build();
+
+    private static final List<Object> IDS = new ArrayList<>();
+
+    static {
+        IDS.add("request-1");
+        IDS.add(42);
+        IDS.add(42L);
+        IDS.add(null);
+    }
+
+    static Stream<Arguments> responses() {
+        List<Function<Object, A2AResponse<?>>> responses = List.of(
+                id -> new GetTaskResponse(id, TASK),
+                id -> new CancelTaskResponse(id, TASK),
+                id -> new SendMessageResponse(id, TASK),
+                id -> new SendMessageResponse(id, A2A.toUserMessage("Hello")),
+                id -> new ListTasksResponse(id, new ListTasksResult(List.of(TASK), 1, 1, "")),
+                id -> new CreateTaskPushNotificationConfigResponse(id, PUSH_CONFIG),
+                id -> new GetTaskPushNotificationConfigResponse(id, PUSH_CONFIG),
+                id -> new ListTaskPushNotificationConfigsResponse(id,
+                        new ListTaskPushNotificationConfigsResult(List.of(PUSH_CONFIG), "")),
+                id -> new DeleteTaskPushNotificationConfigResponse(id),
+                id -> new GetExtendedAgentCardResponse(id, AGENT_CARD),
+                id -> new SendStreamingMessageResponse(id, TASK),
+                id -> new SendStreamingMessageResponse(id, A2A.toUserMessage("Hello")),
+                id -> new SendStreamingMessageResponse(id, TaskStatusUpdateEvent.builder()
+                        .taskId("task-1")
+                        .contextId("context-1")
+                        .status(new TaskStatus(TaskState.WORKING))
+                        .build()),
+                id -> new SendStreamingMessageResponse(id, TaskArtifactUpdateEvent.builder()
+                        .taskId("task-1")
+                        .contextId("context-1")
+                        .artifact(Artifact.builder()
+                                .artifactId("artifact-1")
+                                .parts(List.of(new TextPart("chunk")))
+                                .build())
+                        .build()));
+        return responses.stream()
+                .flatMap(response -> IDS.stream().map(id -> response.apply(id)))
+                .map(response -> Arguments.of(response.getClass().getSimpleName(), response));
+    }
+
+    @ParameterizedTest(name = "{0} {index}")
+    @MethodSource("responses")
+    public void testWriterMatchesJsonRpcUtils(String type, A2AResponse<?> response) throws Exception {
+        JsonElement expected = JsonParser.parseString(JSONRPCUtils.toJsonRPCResultResponse(
+                response.getId(), A2AResponseBodyWriter.convertToProto(response)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        A2AResponseBodyWriter.write(response, out);
+        assertEquals(expected, JsonParser.parseString(out.toString(StandardCharsets.UTF_8)), type);
+
+        assertEquals(expected, JsonParser.parseString(A2AResponseBodyWriter.serialize(response)), type);
+
+        String frame = new String(A2AResponseBodyWriter.sseFrame(response.getId(),
+                A2AResponseBodyWriter.encodeResult(response), 7), StandardCharsets.UTF_8);
+        String data = frame.substring("data: ".length(), frame.indexOf("\nid: 7\n\n"));
+        assertEquals(expected, JsonParser.parseString(data), type);
+    }
+}
@@ -0,0 +1,75 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.ws.rs.core.SecurityContext;
+
+import io.a2a.common.A2AHeaders;
+import io.a2a.server.ServerCallContext;
+import io.a2a.transport.jsonrpc.context.JSONRPCContextKeys;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the headers of the request reach the call context built when the application has no
+ * {@link CallContextFactory}, with their values.
+ */
+public class CallContextHeadersTest {
+
+    @Test
+    public void testHeadersReachTheCallContext() {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        headers.put("Authorization", List.of("Bearer token"));
+        headers.put("X-Request-Id", List.of("request-1"));
+        headers.put(A2AHeaders.A2A_EXTENSIONS, List.of("https://example.com/ext/v1"));
+
+        A2AServerResource resource = new A2AServerResource();
+        resource.callContextFactory = unsatisfied();
+        HttpServletRequest request = proxy(HttpServletRequest.class, (method, args) -> switch (method) {
+            case "getHeaderNames" -> Collections.enumeration(headers.keySet());
+            case "getHeader" -> headers.getOrDefault((String) args[0], List.of()).stream().findFirst().orElse(null);
+            case "getHeaders" -> Collections.enumeration(headers.getOrDefault((String) args[0], List.of()));
+            case "getRequestURI" -> "/";
+            default -> null;
+        });
+        SecurityContext securityContext = proxy(SecurityContext.class, (method, args) -> null);
+
+        ServerCallContext context = resource.createCallContext(request, securityContext);
+
+        assertEquals(Map.of(
+                        "Authorization", "Bearer token",
+                        "X-Request-Id", "request-1",
+                        A2AHeaders.A2A_EXTENSIONS, "https://example.com/ext/v1"),
+                context.getState().get(JSONRPCContextKeys.HEADERS_KEY));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Instance<CallContextFactory> unsatisfied() {
+        return proxy(Instance.class, (method, args) -> method.equals("isUnsatisfied") ? true : null);
+    }
+
+    /**
+     * Implements the interface with the handler, returning {@code false} for the boolean calls it returns
+     * {@code null} for.
+     */
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object result = handler.invoke(method.getName(), args);
+            if (result == null && method.getReturnType() == boolean.class) {
+                return false;
+            }
+            return result;
+        }));
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+}
@@ -0,0 +1,71 @@
+package org.wildfly.extras.a2a.server.apps.jsonrpc;
+
+import java.util.List;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how {@link JsonRpcBatch} splits a batch into the JSON texts of its entries without parsing them.
+ */
+public class JsonRpcBatchTest {
+
+    @Test
+    public void testEntriesAreKeptAsTheyAre() {
+        String first = "{\"jsonrpc\":\"2.0\",\"method\":\"GetTask\",\"params\":{\"id\":\"a, ]}\"},\"id\":\"1\"}";
+        String second = "{\"id\" : 2, \"params\": {\"list\": [1, {\"x\": \"\\\"]\"}]}}";
+        List<JsonRpcBatch.Entry> entries = JsonRpcBatch.parse(" [ " + first + " ,\n" + second + " ] ").entries();
+
+        assertEquals(2, entries.size());
+        assertEquals(first, entries.get(0).json());
+        assertEquals(second, entries.get(1).json());
+        assertTrue(entries.get(0).object());
+        assertFalse(entries.get(0).notification());
+        assertFalse(entries.get(1).notification());
+    }
+
+    @Test
+    public void testNotificationsGetAnId() {
+        List<JsonRpcBatch.Entry> entries = JsonRpcBatch.parse(
+                "[{\"method\":\"GetTask\",\"params\":{\"id\":\"task-1\"}}, {}]").entries();
+
+        assertTrue(entries.get(0).notification());
+        JsonObject notification = JsonParser.parseString(entries.get(0).json()).getAsJsonObject();
+        assertEquals("batch-notification-0", notification.get("id").getAsString());
+        assertEquals("task-1", notification.getAsJsonObject("params").get("id").getAsString());
+
+        assertTrue(entries.get(1).notification());
+        assertEquals("{\"id\":\"batch-notification-1\"}", entries.get(1).json());
+    }
+
+    @Test
+    public void testEntriesThatAreNotObjects() {
+        List<JsonRpcBatch.Entry> entries = JsonRpcBatch.parse("[1, \"id\", [{\"id\": 1}], null]").entries();
+
+        assertEquals(4, entries.size());
+        for (JsonRpcBatch.Entry entry : entries) {
+            assertFalse(entry.object());
+            assertFalse(entry.notification());
+        }
+        assertEquals("[{\"id\": 1}]", entries.get(2).json());
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        assertTrue(JsonRpcBatch.parse("[ ]").entries().isEmpty());
+    }
+
+    @Test
+    public void testMalformedBatches() {
+        for (String body : List.of("[", "[{}", "[{]", "[{\"id\": \"1}]", "[1,]", "[,1]", "[1] x", "{}")) {
+            assertThrows(JsonSyntaxException.class, () -> JsonRpcBatch.parse(body), body);
+        }
+    }
+}
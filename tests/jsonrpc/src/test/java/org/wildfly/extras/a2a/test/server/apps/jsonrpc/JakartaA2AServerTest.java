@@ -2,7 +2,19 @@ package org.wildfly.extras.a2a.test.server.apps.jsonrpc;
 
 
 import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Flow;
+
+import jdk.jfr.Name;
 
 import com.google.api.AnnotationsProto;
 import com.google.common.collect.ImmutableSet;
@@ -24,9 +36,15 @@ import io.a2a.jsonrpc.common.wrappers.A2AErrorResponse;
 import io.a2a.server.PublicAgentCard;
 import io.a2a.server.apps.common.AbstractA2AServerTest;
 import io.a2a.spec.Event;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskState;
+import io.a2a.spec.TaskStatus;
 import io.a2a.spec.TransportProtocol;
 import io.a2a.transport.jsonrpc.handler.JSONRPCHandler;
 import io.a2a.util.Assert;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import io.restassured.response.Response;
 import mutiny.zero.ZeroPublisher;
 import org.jboss.arquillian.container.test.api.Deployment;
@@ -36,11 +54,18 @@ import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.junit.jupiter.api.Test;
+import org.wildfly.extras.a2a.server.apps.common.A2AEvents;
+import org.wildfly.extras.a2a.server.apps.common.A2AMetrics;
+import org.wildfly.extras.a2a.server.apps.common.AsyncSseWriter;
 import org.wildfly.extras.a2a.server.apps.jsonrpc.WildFlyJSONRPCTransportMetadata;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractA2ATestResource;
+import org.wildfly.extras.a2a.test.server.apps.common.TestMeterRegistryProducer;
+import org.wildfly.extras.a2a.test.server.apps.common.TestOpenTelemetryProducer;
 
 import static io.restassured.RestAssured.given;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 @ArquillianTest
@@ -96,6 +121,13 @@ public class JakartaA2AServerTest extends AbstractA2AServerTest {
                 getJarForClass(ImmutableSet.class),
                 // a2a-java-sdk-jakarta-jsonrpc.jar - contains WildFlyJSONRPCTransportMetadata
                 getJarForClass(WildFlyJSONRPCTransportMetadata.class),
+                // a2a-java-sdk-jakarta-common.jar - code shared by the transports
+                getJarForClass(AsyncSseWriter.class),
+                // opentelemetry-sdk-trace.jar, opentelemetry-sdk-common.jar and opentelemetry-sdk-testing.jar, to record
+                // the spans in memory
+                getJarForClass(SdkTracerProvider.class),
+                getJarForClass(CompletableResultCode.class),
+                getJarForClass(InMemorySpanExporter.class),
                 //a2a-java-sdk-microprofile-config.jar (needed to configure a2a-java settings via MP Config)
                 getJarForClass(MicroProfileConfigProvider.class),
                 // mutiny-zero.jar. This is provided by some WildFly layers, but not always, and not in
@@ -114,8 +146,12 @@ public class JakartaA2AServerTest extends AbstractA2AServerTest {
                 // Extra dependencies needed by the tests
                 .addPackage(AbstractA2AServerTest.class.getPackage())
                 .addPackage(A2ATestResource.class.getPackage())
+                // The endpoints and beans the A2ATestResource of each transport shares
+                .addClasses(AbstractA2ATestResource.class, TestMeterRegistryProducer.class,
+                        TestOpenTelemetryProducer.class)
                 // Add deployment descriptors
                 .addAsManifestResource("META-INF/beans.xml", "beans.xml")
+                .addAsResource("META-INF/microprofile-config.properties")
                 .addAsWebInfResource("WEB-INF/web.xml", "web.xml")
                 // Add test properties file for AgentCardProducer
                 .addAsResource("a2a-requesthandler-test.properties");
@@ -123,6 +159,64 @@ public class JakartaA2AServerTest extends AbstractA2AServerTest {
         return archive;
     }
 
+    /**
+     * Waits for the calls to be recorded, which happens once the response is written and may be just after
+     * the client got it.
+     */
+    private static long awaitRequestCount(String method, String outcome, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        long count = requestCount(method, outcome);
+        while (count < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            count = requestCount(method, outcome);
+        }
+        return count;
+    }
+
+    /**
+     * Waits for the span of the method in the trace to end, which happens once the response is written.
+     *
+     * @return the span as listed by {@code /test/tracing/spans}, {@code null} if it did not end in time
+     */
+    private static String awaitSpan(String method, String traceId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            for (String span : given().get("/test/tracing/spans/" + method).asString().split("\n")) {
+                if (span.startsWith(traceId + " ")) {
+                    return span;
+                }
+            }
+            Thread.sleep(50);
+        }
+        return null;
+    }
+
+    /**
+     * Waits for the flight recorder events to be recorded, as the recording stream reads them from the
+     * repository about once a second.
+     */
+    private static Set<String> awaitRecordedEvents(Set<String> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        Set<String> events = recordedEvents();
+        while (!events.containsAll(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+            events = recordedEvents();
+        }
+        return events;
+    }
+
+    private static Set<String> recordedEvents() {
+        return Set.copyOf(Arrays.asList(given().get("/test/jfr/events").asString().split(",")));
+    }
+
+    private static String eventName(Class<?> type) {
+        return type.getAnnotation(Name.class).value();
+    }
+
+    private static long requestCount(String method, String outcome) {
+        return Long.parseLong(given().get("/test/metrics/requests/" + method + "/" + outcome).asString());
+    }
+
     static JavaArchive getJarForClass(Class<?> clazz) throws Exception {
         File f = new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
         return ShrinkWrap.createFromZipFile(JavaArchive.class, f);
@@ -156,4 +250,290 @@ public class JakartaA2AServerTest extends AbstractA2AServerTest {
         assertNotNull(errorResponse.getError(), "Response should contain an error");
     }
 
+    @Test
+    public void testMethodNameInParamsDoesNotChangeRouting() {
+        // Only the top-level method decides whether the request is streamed, not method names appearing elsewhere
+        String getTaskRequest = """
+            {"jsonrpc": "2.0", "params": {"id": "SendStreamingMessage"}, "method": "GetTask", "id": "1"}
+            """;
+
+        Response response = given()
+                .contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(getTaskRequest)
+                .when()
+                .post("/")
+                .then()
+                .statusCode(200)
+                .extract()
+                .response();
+
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON, response.getContentType(),
+                "GetTask must be handled as a non-streaming request");
+        A2AErrorResponse errorResponse = response.as(A2AErrorResponse.class);
+        assertNotNull(errorResponse.getError(), "Response should contain an error");
+    }
+
+    @Test
+    public void testBatchRequest() {
+        // Responses come back in request order, the notification (no id) gets none
+        String batchRequest = """
+            [
+              {"jsonrpc": "2.0", "method": "GetTask", "params": {"id": "batch-missing-1"}, "id": "1"},
+              {"jsonrpc": "2.0", "method": "GetTask", "params": {"id": "batch-missing-2"}},
+              {"jsonrpc": "2.0", "method": "GetTask", "params": {"id": "batch-missing-3"}, "id": "3"}
+            ]
+            """;
+
+        Response response = given()
+                .contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(batchRequest)
+                .when()
+                .post("/")
+                .then()
+                .statusCode(200)
+                .extract()
+                .response();
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getContentType());
+        List<Object> ids = response.jsonPath().getList("id");
+        assertEquals(List.of("1", "3"), ids);
+        assertNotNull(response.jsonPath().get("[0].error"), "Unknown task should be reported as an error");
+    }
+
+    @Test
+    public void testOversizedBatchRequestIsRejected() {
+        // The default a2a.jakarta.jsonrpc.batch.max-size is 100
+        StringBuilder batchRequest = new StringBuilder("[");
+        for (int i = 0; i < 101; i++) {
+            if (i > 0) {
+                batchRequest.append(',');
+            }
+            batchRequest.append(String.format(
+                    "{\"jsonrpc\": \"2.0\", \"method\": \"GetTask\", \"params\": {\"id\": \"t%d\"}, \"id\": \"%d\"}", i, i));
+        }
+        batchRequest.append(']');
+
+        Response response = given()
+                .contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(batchRequest.toString())
+                .when()
+                .post("/")
+                .then()
+                .statusCode(200)
+                .extract()
+                .response();
+
+        assertEquals(MediaType.APPLICATION_PROBLEM_JSON, response.getContentType());
+        A2AErrorResponse errorResponse = response.as(A2AErrorResponse.class);
+        assertNotNull(errorResponse.getError(), "Response should contain an error");
+    }
+
+    @Test
+    public void testAgentCardConditionalGet() {
+        Response response = given()
+                .when()
+                .get("/.well-known/agent-card.json")
+                .then()
+                .statusCode(200)
+                .extract()
+                .response();
+        String etag = response.getHeader("ETag");
+        assertNotNull(etag, "The agent card should have an ETag");
+        assertNotNull(response.getHeader("Cache-Control"), "The agent card should have a Cache-Control header");
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/.well-known/agent-card.json")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    public void testCallsAreMeasured() throws Exception {
+        long failedBefore = requestCount("GetTask", "error");
+        long cardsBefore = requestCount(A2AMetrics.AGENT_CARD_METHOD, "success");
+        String getTaskRequest = """
+            {"jsonrpc": "2.0", "method": "GetTask", "params": {"id": "metrics-missing-task"}, "id": "1"}
+            """;
+        given()
+                .contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(getTaskRequest)
+                .when()
+                .post("/")
+                .then()
+                .statusCode(200);
+        given()
+                .when()
+                .get("/.well-known/agent-card.json")
+                .then()
+                .statusCode(200);
+
+        // The JSON-RPC error is sent with 200, it still counts as an error
+        assertTrue(awaitRequestCount("GetTask", "error", failedBefore + 1) > failedBefore,
+                "The failed GetTask should be recorded");
+        assertTrue(awaitRequestCount(A2AMetrics.AGENT_CARD_METHOD, "success", cardsBefore + 1) > cardsBefore,
+                "The agent card request should be recorded");
+    }
+
+    @Test
+    public void testCallsAreTraced() throws Exception {
+        String traceId = UUID.randomUUID().toString().replace("-", "");
+        String getTaskRequest = """
+            {"jsonrpc": "2.0", "method": "GetTask", "params": {"id": "traced-missing-task"}, "id": "1"}
+            """;
+        given()
+                .contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .header("traceparent", "00-" + traceId + "-00f067aa0ba902b7-01")
+                .body(getTaskRequest)
+                .when()
+                .post("/")
+                .then()
+                .statusCode(200);
+
+        // The span continues the trace of the client, and the JSON-RPC error marks it as failed
+        String span = awaitSpan("GetTask", traceId);
+        assertNotNull(span, "The GetTask call should be traced in the trace of the client");
+        assertTrue(span.contains(" ERROR "), "The failed GetTask should be recorded as an error: " + span);
+    }
+
+    @Test
+    public void testCallsEmitFlightRecorderEvents() throws Exception {
+        given().post("/test/jfr/start").then().statusCode(200);
+        try {
+            String getTaskRequest = """
+                {"jsonrpc": "2.0", "method": "GetTask", "params": {"id": "jfr-missing-task"}, "id": "1"}
+                """;
+            given()
+                    .contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                    .body(getTaskRequest)
+                    .when()
+                    .post("/")
+                    .then()
+                    .statusCode(200);
+
+            Set<String> expected = Set.of(
+                    eventName(A2AEvents.RequestParse.class),
+                    eventName(A2AEvents.HandlerDispatch.class),
+                    eventName(A2AEvents.ResponseWrite.class));
+            Set<String> events = awaitRecordedEvents(expected);
+            assertTrue(events.containsAll(expected), "Expected " + expected + " but recorded " + events);
+        } finally {
+            given().post("/test/jfr/stop").then().statusCode(200);
+        }
+    }
+
+    @Test
+    public void testFlightRecordingCanBeDumped() {
+        given().post("/admin/jfr").then().statusCode(201);
+        try {
+            byte[] recording = given()
+                    .when()
+                    .get("/admin/jfr")
+                    .then()
+                    .statusCode(200)
+                    .extract().asByteArray();
+            // Every recording file starts with the magic bytes "FLR\0"
+            assertTrue(recording.length > 4, "The recording should not be empty");
+            assertEquals("FLR", new String(recording, 0, 3, StandardCharsets.US_ASCII));
+        } finally {
+            given().delete("/admin/jfr").then().statusCode(204);
+        }
+        given().get("/admin/jfr").then().statusCode(404);
+    }
+
+    @Test
+    public void testManyConcurrentStreamsOnSmallWorkerPool() throws Exception {
+        // src/scripts/configure_worker_pool.cli caps the server worker pool at 16 threads, so the streams
+        // below can only be open at the same time if an open stream does not hold on to a thread
+        int streams = Integer.getInteger("test.concurrent.streams", 2000);
+        String taskId = "concurrent-streams-" + UUID.randomUUID();
+        Task task = Task.builder()
+                .id(taskId)
+                .contextId("concurrent-streams")
+                .status(new TaskStatus(TaskState.SUBMITTED))
+                .build();
+        given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(JsonUtil.toJson(task))
+                .post("/test/task")
+                .then()
+                .statusCode(200);
+        given().post("/test/queue/ensure/" + taskId)
+                .then()
+                .statusCode(200);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        List<OpenStreamSubscriber> subscribers = new ArrayList<>();
+        try {
+            for (int i = 0; i < streams; i++) {
+                String body = """
+                    {"jsonrpc": "2.0", "method": "SubscribeToTask", "params": {"id": "%s"}, "id": "%d"}
+                    """.formatted(taskId, i);
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:8080/"))
+                        .header("Content-Type", jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                        .header("Accept", jakarta.ws.rs.core.MediaType.SERVER_SENT_EVENTS)
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+                OpenStreamSubscriber subscriber = new OpenStreamSubscriber();
+                subscribers.add(subscriber);
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber));
+            }
+            String allOpen = given().post("/test/queue/awaitChildCountStable/" + taskId + "/" + streams + "/120000")
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .asString();
+            assertEquals("true", allOpen, "All streams should be open at the same time");
+        } finally {
+            subscribers.forEach(OpenStreamSubscriber::cancel);
+        }
+
+        // Dropping the connections must release every child queue
+        String allClosed = given().post("/test/queue/awaitChildCountStable/" + taskId + "/0/120000")
+                .then()
+                .statusCode(200)
+                .extract()
+                .asString();
+        assertEquals("true", allClosed, "All child queues should be released once the clients disconnect");
+        given().delete("/test/task/" + taskId);
+    }
+
+    /**
+     * Keeps an SSE response open without doing anything with the events, until cancelled.
+     */
+    private static class OpenStreamSubscriber implements Flow.Subscriber<String> {
+        private Flow.Subscription subscription;
+        private boolean cancelled;
+
+        @Override
+        public synchronized void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String item) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package org.wildfly.extras.a2a.test.server.apps.jsonrpc;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit5.container.annotation.ArquillianTest;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.wildfly.extras.a2a.server.apps.common.AsyncMessageSend;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractLimitsTest;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractStreamSoakTest;
+import org.wildfly.extras.a2a.test.server.apps.common.SseStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs into the limits of the server over JSON-RPC, see {@link AbstractLimitsTest}.
+ */
+@ArquillianTest
+@RunAsClient
+public class LimitsTest extends AbstractLimitsTest {
+
+    private final AtomicLong requestIds = new AtomicLong();
+
+    @Deployment
+    public static WebArchive createTestArchive() throws Exception {
+        return configure(JakartaA2AServerTest.createTestArchive());
+    }
+
+    @Test
+    public void testSendToAKnownTaskReturnsItsSnapshot() throws Exception {
+        String taskId = createTask();
+        try {
+            long start = System.nanoTime();
+            HttpResponse<String> response = send(taskId, 3_000);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // The snapshot of the task, taken after the timeout while the agent keeps running
+            assertEquals(200, response.statusCode());
+            assertTrue(elapsedMillis < 3_000, "The send took " + elapsedMillis + "ms");
+            assertTrue(response.body().contains(taskId), response.body());
+            assertFalse(response.body().contains("TASK_STATE_COMPLETED"), response.body());
+        } finally {
+            awaitGauge("a2a.limit.in.flight", 0);
+            deleteTask(taskId);
+        }
+    }
+
+    @Test
+    public void testSendOfANewTaskWaitsForTheAgent() throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(null, 2_500);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // There is no task to take the snapshot of until the agent starts it, so the timeout starts again
+        assertEquals(200, response.statusCode());
+        assertTrue(elapsedMillis >= 2_500, "The send took " + elapsedMillis + "ms");
+        assertTrue(response.body().contains("TASK_STATE_COMPLETED"), response.body());
+    }
+
+    @Test
+    public void testSendIsTurnedDownWhileTheExecutorIsFull() throws Exception {
+        fillExecutor();
+        try {
+            HttpResponse<String> response = send(null, 0);
+            assertEquals(503, response.statusCode());
+            assertEquals("1", response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null));
+            assertTrue(response.body().contains(AsyncMessageSend.BUSY_MESSAGE), response.body());
+        } finally {
+            releaseExecutor();
+        }
+        assertEquals(0, awaitGauge("a2a.limit.in.flight", 0));
+    }
+
+    @Test
+    public void testTaskLookupCompletesWhileTheExecutorIsFull() throws Exception {
+        String taskId = createTask();
+        fillExecutor();
+        try {
+            // Task lookups run on the control lane, not behind the agents
+            HttpRequest request = call("GetTask", """
+                    {"id": "%s"}""".formatted(taskId))
+                    .timeout(Duration.ofSeconds(10))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains(taskId), response.body());
+            assertFalse(response.body().contains("\"error\""), response.body());
+        } finally {
+            releaseExecutor();
+            deleteTask(taskId);
+        }
+    }
+
+    @Test
+    public void testStreamsBeyondTheLimitAreTurnedDown() throws Exception {
+        String taskId = createTask();
+        SseStream first = SseStream.open(httpClient, subscribe(taskId), AbstractStreamSoakTest.Drop.AFTER_DELAY, 0,
+                () -> { });
+        try {
+            assertEquals(1, awaitGauge("a2a.stream.admission.open", 1));
+
+            // The tenant has its one stream already
+            HttpResponse<String> second = httpClient.send(subscribe(taskId), HttpResponse.BodyHandlers.ofString());
+            assertEquals(503, second.statusCode());
+            assertEquals("1", second.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null));
+            assertTrue(second.body().contains(AsyncMessageSend.BUSY_MESSAGE), second.body());
+            assertEquals(1, gauge("a2a.stream.admission.open"));
+        } finally {
+            first.drop();
+            deleteTask(taskId);
+        }
+        assertEquals(0, awaitGauge("a2a.stream.admission.open", 0));
+    }
+
+    private HttpResponse<String> send(String taskId, long delayMillis) throws Exception {
+        HttpRequest request = call("SendMessage", sendMessageRequest(taskId, delayMillis)).build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest subscribe(String taskId) {
+        return call("SubscribeToTask", """
+                {"id": "%s"}""".formatted(taskId))
+                .header(HttpHeaders.ACCEPT, MediaType.SERVER_SENT_EVENTS)
+                .build();
+    }
+
+    private HttpRequest.Builder call(String method, String params) {
+        String body = """
+                {"jsonrpc": "2.0", "method": "%s", "params": %s, "id": "%d"}""".formatted(
+                method, params, requestIds.incrementAndGet());
+        return HttpRequest.newBuilder(URI.create("http://localhost:8080/"))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+}
@@ -0,0 +1,49 @@
+package org.wildfly.extras.a2a.test.server.apps.jsonrpc;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit5.container.annotation.ArquillianTest;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Tag;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractStreamSoakTest;
+import org.wildfly.extras.a2a.test.server.apps.common.SseStream;
+
+/**
+ * Soaks the SSE streams of {@code SubscribeToTask}, see {@link AbstractStreamSoakTest}.
+ */
+@ArquillianTest
+@RunAsClient
+@Tag("soak")
+public class StreamSoakTest extends AbstractStreamSoakTest {
+
+    private final AtomicLong requestIds = new AtomicLong();
+
+    @Deployment
+    public static WebArchive createTestArchive() throws Exception {
+        return JakartaA2AServerTest.createTestArchive();
+    }
+
+    @Override
+    protected Stream open(String taskId, Drop drop, int events, Random random, Runnable onDropped) {
+        String body = """
+            {"jsonrpc": "2.0", "method": "SubscribeToTask", "params": {"id": "%s"}, "id": "%d"}
+            """.formatted(taskId, requestIds.incrementAndGet());
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:8080/"))
+                .header("Content-Type", jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .header("Accept", jakarta.ws.rs.core.MediaType.SERVER_SENT_EVENTS)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return SseStream.open(httpClient, request, drop, events, onDropped);
+    }
+
+    @Override
+    protected List<String> streamGauges() {
+        return List.of("a2a.server.streams.open", "a2a.stream.admission.open", "a2a.sse.heartbeat.streams");
+    }
+}
@@ -0,0 +1,249 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import io.a2a.server.ServerCallContext;
+import io.a2a.server.auth.UnauthenticatedUser;
+import io.a2a.server.config.A2AConfigProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the status updates kept back for a slow client under the {@code latest} policy never go out after
+ * a later event, although they are written from the thread of the client once it catches up while the producer
+ * keeps writing, and that a stream ends only once.
+ */
+public class AbstractSseSubscriberTest {
+
+    private static final int EVENTS = 5_000;
+    private static final int ROUNDS = 20;
+
+    @Test
+    public void testLatestPolicyKeepsEventsInOrder() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            List<long[]> events = stream();
+            long lastId = -1;
+            long lastState = -1;
+            for (long[] event : events) {
+                assertTrue(event[0] > lastId, "Event id " + event[0] + " was sent after " + lastId);
+                assertTrue(event[1] > lastState, "State " + event[1] + " was sent after " + lastState);
+                lastId = event[0];
+                lastState = event[1];
+            }
+            assertEquals(EVENTS - 1, lastState, "The final event should be sent last");
+        }
+    }
+
+    @Test
+    public void testWriteFailureAfterCompletionLeavesTheStreamCompleted() throws Exception {
+        SlowOutput output = new SlowOutput();
+        output.ready = true;
+        AsyncSseWriter writer = AsyncSseWriter.start(
+                proxy(HttpServletRequest.class, (method, args) -> method.equals("startAsync")
+                        ? proxy(AsyncContext.class, (asyncMethod, asyncArgs) -> null)
+                        : null),
+                proxy(HttpServletResponse.class, (method, args) -> method.equals("getOutputStream") ? output : null));
+        ServerCallContext context = new ServerCallContext(UnauthenticatedUser.INSTANCE, new HashMap<>(), Set.of());
+        List<A2AMetrics.StreamEnd> ends = new ArrayList<>();
+        AbstractSseSubscriber<Integer> subscriber = new AbstractSseSubscriber<Integer>(writer, context) {
+            @Override
+            protected String formatEvent(Integer item, long id) {
+                return "id: " + id + "\ndata: " + item + "\n\n";
+            }
+        };
+        subscriber.withMetrics((end, events, bytes) -> ends.add(end));
+        AtomicInteger cancels = new AtomicInteger();
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+                cancels.incrementAndGet();
+            }
+        });
+
+        subscriber.onNext(0);
+        subscriber.onComplete();
+        // The client goes away while the last frames are flushed
+        subscriber.onFailure(new IOException("Broken pipe"));
+        subscriber.onClosed();
+
+        assertEquals(0, cancels.get(), "A completed stream should not be canceled");
+        assertEquals(Set.of(A2AMetrics.StreamEnd.COMPLETED), Set.copyOf(ends));
+    }
+
+    /**
+     * Streams the states {@code 0} to {@code EVENTS - 1}, the last one final, to a client that stops reading
+     * now and then.
+     *
+     * @return the id and state of each event the client got, in order
+     */
+    private static List<long[]> stream() throws Exception {
+        SseBackpressure backpressure = new SseBackpressure();
+        backpressure.configProvider = config(Map.of(
+                SseBackpressure.PREFETCH, "2",
+                SseBackpressure.BUFFER_SIZE, "4",
+                SseBackpressure.POLICY, "latest"));
+        backpressure.init();
+
+        SlowOutput output = new SlowOutput();
+        CountDownLatch completed = new CountDownLatch(1);
+        AsyncContext asyncContext = proxy(AsyncContext.class, (method, args) -> {
+            if (method.equals("complete")) {
+                completed.countDown();
+            }
+            return null;
+        });
+        HttpServletRequest request = proxy(HttpServletRequest.class,
+                (method, args) -> method.equals("startAsync") ? asyncContext : null);
+        HttpServletResponse response = proxy(HttpServletResponse.class,
+                (method, args) -> method.equals("getOutputStream") ? output : null);
+        AsyncSseWriter writer = AsyncSseWriter.start(request, response);
+
+        ServerCallContext context = new ServerCallContext(UnauthenticatedUser.INSTANCE, new HashMap<>(), Set.of());
+        AbstractSseSubscriber<Integer> subscriber = new AbstractSseSubscriber<Integer>(writer, context) {
+            @Override
+            protected String formatEvent(Integer item, long id) {
+                return "id: " + id + "\ndata: " + item + "\n\n";
+            }
+
+            @Override
+            protected boolean isIntermediateStatus(Integer item) {
+                return item < EVENTS - 1;
+            }
+        };
+        subscriber.withBackpressure(backpressure);
+
+        Semaphore demand = new Semaphore(0);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                demand.release((int) n);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+
+        // The client reads in bursts, catching up on the container's thread as it would in the server
+        Thread client = new Thread(() -> {
+            while (completed.getCount() > 0) {
+                output.ready = true;
+                writer.onWritePossible();
+                output.ready = ThreadLocalRandom.current().nextInt(4) == 0;
+                Thread.onSpinWait();
+            }
+        });
+        client.start();
+        try {
+            for (int state = 0; state < EVENTS; state++) {
+                assertTrue(demand.tryAcquire(10, TimeUnit.SECONDS), "The subscriber should request more events");
+                subscriber.onNext(state);
+            }
+            subscriber.onComplete();
+            assertTrue(completed.await(10, TimeUnit.SECONDS), "The stream should complete");
+        } finally {
+            completed.countDown();
+            client.join();
+        }
+
+        List<long[]> events = new ArrayList<>();
+        for (String frame : output.toString().split("\n\n")) {
+            String[] lines = frame.split("\n");
+            events.add(new long[] {
+                    Long.parseLong(lines[0].substring("id: ".length())),
+                    Long.parseLong(lines[1].substring("data: ".length()))});
+        }
+        return events;
+    }
+
+    private static A2AConfigProvider config(Map<String, String> values) {
+        return new A2AConfigProvider() {
+            @Override
+            public String getValue(String name) {
+                return values.get(name);
+            }
+
+            @Override
+            public Optional<String> getOptionalValue(String name) {
+                return Optional.ofNullable(values.get(name));
+            }
+        };
+    }
+
+    /**
+     * Implements the interface with the handler, returning the default value for the calls it returns
+     * {@code null} for.
+     */
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Object result = handler.invoke(method.getName(), args);
+            if (result == null && method.getReturnType() == boolean.class) {
+                return false;
+            }
+            return result;
+        }));
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    /**
+     * The output of a client that is only ready to read while {@link #ready} is set.
+     */
+    private static final class SlowOutput extends ServletOutputStream {
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        volatile boolean ready;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            received.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            received.write(b, off, len);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return received.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.Map;
+import java.util.Optional;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Checks how {@link AgentCardCache} keys, expires and drops the extended cards. Nothing in the server calls the
+ * {@code invalidate} methods, they are for applications changing their cards at runtime.
+ */
+public class AgentCardCacheTest {
+
+    private static final String JSON = "application/json";
+
+    @Test
+    public void testExtendedCardIsKeyedByTenantAndPrincipal() {
+        AgentCardCache cache = cache(60, 10);
+        CachedRepresentation alice = CachedRepresentation.of("{\"name\":\"alice\"}", JSON);
+        CachedRepresentation aliceOfAcme = CachedRepresentation.of("{\"name\":\"alice of acme\"}", JSON);
+        CachedRepresentation anonymous = CachedRepresentation.of("{\"name\":\"anonymous\"}", JSON);
+
+        cache.putExtendedCard(null, "alice", alice);
+        cache.putExtendedCard("acme", "alice", aliceOfAcme);
+        cache.putExtendedCard("acme", null, anonymous);
+
+        assertSame(alice, cache.getExtendedCard(null, "alice"));
+        assertSame(alice, cache.getExtendedCard("", "alice"));
+        assertSame(aliceOfAcme, cache.getExtendedCard("acme", "alice"));
+        assertSame(anonymous, cache.getExtendedCard("acme", null));
+        assertNull(cache.getExtendedCard("other", "alice"));
+        assertNull(cache.getExtendedCard(null, null));
+    }
+
+    @Test
+    public void testInvalidateExtendedCards() {
+        AgentCardCache cache = cache(60, 10);
+        CachedRepresentation card = CachedRepresentation.of("{}", JSON);
+        cache.putExtendedCard("acme", "alice", card);
+        cache.putExtendedCard("acme", "bob", card);
+        cache.putExtendedCard("other", "alice", card);
+
+        cache.invalidateExtendedCard("acme", "alice");
+        assertNull(cache.getExtendedCard("acme", "alice"));
+        assertSame(card, cache.getExtendedCard("acme", "bob"));
+        assertSame(card, cache.getExtendedCard("other", "alice"));
+
+        cache.invalidateExtendedCards();
+        assertNull(cache.getExtendedCard("acme", "bob"));
+        assertNull(cache.getExtendedCard("other", "alice"));
+    }
+
+    @Test
+    public void testInvalidatePublicCard() {
+        AgentCardCache cache = cache(60, 10);
+        CachedRepresentation first = CachedRepresentation.of("{\"version\":\"1\"}", JSON);
+        CachedRepresentation second = CachedRepresentation.of("{\"version\":\"2\"}", JSON);
+
+        assertSame(first, cache.getPublicCard(() -> first));
+        assertSame(first, cache.getPublicCard(() -> second));
+
+        cache.invalidatePublicCard();
+        assertSame(second, cache.getPublicCard(() -> second));
+    }
+
+    @Test
+    public void testExtendedCardExpiresWithItsMaxAge() {
+        AgentCardCache cache = cache(0, 10);
+        cache.putExtendedCard("acme", "alice", CachedRepresentation.of("{}", JSON));
+
+        assertNull(cache.getExtendedCard("acme", "alice"));
+    }
+
+    @Test
+    public void testFullCacheIsCleared() {
+        AgentCardCache cache = cache(60, 2);
+        CachedRepresentation card = CachedRepresentation.of("{}", JSON);
+        cache.putExtendedCard(null, "alice", card);
+        cache.putExtendedCard(null, "bob", card);
+        cache.putExtendedCard(null, "carol", card);
+
+        assertNull(cache.getExtendedCard(null, "alice"));
+        assertSame(card, cache.getExtendedCard(null, "carol"));
+    }
+
+    private static AgentCardCache cache(int extendedMaxAge, int extendedCacheSize) {
+        Map<String, String> values = Map.of(
+                AgentCardCache.MAX_AGE, "300",
+                AgentCardCache.EXTENDED_MAX_AGE, String.valueOf(extendedMaxAge),
+                AgentCardCache.EXTENDED_CACHE_SIZE, String.valueOf(extendedCacheSize));
+        AgentCardCache cache = new AgentCardCache();
+        cache.configProvider = new A2AConfigProvider() {
+            @Override
+            public String getValue(String name) {
+                return values.get(name);
+            }
+
+            @Override
+            public Optional<String> getOptionalValue(String name) {
+                return Optional.ofNullable(values.get(name));
+            }
+        };
+        cache.init();
+        return cache;
+    }
+}
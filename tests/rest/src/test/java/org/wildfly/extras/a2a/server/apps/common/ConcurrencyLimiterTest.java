@@ -0,0 +1,190 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the limits of {@link ConcurrencyLimiter} with calls of made up latencies, measured with a clock the
+ * test moves, and checks how the limit follows them.
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final ConcurrencyLimiter.Operation SEND = ConcurrencyLimiter.Operation.SEND;
+
+    private long now;
+
+    @Test
+    public void testCallsBeyondTheLimitAreTurnedDown() {
+        ConcurrencyLimiter limiter = limiter(2, 200);
+
+        ConcurrencyLimiter.Permit first = limiter.tryAcquire(SEND);
+        assertNotNull(first);
+        assertNotNull(limiter.tryAcquire(SEND));
+        assertNull(limiter.tryAcquire(SEND));
+        assertEquals(2, limiter.getInFlight(SEND));
+        assertEquals(1, limiter.getRejected(SEND));
+
+        // The other operations have limits of their own
+        assertNotNull(limiter.tryAcquire(ConcurrencyLimiter.Operation.READ));
+
+        first.release();
+        assertEquals(1, limiter.getInFlight(SEND));
+        assertNotNull(limiter.tryAcquire(SEND));
+    }
+
+    @Test
+    public void testDisabledLimiterTurnsNothingDown() {
+        ConcurrencyLimiter limiter = limiter(false, 1, 200);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(limiter.tryAcquire(SEND));
+        }
+        assertEquals(0, limiter.getRejected(SEND));
+    }
+
+    @Test
+    public void testLimitGrowsBySquareRoot() {
+        ConcurrencyLimiter limiter = limiter(100, 200);
+        List<ConcurrencyLimiter.Permit> permits = acquire(limiter, 100);
+
+        // The first sample sets the long term latency, so the gradient is 1 and the new limit is
+        // 100 + sqrt(100), of which the limit takes a fifth
+        now += TimeUnit.MILLISECONDS.toNanos(100);
+        permits.get(99).release();
+
+        assertEquals(102, limiter.getLimit(SEND));
+    }
+
+    @Test
+    public void testLimitGrowsWhileLatencyHolds() {
+        ConcurrencyLimiter limiter = limiter(20, 200);
+
+        int previous = limiter.getLimit(SEND);
+        for (int i = 0; i < 50; i++) {
+            round(limiter, 100);
+            int limit = limiter.getLimit(SEND);
+            assertTrue(limit >= previous, "The limit went down from " + previous + " to " + limit);
+            previous = limit;
+        }
+        assertEquals(200, previous);
+    }
+
+    @Test
+    public void testLimitShrinksWhenLatencyGrows() {
+        ConcurrencyLimiter limiter = limiter(50, 200);
+        for (int i = 0; i < 30; i++) {
+            round(limiter, 100);
+        }
+        int steady = limiter.getLimit(SEND);
+
+        round(limiter, 1_000);
+        int slower = limiter.getLimit(SEND);
+        assertTrue(slower < steady, "The limit should shrink from " + steady + " but is " + slower);
+
+        // While the calls keep getting slower the limit goes down to where halving it is balanced by the
+        // sqrt(limit) it grows by, which is 4
+        long latency = 1_000;
+        for (int i = 0; i < 20; i++) {
+            latency *= 2;
+            round(limiter, latency);
+        }
+        assertEquals(4, limiter.getLimit(SEND));
+    }
+
+    @Test
+    public void testCallsFarBelowTheLimitDoNotMoveIt() {
+        ConcurrencyLimiter limiter = limiter(20, 200);
+
+        for (int i = 0; i < 100; i++) {
+            // One call at a time, however slow or fast it is, says nothing about the limit
+            ConcurrencyLimiter.Permit permit = limiter.tryAcquire(SEND);
+            now += TimeUnit.MILLISECONDS.toNanos(i % 2 == 0 ? 10 : 60_000);
+            permit.release();
+        }
+
+        assertEquals(20, limiter.getLimit(SEND));
+    }
+
+    @Test
+    public void testLimitAdaptsToANewPace() {
+        ConcurrencyLimiter limiter = limiter(20, 200);
+        for (int i = 0; i < 50; i++) {
+            round(limiter, 100);
+        }
+        int fast = limiter.getLimit(SEND);
+
+        // The backend moves to a minute per call: the limit drops at first
+        int lowest = fast;
+        for (int i = 0; i < 5; i++) {
+            round(limiter, 60_000);
+            lowest = Math.min(lowest, limiter.getLimit(SEND));
+        }
+        assertTrue(lowest < fast / 2, "The limit should drop from " + fast + " but went no lower than " + lowest);
+
+        // Then the long term latency catches up with the new pace and the limit grows again
+        for (int i = 0; i < 100; i++) {
+            round(limiter, 60_000);
+        }
+        assertEquals(200, limiter.getLimit(SEND));
+    }
+
+    /**
+     * Runs as many calls at once as the limit lets through, all taking the given time.
+     */
+    private void round(ConcurrencyLimiter limiter, long latencyMillis) {
+        List<ConcurrencyLimiter.Permit> permits = acquire(limiter, limiter.getLimit(SEND));
+        now += TimeUnit.MILLISECONDS.toNanos(latencyMillis);
+        permits.forEach(ConcurrencyLimiter.Permit::release);
+    }
+
+    private static List<ConcurrencyLimiter.Permit> acquire(ConcurrencyLimiter limiter, int count) {
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.tryAcquire(SEND));
+        }
+        return permits;
+    }
+
+    private ConcurrencyLimiter limiter(int initial, int max) {
+        return limiter(true, initial, max);
+    }
+
+    private ConcurrencyLimiter limiter(boolean enabled, int initial, int max) {
+        Map<String, String> values = Map.of(
+                ConcurrencyLimiter.ENABLED, String.valueOf(enabled),
+                ConcurrencyLimiter.MIN, "1",
+                ConcurrencyLimiter.TOLERANCE, "1.5",
+                String.format(ConcurrencyLimiter.INITIAL, "send"), String.valueOf(initial),
+                String.format(ConcurrencyLimiter.MAX, "send"), String.valueOf(max),
+                String.format(ConcurrencyLimiter.INITIAL, "read"), "10",
+                String.format(ConcurrencyLimiter.MAX, "read"), "100",
+                String.format(ConcurrencyLimiter.INITIAL, "cancel"), "10",
+                String.format(ConcurrencyLimiter.MAX, "cancel"), "100");
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter();
+        limiter.configProvider = new A2AConfigProvider() {
+            @Override
+            public String getValue(String name) {
+                return values.get(name);
+            }
+
+            @Override
+            public Optional<String> getOptionalValue(String name) {
+                return Optional.ofNullable(values.get(name));
+            }
+        };
+        limiter.clock = () -> now;
+        limiter.init();
+        return limiter;
+    }
+}
@@ -0,0 +1,138 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.NameNotFoundException;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks what {@link ExecutionLanes} runs the control calls on, for each thing that may be bound to the
+ * configured JNDI name.
+ */
+public class ExecutionLanesTest {
+
+    private static final String JNDI_NAME = "java:comp/TestControlLane";
+
+    private final Executor agentExecutor = Runnable::run;
+    private final List<String> lookedUp = new ArrayList<>();
+
+    @Test
+    public void testThreadFactoryCreatesTheControlThreads() throws Exception {
+        ThreadFactory threadFactory = runnable -> new Thread(runnable, "test-control");
+        ExecutionLanes lanes = lanes(2, 10, name -> threadFactory);
+        try {
+            assertEquals(List.of(JNDI_NAME), lookedUp);
+            Executor control = lanes.executor(ExecutionLanes.Lane.CONTROL, agentExecutor);
+            assertInstanceOf(ThreadPoolExecutor.class, control);
+            assertEquals("test-control", threadName(control));
+            assertSame(agentExecutor, lanes.executor(ExecutionLanes.Lane.AGENT, agentExecutor));
+        } finally {
+            lanes.shutdown();
+        }
+    }
+
+    @Test
+    public void testManagedExecutorRunsTheControlCalls() throws Exception {
+        ExecutorService managed = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-managed"));
+        ExecutionLanes lanes = lanes(2, 1, name -> managed);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Executor control = lanes.executor(ExecutionLanes.Lane.CONTROL, agentExecutor);
+            assertInstanceOf(ManagedInternalExecutor.class, control);
+            assertEquals("test-managed", threadName(control));
+
+            // The one thread is busy, so one call may wait for it and the next is turned down
+            CountDownLatch started = new CountDownLatch(1);
+            control.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            control.execute(() -> { });
+            assertEquals(1, lanes.getControlActiveCount());
+            assertEquals(1, lanes.getControlQueueDepth());
+            assertThrows(RejectedExecutionException.class, () -> control.execute(() -> { }));
+        } finally {
+            release.countDown();
+            lanes.shutdown();
+            // Shutting the lane down leaves the threads of the container alone
+            assertFalse(managed.isShutdown());
+            managed.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testControlCallsRunOnTheRequestThreadWithoutALane() {
+        assertNull(lanes(2, 10, name -> {
+            throw new NameNotFoundException(name);
+        }).executor(ExecutionLanes.Lane.CONTROL, agentExecutor));
+        assertNull(lanes(2, 10, name -> "not an executor").executor(ExecutionLanes.Lane.CONTROL, agentExecutor));
+
+        lookedUp.clear();
+        assertNull(lanes(0, 10, name -> Executors.newSingleThreadExecutor())
+                .executor(ExecutionLanes.Lane.CONTROL, agentExecutor));
+        // Without control threads nothing is looked up
+        assertEquals(List.of(), lookedUp);
+    }
+
+    private static String threadName(Executor executor) throws Exception {
+        CompletableFuture<String> name = new CompletableFuture<>();
+        executor.execute(() -> name.complete(Thread.currentThread().getName()));
+        return name.get(10, TimeUnit.SECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ExecutionLanes lanes(int threads, int queueSize, JndiLookup jndi) {
+        Map<String, String> values = Map.of(
+                ExecutionLanes.CONTROL_THREADS, String.valueOf(threads),
+                ExecutionLanes.CONTROL_QUEUE_SIZE, String.valueOf(queueSize),
+                ExecutionLanes.CONTROL_JNDI_NAME, JNDI_NAME);
+        ExecutionLanes lanes = new ExecutionLanes();
+        lanes.configProvider = new A2AConfigProvider() {
+            @Override
+            public String getValue(String name) {
+                return values.get(name);
+            }
+
+            @Override
+            public Optional<String> getOptionalValue(String name) {
+                return Optional.ofNullable(values.get(name));
+            }
+        };
+        lanes.jndi = name -> {
+            lookedUp.add(name);
+            return jndi.lookup(name);
+        };
+        lanes.init();
+        return lanes;
+    }
+}
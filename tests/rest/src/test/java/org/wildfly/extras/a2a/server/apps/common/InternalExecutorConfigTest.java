@@ -0,0 +1,132 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.NameNotFoundException;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the {@code managed} threads of {@link InternalExecutorConfig}, with a single thread executor bound in
+ * place of the managed executor of the container.
+ */
+public class InternalExecutorConfigTest {
+
+    private static final String JNDI_NAME = "java:comp/TestManagedExecutor";
+
+    @Test
+    public void testManagedExecutorRunsTheTasks() throws Exception {
+        ExecutorService managed = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "test-managed"));
+        try {
+            InternalExecutorConfig config = config("managed", 2, name -> managed);
+            assertTrue(config.isManaged());
+            assertFalse(config.isVirtual());
+
+            ExecutorService executor = config.newManagedExecutor();
+            assertInstanceOf(ManagedInternalExecutor.class, executor);
+            assertEquals("test-managed", executor.submit(() -> Thread.currentThread().getName())
+                    .get(10, TimeUnit.SECONDS));
+
+            // The threads belong to the container, only the executor handed out stops taking tasks
+            assertTrue(config.disposeExecutor(executor));
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+            assertFalse(managed.isShutdown());
+        } finally {
+            managed.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testTasksBeyondTheQueueSizeAreTurnedDown() throws Exception {
+        ExecutorService managed = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            InternalExecutorConfig config = config("managed", 2, name -> managed);
+            ExecutorService executor = config.newManagedExecutor();
+
+            CountDownLatch started = new CountDownLatch(1);
+            executor.execute(() -> {
+                started.countDown();
+                await(release);
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            // The one thread is busy, so two tasks may wait for it and the next is turned down
+            executor.execute(() -> { });
+            executor.execute(() -> { });
+            RejectedExecutionException e = assertThrows(RejectedExecutionException.class,
+                    () -> executor.execute(() -> { }));
+            assertTrue(InternalExecutorConfig.isRejected(new CompletionException(e)));
+            assertEquals(1, config.getActiveCount());
+            assertEquals(2, config.getQueueDepth());
+            assertEquals(1, config.getRejectedCount());
+
+            release.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (config.getQueueDepth() + config.getActiveCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, config.getQueueDepth());
+            // The queue has room again
+            executor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+            assertEquals(1, config.getRejectedCount());
+        } finally {
+            release.countDown();
+            managed.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecutorOfTheSdkIsUsedWithoutAManagedExecutor() {
+        assertNull(config("managed", 2, name -> {
+            throw new NameNotFoundException(name);
+        }).newManagedExecutor());
+        assertNull(config("managed", 2, name -> "not an executor").newManagedExecutor());
+        assertFalse(config("platform", 2, name -> Executors.newSingleThreadExecutor()).isManaged());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static InternalExecutorConfig config(String threads, int queueSize, JndiLookup jndi) {
+        Map<String, String> values = Map.of(
+                InternalExecutorConfig.THREADS, threads,
+                InternalExecutorConfig.PINNING_THRESHOLD, "20",
+                InternalExecutorConfig.MANAGED_EXECUTOR, JNDI_NAME,
+                InternalExecutorConfig.QUEUE_SIZE, String.valueOf(queueSize));
+        InternalExecutorConfig config = new InternalExecutorConfig();
+        config.configProvider = new A2AConfigProvider() {
+            @Override
+            public String getValue(String name) {
+                return values.get(name);
+            }
+
+            @Override
+            public Optional<String> getOptionalValue(String name) {
+                return Optional.ofNullable(values.get(name));
+            }
+        };
+        config.jndi = jndi;
+        config.init();
+        return config;
+    }
+}
@@ -0,0 +1,128 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link TaskEventJournal} keeps the journals its subscribers have open however long the task is
+ * quiet, and that the ids of a task keep counting up across a journal that was dropped for being idle.
+ */
+public class TaskEventJournalTest {
+
+    private static final long IDLE_TIMEOUT_MS = 20;
+
+    @Test
+    public void testOpenJournalIsNotDropped() throws InterruptedException {
+        TaskEventJournal journals = journals();
+        TaskEventJournal.TaskJournal journal = journals.journal("rest", "task-1").open();
+        record(journal, "a", "b", "c");
+
+        idle();
+        TaskEventJournal.TaskJournal again = journals.journal("rest", "task-1");
+
+        assertSame(journal, again);
+        assertEquals(4, journal.record("d", "d", 3).id());
+        assertEquals(List.of(4L), ids(again.since(3)));
+        journal.close();
+    }
+
+    @Test
+    public void testResumeAfterTheJournalWasDropped() throws InterruptedException {
+        TaskEventJournal journals = journals();
+        TaskEventJournal.TaskJournal journal = journals.journal("rest", "task-1").open();
+        record(journal, "a", "b", "c");
+        journal.close();
+
+        idle();
+        TaskEventJournal.TaskJournal recreated = journals.journal("rest", "task-1").open();
+
+        assertNotSame(journal, recreated);
+        assertEquals(3, recreated.lastId());
+        assertEquals(4, recreated.record("d", "d", 3).id());
+        // A client that got up to 2 before the journal was dropped only missed what is gone, it is not sent again
+        assertEquals(List.of(4L), ids(recreated.since(2)));
+        recreated.close();
+    }
+
+    @Test
+    public void testJournalDroppedBeforeItIsOpened() throws InterruptedException {
+        TaskEventJournal journals = journals();
+        TaskEventJournal.TaskJournal journal = journals.journal("rest", "task-1").open();
+        record(journal, "a", "b");
+        journal.close();
+
+        idle();
+        // Looking up another task sweeps the journal away before the subscriber opens it
+        journals.journal("rest", "task-2");
+        TaskEventJournal.TaskJournal opened = journal.open();
+
+        assertNotSame(journal, opened);
+        assertSame(opened, journals.journal("rest", "task-1"));
+        assertEquals(3, opened.record("c", "c", 2).id());
+        opened.close();
+    }
+
+    @Test
+    public void testIdsCountUpOnceTheMarkIsForgotten() throws InterruptedException {
+        TaskEventJournal journals = journals();
+        TaskEventJournal.TaskJournal journal = journals.journal("rest", "task-1").open();
+        record(journal, "a", "b", "c");
+        journal.close();
+
+        // Once to drop the journal, once more to fold its mark into the floor
+        idle();
+        journals.journal("rest", "task-2");
+        idle();
+        journals.journal("rest", "task-2");
+
+        TaskEventJournal.TaskJournal recreated = journals.journal("rest", "task-1").open();
+        assertTrue(recreated.lastId() >= 3, "The ids of the task went back to " + recreated.lastId());
+        recreated.close();
+    }
+
+    private static void record(TaskEventJournal.TaskJournal journal, String... keys) {
+        long lastId = journal.lastId();
+        for (String key : keys) {
+            lastId = journal.record(key, key, lastId).id();
+        }
+    }
+
+    private static List<Long> ids(List<TaskEventJournal.Event> events) {
+        return events.stream().map(TaskEventJournal.Event::id).toList();
+    }
+
+    private static void idle() throws InterruptedException {
+        Thread.sleep(IDLE_TIMEOUT_MS * 2);
+    }
+
+    private static TaskEventJournal journals() {
+        Map<String, String> values = Map.of(
+                TaskEventJournal.MAX_EVENTS, "100",
+                TaskEventJournal.MAX_BYTES_PER_TASK, "1048576",
+                TaskEventJournal.MAX_BYTES, "10485760",
+                TaskEventJournal.IDLE_TIMEOUT, String.valueOf(IDLE_TIMEOUT_MS));
+        TaskEventJournal journals = new TaskEventJournal();
+        journals.configProvider = new A2AConfigProvider() {
+            @Override
+            public String getValue(String name) {
+                return values.get(name);
+            }
+
+            @Override
+            public Optional<String> getOptionalValue(String name) {
+                return Optional.ofNullable(values.get(name));
+            }
+        };
+        journals.init();
+        return journals;
+    }
+}
@@ -0,0 +1,176 @@
+package org.wildfly.extras.a2a.server.apps.common;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import io.a2a.server.config.A2AConfigProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks how {@link TenantBulkheads} queues the tasks of a tenant, hands the slot of a finished task over to the
+ * next one, and fails the tasks the executor turns down instead of running them on the thread that found them
+ * turned down.
+ */
+public class TenantBulkheadsTest {
+
+    private final List<String> ran = new ArrayList<>();
+    private final List<String> rejected = new ArrayList<>();
+
+    @Test
+    public void testQueueAndHandOver() {
+        TenantBulkheads bulkheads = bulkheads(1, 1);
+        ManualExecutor executor = new ManualExecutor();
+
+        execute(bulkheads, executor, "a");
+        execute(bulkheads, executor, "b");
+        execute(bulkheads, executor, "c");
+
+        assertEquals(1, executor.tasks.size());
+        assertEquals(1, bulkheads.getActiveCount("acme"));
+        assertEquals(1, bulkheads.getQueueDepth("acme"));
+        assertEquals(List.of("c"), rejected);
+        assertEquals(1, bulkheads.getRejectedCount("acme"));
+
+        // The slot of a goes to b, which waits for a thread of the executor rather than running right away
+        executor.runNext();
+        assertEquals(List.of("a"), ran);
+        assertEquals(1, executor.tasks.size());
+        assertEquals(1, bulkheads.getActiveCount("acme"));
+        assertEquals(0, bulkheads.getQueueDepth("acme"));
+
+        executor.runNext();
+        assertEquals(List.of("a", "b"), ran);
+        assertEquals(0, bulkheads.getActiveCount("acme"));
+    }
+
+    @Test
+    public void testQueuedTasksTurnedDownAreFailed() {
+        TenantBulkheads bulkheads = bulkheads(1, 2);
+        ManualExecutor executor = new ManualExecutor();
+        execute(bulkheads, executor, "a");
+        execute(bulkheads, executor, "b");
+        execute(bulkheads, executor, "c");
+
+        executor.reject = true;
+        executor.runNext();
+
+        assertEquals(List.of("a"), ran);
+        assertEquals(List.of("b", "c"), rejected);
+        assertTrue(executor.tasks.isEmpty());
+        assertEquals(0, bulkheads.getActiveCount("acme"));
+        assertEquals(0, bulkheads.getQueueDepth("acme"));
+
+        // The slots are free again
+        executor.reject = false;
+        execute(bulkheads, executor, "d");
+        executor.runNext();
+        assertEquals(List.of("a", "d"), ran);
+    }
+
+    @Test
+    public void testQueuedTaskIsHandedOverPastOneTurnedDown() {
+        TenantBulkheads bulkheads = bulkheads(1, 2);
+        ManualExecutor executor = new ManualExecutor();
+        execute(bulkheads, executor, "a");
+        execute(bulkheads, executor, "b");
+        execute(bulkheads, executor, "c");
+
+        executor.rejections = 1;
+        executor.runNext();
+
+        assertEquals(List.of("b"), rejected);
+        assertEquals(1, executor.tasks.size());
+        assertEquals(1, bulkheads.getActiveCount("acme"));
+        executor.runNext();
+        assertEquals(List.of("a", "c"), ran);
+        assertEquals(0, bulkheads.getActiveCount("acme"));
+    }
+
+    @Test
+    public void testTaskTurnedDownRightAway() {
+        TenantBulkheads bulkheads = bulkheads(1, 1);
+        ManualExecutor executor = new ManualExecutor();
+        executor.reject = true;
+
+        execute(bulkheads, executor, "a");
+
+        assertEquals(List.of("a"), rejected);
+        assertEquals(0, bulkheads.getActiveCount("acme"));
+
+        executor.reject = false;
+        execute(bulkheads, executor, "b");
+        executor.runNext();
+        assertEquals(List.of("b"), ran);
+    }
+
+    @Test
+    public void testTenantWithoutLimit() {
+        TenantBulkheads bulkheads = bulkheads(0, 1);
+        ManualExecutor executor = new ManualExecutor();
+
+        execute(bulkheads, executor, "a");
+        execute(bulkheads, executor, "b");
+        assertEquals(2, executor.tasks.size());
+        assertTrue(bulkheads.getTenants().isEmpty());
+
+        executor.reject = true;
+        execute(bulkheads, executor, "c");
+        assertEquals(List.of("c"), rejected);
+    }
+
+    private void execute(TenantBulkheads bulkheads, Executor executor, String name) {
+        bulkheads.execute("acme", executor, () -> ran.add(name), () -> rejected.add(name));
+    }
+
+    private static TenantBulkheads bulkheads(int maxConcurrency, int queueSize) {
+        Map<String, String> values = Map.of(
+                TenantBulkheads.MAX_CONCURRENCY, String.valueOf(maxConcurrency),
+                TenantBulkheads.QUEUE_SIZE, String.valueOf(queueSize),
+                TenantBulkheads.MAX_TENANTS, "10",
+                TenantBulkheads.OVERRIDES, "");
+        TenantBulkheads bulkheads = new TenantBulkheads();
+        bulkheads.configProvider = new A2AConfigProvider() {
+            @Override
+            public String getValue(String name) {
+                return values.get(name);
+            }
+
+            @Override
+            public Optional<String> getOptionalValue(String name) {
+                return Optional.ofNullable(values.get(name));
+            }
+        };
+        bulkheads.init();
+        return bulkheads;
+    }
+
+    /**
+     * Keeps the tasks until the test runs them, and turns them down while told to.
+     */
+    private static final class ManualExecutor implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean reject;
+        private int rejections;
+
+        @Override
+        public void execute(Runnable task) {
+            if (reject || rejections > 0) {
+                rejections--;
+                throw new RejectedExecutionException("Saturated");
+            }
+            tasks.add(task);
+        }
+
+        void runNext() {
+            tasks.remove().run();
+        }
+    }
+}
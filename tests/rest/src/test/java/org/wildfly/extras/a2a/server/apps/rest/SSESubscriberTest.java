@@ -0,0 +1,64 @@
+package org.wildfly.extras.a2a.server.apps.rest;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link SSESubscriber} reads the status of the events it gets as JSON from where it belongs, and not
+ * from members of the same name elsewhere in the event.
+ */
+public class SSESubscriberTest {
+
+    @Test
+    public void testStatusUpdate() {
+        SSESubscriber.Status status = SSESubscriber.readStatus("""
+                {"statusUpdate": {"taskId": "task-1", "contextId": "context-1",
+                  "status": {"state": "TASK_STATE_WORKING", "timestamp": "2026-10-17T10:15:30.123Z"}}}""");
+
+        assertTrue(status.update());
+        assertFalse(status.isFinal());
+        assertEquals(Instant.parse("2026-10-17T10:15:30.123Z"), status.timestamp());
+    }
+
+    @Test
+    public void testFinalStatusUpdate() {
+        SSESubscriber.Status status = SSESubscriber.readStatus("""
+                {"statusUpdate": {"taskId": "task-1", "status": {"state": "TASK_STATE_COMPLETED"}, "final": true}}""");
+
+        assertTrue(status.update());
+        assertTrue(status.isFinal());
+        assertNull(status.timestamp());
+    }
+
+    @Test
+    public void testMembersElsewhereDoNotCount() {
+        SSESubscriber.Status status = SSESubscriber.readStatus("""
+                {"statusUpdate": {"taskId": "task-1",
+                  "metadata": {"timestamp": "2000-01-01T00:00:00Z", "final": true},
+                  "status": {
+                    "message": {"role": "ROLE_AGENT", "parts": [{"text": "\\"final\\": true"}],
+                      "metadata": {"timestamp": "2000-01-01T00:00:00Z"}},
+                    "state": "TASK_STATE_WORKING",
+                    "timestamp": "2026-10-17T10:15:30Z"}}}""");
+
+        assertTrue(status.update());
+        assertFalse(status.isFinal());
+        assertEquals(Instant.parse("2026-10-17T10:15:30Z"), status.timestamp());
+    }
+
+    @Test
+    public void testOtherEvents() {
+        assertSame(SSESubscriber.Status.NONE, SSESubscriber.readStatus("""
+                {"task": {"id": "task-1", "status": {"state": "TASK_STATE_WORKING", "timestamp": "2026-10-17T10:15:30Z"}}}"""));
+        assertSame(SSESubscriber.Status.NONE, SSESubscriber.readStatus("""
+                {"artifactUpdate": {"taskId": "task-1", "metadata": {"statusUpdate": {"final": true}}}}"""));
+        assertSame(SSESubscriber.Status.NONE, SSESubscriber.readStatus("{\"statusUpdate\": "));
+    }
+}
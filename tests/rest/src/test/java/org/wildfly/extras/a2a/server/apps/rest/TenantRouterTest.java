@@ -0,0 +1,124 @@
+package org.wildfly.extras.a2a.server.apps.rest;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.wildfly.extras.a2a.server.apps.common.TenantRouter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the {@link TenantRouter} of each transport resolves the same tenants as the {@code extractTenant}
+ * methods the transports had before, which are kept here as they were to compare with.
+ */
+public class TenantRouterTest {
+
+    static Stream<Arguments> restPaths() {
+        return Stream.of(
+                Arguments.of(null, ""),
+                Arguments.of("", ""),
+                Arguments.of("/", ""),
+                Arguments.of("/message:send", ""),
+                Arguments.of("/message:stream", ""),
+                Arguments.of("/tasks", ""),
+                Arguments.of("/tasks/", ""),
+                Arguments.of("/tasks/task-1", ""),
+                Arguments.of("/tasks/task-1:subscribe", ""),
+                Arguments.of("/tasks/task-1:cancel", ""),
+                Arguments.of("/tasks/task-1/pushNotificationConfigs/config-1", ""),
+                Arguments.of("/card", ""),
+                Arguments.of("/extendedAgentCard", ""),
+                Arguments.of("/.well-known/agent-card.json", ""),
+                Arguments.of("/tenant1/message:send", "tenant1"),
+                Arguments.of("/tenant1/message:stream", "tenant1"),
+                Arguments.of("/tenant1/tasks", "tenant1"),
+                Arguments.of("/tenant1/tasks/", "tenant1"),
+                Arguments.of("/tenant1/tasks/task-1:subscribe", "tenant1"),
+                Arguments.of("/tenant1/card", "tenant1"),
+                Arguments.of("/tenant1/extendedAgentCard", "tenant1"),
+                Arguments.of("/tenant1/.well-known/agent-card.json", "tenant1"),
+                Arguments.of("/tenant1", "tenant1"),
+                Arguments.of("/tenant1/", "tenant1"),
+                Arguments.of("tenant1/message:send", "tenant1"),
+                // Segments that only start like an endpoint are tenants
+                Arguments.of("/messages/message:send", "messages"),
+                Arguments.of("/task/tasks", "task"),
+                Arguments.of("/cards/card", "cards"));
+    }
+
+    static Stream<Arguments> jsonRpcPaths() {
+        return Stream.of(
+                Arguments.of(null, ""),
+                Arguments.of("", ""),
+                Arguments.of("/", ""),
+                Arguments.of("//", ""),
+                Arguments.of("/tenant1", "tenant1"),
+                Arguments.of("/tenant1/", "tenant1"),
+                Arguments.of("tenant1", "tenant1"),
+                Arguments.of("/tenant1/sub", "tenant1/sub"),
+                Arguments.of("/tenant1/sub/", "tenant1/sub"),
+                Arguments.of("/.well-known/agent-card.json", ".well-known/agent-card.json"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("restPaths")
+    public void testFirstSegment(String path, String tenant) {
+        assertEquals(tenant, restExtractTenant(path));
+        assertEquals(restExtractTenant(path), A2ARestServerResource.TENANT_ROUTER.resolve(path));
+    }
+
+    @ParameterizedTest
+    @MethodSource("jsonRpcPaths")
+    public void testWholePath(String path, String tenant) {
+        assertEquals(tenant, jsonRpcExtractTenant(path));
+        assertEquals(jsonRpcExtractTenant(path), TenantRouter.WHOLE_PATH.resolve(path));
+    }
+
+    /**
+     * {@code A2ARestServerResource.extractTenant} before {@link TenantRouter}.
+     */
+    private static String restExtractTenant(String requestURI) {
+        if (requestURI == null || requestURI.isBlank()) {
+            return "";
+        }
+        if (requestURI.startsWith("/")) {
+            requestURI = requestURI.substring(1);
+        }
+        int slashIndex = requestURI.indexOf('/');
+        int colonIndex = requestURI.indexOf(':');
+        String firstSegment;
+        if (colonIndex >= 0 && (slashIndex < 0 || colonIndex < slashIndex)) {
+            firstSegment = requestURI.substring(0, colonIndex);
+        } else if (slashIndex > 0) {
+            firstSegment = requestURI.substring(0, slashIndex);
+        } else {
+            firstSegment = requestURI;
+        }
+        if (firstSegment.equals("message") ||
+            firstSegment.equals("tasks") ||
+            firstSegment.equals("card") ||
+            firstSegment.equals("extendedAgentCard") ||
+            firstSegment.equals(".well-known")) {
+            return "";
+        }
+        return firstSegment;
+    }
+
+    /**
+     * {@code A2AServerResource.extractTenant} before {@link TenantRouter}.
+     */
+    private static String jsonRpcExtractTenant(String tenantPath) {
+        if (tenantPath == null || tenantPath.isBlank()) {
+            return "";
+        }
+        if (tenantPath.startsWith("/")) {
+            tenantPath = tenantPath.substring(1);
+        }
+        if (tenantPath.endsWith("/")) {
+            tenantPath = tenantPath.substring(0, tenantPath.length() - 1);
+        }
+        return tenantPath;
+    }
+}
@@ -25,10 +25,12 @@ import io.a2a.spec.TaskArtifactUpdateEvent;
 import io.a2a.spec.TaskPushNotificationConfig;
 import io.a2a.spec.TaskStatusUpdateEvent;
 import org.wildfly.extras.a2a.server.apps.rest.A2ARestServerResource;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractA2ATestResource;
 
 @Path("/test")
 @ApplicationScoped
-public class A2ATestResource {
+public class A2ATestResource extends AbstractA2ATestResource {
+
     @Inject
     TestUtilsBean testUtilsBean;
 
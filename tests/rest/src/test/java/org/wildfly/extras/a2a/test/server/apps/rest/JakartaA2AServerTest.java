@@ -1,7 +1,16 @@
 package org.wildfly.extras.a2a.test.server.apps.rest;
 
 import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
 
 import com.google.api.AnnotationsProto;
 import com.google.common.collect.ImmutableSet;
@@ -22,10 +31,19 @@ import io.a2a.integrations.microprofile.MicroProfileConfigProvider;
 import io.a2a.jsonrpc.common.json.JsonUtil;
 import io.a2a.server.PublicAgentCard;
 import io.a2a.server.apps.common.AbstractA2AServerTest;
+import io.a2a.spec.Artifact;
 import io.a2a.spec.Event;
+import io.a2a.spec.Task;
+import io.a2a.spec.TaskState;
+import io.a2a.spec.TaskStatus;
+import io.a2a.spec.TaskStatusUpdateEvent;
+import io.a2a.spec.TextPart;
 import io.a2a.spec.TransportProtocol;
 import io.a2a.transport.rest.handler.RestHandler;
 import io.a2a.util.Assert;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import io.restassured.response.Response;
 import mutiny.zero.ZeroPublisher;
 import org.jboss.arquillian.container.test.api.Deployment;
@@ -35,11 +53,18 @@ import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.junit.jupiter.api.Test;
+import org.wildfly.extras.a2a.server.apps.common.AsyncSseWriter;
 import org.wildfly.extras.a2a.server.apps.rest.A2ARestServerResource;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractA2ATestResource;
+import org.wildfly.extras.a2a.test.server.apps.common.TestMeterRegistryProducer;
+import org.wildfly.extras.a2a.test.server.apps.common.TestOpenTelemetryProducer;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 
@@ -96,6 +121,13 @@ public class JakartaA2AServerTest extends AbstractA2AServerTest {
                 getJarForClass(ImmutableSet.class),
                 // a2a-java-sdk-jakarta-rest.jar - contains WildFlyRestTransportMetadata
                 getJarForClass(A2ARestServerResource.class),
+                // a2a-java-sdk-jakarta-common.jar - code shared by the transports
+                getJarForClass(AsyncSseWriter.class),
+                // opentelemetry-sdk-trace.jar, opentelemetry-sdk-common.jar and opentelemetry-sdk-testing.jar, to record
+                // the spans in memory
+                getJarForClass(SdkTracerProvider.class),
+                getJarForClass(CompletableResultCode.class),
+                getJarForClass(InMemorySpanExporter.class),
                 //a2a-java-sdk-microprofile-config.jar (needed to configure a2a-java settings via MP Config)
                 getJarForClass(MicroProfileConfigProvider.class),
                 // mutiny-zero.jar. This is provided by some WildFly layers, but not always, and not in
@@ -114,15 +146,37 @@ public class JakartaA2AServerTest extends AbstractA2AServerTest {
                 // Extra dependencies needed by the tests
                 .addPackage(AbstractA2AServerTest.class.getPackage())
                 .addPackage(A2ATestResource.class.getPackage())
+                // The endpoints and beans the A2ATestResource of each transport shares
+                .addClasses(AbstractA2ATestResource.class, TestMeterRegistryProducer.class,
+                        TestOpenTelemetryProducer.class)
                 // Add deployment descriptors
                 .addAsManifestResource("META-INF/beans.xml", "beans.xml")
                 .addAsWebInfResource("WEB-INF/web.xml", "web.xml")
                 // Add test properties file for AgentCardProducer
-                .addAsResource("a2a-requesthandler-test.properties");
+                .addAsResource("a2a-requesthandler-test.properties")
+                .addAsResource("META-INF/microprofile-config.properties");
         archive.toString(true);
         return archive;
     }
 
+    /**
+     * Waits for the calls to be recorded, which happens once the response is written and may be just after
+     * the client got it.
+     */
+    private static long awaitRequestCount(String method, String outcome, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        long count = requestCount(method, outcome);
+        while (count < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            count = requestCount(method, outcome);
+        }
+        return count;
+    }
+
+    private static long requestCount(String method, String outcome) {
+        return Long.parseLong(given().get("/test/metrics/requests/" + method + "/" + outcome).asString());
+    }
+
     static JavaArchive getJarForClass(Class<?> clazz) throws Exception {
         File f = new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
         return ShrinkWrap.createFromZipFile(JavaArchive.class, f);
@@ -150,4 +204,494 @@ public class JakartaA2AServerTest extends AbstractA2AServerTest {
         }
     }
 
+    @Test
+    public void testAgentCardConditionalGet() {
+        Response response = given()
+                .when()
+                .get("/.well-known/agent-card.json")
+                .then()
+                .statusCode(200)
+                .extract()
+                .response();
+        String etag = response.getHeader("ETag");
+        assertNotNull(etag, "The agent card should have an ETag");
+        assertNotNull(response.getHeader("Cache-Control"), "The agent card should have a Cache-Control header");
+
+        given()
+                .header("If-None-Match", etag)
+                .when()
+                .get("/.well-known/agent-card.json")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    public void testCallsAreMeasured() throws Exception {
+        long failedBefore = requestCount("GetTask", "error");
+        given()
+                .when()
+                .get("/tasks/metrics-missing-task")
+                .then()
+                .statusCode(greaterThanOrEqualTo(400));
+
+        // Recorded under the JSON-RPC name of the method, as for the other transports
+        assertTrue(awaitRequestCount("GetTask", "error", failedBefore + 1) > failedBefore,
+                "The failed GetTask should be recorded");
+    }
+
+    @Test
+    public void testLargeResponseIsCompressed() throws Exception {
+        String taskId = "compressed-" + UUID.randomUUID();
+        Task task = Task.builder()
+                .id(taskId)
+                .contextId("compressed")
+                .status(new TaskStatus(TaskState.COMPLETED))
+                .artifacts(List.of(Artifact.builder()
+                        .artifactId("report")
+                        .parts(List.of(new TextPart("A long generated report. ".repeat(1000))))
+                        .build()))
+                .build();
+        given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(JsonUtil.toJson(task))
+                .post("/test/task")
+                .then()
+                .statusCode(200);
+        try {
+            Response response = given()
+                    .header("Accept-Encoding", "gzip")
+                    .when()
+                    .get("/tasks/" + taskId)
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .response();
+            assertEquals("gzip", response.getHeader("Content-Encoding"));
+            assertEquals(taskId, response.jsonPath().getString("id"));
+
+            // Above the threshold too, but the client does not accept compression
+            response = given()
+                    .header("Accept-Encoding", "identity")
+                    .when()
+                    .get("/tasks/" + taskId)
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .response();
+            assertNull(response.getHeader("Content-Encoding"));
+        } finally {
+            given().delete("/test/task/" + taskId);
+        }
+    }
+
+    @Test
+    public void testManyConcurrentStreamsOnSmallWorkerPool() throws Exception {
+        // src/scripts/configure_worker_pool.cli caps the server worker pool at 16 threads, so the streams
+        // below can only be open at the same time if an open stream does not hold on to a thread
+        int streams = Integer.getInteger("test.concurrent.streams", 2000);
+        String taskId = "concurrent-streams-" + UUID.randomUUID();
+        Task task = Task.builder()
+                .id(taskId)
+                .contextId("concurrent-streams")
+                .status(new TaskStatus(TaskState.SUBMITTED))
+                .build();
+        given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(JsonUtil.toJson(task))
+                .post("/test/task")
+                .then()
+                .statusCode(200);
+        given().post("/test/queue/ensure/" + taskId)
+                .then()
+                .statusCode(200);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        List<OpenStreamSubscriber> subscribers = new ArrayList<>();
+        try {
+            for (int i = 0; i < streams; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:8080/tasks/" + taskId + ":subscribe"))
+                        .header("Accept", jakarta.ws.rs.core.MediaType.SERVER_SENT_EVENTS)
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build();
+                OpenStreamSubscriber subscriber = new OpenStreamSubscriber();
+                subscribers.add(subscriber);
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber));
+            }
+            String allOpen = given().post("/test/queue/awaitChildCountStable/" + taskId + "/" + streams + "/120000")
+                    .then()
+                    .statusCode(200)
+                    .extract()
+                    .asString();
+            assertEquals("true", allOpen, "All streams should be open at the same time");
+        } finally {
+            subscribers.forEach(OpenStreamSubscriber::cancel);
+        }
+
+        // Dropping the connections must release every child queue
+        String allClosed = given().post("/test/queue/awaitChildCountStable/" + taskId + "/0/120000")
+                .then()
+                .statusCode(200)
+                .extract()
+                .asString();
+        assertEquals("true", allClosed, "All child queues should be released once the clients disconnect");
+        given().delete("/test/task/" + taskId);
+    }
+
+    @Test
+    public void testIdleStreamReceivesHeartbeats() throws Exception {
+        // META-INF/microprofile-config.properties sets a short heartbeat interval
+        String taskId = "heartbeat-" + UUID.randomUUID();
+        Task task = Task.builder()
+                .id(taskId)
+                .contextId("heartbeat")
+                .status(new TaskStatus(TaskState.SUBMITTED))
+                .build();
+        given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(JsonUtil.toJson(task))
+                .post("/test/task")
+                .then()
+                .statusCode(200);
+        given().post("/test/queue/ensure/" + taskId)
+                .then()
+                .statusCode(200);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:8080/tasks/" + taskId + ":subscribe"))
+                .header("Accept", jakarta.ws.rs.core.MediaType.SERVER_SENT_EVENTS)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        OpenStreamSubscriber subscriber = new OpenStreamSubscriber();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber));
+        try {
+            assertTrue(subscriber.heartbeat.await(10, TimeUnit.SECONDS), "An idle stream should receive heartbeats");
+        } finally {
+            subscriber.cancel();
+            given().delete("/test/task/" + taskId);
+        }
+    }
+
+    @Test
+    public void testResubscribeReplaysMissedEvents() throws Exception {
+        String taskId = "replay-" + UUID.randomUUID();
+        Task task = Task.builder()
+                .id(taskId)
+                .contextId("replay")
+                .status(new TaskStatus(TaskState.SUBMITTED))
+                .build();
+        given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(JsonUtil.toJson(task))
+                .post("/test/task")
+                .then()
+                .statusCode(200);
+        given().post("/test/queue/ensure/" + taskId)
+                .then()
+                .statusCode(200);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        OpenStreamSubscriber first = new OpenStreamSubscriber();
+        OpenStreamSubscriber second = new OpenStreamSubscriber();
+        try {
+            httpClient.sendAsync(subscribeRequest(taskId, null), HttpResponse.BodyHandlers.fromLineSubscriber(first));
+            given().post("/test/queue/awaitChildCountStable/" + taskId + "/1/15000")
+                    .then()
+                    .statusCode(200);
+            for (int i = 0; i < 3; i++) {
+                TaskStatusUpdateEvent event = TaskStatusUpdateEvent.builder()
+                        .taskId(taskId)
+                        .contextId("replay")
+                        .status(new TaskStatus(TaskState.WORKING))
+                        .build();
+                given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                        .body(JsonUtil.toJson(event))
+                        .post("/test/queue/enqueueTaskStatusUpdateEvent/" + taskId)
+                        .then()
+                        .statusCode(200);
+            }
+            List<Long> seen = first.awaitEventIds(3);
+            assertTrue(seen.size() >= 3, "The first stream should receive the events");
+
+            // Reconnect as if the last event had been lost
+            long lastEventId = seen.get(seen.size() - 2);
+            httpClient.sendAsync(subscribeRequest(taskId, lastEventId), HttpResponse.BodyHandlers.fromLineSubscriber(second));
+            List<Long> replayed = second.awaitEventIds(1);
+            assertTrue(replayed.size() >= 1, "The second stream should receive the missed event");
+            assertEquals(seen.get(seen.size() - 1), replayed.get(0), "Only the missed event should be replayed");
+        } finally {
+            first.cancel();
+            second.cancel();
+            given().delete("/test/task/" + taskId);
+        }
+    }
+
+    @Test
+    public void testMessageStreamCanBeResumed() throws Exception {
+        String taskId = "resume-message-" + UUID.randomUUID();
+        Task task = Task.builder()
+                .id(taskId)
+                .contextId("resume-message")
+                .status(new TaskStatus(TaskState.SUBMITTED))
+                .build();
+        given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(JsonUtil.toJson(task))
+                .post("/test/task")
+                .then()
+                .statusCode(200);
+        given().post("/test/queue/ensure/" + taskId)
+                .then()
+                .statusCode(200);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpRequest streamRequest = HttpRequest.newBuilder(URI.create("http://localhost:8080/message:stream"))
+                .header("Accept", jakarta.ws.rs.core.MediaType.SERVER_SENT_EVENTS)
+                .header("Content-Type", jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .POST(HttpRequest.BodyPublishers.ofString("""
+                        {
+                          "message": {
+                            "messageId": "message-%s",
+                            "contextId": "resume-message",
+                            "taskId": "%s",
+                            "role": "ROLE_USER",
+                            "parts": [{"text": "resume me"}]
+                          }
+                        }""".formatted(taskId, taskId)))
+                .build();
+        OpenStreamSubscriber stream = new OpenStreamSubscriber();
+        OpenStreamSubscriber resumed = new OpenStreamSubscriber();
+        try {
+            httpClient.sendAsync(streamRequest, HttpResponse.BodyHandlers.fromLineSubscriber(stream));
+            List<Long> seen = stream.awaitEventIds(1);
+            assertTrue(seen.size() >= 1, "The message stream should receive an event");
+
+            // The message stream numbers its events as the task does, so it can be resumed on the task
+            long eventId = seen.get(0);
+            httpClient.sendAsync(subscribeRequest(taskId, eventId - 1), HttpResponse.BodyHandlers.fromLineSubscriber(resumed));
+            List<Long> replayed = resumed.awaitEventIds(1);
+            assertTrue(replayed.size() >= 1, "Subscribing to the task should replay the event of the message stream");
+            assertEquals(eventId, replayed.get(0), "The event should keep its id when replayed");
+        } finally {
+            stream.cancel();
+            resumed.cancel();
+            given().delete("/test/task/" + taskId);
+        }
+    }
+
+    @Test
+    public void testStreamEventsAreTraced() throws Exception {
+        String taskId = "traced-" + UUID.randomUUID();
+        String traceId = UUID.randomUUID().toString().replace("-", "");
+        Task task = Task.builder()
+                .id(taskId)
+                .contextId("traced")
+                .status(new TaskStatus(TaskState.SUBMITTED))
+                .build();
+        given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(JsonUtil.toJson(task))
+                .post("/test/task")
+                .then()
+                .statusCode(200);
+        given().post("/test/queue/ensure/" + taskId)
+                .then()
+                .statusCode(200);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:8080/tasks/" + taskId + ":subscribe"))
+                .header("Accept", jakarta.ws.rs.core.MediaType.SERVER_SENT_EVENTS)
+                .header("traceparent", "00-" + traceId + "-00f067aa0ba902b7-01")
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        OpenStreamSubscriber subscriber = new OpenStreamSubscriber();
+        try {
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber));
+            given().post("/test/queue/awaitChildCountStable/" + taskId + "/1/15000")
+                    .then()
+                    .statusCode(200);
+            for (int i = 0; i < 2; i++) {
+                TaskStatusUpdateEvent event = TaskStatusUpdateEvent.builder()
+                        .taskId(taskId)
+                        .contextId("traced")
+                        .status(new TaskStatus(TaskState.WORKING))
+                        .build();
+                given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                        .body(JsonUtil.toJson(event))
+                        .post("/test/queue/enqueueTaskStatusUpdateEvent/" + taskId)
+                        .then()
+                        .statusCode(200);
+            }
+            assertTrue(subscriber.awaitEventIds(2).size() >= 2, "The stream should receive the events");
+        } finally {
+            subscriber.cancel();
+            given().delete("/test/task/" + taskId);
+        }
+
+        // The span ends once the server sees the client is gone, each event written being one of its events
+        String span = awaitSpan("SubscribeToTask", traceId);
+        assertNotNull(span, "The stream should be traced in the trace of the client");
+        assertTrue(Integer.parseInt(span.substring(span.lastIndexOf(' ') + 1)) >= 2,
+                "The events of the stream should be recorded on its span: " + span);
+    }
+
+    @Test
+    public void testStreamEventLatencyIsRecorded() throws Exception {
+        long queuedBefore = latencyCount("queue");
+        long formattedBefore = latencyCount("format");
+        long writtenBefore = latencyCount("write");
+        String taskId = "latency-" + UUID.randomUUID();
+        Task task = Task.builder()
+                .id(taskId)
+                .contextId("latency")
+                .status(new TaskStatus(TaskState.SUBMITTED))
+                .build();
+        given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                .body(JsonUtil.toJson(task))
+                .post("/test/task")
+                .then()
+                .statusCode(200);
+        given().post("/test/queue/ensure/" + taskId)
+                .then()
+                .statusCode(200);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        OpenStreamSubscriber subscriber = new OpenStreamSubscriber();
+        try {
+            httpClient.sendAsync(subscribeRequest(taskId, null), HttpResponse.BodyHandlers.fromLineSubscriber(subscriber));
+            given().post("/test/queue/awaitChildCountStable/" + taskId + "/1/15000")
+                    .then()
+                    .statusCode(200);
+            // The status gets its timestamp here, which is when the agent would emit it
+            TaskStatusUpdateEvent event = TaskStatusUpdateEvent.builder()
+                    .taskId(taskId)
+                    .contextId("latency")
+                    .status(new TaskStatus(TaskState.WORKING))
+                    .build();
+            given().contentType(jakarta.ws.rs.core.MediaType.APPLICATION_JSON)
+                    .body(JsonUtil.toJson(event))
+                    .post("/test/queue/enqueueTaskStatusUpdateEvent/" + taskId)
+                    .then()
+                    .statusCode(200);
+            assertTrue(subscriber.awaitEventIds(1).size() >= 1, "The stream should receive the event");
+
+            // META-INF/microprofile-config.properties enables the lag comments
+            List<String> comments = subscriber.lagComments();
+            assertEquals(1, comments.size(), "The event should be preceded by a lag comment: " + comments);
+            assertTrue(comments.get(0).matches(": lag queue-ms=[0-9.]+ format-ms=[0-9.]+ sent=[0-9]+"),
+                    "Unexpected lag comment: " + comments.get(0));
+        } finally {
+            subscriber.cancel();
+            given().delete("/test/task/" + taskId);
+        }
+
+        assertTrue(latencyCount("queue") > queuedBefore, "The queue latency should be recorded");
+        assertTrue(latencyCount("format") > formattedBefore, "The format latency should be recorded");
+        assertTrue(latencyCount("write") > writtenBefore, "The write latency should be recorded");
+    }
+
+    private static long latencyCount(String stage) {
+        return Long.parseLong(given().get("/test/metrics/latency/" + stage).asString());
+    }
+
+    /**
+     * Waits for the span of the method in the trace to end.
+     *
+     * @return the span as listed by {@code /test/tracing/spans}, {@code null} if it did not end in time
+     */
+    private static String awaitSpan(String method, String traceId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            for (String span : given().get("/test/tracing/spans/" + method).asString().split("\n")) {
+                if (span.startsWith(traceId + " ")) {
+                    return span;
+                }
+            }
+            Thread.sleep(50);
+        }
+        return null;
+    }
+
+    private static HttpRequest subscribeRequest(String taskId, Long lastEventId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:8080/tasks/" + taskId + ":subscribe"))
+                .header("Accept", jakarta.ws.rs.core.MediaType.SERVER_SENT_EVENTS)
+                .POST(HttpRequest.BodyPublishers.noBody());
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", String.valueOf(lastEventId));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Keeps an SSE response open without doing anything with the events, until cancelled.
+     */
+    private static class OpenStreamSubscriber implements Flow.Subscriber<String> {
+        private final CountDownLatch heartbeat = new CountDownLatch(1);
+        private final List<Long> eventIds = new ArrayList<>();
+        private final List<String> lagComments = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean cancelled;
+
+        @Override
+        public synchronized void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (cancelled) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String item) {
+            if (item.startsWith(": ping")) {
+                heartbeat.countDown();
+            } else if (item.startsWith(": lag")) {
+                synchronized (eventIds) {
+                    lagComments.add(item);
+                }
+            } else if (item.startsWith("id:")) {
+                synchronized (eventIds) {
+                    eventIds.add(Long.parseLong(item.substring(3).trim()));
+                    eventIds.notifyAll();
+                }
+            }
+        }
+
+        List<Long> awaitEventIds(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            synchronized (eventIds) {
+                while (eventIds.size() < count && System.currentTimeMillis() < deadline) {
+                    eventIds.wait(100);
+                }
+                return new ArrayList<>(eventIds);
+            }
+        }
+
+        List<String> lagComments() {
+            synchronized (eventIds) {
+                return new ArrayList<>(lagComments);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
 }
@@ -0,0 +1,154 @@
+package org.wildfly.extras.a2a.test.server.apps.rest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.container.test.api.RunAsClient;
+import org.jboss.arquillian.junit5.container.annotation.ArquillianTest;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.jupiter.api.Test;
+import org.wildfly.extras.a2a.server.apps.common.AsyncMessageSend;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractLimitsTest;
+import org.wildfly.extras.a2a.test.server.apps.common.AbstractStreamSoakTest;
+import org.wildfly.extras.a2a.test.server.apps.common.SseStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs into the limits of the server over REST, see {@link AbstractLimitsTest}.
+ */
+@ArquillianTest
+@RunAsClient
+public class LimitsTest extends AbstractLimitsTest {
+
+    @Deployment
+    public static WebArchive createTestArchive() throws Exception {
+        return configure(JakartaA2AServerTest.createTestArchive());
+    }
+
+    @Test
+    public void testSendBeyondTheLimitIsTurnedDown() throws Exception {
+        CompletableFuture<HttpResponse<String>> first = send(null, 2_000);
+        assertEquals(1, awaitGauge("a2a.limit.in.flight", 1));
+
+        HttpResponse<String> second = send(null, 0).get(10, TimeUnit.SECONDS);
+        assertEquals(503, second.statusCode());
+        assertEquals("1", second.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null));
+        assertTrue(second.body().contains(AsyncMessageSend.BUSY_MESSAGE), second.body());
+
+        assertEquals(200, first.get(10, TimeUnit.SECONDS).statusCode());
+        assertEquals(0, awaitGauge("a2a.limit.in.flight", 0));
+        // The place of the first send is free again
+        assertEquals(200, send(null, 0).get(10, TimeUnit.SECONDS).statusCode());
+    }
+
+    @Test
+    public void testSendToAKnownTaskReturnsItsSnapshot() throws Exception {
+        String taskId = createTask();
+        try {
+            long start = System.nanoTime();
+            HttpResponse<String> response = send(taskId, 3_000).get(10, TimeUnit.SECONDS);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // The snapshot of the task, taken after the timeout while the agent keeps running
+            assertEquals(200, response.statusCode());
+            assertTrue(elapsedMillis < 3_000, "The send took " + elapsedMillis + "ms");
+            assertTrue(response.body().contains(taskId), response.body());
+            assertFalse(response.body().contains("TASK_STATE_COMPLETED"), response.body());
+        } finally {
+            awaitGauge("a2a.limit.in.flight", 0);
+            deleteTask(taskId);
+        }
+    }
+
+    @Test
+    public void testSendOfANewTaskWaitsForTheAgent() throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(null, 2_500).get(10, TimeUnit.SECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // There is no task to take the snapshot of until the agent starts it, so the timeout starts again
+        assertEquals(200, response.statusCode());
+        assertTrue(elapsedMillis >= 2_500, "The send took " + elapsedMillis + "ms");
+        assertTrue(response.body().contains("TASK_STATE_COMPLETED"), response.body());
+    }
+
+    @Test
+    public void testSendIsTurnedDownWhileTheExecutorIsFull() throws Exception {
+        fillExecutor();
+        try {
+            HttpResponse<String> response = send(null, 0).get(10, TimeUnit.SECONDS);
+            assertEquals(503, response.statusCode());
+            assertEquals("1", response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null));
+            assertTrue(response.body().contains(AsyncMessageSend.BUSY_MESSAGE), response.body());
+        } finally {
+            releaseExecutor();
+        }
+        assertEquals(0, awaitGauge("a2a.limit.in.flight", 0));
+    }
+
+    @Test
+    public void testTaskLookupCompletesWhileTheExecutorIsFull() throws Exception {
+        String taskId = createTask();
+        fillExecutor();
+        try {
+            // Task lookups run on the control lane, not behind the agents
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:8080/tasks/" + taskId))
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertTrue(response.body().contains(taskId), response.body());
+        } finally {
+            releaseExecutor();
+            deleteTask(taskId);
+        }
+    }
+
+    @Test
+    public void testStreamsBeyondTheLimitAreTurnedDown() throws Exception {
+        String taskId = createTask();
+        SseStream first = SseStream.open(httpClient, subscribe(taskId), AbstractStreamSoakTest.Drop.AFTER_DELAY, 0,
+                () -> { });
+        try {
+            assertEquals(1, awaitGauge("a2a.stream.admission.open", 1));
+
+            // The tenant has its one stream already
+            HttpResponse<String> second = httpClient.send(subscribe(taskId), HttpResponse.BodyHandlers.ofString());
+            assertEquals(503, second.statusCode());
+            assertEquals("1", second.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null));
+            assertTrue(second.body().contains(AsyncMessageSend.BUSY_MESSAGE), second.body());
+            assertEquals(1, gauge("a2a.stream.admission.open"));
+        } finally {
+            first.drop();
+            deleteTask(taskId);
+        }
+        assertEquals(0, awaitGauge("a2a.stream.admission.open", 0));
+    }
+
+    private static HttpRequest subscribe(String taskId) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:8080/tasks/" + taskId + ":subscribe"))
+                .header(HttpHeaders.ACCEPT, MediaType.SERVER_SENT_EVENTS)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(String taskId, long delayMillis) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:8080/message:send"))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(sendMessageRequest(taskId, delayMillis)))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}